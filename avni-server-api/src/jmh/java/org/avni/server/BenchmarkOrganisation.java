@@ -0,0 +1,112 @@
+package org.avni.server;
+
+import org.avni.server.application.FormMapping;
+import org.avni.server.application.Subject;
+import org.avni.server.domain.*;
+import org.avni.server.domain.accessControl.GroupPrivilege;
+import org.avni.server.domain.accessControl.GroupPrivileges;
+import org.avni.server.domain.accessControl.Privilege;
+import org.avni.server.domain.accessControl.PrivilegeType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * The metadata of an organisation for the benchmarks. It is generated from a fixed seed, so every run works on the same
+ * organisation: each subject type has its encounter types, and its programs with their encounter types, and the user's
+ * groups allow viewing about two thirds of them.
+ */
+public class BenchmarkOrganisation {
+    public final List<SubjectType> subjectTypes = new ArrayList<>();
+    public final List<Program> programs = new ArrayList<>();
+    public final List<EncounterType> encounterTypes = new ArrayList<>();
+    public final List<ChecklistDetail> checklistDetails = new ArrayList<>();
+    public final List<FormMapping> registrationFormMappings = new ArrayList<>();
+    public final List<FormMapping> generalEncounterFormMappings = new ArrayList<>();
+    public final List<FormMapping> programEnrolmentFormMappings = new ArrayList<>();
+    public final List<FormMapping> programEncounterFormMappings = new ArrayList<>();
+    public final List<GroupPrivilege> groupPrivileges = new ArrayList<>();
+
+    private final Random random;
+    private long nextId = 1;
+
+    public BenchmarkOrganisation(int subjectTypeCount, int programCount, int encounterTypeCount) {
+        random = new Random(42);
+        for (int i = 0; i < programCount; i++) {
+            Program program = identified(new Program());
+            program.setName("Program " + i);
+            programs.add(program);
+        }
+        for (int i = 0; i < encounterTypeCount; i++) {
+            EncounterType encounterType = identified(new EncounterType());
+            encounterType.setName("Encounter type " + i);
+            encounterTypes.add(encounterType);
+        }
+        for (int i = 0; i < 2; i++) {
+            ChecklistDetail checklistDetail = identified(new ChecklistDetail());
+            checklistDetail.setName("Checklist " + i);
+            checklistDetails.add(checklistDetail);
+        }
+
+        for (int i = 0; i < subjectTypeCount; i++) {
+            SubjectType subjectType = identified(new SubjectType());
+            subjectType.setName("Subject type " + i);
+            subjectType.setType(i % 3 == 0 ? Subject.Person : Subject.Individual);
+            subjectType.setGroup(i % 3 == 2);
+            subjectTypes.add(subjectType);
+            registrationFormMappings.add(formMapping(subjectType, null, null));
+            allow(PrivilegeType.ViewSubject, subjectType, null, null, null);
+            for (ChecklistDetail checklistDetail : checklistDetails) allow(PrivilegeType.ViewChecklist, subjectType, null, null, checklistDetail);
+
+            for (EncounterType encounterType : encounterTypes) {
+                generalEncounterFormMappings.add(formMapping(subjectType, null, encounterType));
+                allow(PrivilegeType.ViewVisit, subjectType, null, encounterType, null);
+            }
+            for (Program program : programs) {
+                programEnrolmentFormMappings.add(formMapping(subjectType, program, null));
+                allow(PrivilegeType.ViewEnrolmentDetails, subjectType, program, null, null);
+                for (EncounterType encounterType : encounterTypes) {
+                    programEncounterFormMappings.add(formMapping(subjectType, program, encounterType));
+                    allow(PrivilegeType.ViewVisit, subjectType, program, encounterType, null);
+                }
+            }
+        }
+    }
+
+    public GroupPrivileges getGroupPrivileges() {
+        return new GroupPrivileges(false, groupPrivileges);
+    }
+
+    private <T extends CHSEntity> T identified(T entity) {
+        entity.setId(nextId++);
+        entity.setUuid(new UUID(random.nextLong(), random.nextLong()).toString());
+        return entity;
+    }
+
+    private FormMapping formMapping(SubjectType subjectType, Program program, EncounterType encounterType) {
+        FormMapping formMapping = identified(new FormMapping());
+        formMapping.setSubjectType(subjectType);
+        formMapping.setProgram(program);
+        formMapping.setEncounterType(encounterType);
+        formMapping.setEnableApproval(random.nextInt(4) == 0);
+        return formMapping;
+    }
+
+    private void allow(PrivilegeType privilegeType, SubjectType subjectType, Program program, EncounterType encounterType, ChecklistDetail checklistDetail) {
+        if (random.nextInt(3) == 0) return;
+        Privilege privilege = new Privilege();
+        ReflectionTestUtils.setField(privilege, "type", privilegeType);
+        GroupPrivilege groupPrivilege = identified(new GroupPrivilege());
+        groupPrivilege.setPrivilege(privilege);
+        groupPrivilege.setSubjectType(subjectType);
+        groupPrivilege.setProgram(program);
+        if (program == null) groupPrivilege.setEncounterType(encounterType);
+        else groupPrivilege.setProgramEncounterType(encounterType);
+        groupPrivilege.setChecklistDetail(checklistDetail);
+        groupPrivilege.setAllow(true);
+        groupPrivileges.add(groupPrivilege);
+    }
+}
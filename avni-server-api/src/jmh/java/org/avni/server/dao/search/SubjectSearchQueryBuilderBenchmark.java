@@ -0,0 +1,59 @@
+package org.avni.server.dao.search;
+
+import org.avni.server.web.request.webapp.search.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the search and count queries of a subject search that uses most of the filters of the search screen. Custom
+ * search result fields are left out as they are read from the application context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubjectSearchQueryBuilderBenchmark {
+    private List<Concept> concepts;
+    private PageDetails pageDetails;
+
+    @Setup
+    public void setup() {
+        concepts = Arrays.asList(
+                new Concept("a6a6d7b4-4ab0-4a21-9f4b-0b2b6b2a1c01", "registration", "Coded", Arrays.asList("b1c5e6a0-0f8f-4ac2-9a8c-7d1c2f0e3a01", "b1c5e6a0-0f8f-4ac2-9a8c-7d1c2f0e3a02"), null),
+                new Concept("a6a6d7b4-4ab0-4a21-9f4b-0b2b6b2a1c02", "programEnrolment", "Text", null, "value"),
+                new Concept("a6a6d7b4-4ab0-4a21-9f4b-0b2b6b2a1c03", "programEncounter", "Coded", Arrays.asList("b1c5e6a0-0f8f-4ac2-9a8c-7d1c2f0e3a03"), null));
+        pageDetails = new PageDetails();
+        pageDetails.setPaginationMode(PaginationMode.keyset);
+        pageDetails.setSortColumn("fullName");
+        pageDetails.setNumberOfRecordPerPage(20);
+        pageDetails.setSearchAfter(new SearchAfter("Ram Kumar", 42L));
+    }
+
+    @Benchmark
+    public SqlQuery build() {
+        return filtered().build();
+    }
+
+    @Benchmark
+    public SqlQuery buildCount() {
+        return filtered().forCount().build();
+    }
+
+    private SubjectSearchQueryBuilder filtered() {
+        return new SubjectSearchQueryBuilder()
+                .withNameFilter("ram kumar")
+                .withGenderFilter(Arrays.asList("c4d5e6f7-0000-4000-8000-000000000001", "c4d5e6f7-0000-4000-8000-000000000002"))
+                .withSubjectTypeFilter("d1e2f3a4-0000-4000-8000-000000000001")
+                .withAgeFilter(new IntegerRange(18, 60))
+                .withRegistrationDateFilter(new DateRange("2021-01-01", "2022-01-01"))
+                .withEncounterDateFilter(new DateRange("2021-01-01", "2022-01-01"))
+                .withProgramEnrolmentDateFilter(new DateRange("2021-01-01", "2022-01-01"))
+                .withProgramEncounterDateFilter(new DateRange("2021-01-01", "2022-01-01"))
+                .withAddressIdsFilter(Arrays.asList(101, 102, 103))
+                .withConceptsFilter(concepts)
+                .withIncludeVoidedFilter(false)
+                .withPaginationFilters(pageDetails);
+    }
+}
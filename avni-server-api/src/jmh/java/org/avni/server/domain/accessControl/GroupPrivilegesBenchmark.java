@@ -0,0 +1,57 @@
+package org.avni.server.domain.accessControl;
+
+import org.avni.server.BenchmarkOrganisation;
+import org.avni.server.application.FormMapping;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks every view privilege that sync asks for, once with the privileges of a user and once building the index for
+ * them, which is done for every request that loads the group privileges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GroupPrivilegesBenchmark {
+    @Param({"5"})
+    public int subjectTypes;
+
+    @Param({"6"})
+    public int programs;
+
+    @Param({"20"})
+    public int encounterTypes;
+
+    private BenchmarkOrganisation organisation;
+    private GroupPrivileges groupPrivileges;
+
+    @Setup
+    public void setup() {
+        organisation = new BenchmarkOrganisation(subjectTypes, programs, encounterTypes);
+        groupPrivileges = organisation.getGroupPrivileges();
+    }
+
+    @Benchmark
+    public void hasPrivilege(Blackhole blackhole) {
+        checkAll(groupPrivileges, blackhole);
+    }
+
+    @Benchmark
+    public void createAndHasPrivilege(Blackhole blackhole) {
+        checkAll(organisation.getGroupPrivileges(), blackhole);
+    }
+
+    private void checkAll(GroupPrivileges groupPrivileges, Blackhole blackhole) {
+        for (FormMapping formMapping : organisation.programEncounterFormMappings) {
+            blackhole.consume(groupPrivileges.hasPrivilege(PrivilegeType.ViewVisit, formMapping.getSubjectType(), formMapping.getProgram(), formMapping.getEncounterType(), null));
+        }
+        for (FormMapping formMapping : organisation.programEnrolmentFormMappings) {
+            blackhole.consume(groupPrivileges.hasPrivilege(PrivilegeType.ViewEnrolmentDetails, formMapping.getSubjectType(), formMapping.getProgram(), null, null));
+        }
+        for (FormMapping formMapping : organisation.generalEncounterFormMappings) {
+            blackhole.consume(groupPrivileges.hasPrivilege(PrivilegeType.ViewVisit, formMapping.getSubjectType(), null, formMapping.getEncounterType(), null));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.avni.server.exporter.v2;
+
+import org.avni.server.application.Form;
+import org.avni.server.application.FormElement;
+import org.avni.server.application.FormElementType;
+import org.avni.server.application.FormType;
+import org.avni.server.application.TestFormElementBuilder;
+import org.avni.server.dao.*;
+import org.avni.server.domain.*;
+import org.avni.server.domain.factory.UserBuilder;
+import org.avni.server.domain.factory.metadata.ConceptAnswerBuilder;
+import org.avni.server.domain.factory.metadata.ConceptBuilder;
+import org.avni.server.domain.factory.metadata.FormMappingBuilder;
+import org.avni.server.domain.factory.txn.SubjectBuilder;
+import org.avni.server.domain.metadata.SubjectTypeBuilder;
+import org.avni.server.exporter.ExportJobService;
+import org.avni.server.service.AddressLevelService;
+import org.avni.server.service.FormMappingService;
+import org.avni.server.service.ObservationService;
+import org.avni.server.web.external.request.export.ExportOutput;
+import org.avni.server.web.request.ExportOutputBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Extracts the csv fields of a page of subjects whose registration form has text, numeric, date, single and multi
+ * select questions and a repeatable question group, which covers each way an observation is written to the export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExportV2CSVFieldExtractorBenchmark {
+    private static final String SUBJECT_TYPE_UUID = "subject-type";
+    private static final int QUESTION_GROUP_REPEATS = 3;
+
+    @Param({"100"})
+    public int rows;
+
+    @Param({"40"})
+    public int questions;
+
+    private ExportV2CSVFieldExtractor extractor;
+    private List<LongitudinalExportItemRow> page;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        SubjectType subjectType = new SubjectTypeBuilder().setUuid(SUBJECT_TYPE_UUID).setName("Individual").build();
+        List<Concept> answers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) answers.add(new ConceptBuilder().withUuid(uuid(random)).withName("Answer " + i).withDataType(ConceptDataType.NA).build());
+
+        LinkedHashMap<String, FormElement> formElements = new LinkedHashMap<>();
+        for (int i = 0; i < questions; i++) {
+            ConceptDataType dataType;
+            FormElementType type = FormElementType.SingleSelect;
+            switch (i % 5) {
+                case 0: dataType = ConceptDataType.Text; break;
+                case 1: dataType = ConceptDataType.Numeric; break;
+                case 2: dataType = ConceptDataType.Date; break;
+                case 3: dataType = ConceptDataType.Coded; break;
+                default: dataType = ConceptDataType.Coded; type = FormElementType.MultiSelect;
+            }
+            ConceptBuilder conceptBuilder = new ConceptBuilder().withUuid(uuid(random)).withName("Question " + i).withDataType(dataType);
+            if (dataType == ConceptDataType.Coded) {
+                for (int j = 0; j < answers.size(); j++) conceptBuilder.withAnswers(new ConceptAnswerBuilder().withUUID(uuid(random)).withAnswerConcept(answers.get(j)).withOrder(j).build());
+            }
+            Concept concept = conceptBuilder.build();
+            formElements.put(concept.getUuid(), new TestFormElementBuilder().withConcept(concept).withType(type).build());
+        }
+        Concept questionGroupConcept = new ConceptBuilder().withUuid(uuid(random)).withName("Question group").withDataType(ConceptDataType.QuestionGroup).build();
+        FormElement questionGroup = new TestFormElementBuilder().withConcept(questionGroupConcept).withRepeatable(true).build();
+        formElements.put(questionGroupConcept.getUuid(), questionGroup);
+        List<Concept> childConcepts = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Concept childConcept = new ConceptBuilder().withUuid(uuid(random)).withName("Child question " + i).withDataType(ConceptDataType.Text).build();
+            childConcepts.add(childConcept);
+            formElements.put(childConcept.getUuid(), new TestFormElementBuilder().withQuestionGroupElement(questionGroup).withConcept(childConcept).build());
+        }
+
+        page = new ArrayList<>();
+        User user = new UserBuilder().build();
+        for (int row = 0; row < rows; row++) {
+            ObservationCollection observations = new ObservationCollection();
+            for (FormElement formElement : formElements.values()) {
+                Concept concept = formElement.getConcept();
+                if (formElement.getGroup() != null || concept.isQuestionGroup()) continue;
+                switch (ConceptDataType.valueOf(concept.getDataType())) {
+                    case Text: observations.put(concept.getUuid(), "Free text answer " + row); break;
+                    case Numeric: observations.put(concept.getUuid(), random.nextInt(1000) / 10.0); break;
+                    case Date: observations.put(concept.getUuid(), "2023-0" + (1 + row % 9) + "-15T00:00:00.000Z"); break;
+                    default:
+                        String answer = answers.get(random.nextInt(answers.size())).getUuid();
+                        observations.put(concept.getUuid(), FormElementType.MultiSelect.name().equals(formElement.getType()) ? Arrays.asList(answer) : answer);
+                }
+            }
+            List<Map<String, Object>> repeats = new ArrayList<>();
+            for (int i = 0; i < QUESTION_GROUP_REPEATS; i++) {
+                Map<String, Object> repeat = new HashMap<>();
+                for (Concept childConcept : childConcepts) repeat.put(childConcept.getUuid(), "Repeat " + i);
+                repeats.add(repeat);
+            }
+            observations.put(questionGroupConcept.getUuid(), repeats);
+            Individual individual = new SubjectBuilder().withSubjectType(subjectType).withAuditUser(user).withObservations(observations).withUUID(uuid(random)).build();
+            page.add(new LongitudinalExportItemRowBuilder().withSubject(individual).build());
+        }
+
+        ExportJobParametersRepository exportJobParametersRepository = mock(ExportJobParametersRepository.class);
+        when(exportJobParametersRepository.findByUuid(SUBJECT_TYPE_UUID)).thenReturn(new ExportJobParametersBuilder().withTimezone("Asia/Kolkata").build());
+        ExportOutput exportOutput = new ExportOutputBuilder().forSubjectType(SUBJECT_TYPE_UUID).build();
+        ExportJobService exportJobService = mock(ExportJobService.class);
+        when(exportJobService.getExportOutput(any())).thenReturn(exportOutput);
+        AddressLevelService addressLevelService = mock(AddressLevelService.class);
+        when(addressLevelService.getAllAddressLevelTypeNames()).thenReturn(Arrays.asList("State", "District", "Block"));
+        SubjectTypeRepository subjectTypeRepository = mock(SubjectTypeRepository.class);
+        when(subjectTypeRepository.findByUuid(any())).thenReturn(subjectType);
+        FormMappingService formMappingService = mock(FormMappingService.class);
+        when(formMappingService.findForSubject(any())).thenReturn(new FormMappingBuilder().withForm(new Form()).build());
+        when(formMappingService.getAllFormElementsAndDecisionMap(SUBJECT_TYPE_UUID, null, null, FormType.IndividualProfile)).thenReturn(formElements);
+        ObservationService observationService = mock(ObservationService.class);
+        when(observationService.getMaxNumberOfQuestionGroupObservations(any(), any())).thenReturn(Collections.singletonMap(questionGroup, QUESTION_GROUP_REPEATS));
+
+        extractor = new ExportV2CSVFieldExtractor(mock(EncounterRepository.class), mock(ProgramEncounterRepository.class), formMappingService,
+                SUBJECT_TYPE_UUID, subjectTypeRepository, addressLevelService, mock(ProgramRepository.class), mock(EncounterTypeRepository.class),
+                exportJobService, observationService, exportJobParametersRepository);
+        extractor.init();
+        extractor.writeHeader(new StringWriter());
+    }
+
+    @Benchmark
+    public void extract(Blackhole blackhole) {
+        for (LongitudinalExportItemRow row : page) {
+            blackhole.consume(extractor.extract(row));
+        }
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
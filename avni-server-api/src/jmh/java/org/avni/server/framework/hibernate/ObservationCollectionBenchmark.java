@@ -0,0 +1,118 @@
+package org.avni.server.framework.hibernate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.avni.server.domain.ObservationCollection;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing observations eagerly, as the user type did before, with {@link LazyObservationCollection} for a
+ * page of rows. Sync loads and serialises the rows without reading them, export reads a few observations of each row
+ * and saving an unchanged entity writes the observations back. Run with the gc profiler to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObservationCollectionBenchmark {
+    private static final ObjectMapper mapper = AbstractJsonbUserType.mapper;
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"100"})
+    public int rows;
+
+    @Param({"40"})
+    public int observationsPerRow;
+
+    private List<byte[]> page;
+    private List<String> exportedConcepts;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        List<String> conceptUuids = new ArrayList<>();
+        for (int i = 0; i < observationsPerRow; i++) conceptUuids.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        exportedConcepts = conceptUuids.subList(0, Math.min(5, observationsPerRow));
+        page = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            ObservationCollection observations = new ObservationCollection();
+            for (int i = 0; i < observationsPerRow; i++) {
+                String conceptUuid = conceptUuids.get(i);
+                switch (i % 4) {
+                    case 0:
+                        observations.put(conceptUuid, row * 1.5 + i);
+                        break;
+                    case 1:
+                        observations.put(conceptUuid, "Some free text answer " + row);
+                        break;
+                    case 2:
+                        observations.put(conceptUuid, conceptUuids.subList(0, 3));
+                        break;
+                    default:
+                        observations.put(conceptUuid, new UUID(random.nextLong(), random.nextLong()).toString());
+                }
+            }
+            page.add(mapper.writeValueAsString(observations).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public void syncEager() throws IOException {
+        for (byte[] json : page) {
+            mapper.writeValue(NULL_OUTPUT_STREAM, mapper.readValue(json, ObservationCollection.class));
+        }
+    }
+
+    @Benchmark
+    public void syncLazy() throws IOException {
+        for (byte[] json : page) {
+            mapper.writeValue(NULL_OUTPUT_STREAM, new LazyObservationCollection(json));
+        }
+    }
+
+    @Benchmark
+    public void exportEager(Blackhole blackhole) throws IOException {
+        for (byte[] json : page) {
+            ObservationCollection observations = mapper.readValue(json, ObservationCollection.class);
+            for (String concept : exportedConcepts) blackhole.consume(observations.get(concept));
+        }
+    }
+
+    @Benchmark
+    public void exportLazy(Blackhole blackhole) {
+        for (byte[] json : page) {
+            ObservationCollection observations = new LazyObservationCollection(json);
+            for (String concept : exportedConcepts) blackhole.consume(observations.get(concept));
+        }
+    }
+
+    @Benchmark
+    public void saveUnchangedEager(Blackhole blackhole) throws IOException {
+        for (byte[] json : page) {
+            blackhole.consume(mapper.writeValueAsString(mapper.readValue(json, ObservationCollection.class)));
+        }
+    }
+
+    @Benchmark
+    public void saveUnchangedLazy(Blackhole blackhole) {
+        for (byte[] json : page) {
+            blackhole.consume(new String(new LazyObservationCollection(json).getJson(), StandardCharsets.UTF_8));
+        }
+    }
+}
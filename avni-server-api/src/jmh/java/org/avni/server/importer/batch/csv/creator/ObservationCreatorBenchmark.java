@@ -0,0 +1,130 @@
+package org.avni.server.importer.batch.csv.creator;
+
+import org.avni.server.application.*;
+import org.avni.server.dao.AddressLevelTypeRepository;
+import org.avni.server.dao.ConceptRepository;
+import org.avni.server.dao.application.FormElementRepository;
+import org.avni.server.dao.application.FormRepository;
+import org.avni.server.domain.AddressLevelType;
+import org.avni.server.domain.Concept;
+import org.avni.server.domain.ConceptDataType;
+import org.avni.server.domain.factory.metadata.ConceptAnswerBuilder;
+import org.avni.server.domain.factory.metadata.ConceptBuilder;
+import org.avni.server.importer.batch.csv.writer.header.Headers;
+import org.avni.server.importer.batch.model.Row;
+import org.avni.server.service.IndividualService;
+import org.avni.server.service.LocationService;
+import org.avni.server.service.ObservationService;
+import org.avni.server.service.S3Service;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parses the observations of a csv upload row into an observation collection, against a registration form whose
+ * questions are text, numeric, date, single and multi select.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObservationCreatorBenchmark {
+    private static final String[] FIXED_HEADERS = {"Id from previous system", "Subject Type", "Date Of Registration", "First Name", "Last Name"};
+
+    @Param({"40"})
+    public int questions;
+
+    private ObservationCreator observationCreator;
+    private Row row;
+    private Headers headers;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<Concept> answers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) answers.add(concept(random, i, "Answer " + i, ConceptDataType.NA).build());
+
+        ConceptRepository conceptRepository = mock(ConceptRepository.class);
+        FormElementGroup formElementGroup = new TestFormElementGroupBuilder().build();
+        formElementGroup.setDisplayOrder(1d);
+        List<String> rowHeaders = new ArrayList<>(Arrays.asList(FIXED_HEADERS));
+        List<String> rowValues = new ArrayList<>(Arrays.asList("legacy-1", "Individual", "2023-04-01", "Jane", "Doe"));
+        for (int i = 0; i < questions; i++) {
+            FormElementType type = FormElementType.SingleSelect;
+            ConceptBuilder conceptBuilder;
+            String value;
+            switch (i % 5) {
+                case 0:
+                    conceptBuilder = concept(random, 100 + i, "Question " + i, ConceptDataType.Text);
+                    value = "Free text answer";
+                    break;
+                case 1:
+                    conceptBuilder = concept(random, 100 + i, "Question " + i, ConceptDataType.Numeric);
+                    value = String.valueOf(random.nextInt(1000) / 10.0);
+                    break;
+                case 2:
+                    conceptBuilder = concept(random, 100 + i, "Question " + i, ConceptDataType.Date);
+                    value = "2023-0" + (1 + random.nextInt(9)) + "-15";
+                    break;
+                case 3:
+                    conceptBuilder = coded(random, concept(random, 100 + i, "Question " + i, ConceptDataType.Coded), answers);
+                    value = answers.get(random.nextInt(answers.size())).getName();
+                    break;
+                default:
+                    conceptBuilder = coded(random, concept(random, 100 + i, "Question " + i, ConceptDataType.Coded), answers);
+                    type = FormElementType.MultiSelect;
+                    value = answers.get(0).getName() + ", " + answers.get(1 + random.nextInt(answers.size() - 1)).getName();
+            }
+            Concept concept = conceptBuilder.build();
+            FormElement formElement = new TestFormElementBuilder().withId(i).withConcept(concept).withType(type).build();
+            formElement.setDisplayOrder((double) i);
+            formElementGroup.addFormElement(formElement);
+            when(conceptRepository.findByName(concept.getName())).thenReturn(concept);
+            when(conceptRepository.findByUuid(concept.getUuid())).thenReturn(concept);
+            rowHeaders.add(concept.getName());
+            rowValues.add(value);
+        }
+        row = new Row(rowHeaders.toArray(new String[0]), rowValues.toArray(new String[0]));
+        headers = () -> FIXED_HEADERS;
+
+        AddressLevelTypeRepository addressLevelTypeRepository = mock(AddressLevelTypeRepository.class);
+        when(addressLevelTypeRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(Arrays.asList(
+                addressLevelType("State", 3d), addressLevelType("District", 2d), addressLevelType("Block", 1d))));
+        FormRepository formRepository = mock(FormRepository.class);
+        when(formRepository.findByFormTypeAndIsVoidedFalse(any())).thenReturn(Collections.singletonList(new TestFormBuilder().addFormElementGroup(formElementGroup).build()));
+        ObservationService observationService = new ObservationService(conceptRepository, null, null, null, formRepository, Optional.empty());
+        observationCreator = new ObservationCreator(addressLevelTypeRepository, conceptRepository, formRepository, observationService,
+                mock(S3Service.class), mock(IndividualService.class), mock(LocationService.class), mock(FormElementRepository.class));
+    }
+
+    @Benchmark
+    public Object getObservations() throws Exception {
+        return observationCreator.getObservations(row, headers, new ArrayList<>(), FormType.IndividualProfile, null);
+    }
+
+    private static ConceptBuilder concept(Random random, long id, String name, ConceptDataType dataType) {
+        return new ConceptBuilder().withId(id).withUuid(uuid(random)).withName(name).withDataType(dataType);
+    }
+
+    private static ConceptBuilder coded(Random random, ConceptBuilder conceptBuilder, List<Concept> answers) {
+        for (int i = 0; i < answers.size(); i++) {
+            conceptBuilder.withAnswers(new ConceptAnswerBuilder().withUUID(uuid(random)).withAnswerConcept(answers.get(i)).withOrder(i).build());
+        }
+        return conceptBuilder;
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static AddressLevelType addressLevelType(String name, Double level) {
+        AddressLevelType addressLevelType = new AddressLevelType();
+        addressLevelType.setName(name);
+        addressLevelType.setLevel(level);
+        return addressLevelType;
+    }
+}
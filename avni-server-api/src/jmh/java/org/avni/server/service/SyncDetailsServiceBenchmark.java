@@ -0,0 +1,66 @@
+package org.avni.server.service;
+
+import org.avni.server.BenchmarkOrganisation;
+import org.avni.server.dao.ChecklistDetailRepository;
+import org.avni.server.dao.OperationalSubjectTypeRepository;
+import org.avni.server.dao.application.FormMappingRepository;
+import org.avni.server.domain.OperationalSubjectType;
+import org.avni.server.domain.SyncableItem;
+import org.avni.server.service.accessControl.GroupPrivilegeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Works out the syncable items of an organisation, with the repositories returning the already loaded metadata, so
+ * that only the work done on the metadata is measured and not the queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SyncDetailsServiceBenchmark {
+    @Param({"5"})
+    public int subjectTypes;
+
+    @Param({"6"})
+    public int programs;
+
+    @Param({"20"})
+    public int encounterTypes;
+
+    private SyncDetailsService syncDetailsService;
+
+    @Setup
+    public void setup() {
+        BenchmarkOrganisation organisation = new BenchmarkOrganisation(subjectTypes, programs, encounterTypes);
+        OperationalSubjectTypeRepository subjectTypeRepository = mock(OperationalSubjectTypeRepository.class);
+        when(subjectTypeRepository.findAll()).thenReturn(organisation.subjectTypes.stream().map(subjectType -> {
+            OperationalSubjectType operationalSubjectType = new OperationalSubjectType();
+            operationalSubjectType.setSubjectType(subjectType);
+            return operationalSubjectType;
+        }).collect(Collectors.toList()));
+        FormMappingRepository formMappingRepository = mock(FormMappingRepository.class);
+        when(formMappingRepository.getAllRegistrationFormMappings()).thenReturn(organisation.registrationFormMappings);
+        when(formMappingRepository.getAllGeneralEncounterFormMappings()).thenReturn(organisation.generalEncounterFormMappings);
+        when(formMappingRepository.getAllProgramEnrolmentFormMappings()).thenReturn(organisation.programEnrolmentFormMappings);
+        when(formMappingRepository.getAllProgramEncounterFormMappings()).thenReturn(organisation.programEncounterFormMappings);
+        ChecklistDetailRepository checklistDetailRepository = mock(ChecklistDetailRepository.class);
+        when(checklistDetailRepository.findAll()).thenReturn(organisation.checklistDetails);
+        OrganisationConfigService organisationConfigService = mock(OrganisationConfigService.class);
+        when(organisationConfigService.isCommentEnabled()).thenReturn(true);
+        GroupPrivilegeService groupPrivilegeService = mock(GroupPrivilegeService.class);
+        when(groupPrivilegeService.getGroupPrivileges()).thenAnswer(invocation -> organisation.getGroupPrivileges());
+
+        syncDetailsService = new SyncDetailsService(subjectTypeRepository, null, formMappingRepository, checklistDetailRepository, organisationConfigService, groupPrivilegeService);
+    }
+
+    @Benchmark
+    public Set<SyncableItem> getAllSyncableItems() {
+        return syncDetailsService.getAllSyncableItems(true);
+    }
+}
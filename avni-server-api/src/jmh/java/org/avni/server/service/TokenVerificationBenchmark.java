@@ -0,0 +1,162 @@
+package org.avni.server.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.Verification;
+import org.avni.server.framework.security.AuthTokenManager;
+import org.avni.server.framework.security.AuthenticationFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies an RS256 id token the way the IAM services do for every request, and derives the token and auth cookie
+ * from the request. The JWKS is read from a file instead of the identity provider so that only the work done per
+ * request on the server is measured; {@link #verifyWithKnownKey} is the cost of the signature check alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenVerificationBenchmark {
+    private static final String KEY_ID = "benchmark-key";
+    private static final String ISSUER = "https://idp.example.org/benchmark";
+    private static final String AUDIENCE = "benchmark-client";
+
+    private File jwks;
+    private FileJwksIAMService iamService;
+    private JWTVerifier knownKeyVerifier;
+    private String token;
+    private MockHttpServletRequest headerRequest;
+    private MockHttpServletRequest cookieRequest;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+        random.setSeed(42);
+        keyPairGenerator.initialize(2048, random);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        Algorithm algorithm = Algorithm.RSA256(publicKey, (RSAPrivateKey) keyPair.getPrivate());
+
+        jwks = File.createTempFile("jwks", ".json");
+        String json = String.format("{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"%s\",\"use\":\"sig\",\"alg\":\"RS256\",\"n\":\"%s\",\"e\":\"%s\"}]}",
+                KEY_ID, base64Url(publicKey.getModulus()), base64Url(publicKey.getPublicExponent()));
+        Files.write(jwks.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        iamService = new FileJwksIAMService(jwks.toURI().toURL().toString());
+
+        token = JWT.create()
+                .withKeyId(KEY_ID)
+                .withIssuer(ISSUER)
+                .withAudience(AUDIENCE)
+                .withClaim("token_use", "id")
+                .withClaim("cognito:username", "admin@benchmark")
+                .withClaim("custom:userUUID", "5fed2907-df3a-4867-aef5-c87f4c78a31a")
+                .withExpiresAt(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .sign(algorithm);
+        knownKeyVerifier = JWT.require(Algorithm.RSA256(publicKey, null)).withIssuer(ISSUER).withAudience(AUDIENCE).acceptLeeway(240).build();
+
+        headerRequest = new MockHttpServletRequest("GET", "/subject/search");
+        headerRequest.addHeader(AuthenticationFilter.AUTH_TOKEN_HEADER, token);
+        cookieRequest = new MockHttpServletRequest("GET", "/subject/search");
+        cookieRequest.setCookies(new Cookie(AuthTokenManager.AUTH_TOKEN_COOKIE, token));
+    }
+
+    @TearDown
+    public void tearDown() {
+        jwks.delete();
+    }
+
+    @Benchmark
+    public DecodedJWT verifyAndDecodeToken() throws Exception {
+        return iamService.verifyAndDecodeToken(token);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyWithKnownKey() {
+        return knownKeyVerifier.verify(token);
+    }
+
+    @Benchmark
+    public String getDerivedAuthTokenFromHeader() {
+        return AuthTokenManager.getInstance().getDerivedAuthToken(headerRequest, null);
+    }
+
+    @Benchmark
+    public String getDerivedAuthTokenFromCookie() {
+        return AuthTokenManager.getInstance().getDerivedAuthToken(cookieRequest, null);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse setAuthCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AuthTokenManager.getInstance().setAuthCookie(headerRequest, response, token);
+        return response;
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static class FileJwksIAMService extends BaseIAMService {
+        private final String jwkProviderUrl;
+
+        FileJwksIAMService(String jwkProviderUrl) {
+            super(null);
+            this.jwkProviderUrl = jwkProviderUrl;
+        }
+
+        @Override
+        protected String getUserUuidField() {
+            return "custom:userUUID";
+        }
+
+        @Override
+        protected String getUsernameField() {
+            return "cognito:username";
+        }
+
+        @Override
+        protected void addClaim(Verification verification) {
+            verification.withClaim("token_use", "id");
+        }
+
+        @Override
+        protected String getAudience() {
+            return AUDIENCE;
+        }
+
+        @Override
+        protected String getJwkProviderUrl() {
+            return jwkProviderUrl;
+        }
+
+        @Override
+        protected String getIssuer() {
+            return ISSUER;
+        }
+
+        @Override
+        public void logConfiguration() {
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.avni.server.web.response.slice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.avni.server.dao.EncounterTypeRepository;
+import org.avni.server.dao.GenderRepository;
+import org.avni.server.dao.LocationRepository;
+import org.avni.server.dao.SubjectTypeRepository;
+import org.avni.server.dao.sync.SyncRowRepository;
+import org.avni.server.domain.ObservationCollection;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Writes a page of encounters straight from the rows, against reading each row's observations into a map and
+ * serialising the page with the object mapper, which is what the entity response does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StreamingSlicedResourcesWriterBenchmark {
+    @Param({"100"})
+    public int pageSize;
+
+    @Param({"30"})
+    public int observationsPerRow;
+
+    private ObjectMapper objectMapper;
+    private StreamingSlicedResourcesWriter writer;
+    private Slice<Long> slice;
+    private List<Map<String, Object>> rows;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        objectMapper = new ObjectMapper().registerModule(new JodaModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        rows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Map<String, Object> observations = new LinkedHashMap<>();
+            for (int j = 0; j < observationsPerRow; j++) {
+                String conceptUuid = uuid(random);
+                switch (j % 3) {
+                    case 0: observations.put(conceptUuid, random.nextInt(1000) / 10.0); break;
+                    case 1: observations.put(conceptUuid, uuid(random)); break;
+                    default: observations.put(conceptUuid, Arrays.asList(uuid(random), uuid(random)));
+                }
+            }
+            Map<String, Object> row = new HashMap<>();
+            row.put("uuid", uuid(random));
+            row.put("is_voided", false);
+            row.put("created_date_time", new Timestamp(1672531200000L + i));
+            row.put("last_modified_date_time", new Timestamp(1672531200000L + i));
+            row.put("version", 1);
+            row.put("organisation_id", 5L);
+            row.put("created_by", "admin@benchmark");
+            row.put("last_modified_by", "admin@benchmark");
+            row.put("name", "Monthly visit");
+            row.put("encounter_date_time", new Timestamp(1675209600000L + i));
+            row.put("observations", objectMapper.writeValueAsBytes(observations));
+            row.put("encounter_type_uuid", uuid(random));
+            row.put("individual_uuid", uuid(random));
+            rows.add(row);
+            ids.add((long) i);
+        }
+        slice = new SliceImpl<>(ids, PageRequest.of(0, pageSize), true);
+
+        SyncRowRepository syncRowRepository = mock(SyncRowRepository.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler rowCallbackHandler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) rowCallbackHandler.processRow(resultSet(row));
+            return null;
+        }).when(syncRowRepository).readEncounters(any(), any());
+        writer = new StreamingSlicedResourcesWriter(syncRowRepository, objectMapper, mock(GenderRepository.class), mock(LocationRepository.class),
+                mock(SubjectTypeRepository.class), mock(EncounterTypeRepository.class));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse streamed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.writeEncounters(slice, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse readIntoMaps() throws Exception {
+        List<Map<String, Object>> resources = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> resource = new LinkedHashMap<>();
+            resource.put("uuid", row.get("uuid"));
+            resource.put("voided", row.get("is_voided"));
+            resource.put("createdDateTime", new DateTime(row.get("created_date_time")));
+            resource.put("lastModifiedDateTime", new DateTime(row.get("last_modified_date_time")));
+            resource.put("version", row.get("version"));
+            resource.put("organisationId", row.get("organisation_id"));
+            resource.put("name", row.get("name"));
+            resource.put("encounterDateTime", new DateTime(row.get("encounter_date_time")));
+            resource.put("observations", objectMapper.readValue((byte[]) row.get("observations"), ObservationCollection.class));
+            resource.put("createdBy", row.get("created_by"));
+            resource.put("lastModifiedBy", row.get("last_modified_by"));
+            Map<String, Object> links = new LinkedHashMap<>();
+            links.put("encounterTypeUUID", Collections.singletonMap("href", row.get("encounter_type_uuid")));
+            links.put("individualUUID", Collections.singletonMap("href", row.get("individual_uuid")));
+            resource.put("_links", links);
+            resources.add(resource);
+        }
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("_embedded", Collections.singletonMap("encounter", resources));
+        Map<String, Object> sliceDetails = new LinkedHashMap<>();
+        sliceDetails.put("size", slice.getSize());
+        sliceDetails.put("number", slice.getNumber());
+        sliceDetails.put("hasNext", slice.hasNext());
+        page.put("slice", sliceDetails);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        objectMapper.writeValue(response.getOutputStream(), page);
+        return response;
+    }
+
+    /**
+     * A result set positioned on the given row, cheaper than a mock so that the writer dominates the measurement.
+     */
+    private static ResultSet resultSet(Map<String, Object> row) {
+        boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[]{ResultSet.class}, (proxy, method, args) -> {
+            if (method.getName().equals("wasNull")) return wasNull[0];
+            if (args == null || args.length != 1 || !(args[0] instanceof String)) throw new SQLException("Not supported: " + method.getName());
+            Object value = row.get(args[0]);
+            wasNull[0] = value == null;
+            switch (method.getName()) {
+                case "getInt": return value == null ? 0 : value;
+                case "getLong": return value == null ? 0L : value;
+                case "getBoolean": return value != null && (Boolean) value;
+                case "getString":
+                case "getBytes":
+                case "getTimestamp":
+                case "getDate":
+                case "getObject": return value;
+                default: throw new SQLException("Not supported: " + method.getName());
+            }
+        });
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
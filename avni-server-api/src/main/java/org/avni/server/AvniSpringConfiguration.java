@@ -1,6 +1,8 @@
 package org.avni.server;
 
 import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import org.avni.server.application.projections.VirtualCatchmentProjection;
 import org.avni.server.domain.User;
 import org.avni.server.framework.jpa.CHSAuditorAware;
@@ -31,6 +33,8 @@ import java.util.concurrent.TimeUnit;
 
 import static org.avni.server.service.AddressLevelCache.ADDRESSES_PER_CATCHMENT;
 import static org.avni.server.service.AddressLevelCache.ADDRESSES_PER_CATCHMENT_AND_MATCHING_ADDR_LEVELS;
+import static org.avni.server.service.accessControl.GroupPrivilegesCache.GROUP_PRIVILEGES_FOR_USER;
+import static org.avni.server.service.accessControl.GroupPrivilegesCache.GROUP_PRIVILEGES_VERSION_FOR_USER;
 
 @Configuration
 @EnableCaching
@@ -42,6 +46,7 @@ public class AvniSpringConfiguration extends WebMvcAutoConfiguration {
 
     private final Environment environment;
     private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
 
     @Value("${avni.cache.max.entries}")
     private int maxEntriesToCache;
@@ -52,16 +57,29 @@ public class AvniSpringConfiguration extends WebMvcAutoConfiguration {
     @Value("${avni.cache.max.weight}")
     private int cacheMaxWeight;
 
+    @Value("${avni.cache.groupPrivileges.max.entries}")
+    private int maxUsersToCacheGroupPrivilegesFor;
+
+    @Value("${avni.cache.groupPrivileges.version.ttl.seconds}")
+    private int groupPrivilegesVersionTimeToLiveInSeconds;
+
     @Value("${avni.custom.query.timeout}")
     private int timeout;
 
     @Value("${avni.custom.query.max.rows}")
     private int maxRows;
 
+    @Value("${avni.custom.query.async.timeout}")
+    private int asyncTimeout;
+
+    @Value("${avni.custom.query.async.max.rows}")
+    private int asyncMaxRows;
+
     @Autowired
-    public AvniSpringConfiguration(Environment environment, @Qualifier("dataSource") DataSource dataSource) {
+    public AvniSpringConfiguration(Environment environment, @Qualifier("dataSource") DataSource dataSource, MeterRegistry meterRegistry) {
         this.environment = environment;
         this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
@@ -95,6 +113,14 @@ public class AvniSpringConfiguration extends WebMvcAutoConfiguration {
         return new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
+    @Bean(name = "asyncExternalQueryJdbcTemplate")
+    public NamedParameterJdbcTemplate getAsyncExternalQueryJdbcTemplate() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout(asyncTimeout);
+        jdbcTemplate.setMaxRows(asyncMaxRows);
+        return new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
     @Bean
     public KeycloakSpringBootConfigResolver keycloakConfigResolver() {
         return new KeycloakSpringBootConfigResolver();
@@ -109,21 +135,33 @@ public class AvniSpringConfiguration extends WebMvcAutoConfiguration {
                     case ADDRESSES_PER_CATCHMENT:
                     case ADDRESSES_PER_CATCHMENT_AND_MATCHING_ADDR_LEVELS:
                         return getConcurrentMapCacheWithWeightedCapacityForAddressesConfig(name);
+                    case GROUP_PRIVILEGES_FOR_USER:
+                        return monitored(name, CacheBuilder.newBuilder().expireAfterWrite(timeToLiveInSeconds,
+                                TimeUnit.SECONDS).maximumSize(maxUsersToCacheGroupPrivilegesFor).recordStats().build());
+                    case GROUP_PRIVILEGES_VERSION_FOR_USER:
+                        return monitored(name, CacheBuilder.newBuilder().expireAfterWrite(groupPrivilegesVersionTimeToLiveInSeconds,
+                                TimeUnit.SECONDS).maximumSize(maxUsersToCacheGroupPrivilegesFor).recordStats().build());
                     default:
                         return getConcurrentMapCacheWithMaxEntriesConfig(name);
                 }
             }
 
             private ConcurrentMapCache getConcurrentMapCacheWithWeightedCapacityForAddressesConfig(String name) {
-                return new ConcurrentMapCache(name, CacheBuilder.newBuilder().expireAfterWrite(timeToLiveInSeconds,
+                return monitored(name, CacheBuilder.newBuilder().expireAfterWrite(timeToLiveInSeconds,
                         TimeUnit.SECONDS).maximumWeight(cacheMaxWeight)
                         .weigher((key, value) -> value == null ? 0 : (((List<VirtualCatchmentProjection>)value).size() / 100)+1)
-                        .build().asMap(), DISALLOW_NULL_VALUES);
+                        .recordStats()
+                        .build());
             }
 
             private ConcurrentMapCache getConcurrentMapCacheWithMaxEntriesConfig(String name) {
-                return new ConcurrentMapCache(name, CacheBuilder.newBuilder().expireAfterWrite(timeToLiveInSeconds,
-                        TimeUnit.SECONDS).maximumSize(maxEntriesToCache).build().asMap(), DISALLOW_NULL_VALUES);
+                return monitored(name, CacheBuilder.newBuilder().expireAfterWrite(timeToLiveInSeconds,
+                        TimeUnit.SECONDS).maximumSize(maxEntriesToCache).recordStats().build());
+            }
+
+            private ConcurrentMapCache monitored(String name, com.google.common.cache.Cache<Object, Object> cache) {
+                GuavaCacheMetrics.monitor(meterRegistry, cache, name);
+                return new ConcurrentMapCache(name, cache.asMap(), DISALLOW_NULL_VALUES);
             }
         };
     }
@@ -10,6 +10,8 @@ import static org.avni.messaging.repository.GlificMessageTemplateRepository.GLIF
 import static org.avni.server.service.AddressLevelCache.ADDRESSES_PER_CATCHMENT;
 import static org.avni.server.service.AddressLevelCache.ADDRESSES_PER_CATCHMENT_AND_MATCHING_ADDR_LEVELS;
 import static org.avni.server.service.IndividualService.PHONE_NUMBER_FOR_SUBJECT_ID;
+import static org.avni.server.service.accessControl.GroupPrivilegesCache.GROUP_PRIVILEGES_FOR_USER;
+import static org.avni.server.service.accessControl.GroupPrivilegesCache.GROUP_PRIVILEGES_VERSION_FOR_USER;
 
 @Component
 public class SimpleCacheCustomizer
@@ -21,6 +23,8 @@ public class SimpleCacheCustomizer
                 ADDRESSES_PER_CATCHMENT_AND_MATCHING_ADDR_LEVELS,
                 PHONE_NUMBER_FOR_SUBJECT_ID,
                 GLIFIC_CONTACT_FOR_PHONE_NUMBER,
-                GLIFIC_TEMPLATES_FOR_ORG));
+                GLIFIC_TEMPLATES_FOR_ORG,
+                GROUP_PRIVILEGES_FOR_USER,
+                GROUP_PRIVILEGES_VERSION_FOR_USER));
     }
 }
@@ -0,0 +1,13 @@
+package org.avni.server.application.projections;
+
+import java.util.Date;
+
+public interface SyncTelemetrySummaryProjection {
+    Long getUserId();
+    String getUserName();
+    Long getSyncCount();
+    Long getCompleteCount();
+    Long getIncompleteCount();
+    Date getLastSyncStartTime();
+    String getLastAppVersion();
+}
@@ -0,0 +1,64 @@
+package org.avni.server.common;
+
+import org.avni.server.dao.CHSRepository;
+import org.avni.server.domain.CHSEntity;
+import org.avni.server.web.request.CHSRequest;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Finds entities by uuid and remembers what it found, including the uuids it did not find. When the uuids are resolved
+ * up front with one query, a uuid that was not found is known to be new and is not looked up again.
+ */
+public class UuidLookup<T extends CHSEntity> {
+    private final CHSRepository<T> repository;
+    private final Map<String, T> entities = new HashMap<>();
+
+    public UuidLookup(CHSRepository<T> repository) {
+        this.repository = repository;
+    }
+
+    public static <T extends CHSEntity> UuidLookup<T> resolve(CHSRepository<T> repository, Collection<String> uuids) {
+        UuidLookup<T> lookup = new UuidLookup<>(repository);
+        if (!uuids.isEmpty()) {
+            uuids.forEach(uuid -> lookup.entities.put(uuid, null));
+            repository.findByUuidIn(uuids).forEach(lookup::add);
+        }
+        return lookup;
+    }
+
+    public T find(String uuid) {
+        if (!StringUtils.hasText(uuid)) return null;
+        if (!entities.containsKey(uuid)) {
+            entities.put(uuid, repository.findByUuid(uuid));
+        }
+        return entities.get(uuid);
+    }
+
+    /**
+     * Same as {@link EntityHelper#newOrExistingEntity(CHSRepository, CHSRequest, CHSEntity)}
+     */
+    public T newOrExisting(CHSRequest chsRequest, T chsEntity) {
+        String uuid = chsRequest.getUuid();
+        T t = find(uuid);
+        if (t == null) {
+            t = repository.findEntity(chsRequest.getId());
+        }
+        if (t == null) {
+            t = chsEntity;
+            t.setUuid(uuid != null ? uuid : UUID.randomUUID().toString());
+        }
+        return t;
+    }
+
+    /**
+     * For an entity saved after the lookup was resolved, so that a later reference to it is not looked up
+     */
+    public void add(T entity) {
+        entities.put(entity.getUuid(), entity);
+    }
+}
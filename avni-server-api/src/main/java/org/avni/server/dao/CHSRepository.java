@@ -7,6 +7,7 @@ import org.springframework.data.repository.NoRepositoryBean;
 
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +15,7 @@ import java.util.Map;
 @NoRepositoryBean
 public interface CHSRepository<T extends CHSEntity> extends AvniCrudRepository<T, Long> {
     T findByUuid(String uuid);
+    List<T> findByUuidIn(Collection<String> uuids);
     List<T> findAll();
     List<T> findAllByIsVoidedFalse();
 
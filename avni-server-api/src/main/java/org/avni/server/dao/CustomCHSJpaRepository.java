@@ -15,6 +15,11 @@ import java.util.List;
 public interface CustomCHSJpaRepository<T extends CHSEntity, ID extends Serializable> extends JpaRepository<T, ID> {
     Slice<T> findAllAsSlice(Specification<T> specification, Pageable pageable);
 
+    /**
+     * Same rows and order as {@link #findAllAsSlice(Specification, Pageable)}, reading only the ids.
+     */
+    Slice<Long> findIdsAsSlice(Specification<T> specification, Pageable pageable);
+
     @Override
     @RestResource(exported = false)
     <S extends T> S save(S entity);
@@ -6,17 +6,24 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import java.io.Serializable;
 import java.util.List;
 
 public class CustomJpaRepositoryImpl<T extends CHSEntity, ID extends Serializable> extends SimpleJpaRepository<T, ID> implements CustomCHSJpaRepository<T, ID> {
+    private final EntityManager entityManager;
 
     public CustomJpaRepositoryImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
         super(entityInformation, entityManager);
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -25,12 +32,29 @@ public class CustomJpaRepositoryImpl<T extends CHSEntity, ID extends Serializabl
         return pageable.isUnpaged() ? new SliceImpl<>(query.getResultList()) : readSlice(query, pageable, specification);
     }
 
-    private Slice<T> readSlice(TypedQuery<T> query, Pageable pageable, Specification<T> specification){
+    @Override
+    public Slice<Long> findIdsAsSlice(Specification<T> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteriaQuery = builder.createQuery(Long.class);
+        Root<T> root = criteriaQuery.from(getDomainClass());
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, criteriaQuery, builder);
+        if (predicate != null) {
+            criteriaQuery.where(predicate);
+        }
+        criteriaQuery.select(root.<Long>get("id"));
+        if (pageable.getSort().isSorted()) {
+            criteriaQuery.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        TypedQuery<Long> query = entityManager.createQuery(criteriaQuery);
+        return pageable.isUnpaged() ? new SliceImpl<>(query.getResultList()) : readSlice(query, pageable, specification);
+    }
+
+    private <R> Slice<R> readSlice(TypedQuery<R> query, Pageable pageable, Specification<T> specification){
         if (pageable.isPaged()){
             query.setFirstResult((int) pageable.getOffset());
             query.setMaxResults(pageable.getPageSize() + 1); // We should get 1 more row to understand there is a next page or not
         }
-        List<T> content = query.getResultList();
+        List<R> content = query.getResultList();
         boolean hasNextPage = content.size() > pageable.getPageSize();
         if (content.size() > pageable.getPageSize()){ // If the result set contains 1 more row than the desired page count, we normalize the result set
             content = content.subList(0, pageable.getPageSize());
@@ -0,0 +1,110 @@
+package org.avni.server.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.avni.server.util.ObjectMapperSingleton;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom queries run in the background. The rows of a completed query are kept in custom_query_job_row, one row per
+ * result row, so that they can be read a page at a time from any server.
+ */
+@Component
+public class CustomQueryJobRepository {
+    public enum Status {
+        Running, Completed, Failed
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CustomQueryJobRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Committed straight away, as the job runs on another connection
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long create(String uuid, String queryName, Long organisationId, Long userId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("uuid", uuid)
+                .addValue("queryName", queryName)
+                .addValue("status", Status.Running.name())
+                .addValue("organisationId", organisationId)
+                .addValue("userId", userId);
+        return jdbcTemplate.queryForObject("insert into custom_query_job (uuid, organisation_id, query_name, status, created_by_id, created_date_time)\n" +
+                "values (:uuid, :organisationId, :queryName, :status, :userId, now()) returning id", params, Long.class);
+    }
+
+    @Transactional
+    public void complete(long jobId, Long organisationId, List<Map<String, Object>> queryResult) {
+        ObjectMapper objectMapper = ObjectMapperSingleton.getObjectMapper();
+        List<MapSqlParameterSource> rows = new ArrayList<>(queryResult.size());
+        for (int i = 0; i < queryResult.size(); i++) {
+            rows.add(new MapSqlParameterSource()
+                    .addValue("jobId", jobId)
+                    .addValue("rowNumber", i)
+                    .addValue("organisationId", organisationId)
+                    .addValue("data", toJson(objectMapper, queryResult.get(i).values())));
+        }
+        jdbcTemplate.batchUpdate("insert into custom_query_job_row (job_id, row_number, organisation_id, data)\n" +
+                "values (:jobId, :rowNumber, :organisationId, cast(:data as jsonb))", rows.toArray(new MapSqlParameterSource[0]));
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("status", Status.Completed.name())
+                .addValue("headers", toJson(objectMapper, queryResult.isEmpty() ? new ArrayList<>() : queryResult.get(0).keySet()))
+                .addValue("total", queryResult.size());
+        jdbcTemplate.update("update custom_query_job\n" +
+                "set status = :status, headers = cast(:headers as jsonb), total = :total, completed_date_time = now()\n" +
+                "where id = :jobId", params);
+    }
+
+    public void fail(long jobId, String errorMessage) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("status", Status.Failed.name())
+                .addValue("errorMessage", errorMessage);
+        jdbcTemplate.update("update custom_query_job\n" +
+                "set status = :status, error_message = :errorMessage, completed_date_time = now()\n" +
+                "where id = :jobId", params);
+    }
+
+    public Map<String, Object> find(String uuid) {
+        List<Map<String, Object>> jobs = jdbcTemplate.queryForList("select id, uuid, status, error_message, cast(headers as text) as headers, total\n" +
+                "from custom_query_job where uuid = :uuid", new MapSqlParameterSource("uuid", uuid));
+        return jobs.isEmpty() ? null : jobs.get(0);
+    }
+
+    public List<String> findRows(long jobId, int page, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("from", page * size)
+                .addValue("to", (page + 1) * size);
+        return jdbcTemplate.queryForList("select data from custom_query_job_row\n" +
+                "where job_id = :jobId and row_number >= :from and row_number < :to\n" +
+                "order by row_number", params, String.class);
+    }
+
+    public int deleteCreatedBefore(Timestamp createdBefore) {
+        return jdbcTemplate.update("delete from custom_query_job where created_date_time < :createdBefore",
+                new MapSqlParameterSource("createdBefore", createdBefore));
+    }
+
+    private static String toJson(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
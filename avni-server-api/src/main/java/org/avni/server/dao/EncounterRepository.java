@@ -68,6 +68,10 @@ public interface EncounterRepository extends TransactionalDataRepository<Encount
         return aLong == null ? 0 : aLong;
     }
 
+    @Query("select e from Encounter e where e.individual = :individual and e.encounterType = :encounterType " +
+            "and e.encounterDateTime is null and e.cancelDateTime is null and e.isVoided = false")
+    List<Encounter> findScheduledEncounters(Individual individual, EncounterType encounterType);
+
     @Query("select e from Encounter e where e.uuid =:id or e.legacyId = :id")
     Encounter findByLegacyIdOrUuid(String id);
 
@@ -0,0 +1,119 @@
+package org.avni.server.dao;
+
+import org.avni.server.domain.EntityApprovalStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Moves every entity whose latest approval status matches a filter to a new approval status, with one insert. The new
+ * statuses get the individual, address and sync attributes of the entity's individual, as a status saved one at a time
+ * does. Voided entities, and voided statuses, are left out.
+ */
+@Component
+public class EntityApprovalStatusBulkRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EntityApprovalStatusBulkRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static class Filter {
+        private final EntityApprovalStatus.EntityType entityType;
+        private final String entityTypeUuid;
+        private final long currentApprovalStatusId;
+        private List<String> entityUuids;
+        private List<Long> addressIds;
+        private Date statusFrom;
+        private Date statusTill;
+
+        public Filter(EntityApprovalStatus.EntityType entityType, String entityTypeUuid, long currentApprovalStatusId) {
+            this.entityType = entityType;
+            this.entityTypeUuid = entityTypeUuid;
+            this.currentApprovalStatusId = currentApprovalStatusId;
+        }
+
+        public Filter withEntityUuids(List<String> entityUuids) {
+            this.entityUuids = entityUuids;
+            return this;
+        }
+
+        public Filter withAddressIds(List<Long> addressIds) {
+            this.addressIds = addressIds;
+            return this;
+        }
+
+        public Filter withStatusDateTimeBetween(Date statusFrom, Date statusTill) {
+            this.statusFrom = statusFrom;
+            this.statusTill = statusTill;
+            return this;
+        }
+    }
+
+    public int updateStatus(Filter filter, long approvalStatusId, String approvalStatusComment, long userId, Date statusDateTime) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("entityType", filter.entityType.name())
+                .addValue("entityTypeUuid", filter.entityTypeUuid)
+                .addValue("currentApprovalStatusId", filter.currentApprovalStatusId)
+                .addValue("approvalStatusId", approvalStatusId)
+                .addValue("approvalStatusComment", approvalStatusComment)
+                .addValue("userId", userId)
+                .addValue("statusDateTime", statusDateTime);
+        List<String> statusPredicates = new ArrayList<>();
+        if (filter.entityUuids != null && !filter.entityUuids.isEmpty()) {
+            statusPredicates.add(String.format("eas.entity_id in (select id from %s where uuid in (:entityUuids))", tableOf(filter.entityType)));
+            params.addValue("entityUuids", filter.entityUuids);
+        }
+        List<String> latestPredicates = new ArrayList<>();
+        if (filter.statusFrom != null) {
+            latestPredicates.add("latest.status_date_time >= :statusFrom");
+            params.addValue("statusFrom", filter.statusFrom);
+        }
+        if (filter.statusTill != null) {
+            latestPredicates.add("latest.status_date_time < :statusTill");
+            params.addValue("statusTill", filter.statusTill);
+        }
+        if (filter.addressIds != null && !filter.addressIds.isEmpty()) {
+            latestPredicates.add("i.address_id in (:addressIds)");
+            params.addValue("addressIds", filter.addressIds);
+        }
+        String statusWhere = statusPredicates.isEmpty() ? "" : " and " + String.join(" and ", statusPredicates);
+        String latestWhere = latestPredicates.isEmpty() ? "" : " and " + String.join(" and ", latestPredicates);
+        return jdbcTemplate.update("with latest as (" +
+                "select distinct on (eas.entity_id) eas.entity_id, eas.entity_type_uuid, eas.individual_id, eas.organisation_id, " +
+                "eas.approval_status_id, eas.status_date_time " +
+                "from entity_approval_status eas " +
+                "where eas.entity_type = :entityType and eas.entity_type_uuid = :entityTypeUuid and eas.is_voided = false" + statusWhere + " " +
+                "order by eas.entity_id, eas.status_date_time desc, eas.id desc) " +
+                "insert into entity_approval_status (uuid, entity_id, entity_type, entity_type_uuid, approval_status_id, approval_status_comment, " +
+                "auto_approved, status_date_time, individual_id, address_id, sync_concept_1_value, sync_concept_2_value, organisation_id, " +
+                "version, is_voided, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time) " +
+                "select uuid_generate_v4(), latest.entity_id, :entityType, latest.entity_type_uuid, :approvalStatusId, :approvalStatusComment, " +
+                "false, :statusDateTime, i.id, i.address_id, i.sync_concept_1_value, i.sync_concept_2_value, latest.organisation_id, " +
+                "0, false, :userId, :userId, :statusDateTime, :statusDateTime " +
+                "from latest join individual i on i.id = latest.individual_id " +
+                String.format("join %s e on e.id = latest.entity_id and e.is_voided = false ", tableOf(filter.entityType)) +
+                "where latest.approval_status_id = :currentApprovalStatusId" + latestWhere, params);
+    }
+
+    private static String tableOf(EntityApprovalStatus.EntityType entityType) {
+        switch (entityType) {
+            case Subject:
+                return "individual";
+            case ProgramEnrolment:
+                return "program_enrolment";
+            case ProgramEncounter:
+                return "program_encounter";
+            case Encounter:
+                return "encounter";
+            case ChecklistItem:
+                return "checklist_item";
+            default:
+                throw new IllegalArgumentException(String.format("Incorrect entityType '%s'", entityType));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.avni.server.dao;
 
 import org.avni.server.dao.sync.SyncEntityName;
+import org.avni.server.domain.ApprovalStatus;
 import org.avni.server.domain.EntityApprovalStatus;
 import org.avni.server.framework.security.UserContextHolder;
 import org.springframework.data.domain.Page;
@@ -37,6 +38,8 @@ public interface EntityApprovalStatusRepository extends TransactionalDataReposit
 
     List<EntityApprovalStatus> findByEntityIdAndEntityTypeAndIsVoidedFalse(Long entityId, EntityApprovalStatus.EntityType entityType);
 
+    boolean existsByEntityIdAndEntityTypeAndApprovalStatusAndIsVoidedFalse(Long entityId, EntityApprovalStatus.EntityType entityType, ApprovalStatus approvalStatus);
+
     @Override
     default Specification<EntityApprovalStatus> syncTypeIdSpecification(String uuid, SyncEntityName syncEntityName) {
         return (Root<EntityApprovalStatus> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
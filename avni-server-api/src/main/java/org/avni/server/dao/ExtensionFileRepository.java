@@ -0,0 +1,100 @@
+package org.avni.server.dao;
+
+import org.avni.server.domain.Organisation;
+import org.avni.server.domain.S3ExtensionFile;
+import org.avni.server.util.S3File;
+import org.avni.server.util.S3FileType;
+import org.joda.time.DateTime;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Manifest of the extension files of an organisation as uploaded to S3, so that listing them and checking them for
+ * changes does not need S3.
+ */
+@Component
+public class ExtensionFileRepository {
+    private static final String UPSERT = "insert into extension_file (organisation_id, path, size, etag, is_voided, last_modified_date_time)\n" +
+            "values (:organisationId, :path, :size, :etag, false, current_timestamp)\n" +
+            "on conflict (organisation_id, path) do update\n" +
+            "    set size = excluded.size,\n" +
+            "        etag = excluded.etag,\n" +
+            "        is_voided = false,\n" +
+            "        last_modified_date_time = excluded.last_modified_date_time\n" +
+            "where extension_file.is_voided\n" +
+            "   or extension_file.etag is distinct from excluded.etag\n" +
+            "   or extension_file.size <> excluded.size";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ExtensionFileRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<S3ExtensionFile> findModifiedSince(Organisation organisation, DateTime lastModifiedDateTime) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("organisationId", organisation.getId())
+                .addValue("lastModifiedDateTime", toTimestamp(lastModifiedDateTime));
+        return jdbcTemplate.query("select path, size, etag, last_modified_date_time from extension_file\n" +
+                        "where organisation_id = :organisationId and is_voided = false and last_modified_date_time > :lastModifiedDateTime\n" +
+                        "order by last_modified_date_time",
+                params,
+                (rs, rowNum) -> new S3ExtensionFile(S3File.organisationFile(organisation, rs.getString("path"), S3FileType.Extensions),
+                        new DateTime(rs.getTimestamp("last_modified_date_time")), rs.getLong("size"), rs.getString("etag")));
+    }
+
+    public String findETag(Long organisationId, String path) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("organisationId", organisationId)
+                .addValue("path", path);
+        List<String> etags = jdbcTemplate.queryForList("select etag from extension_file\n" +
+                "where organisation_id = :organisationId and path = :path and is_voided = false", params, String.class);
+        return etags.isEmpty() ? null : etags.get(0);
+    }
+
+    /**
+     * Voided entries count as changes too, so that devices pick up the removal of files.
+     */
+    public boolean existsModifiedSince(Long organisationId, DateTime lastModifiedDateTime) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("organisationId", organisationId)
+                .addValue("lastModifiedDateTime", toTimestamp(lastModifiedDateTime));
+        return jdbcTemplate.queryForObject("select exists(select 1 from extension_file\n" +
+                "where organisation_id = :organisationId and last_modified_date_time > :lastModifiedDateTime)", params, Boolean.class);
+    }
+
+    /**
+     * Makes the manifest of the organisation match the given files. Entries of files that are unchanged are left as
+     * they are and entries of files that are not present any more are voided. Entries are stamped with the time the
+     * manifest recorded the change, rather than the time in S3, so that a change found late is not missed by devices.
+     */
+    @Transactional
+    public void replaceAll(Long organisationId, List<S3ExtensionFile> files) {
+        MapSqlParameterSource[] batch = files.stream()
+                .map(file -> new MapSqlParameterSource()
+                        .addValue("organisationId", organisationId)
+                        .addValue("path", file.getS3File().getFilePathRelativeToExtension())
+                        .addValue("size", file.getSize())
+                        .addValue("etag", file.getEtag()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT, batch);
+
+        List<String> paths = files.stream().map(file -> file.getS3File().getFilePathRelativeToExtension()).collect(Collectors.toList());
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("organisationId", organisationId)
+                .addValue("paths", paths);
+        String removedFiles = paths.isEmpty() ? "" : " and path not in (:paths)";
+        jdbcTemplate.update("update extension_file set is_voided = true, last_modified_date_time = current_timestamp\n" +
+                "where organisation_id = :organisationId and is_voided = false" + removedFiles, params);
+    }
+
+    private static Timestamp toTimestamp(DateTime dateTime) {
+        return new Timestamp(dateTime.getMillis());
+    }
+}
@@ -39,6 +39,14 @@ public interface GroupPrivilegeRepository extends ReferenceDataRepository<GroupP
             "  and allow = true", nativeQuery = true)
     List<GroupPrivilege> getAllAllowedPrivilegesForUser(Long userId);
 
+    @Query(value = "select concat_ws(':', count(*), max(changes.last_modified_date_time))\n" +
+            "from (select ug.last_modified_date_time from user_group ug where ug.user_id = :userId\n" +
+            "      union all\n" +
+            "      select g.last_modified_date_time from groups g join user_group ug on ug.group_id = g.id where ug.user_id = :userId\n" +
+            "      union all\n" +
+            "      select gp.last_modified_date_time from group_privilege gp join user_group ug on ug.group_id = gp.group_id where ug.user_id = :userId) changes", nativeQuery = true)
+    String getPrivilegesVersionForUser(Long userId);
+
     @RestResource(path = "lastModified", rel = "lastModified")
     Page<GroupPrivilege> findBySubjectTypeIsNotNullAndLastModifiedDateTimeIsBetweenOrderByLastModifiedDateTimeAscIdAsc(
             @Param("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date lastModifiedDateTime,
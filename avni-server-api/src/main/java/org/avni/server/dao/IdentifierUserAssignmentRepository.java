@@ -24,6 +24,40 @@ public interface IdentifierUserAssignmentRepository extends ReferenceDataReposit
             @Param("user") User user,
             @Param("identifierSource") IdentifierSource identifierSource);
 
+    /**
+     * Same as getAllNonExhaustedUserAssignments, but the rows stay locked till the end of the transaction. Identifiers
+     * of a user for a source are hence generated by one transaction at a time, across servers.
+     */
+    @Query(value = "select iua.* " +
+            "from identifier_user_assignment iua " +
+            "where iua.assigned_to_user_id = :userId and iua.identifier_source_id = :identifierSourceId and " +
+            "      (iua.last_assigned_identifier is null or " +
+            "      iua.identifier_end <> iua.last_assigned_identifier)" +
+            "    order by iua.identifier_start asc " +
+            "for update", nativeQuery = true)
+    List<IdentifierUserAssignment> lockNonExhaustedUserAssignments(
+            @Param("userId") long userId,
+            @Param("identifierSourceId") long identifierSourceId);
+
+    String USERS_WITH_LOW_IDENTIFIER_BALANCE = "select distinct iua.assigned_to_user_id " +
+            "from identifier_user_assignment iua " +
+            "         join identifier_source isource on isource.id = iua.identifier_source_id and isource.is_voided = false " +
+            "where (iua.last_assigned_identifier is null or iua.identifier_end <> iua.last_assigned_identifier) and " +
+            "      (select count(*) " +
+            "       from identifier_assignment ia " +
+            "       where ia.identifier_source_id = iua.identifier_source_id and ia.assigned_to_user_id = iua.assigned_to_user_id and " +
+            "             ia.individual_id is null and ia.program_enrolment_id is null) < isource.minimum_balance";
+
+    /**
+     * Users with fewer spare identifiers than the minimum balance of a source, who still have identifiers left to be
+     * generated from it.
+     */
+    @Query(value = USERS_WITH_LOW_IDENTIFIER_BALANCE, nativeQuery = true)
+    List<Number> getUsersWithLowIdentifierBalance();
+
+    @Query(value = "select exists(" + USERS_WITH_LOW_IDENTIFIER_BALANCE + " and iua.assigned_to_user_id = :userId)", nativeQuery = true)
+    boolean isIdentifierBalanceLow(@Param("userId") long userId);
+
     default IdentifierUserAssignment findByName(String name) {
         throw new UnsupportedOperationException("No field 'name' in IdentifierUserAssignment");
     }
@@ -13,7 +13,10 @@ public interface ImplementationRepository extends AvniCrudRepository<Organisatio
     @Procedure(value = "create_view")
     void createView(String schemaName, String viewName, String sqlQuery);
 
-    @Query(value = "select viewname, definition from pg_views where schemaname = :schemaName", nativeQuery = true)
+    @Query(value = "select viewname, definition from pg_views where schemaname = :schemaName " +
+            "union all " +
+            "select r.name as viewname, r.view_sql as definition from reporting_table r " +
+            "join organisation o on o.id = r.organisation_id where o.schema_name = :schemaName", nativeQuery = true)
     List<ReportingViewProjection> getAllViewsInSchema(String schemaName);
 
     @Procedure(value = "drop_view")
@@ -17,6 +17,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.criteria.*;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -55,22 +56,22 @@ public interface IndividualRepository extends TransactionalDataRepository<Indivi
 
     Page<Individual> findByIdIn(Long[] ids, Pageable pageable);
 
+    /**
+     * Every token should occur in the subject's names, identifiers or search result field values, matched through the
+     * trigram index on subject_search_index.
+     */
     default Specification<Individual> getFilterSpecForName(String value) {
         return (Root<Individual> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
-            if (value != null && !value.isEmpty()) {
-                Predicate[] predicates = new Predicate[2];
-                String[] values = value.trim().split(" ");
-                if (values.length > 0) {
-                    predicates[0] = cb.like(cb.upper(root.get("firstName")), values[0].toUpperCase() + "%");
-                    predicates[1] = cb.like(cb.upper(root.get("lastName")), values[0].toUpperCase() + "%");
-                }
-                if (values.length > 1) {
-                    predicates[1] = cb.like(cb.upper(root.get("lastName")), values[1].toUpperCase() + "%");
-                    return cb.and(predicates[0], predicates[1]);
-                }
-                return cb.or(predicates[0], predicates[1]);
+            if (value == null || value.trim().isEmpty()) {
+                return cb.and();
             }
-            return cb.and();
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<SubjectSearchIndex> searchIndex = subquery.from(SubjectSearchIndex.class);
+            Predicate[] predicates = Arrays.stream(value.trim().toLowerCase().split("\\s+"))
+                    .map(token -> cb.like(searchIndex.get("searchText"), "%" + token + "%"))
+                    .toArray(Predicate[]::new);
+            subquery.select(searchIndex.get("individualId")).where(predicates);
+            return root.get("id").in(subquery);
         };
     }
 
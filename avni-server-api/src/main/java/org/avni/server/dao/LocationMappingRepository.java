@@ -31,6 +31,24 @@ public interface LocationMappingRepository extends ReferenceDataRepository<Paren
             Pageable pageable
     );
 
+    @Query(value = "select llm.*\n" +
+            "from catchment c\n" +
+            "         inner join catchment_address_mapping cam on c.id = cam.catchment_id\n" +
+            "         inner join address_level al on cam.addresslevel_id = al.id\n" +
+            "         inner join address_level al1 on al.lineage @> al1.lineage and al.id <> al1.id\n" +
+            "         inner join location_location_mapping llm on al1.id = llm.location_id\n" +
+            "where c.id = :catchmentId\n" +
+            "  and al1.id in (:addressLevelIds)\n" +
+            "  and llm.last_modified_date_time between :lastModifiedDateTime and :now\n" +
+            "order by llm.last_modified_date_time asc, llm.id asc", nativeQuery = true)
+    Page<ParentLocationMapping> getSyncResults(
+            long catchmentId,
+            List<Long> addressLevelIds,
+            Date lastModifiedDateTime,
+            Date now,
+            Pageable pageable
+    );
+
     @Query(value = "select count(*)\n" +
             "from catchment c\n" +
             "         inner join catchment_address_mapping cam on c.id = cam.catchment_id\n" +
@@ -43,6 +61,9 @@ public interface LocationMappingRepository extends ReferenceDataRepository<Paren
 
     @Override
     default Page<ParentLocationMapping> getSyncResults(SyncParameters syncParameters) {
+        if (syncParameters.getAddressLevels() != null) {
+            return getSyncResults(syncParameters.getCatchment().getId(), syncParameters.getAddressLevels(), syncParameters.getLastModifiedDateTime().toDate(), syncParameters.getNow().toDate(), syncParameters.getPageable());
+        }
         return getSyncResults(syncParameters.getCatchment().getId(), syncParameters.getLastModifiedDateTime().toDate(), syncParameters.getNow().toDate(), syncParameters.getPageable());
     }
 
@@ -7,6 +7,7 @@ import org.avni.server.domain.AddressLevelType;
 import org.avni.server.domain.Catchment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -45,6 +46,17 @@ public interface LocationRepository extends ReferenceDataRepository<AddressLevel
             "order by al1.last_modified_date_time asc, al1.id asc", nativeQuery = true)
     Page<AddressLevel> getSyncResults(long catchmentId, Date lastModifiedDateTime, Date now, Pageable pageable);
 
+    @Query(value = "select al1.*\n" +
+            "from catchment c\n" +
+            "         inner join catchment_address_mapping cam on c.id = cam.catchment_id\n" +
+            "         inner join address_level al on cam.addresslevel_id = al.id\n" +
+            "         inner join address_level al1 on al.lineage @> al1.lineage \n" +
+            "where c.id = :catchmentId\n" +
+            "  and al1.id in (:addressLevelIds)\n" +
+            "  and al1.last_modified_date_time between :lastModifiedDateTime and :now\n" +
+            "order by al1.last_modified_date_time asc, al1.id asc", nativeQuery = true)
+    Page<AddressLevel> getSyncResults(long catchmentId, List<Long> addressLevelIds, Date lastModifiedDateTime, Date now, Pageable pageable);
+
     @Query(value = "select count(*)\n" +
             "from catchment c\n" +
             "         inner join catchment_address_mapping cam on c.id = cam.catchment_id\n" +
@@ -104,6 +116,9 @@ public interface LocationRepository extends ReferenceDataRepository<AddressLevel
 
     @Override
     default Page<AddressLevel> getSyncResults(SyncParameters syncParameters) {
+        if (syncParameters.getAddressLevels() != null) {
+            return getSyncResults(syncParameters.getCatchment().getId(), syncParameters.getAddressLevels(), syncParameters.getLastModifiedDateTime().toDate(), syncParameters.getNow().toDate(), syncParameters.getPageable());
+        }
         return getSyncResults(syncParameters.getCatchment().getId(), syncParameters.getLastModifiedDateTime().toDate(), syncParameters.getNow().toDate(), syncParameters.getPageable());
     }
 
@@ -194,9 +209,20 @@ public interface LocationRepository extends ReferenceDataRepository<AddressLevel
     @Query(value = "select * from virtual_catchment_address_mapping_table where addresslevel_id in (:addressLevelIds)", nativeQuery = true)
     List<VirtualCatchmentProjection> getVirtualCatchmentsForAddressLevelIds(@Param("addressLevelIds") List<Long> addressLevelIds);
 
-    @Query(value = "select title_lineage from title_lineage_locations_function(:addressId)", nativeQuery = true)
+    @Query(value = "select title_lineage from title_lineage_locations where lowestpoint_id = :addressId", nativeQuery = true)
     String getTitleLineageById(Long addressId);
 
+    @Modifying
+    @Query(value = "insert into title_lineage_locations (lowestpoint_id, organisation_id, title_lineage)\n" +
+            "select al.id, al.organisation_id, string_agg(alevel_in_lineage.title, ', ' order by lineage.level)\n" +
+            "from address_level al\n" +
+            "         join regexp_split_to_table(al.lineage :: text, '[.]') with ordinality lineage (point_id, level) ON TRUE\n" +
+            "         join address_level alevel_in_lineage on alevel_in_lineage.id = lineage.point_id :: int\n" +
+            "where al.lineage <@ cast(:lineage as ltree)\n" +
+            "group by al.id, al.organisation_id\n" +
+            "on conflict (lowestpoint_id) do update set title_lineage = excluded.title_lineage", nativeQuery = true)
+    void updateTitleLineageOfSelfAndDescendants(String lineage);
+
     @Query(value = "select al.id, al.uuid, title, type_id as typeId, alt.name as typeString, al.parent_id as parentId, " +
             "cast(lineage as text) as lineage, title_lineage as titleLineage, alt.level " +
             "from address_level al " +
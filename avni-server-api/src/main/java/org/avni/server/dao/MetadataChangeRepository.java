@@ -0,0 +1,46 @@
+package org.avni.server.dao;
+
+import org.joda.time.DateTime;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Latest change to the metadata that is part of the metadata snapshot, read across all its tables in one query. Row
+ * level security limits it to the metadata of the organisation of the context user.
+ */
+@Component
+public class MetadataChangeRepository {
+    private static final List<String> SNAPSHOT_TABLES = Arrays.asList(
+            "address_level_type", "subject_type", "operational_subject_type", "encounter_type", "operational_encounter_type",
+            "program", "operational_program", "concept", "concept_answer", "form", "form_element_group", "form_element",
+            "form_mapping", "organisation_config", "identifier_source", "individual_relation",
+            "individual_relation_gender_mapping", "individual_relationship_type", "checklist_detail", "checklist_item_detail",
+            "groups", "group_role", "group_privilege", "video", "report_card", "dashboard", "dashboard_section",
+            "dashboard_section_card_mapping", "dashboard_filter", "documentation", "documentation_item", "task_type",
+            "task_status", "menu_item", "message_rule");
+    private static final String LAST_MODIFIED_QUERY = "select max(last_modified_date_time) from (" +
+            SNAPSHOT_TABLES.stream()
+                    .map(table -> String.format("select max(last_modified_date_time) as last_modified_date_time from %s", table))
+                    .collect(Collectors.joining(" union all ")) +
+            ") changes";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public MetadataChangeRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return null when there is no metadata
+     */
+    public DateTime getLastModifiedDateTime() {
+        Timestamp lastModified = jdbcTemplate.queryForObject(LAST_MODIFIED_QUERY, EmptySqlParameterSource.INSTANCE, Timestamp.class);
+        return lastModified == null ? null : new DateTime(lastModified);
+    }
+}
@@ -40,6 +40,11 @@ public interface OperatingIndividualScopeAwareRepository<T extends CHSEntity> ex
         return findAllAsSlice(specification, syncParameters.getPageable());
     }
 
+    default Slice<Long> getSyncResultIdsAsSlice(SyncParameters syncParameters) {
+        Specification specification = getSpecification(syncParameters);
+        return findIdsAsSlice(specification, syncParameters.getPageable());
+    }
+
     default Page<T> getSyncResults(SyncParameters syncParameters) {
         Specification specification = getSpecification(syncParameters);
         return findAll(specification, syncParameters.getPageable());
@@ -7,6 +7,7 @@ import org.avni.server.domain.ProgramEnrolment;
 import org.avni.server.framework.security.UserContextHolder;
 import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
@@ -37,12 +38,16 @@ public interface ProgramEncounterRepository extends TransactionalDataRepository<
                 cb.equal(root.get("encounterType").get("id"), typeId);
     }
 
+    /**
+     * Whether the first page of the sync would have any rows. Rows of directly assigned subjects are synced by when
+     * they were assigned, as in the sync itself. Reads at most two ids instead of counting all the changed rows.
+     */
     @Override
     default boolean isEntityChanged(SyncParameters syncParameters){
-        return count(syncEntityChangedAuditSpecification(syncParameters)
+        Specification<ProgramEncounter> audit = syncParameters.isModificationCheckOnEntity() ? syncEntityChangedAuditSpecification(syncParameters) : null;
+        return findIdsAsSlice(where(audit)
                 .and(syncTypeIdSpecification(syncParameters.getTypeId()))
-                .and(syncStrategySpecification(syncParameters))
-        ) > 0;
+                .and(syncStrategySpecification(syncParameters)), PageRequest.of(0, 1)).hasContent();
     }
 
     @Query(value = "select count(enc.id) as count " +
@@ -70,6 +75,10 @@ public interface ProgramEncounterRepository extends TransactionalDataRepository<
         return aLong == null ? 0 : aLong;
     }
 
+    @Query("select pe from ProgramEncounter pe where pe.programEnrolment = :programEnrolment and pe.encounterType = :encounterType " +
+            "and pe.encounterDateTime is null and pe.cancelDateTime is null and pe.isVoided = false")
+    List<ProgramEncounter> findScheduledEncounters(ProgramEnrolment programEnrolment, EncounterType encounterType);
+
     @Query("select pe from ProgramEncounter pe where pe.uuid =:id or pe.legacyId = :id")
     ProgramEncounter findByLegacyIdOrUuid(String id);
 
@@ -6,6 +6,7 @@ import org.avni.server.domain.UserContext;
 import org.avni.server.framework.security.UserContextHolder;
 import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
@@ -25,6 +26,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static org.springframework.data.jpa.domain.Specification.where;
+
 @Repository
 @RepositoryRestResource(collectionResourceRel = "programEnrolment", path = "programEnrolment", exported = false)
 public interface ProgramEnrolmentRepository extends TransactionalDataRepository<ProgramEnrolment>, FindByLastModifiedDateTime<ProgramEnrolment>, OperatingIndividualScopeAwareRepository<ProgramEnrolment> {
@@ -100,12 +103,16 @@ public interface ProgramEnrolmentRepository extends TransactionalDataRepository<
                 cb.equal(root.get("program").get("id"), typeId);
     }
 
+    /**
+     * Whether the first page of the sync would have any rows. Rows of directly assigned subjects are synced by when
+     * they were assigned, as in the sync itself. Reads at most two ids instead of counting all the changed rows.
+     */
     @Override
     default boolean isEntityChanged(SyncParameters syncParameters){
-        return count(syncEntityChangedAuditSpecification(syncParameters)
+        Specification<ProgramEnrolment> audit = syncParameters.isModificationCheckOnEntity() ? syncEntityChangedAuditSpecification(syncParameters) : null;
+        return findIdsAsSlice(where(audit)
                 .and(syncTypeIdSpecification(syncParameters.getTypeId()))
-                .and(syncStrategySpecification(syncParameters))
-        ) > 0;
+                .and(syncStrategySpecification(syncParameters)), PageRequest.of(0, 1)).hasContent();
     }
 
     @Transactional
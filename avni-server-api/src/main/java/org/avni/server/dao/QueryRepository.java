@@ -1,55 +1,218 @@
 package org.avni.server.dao;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import org.avni.server.domain.CustomQuery;
+import org.avni.server.domain.Organisation;
+import org.avni.server.domain.UserContext;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.util.ObjectMapperSingleton;
 import org.avni.server.web.request.CustomQueryRequest;
+import org.avni.server.web.response.CustomQueryJobResponse;
 import org.avni.server.web.response.CustomQueryResponse;
 import org.avni.server.web.util.ErrorBodyBuilder;
 import org.flywaydb.core.internal.util.ExceptionUtils;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Map;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.*;
 
 @Component
 public class QueryRepository {
+    private static final Logger logger = LoggerFactory.getLogger(QueryRepository.class);
+    private static final int JOB_RETENTION_DAYS = 1;
     private final NamedParameterJdbcTemplate externalQueryJdbcTemplate;
+    private final NamedParameterJdbcTemplate asyncExternalQueryJdbcTemplate;
     private final CustomQueryRepository customQueryRepository;
+    private final CustomQueryJobRepository customQueryJobRepository;
     private final ErrorBodyBuilder errorBodyBuilder;
+    private final int maxPageSize;
+    private final Cache<String, CachedQueryResult> results;
+    private final ThreadPoolTaskExecutor jobExecutor;
 
     @Autowired
     public QueryRepository(@Qualifier("externalQueryJdbcTemplate") NamedParameterJdbcTemplate externalQueryJdbcTemplate,
-                           CustomQueryRepository customQueryRepository, ErrorBodyBuilder errorBodyBuilder) {
+                           @Qualifier("asyncExternalQueryJdbcTemplate") NamedParameterJdbcTemplate asyncExternalQueryJdbcTemplate,
+                           CustomQueryRepository customQueryRepository, CustomQueryJobRepository customQueryJobRepository,
+                           ErrorBodyBuilder errorBodyBuilder,
+                           @Value("${avni.cache.max.entries}") int maxEntriesToCache,
+                           @Value("${avni.custom.query.max.rows}") int maxPageSize,
+                           @Value("${avni.custom.query.async.threads}") int asyncThreads) {
         this.externalQueryJdbcTemplate = externalQueryJdbcTemplate;
+        this.asyncExternalQueryJdbcTemplate = asyncExternalQueryJdbcTemplate;
         this.customQueryRepository = customQueryRepository;
+        this.customQueryJobRepository = customQueryJobRepository;
         this.errorBodyBuilder = errorBodyBuilder;
+        this.maxPageSize = maxPageSize;
+        this.results = CacheBuilder.newBuilder().maximumSize(maxEntriesToCache).build();
+        this.jobExecutor = new ThreadPoolTaskExecutor() {{
+            setCorePoolSize(asyncThreads);
+            setMaxPoolSize(asyncThreads);
+            setQueueCapacity(100);
+            setThreadNamePrefix("custom-query-");
+            initialize();
+        }};
+    }
+
+    QueryRepository(NamedParameterJdbcTemplate externalQueryJdbcTemplate, NamedParameterJdbcTemplate asyncExternalQueryJdbcTemplate,
+                    CustomQueryRepository customQueryRepository, CustomQueryJobRepository customQueryJobRepository) {
+        this(externalQueryJdbcTemplate, asyncExternalQueryJdbcTemplate, customQueryRepository, customQueryJobRepository,
+                ErrorBodyBuilder.createForTest(), 100, 2000, 1);
     }
 
     QueryRepository(NamedParameterJdbcTemplate externalQueryJdbcTemplate, CustomQueryRepository customQueryRepository) {
-        this(externalQueryJdbcTemplate, customQueryRepository, ErrorBodyBuilder.createForTest());
+        this(externalQueryJdbcTemplate, externalQueryJdbcTemplate, customQueryRepository, null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdown();
     }
 
     public ResponseEntity<?> runQuery(CustomQueryRequest customQueryRequest) {
         CustomQuery customQuery = customQueryRepository.findAllByName(customQueryRequest.getName());
         if (customQuery == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(String.format("Query not found with name %s", customQueryRequest.getName()));
+            return queryNotFound(customQueryRequest);
+        }
+        String cacheKey = getCacheKey(customQuery, customQueryRequest.getQueryParams());
+        if (cacheKey != null) {
+            CachedQueryResult cachedQueryResult = results.getIfPresent(cacheKey);
+            if (cachedQueryResult != null && cachedQueryResult.expiresAt > System.currentTimeMillis()) {
+                return ResponseEntity.ok(cachedQueryResult.response);
+            }
         }
         try {
             List<Map<String, Object>> queryResult = externalQueryJdbcTemplate.queryForList(customQuery.getQuery(), customQueryRequest.getQueryParams());
-            return ResponseEntity.ok(new CustomQueryResponse(queryResult));
-        } catch (DataAccessException e) {
-            String errorMessage = ExceptionUtils.getRootCause(e).getMessage();
-            if (errorMessage.equals("ERROR: canceling statement due to user request")) {
-                errorMessage = "Query took more time to return the result";
+            CustomQueryResponse response = new CustomQueryResponse(queryResult);
+            if (cacheKey != null) {
+                results.put(cacheKey, new CachedQueryResult(response, System.currentTimeMillis() + customQuery.getCacheTtlSeconds() * 1000L));
             }
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorBodyBuilder.getErrorBody(String.format("Error while executing the query message : \"%s\"", errorMessage)));
+            return ResponseEntity.ok(response);
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorBodyBuilder.getErrorBody(String.format("Error while executing the query message : \"%s\"", getErrorMessage(e))));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorBodyBuilder.getErrorBody(String.format("Encountered some error while executing the query message %s", e.getMessage())));
         }
     }
+
+    /**
+     * Runs the query in the background, with a longer timeout and a larger row limit than runQuery. The returned
+     * job uuid is used to check on the query and to fetch its rows a page at a time, from any server.
+     */
+    public ResponseEntity<?> submitQuery(CustomQueryRequest customQueryRequest) {
+        CustomQuery customQuery = customQueryRepository.findAllByName(customQueryRequest.getName());
+        if (customQuery == null) {
+            return queryNotFound(customQueryRequest);
+        }
+        UserContext userContext = UserContextHolder.getUserContext();
+        Organisation organisation = UserContextHolder.getOrganisation();
+        if (organisation == null) {
+            return ResponseEntity.badRequest().body("Queries can be run in the background only by the users of an organisation");
+        }
+        customQueryJobRepository.deleteCreatedBefore(new Timestamp(new DateTime().minusDays(JOB_RETENTION_DAYS).getMillis()));
+        String jobUuid = UUID.randomUUID().toString();
+        long jobId = customQueryJobRepository.create(jobUuid, customQuery.getName(), organisation.getId(), userContext.getUser().getId());
+        try {
+            jobExecutor.execute(() -> runJob(jobId, customQuery.getQuery(), customQueryRequest.getQueryParams(), userContext));
+        } catch (TaskRejectedException e) {
+            customQueryJobRepository.fail(jobId, "Too many queries are running in the background");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorBodyBuilder.getErrorBody("Too many queries are running in the background, try again later"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new CustomQueryJobResponse(jobUuid, CustomQueryJobRepository.Status.Running.name()));
+    }
+
+    public ResponseEntity<?> getQueryJob(String jobUuid, int page, int size) throws IOException {
+        Map<String, Object> job = customQueryJobRepository.find(jobUuid);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(String.format("Query job not found with uuid %s", jobUuid));
+        }
+        String status = (String) job.get("status");
+        CustomQueryJobResponse response = new CustomQueryJobResponse(jobUuid, status);
+        response.setErrorMessage((String) job.get("error_message"));
+        if (CustomQueryJobRepository.Status.Completed.name().equals(status)) {
+            ObjectMapper objectMapper = ObjectMapperSingleton.getObjectMapper();
+            List<List<Object>> data = new ArrayList<>();
+            for (String row : customQueryJobRepository.findRows(((Number) job.get("id")).longValue(), page, Math.min(size, maxPageSize))) {
+                data.add(objectMapper.readValue(row, new TypeReference<List<Object>>() {}));
+            }
+            response.setHeaders(objectMapper.readValue((String) job.get("headers"), new TypeReference<List<String>>() {}));
+            response.setData(data);
+            response.setTotal((Integer) job.get("total"));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private void runJob(long jobId, String query, Map<String, Object> queryParams, UserContext userContext) {
+        UserContextHolder.create(userContext);
+        try {
+            List<Map<String, Object>> queryResult = asyncExternalQueryJdbcTemplate.queryForList(query, queryParams);
+            customQueryJobRepository.complete(jobId, userContext.getOrganisation().getId(), queryResult);
+        } catch (DataAccessException e) {
+            customQueryJobRepository.fail(jobId, getErrorMessage(e));
+        } catch (Exception e) {
+            logger.error(String.format("Query job %d failed", jobId), e);
+            customQueryJobRepository.fail(jobId, e.getMessage());
+        } finally {
+            UserContextHolder.clear();
+        }
+    }
+
+    /**
+     * Results are cached per organisation, for queries with a cache ttl. The query text is part of the key so that
+     * an edited query is not answered from the results of its earlier version.
+     */
+    private String getCacheKey(CustomQuery customQuery, Map<String, Object> queryParams) {
+        Organisation organisation = UserContextHolder.getOrganisation();
+        if (customQuery.getCacheTtlSeconds() == null || customQuery.getCacheTtlSeconds() <= 0 || organisation == null) {
+            return null;
+        }
+        try {
+            String params = ObjectMapperSingleton.getObjectMapper().writeValueAsString(queryParams == null ? Collections.emptyMap() : new TreeMap<>(queryParams));
+            String hash = Hashing.sha256().hashString(customQuery.getQuery() + "\n" + params, StandardCharsets.UTF_8).toString();
+            return String.format("%d:%s:%s", organisation.getId(), customQuery.getName(), hash);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private String getErrorMessage(DataAccessException e) {
+        String errorMessage = ExceptionUtils.getRootCause(e).getMessage();
+        if (errorMessage.equals("ERROR: canceling statement due to user request")) {
+            errorMessage = "Query took more time to return the result";
+        }
+        return errorMessage;
+    }
+
+    private ResponseEntity<String> queryNotFound(CustomQueryRequest customQueryRequest) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(String.format("Query not found with name %s", customQueryRequest.getName()));
+    }
+
+    private static class CachedQueryResult {
+        private final CustomQueryResponse response;
+        private final long expiresAt;
+
+        CachedQueryResult(CustomQueryResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
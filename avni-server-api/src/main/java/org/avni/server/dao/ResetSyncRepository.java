@@ -4,6 +4,7 @@ import org.avni.server.domain.ResetSync;
 import org.avni.server.domain.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
@@ -17,4 +18,11 @@ public interface ResetSyncRepository extends TransactionalDataRepository<ResetSy
             Date now,
             Pageable pageable
     );
+
+    /**
+     * Same as above, without the resets that came with a sync scope change, for devices that apply the change instead
+     */
+    @Query("select r from ResetSync r where r.user is null or (r.user = :user and r.syncScopeChangeId is null " +
+            "and r.lastModifiedDateTime between :lastModifiedDateTime and :now) order by r.lastModifiedDateTime asc, r.id asc")
+    Page<ResetSync> findAllWithoutSyncScopeChange(User user, Date lastModifiedDateTime, Date now, Pageable pageable);
 }
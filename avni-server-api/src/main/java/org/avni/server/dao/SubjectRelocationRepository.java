@@ -0,0 +1,96 @@
+package org.avni.server.dao;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Moves subjects to another address level with a fixed number of statements, however many subjects are moved. The
+ * subjects are put in a temporary table, which every statement joins, instead of updating the subjects one at a time.
+ * Does what SubjectMigrationService.markSubjectMigrationIfRequired does for each subject of a bulk migration.
+ */
+@Component
+public class SubjectRelocationRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SubjectRelocationRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static class RelocatedSubject {
+        private final long individualId;
+        private final Long oldAddressId;
+        private final String syncConcept1Value;
+        private final String syncConcept2Value;
+
+        public RelocatedSubject(long individualId, Long oldAddressId, String syncConcept1Value, String syncConcept2Value) {
+            this.individualId = individualId;
+            this.oldAddressId = oldAddressId;
+            this.syncConcept1Value = syncConcept1Value;
+            this.syncConcept2Value = syncConcept2Value;
+        }
+    }
+
+    @Transactional
+    public void relocate(List<RelocatedSubject> subjects, long newAddressId, Long userId) {
+        if (subjects.isEmpty()) return;
+        jdbcTemplate.update("drop table if exists relocated_subject", new MapSqlParameterSource());
+        jdbcTemplate.update("create temp table relocated_subject (individual_id bigint primary key, old_address_id bigint, " +
+                "sync_concept_1_value text, sync_concept_2_value text) on commit drop", new MapSqlParameterSource());
+        jdbcTemplate.batchUpdate("insert into relocated_subject (individual_id, old_address_id, sync_concept_1_value, sync_concept_2_value) " +
+                        "values (:individualId, :oldAddressId, :syncConcept1Value, :syncConcept2Value)",
+                subjects.stream().map(subject -> new MapSqlParameterSource()
+                        .addValue("individualId", subject.individualId)
+                        .addValue("oldAddressId", subject.oldAddressId)
+                        .addValue("syncConcept1Value", subject.syncConcept1Value)
+                        .addValue("syncConcept2Value", subject.syncConcept2Value)).toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.update("analyze relocated_subject", new MapSqlParameterSource());
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("addressId", newAddressId)
+                .addValue("lastModifiedDateTime", new Timestamp(new Date().getTime()))
+                .addValue("lastModifiedById", userId);
+        jdbcTemplate.update("insert into subject_migration (uuid, individual_id, old_address_level_id, new_address_level_id, subject_type_id, organisation_id, " +
+                "                               is_voided, version, created_by_id, created_date_time, last_modified_by_id, last_modified_date_time) " +
+                "select uuid_generate_v4(), r.individual_id, r.old_address_id, :addressId, i.subject_type_id, i.organisation_id, " +
+                "       false, 0, :lastModifiedById, :lastModifiedDateTime, :lastModifiedById, :lastModifiedDateTime " +
+                "from relocated_subject r join individual i on i.id = r.individual_id", params);
+        jdbcTemplate.update("update encounter e set address_id = :addressId, " +
+                "sync_concept_1_value = r.sync_concept_1_value, sync_concept_2_value = r.sync_concept_2_value, " +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from relocated_subject r where e.individual_id = r.individual_id", params);
+        jdbcTemplate.update("update program_enrolment enl set address_id = :addressId, " +
+                "sync_concept_1_value = r.sync_concept_1_value, sync_concept_2_value = r.sync_concept_2_value, " +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from relocated_subject r where enl.individual_id = r.individual_id", params);
+        jdbcTemplate.update("update program_encounter enc set address_id = :addressId, " +
+                "sync_concept_1_value = r.sync_concept_1_value, sync_concept_2_value = r.sync_concept_2_value, " +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from relocated_subject r where enc.individual_id = r.individual_id", params);
+        jdbcTemplate.update("update group_subject gs set group_subject_address_id = :addressId, " +
+                "group_subject_sync_concept_1_value = r.sync_concept_1_value, group_subject_sync_concept_2_value = r.sync_concept_2_value, " +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from relocated_subject r where gs.group_subject_id = r.individual_id", params);
+        jdbcTemplate.update("update entity_approval_status eas set address_id = :addressId, " +
+                "sync_concept_1_value = r.sync_concept_1_value, sync_concept_2_value = r.sync_concept_2_value, " +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from relocated_subject r where eas.individual_id = r.individual_id", params);
+        jdbcTemplate.update("update checklist_item ci set last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from program_enrolment pe, checklist c, relocated_subject r " +
+                "where c.id = ci.checklist_id and pe.id = c.program_enrolment_id and pe.individual_id = r.individual_id", params);
+        jdbcTemplate.update("update checklist c set last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from program_enrolment pe, relocated_subject r " +
+                "where pe.id = c.program_enrolment_id and pe.individual_id = r.individual_id", params);
+        jdbcTemplate.update("update individual_relationship ir set last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "where ir.individual_a_id in (select individual_id from relocated_subject) " +
+                "   or ir.individual_b_id in (select individual_id from relocated_subject)", params);
+        jdbcTemplate.update("update individual i set address_id = :addressId, version = i.version + 1, " +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from relocated_subject r where i.id = r.individual_id", params);
+    }
+}
@@ -2,7 +2,9 @@ package org.avni.server.dao;
 
 import org.avni.server.dao.search.SearchBuilder;
 import org.avni.server.dao.search.SqlQuery;
+import org.avni.server.web.request.webapp.search.PageDetails;
 import org.avni.server.web.request.webapp.search.SubjectSearchRequest;
+import org.avni.server.web.request.webapp.search.TotalCountMode;
 import org.hibernate.query.internal.NativeQueryImpl;
 import org.hibernate.transform.AliasToEntityMapResultTransformer;
 import org.springframework.stereotype.Repository;
@@ -14,9 +16,12 @@ import javax.transaction.Transactional;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Repository
 public class SubjectSearchRepository {
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -34,6 +39,22 @@ public class SubjectSearchRepository {
     }
 
     public BigInteger getTotalCount(SubjectSearchRequest searchRequest, SearchBuilder searchBuilder) {
+        switch (getTotalCountMode(searchRequest)) {
+            case none:
+                return null;
+            case estimated:
+                return getEstimatedCount(searchRequest, searchBuilder);
+            default:
+                return getExactCount(searchRequest, searchBuilder);
+        }
+    }
+
+    public static TotalCountMode getTotalCountMode(SubjectSearchRequest searchRequest) {
+        PageDetails pageElement = searchRequest.getPageElement();
+        return pageElement == null ? TotalCountMode.exact : pageElement.getTotalCountMode();
+    }
+
+    private BigInteger getExactCount(SubjectSearchRequest searchRequest, SearchBuilder searchBuilder) {
         SqlQuery query = searchBuilder.getSQLCountQuery(searchRequest);
         Query sql = entityManager.createNativeQuery(query.getSql());
         query.getParameters().forEach((name, value) -> {
@@ -42,4 +63,21 @@ public class SubjectSearchRepository {
 
         return (BigInteger) sql.getSingleResult();
     }
+
+    /**
+     * Row estimate of the top plan node as computed by the planner from table statistics. This avoids executing the
+     * search joins over all matching subjects, at the cost of accuracy.
+     */
+    private BigInteger getEstimatedCount(SubjectSearchRequest searchRequest, SearchBuilder searchBuilder) {
+        SqlQuery query = searchBuilder.getSQLEstimateQuery(searchRequest);
+        Query sql = entityManager.createNativeQuery(query.getSql());
+        query.getParameters().forEach((name, value) -> {
+            sql.setParameter(name, value);
+        });
+
+        List<String> plan = sql.getResultList();
+        if (plan.isEmpty()) return BigInteger.ZERO;
+        Matcher matcher = PLAN_ROWS_PATTERN.matcher(plan.get(0));
+        return matcher.find() ? new BigInteger(matcher.group(1)) : BigInteger.ZERO;
+    }
 }
@@ -0,0 +1,238 @@
+package org.avni.server.dao;
+
+import org.avni.server.domain.JsonObject;
+import org.avni.server.domain.SubjectType;
+import org.avni.server.domain.User;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.util.JsonObjectUtil;
+import org.avni.server.web.request.syncAttribute.UserSyncSettings;
+import org.joda.time.DateTime;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Changes to a user's sync scope, recorded as what was added and what was removed. A change is either of the locations
+ * of the user's catchment, or of the sync concept values of one subject type in the user's sync settings.
+ */
+@Component
+public class SyncScopeChangeRepository {
+    private static final String SELECT = "select c.id, c.uuid, c.subject_type_id, st.uuid as subject_type_uuid, c.created_date_time, " +
+            "c.added_address_level_ids, c.removed_address_level_ids, c.added_sync_concept_1_values, c.removed_sync_concept_1_values, " +
+            "c.added_sync_concept_2_values, c.removed_sync_concept_2_values " +
+            "from sync_scope_change c left join subject_type st on st.id = c.subject_type_id ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SyncScopeChangeRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static class SyncScopeChange {
+        private final long id;
+        private final String uuid;
+        private final Long subjectTypeId;
+        private final String subjectTypeUUID;
+        private final DateTime createdDateTime;
+        private final List<Long> addedAddressLevelIds;
+        private final List<Long> removedAddressLevelIds;
+        private final List<String> addedSyncConcept1Values;
+        private final List<String> removedSyncConcept1Values;
+        private final List<String> addedSyncConcept2Values;
+        private final List<String> removedSyncConcept2Values;
+
+        private SyncScopeChange(ResultSet rs) throws SQLException {
+            this.id = rs.getLong("id");
+            this.uuid = rs.getString("uuid");
+            long subjectTypeId = rs.getLong("subject_type_id");
+            this.subjectTypeId = rs.wasNull() ? null : subjectTypeId;
+            this.subjectTypeUUID = rs.getString("subject_type_uuid");
+            this.createdDateTime = new DateTime(rs.getTimestamp("created_date_time"));
+            this.addedAddressLevelIds = toList(rs.getArray("added_address_level_ids"));
+            this.removedAddressLevelIds = toList(rs.getArray("removed_address_level_ids"));
+            this.addedSyncConcept1Values = toList(rs.getArray("added_sync_concept_1_values"));
+            this.removedSyncConcept1Values = toList(rs.getArray("removed_sync_concept_1_values"));
+            this.addedSyncConcept2Values = toList(rs.getArray("added_sync_concept_2_values"));
+            this.removedSyncConcept2Values = toList(rs.getArray("removed_sync_concept_2_values"));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> List<T> toList(Array array) throws SQLException {
+            return Arrays.asList((T[]) array.getArray());
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+
+        public String getSubjectTypeUUID() {
+            return subjectTypeUUID;
+        }
+
+        public DateTime getCreatedDateTime() {
+            return createdDateTime;
+        }
+
+        public boolean isLocationChange() {
+            return subjectTypeId == null;
+        }
+
+        public List<Long> getAddedAddressLevelIds() {
+            return addedAddressLevelIds;
+        }
+
+        public List<Long> getRemovedAddressLevelIds() {
+            return removedAddressLevelIds;
+        }
+
+        public List<String> getAddedSyncConcept1Values() {
+            return addedSyncConcept1Values;
+        }
+
+        public List<String> getRemovedSyncConcept1Values() {
+            return removedSyncConcept1Values;
+        }
+
+        public List<String> getAddedSyncConcept2Values() {
+            return addedSyncConcept2Values;
+        }
+
+        public List<String> getRemovedSyncConcept2Values() {
+            return removedSyncConcept2Values;
+        }
+
+        /**
+         * Whether subjects of this type can have come into scope with this change
+         */
+        public boolean bringsIntoScope(SubjectType subjectType) {
+            if (isLocationChange()) {
+                return subjectType.isShouldSyncByLocation() && !addedAddressLevelIds.isEmpty();
+            }
+            return subjectTypeId.equals(subjectType.getId()) && !(addedSyncConcept1Values.isEmpty() && addedSyncConcept2Values.isEmpty());
+        }
+
+        /**
+         * The sync settings with only the added values of the changed sync concept, so that the sync gets only the
+         * subjects that came into scope
+         */
+        public JsonObject restrict(JsonObject syncSettings) {
+            List<UserSyncSettings> userSyncSettings = JsonObjectUtil.getUserSyncSettings(syncSettings).stream().map(settings -> {
+                if (!settings.getSubjectTypeUUID().equals(subjectTypeUUID)) return settings;
+                return new UserSyncSettings(settings.getSubjectTypeUUID(),
+                        settings.getSyncConcept1(), addedSyncConcept1Values.isEmpty() ? settings.getSyncConcept1Values() : addedSyncConcept1Values,
+                        settings.getSyncConcept2(), addedSyncConcept2Values.isEmpty() ? settings.getSyncConcept2Values() : addedSyncConcept2Values);
+            }).collect(Collectors.toList());
+            return new JsonObject().with(User.SyncSettingKeys.subjectTypeSyncSettings.name(), userSyncSettings);
+        }
+    }
+
+    public static class RemovedSubject {
+        private final long id;
+        private final String uuid;
+
+        private RemovedSubject(ResultSet rs) throws SQLException {
+            this.id = rs.getLong("id");
+            this.uuid = rs.getString("uuid");
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+    }
+
+    public long createLocationChange(User user, List<Long> addedAddressLevelIds, List<Long> removedAddressLevelIds) {
+        Map<String, List<?>> values = new LinkedHashMap<>();
+        values.put("added_address_level_ids", addedAddressLevelIds);
+        values.put("removed_address_level_ids", removedAddressLevelIds);
+        return create(user, null, values, "bigint[]");
+    }
+
+    public long createSyncConceptValueChange(User user, SubjectType subjectType, List<String> addedSyncConcept1Values, List<String> removedSyncConcept1Values,
+                                             List<String> addedSyncConcept2Values, List<String> removedSyncConcept2Values) {
+        Map<String, List<?>> values = new LinkedHashMap<>();
+        values.put("added_sync_concept_1_values", addedSyncConcept1Values);
+        values.put("removed_sync_concept_1_values", removedSyncConcept1Values);
+        values.put("added_sync_concept_2_values", addedSyncConcept2Values);
+        values.put("removed_sync_concept_2_values", removedSyncConcept2Values);
+        return create(user, subjectType.getId(), values, "text[]");
+    }
+
+    private long create(User user, Long subjectTypeId, Map<String, List<?>> arrays, String arrayType) {
+        User createdBy = UserContextHolder.getUser();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", user.getId())
+                .addValue("subjectTypeId", subjectTypeId)
+                .addValue("organisationId", user.getOrganisationId())
+                .addValue("createdById", createdBy == null ? user.getId() : createdBy.getId());
+        List<String> columns = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        arrays.forEach((column, list) -> {
+            if (list.isEmpty()) return;
+            columns.add(", " + column);
+            values.add(String.format(", cast(array[:%s] as %s)", column, arrayType));
+            params.addValue(column, list);
+        });
+        return jdbcTemplate.queryForObject("insert into sync_scope_change (uuid, user_id, subject_type_id, organisation_id, version, " +
+                "created_by_id, last_modified_by_id, created_date_time, last_modified_date_time" + String.join("", columns) + ") " +
+                "values (uuid_generate_v4(), :userId, :subjectTypeId, :organisationId, 0, :createdById, :createdById, now(), now()" +
+                String.join("", values) + ") returning id", params, Long.class);
+    }
+
+    public List<SyncScopeChange> findByUser(User user, DateTime lastModifiedDateTime, DateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", user.getId())
+                .addValue("lastModifiedDateTime", lastModifiedDateTime.toDate())
+                .addValue("now", now.toDate());
+        return jdbcTemplate.query(SELECT + "where c.user_id = :userId and c.is_voided = false " +
+                "and c.last_modified_date_time between :lastModifiedDateTime and :now order by c.last_modified_date_time, c.id", params, (rs, rowNum) -> new SyncScopeChange(rs));
+    }
+
+    public SyncScopeChange findByUuid(User user, String uuid) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", user.getId())
+                .addValue("uuid", uuid);
+        List<SyncScopeChange> changes = jdbcTemplate.query(SELECT + "where c.user_id = :userId and c.uuid = :uuid", params, (rs, rowNum) -> new SyncScopeChange(rs));
+        return changes.isEmpty() ? null : changes.get(0);
+    }
+
+    /**
+     * The added locations and the locations under them
+     */
+    public Set<Long> getAddedAddressLevelIds(SyncScopeChange syncScopeChange) {
+        return new HashSet<>(jdbcTemplate.queryForList("select al.id from address_level al where exists (" +
+                "select 1 from sync_scope_change c join address_level added on added.id = any(c.added_address_level_ids) " +
+                "where c.id = :id and added.lineage @> al.lineage)", new MapSqlParameterSource("id", syncScopeChange.id), Long.class));
+    }
+
+    /**
+     * Subjects that went out of the user's scope with the change, a page at a time in the order of their ids. Subjects
+     * in a removed location that are still in the user's catchment, through another location, are not removed.
+     */
+    public List<RemovedSubject> findRemovedSubjects(SyncScopeChange syncScopeChange, Long catchmentId, Long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", syncScopeChange.id)
+                .addValue("catchmentId", catchmentId)
+                .addValue("afterId", afterId == null ? 0 : afterId)
+                .addValue("limit", limit);
+        String removed = syncScopeChange.isLocationChange() ?
+                "join subject_type st on st.id = i.subject_type_id " +
+                        "where st.should_sync_by_location " +
+                        "and exists (select 1 from address_level al join address_level removed on removed.id = any(c.removed_address_level_ids) " +
+                        "where al.id = i.address_id and removed.lineage @> al.lineage) " +
+                        "and not exists (select 1 from virtual_catchment_address_mapping_table v where v.catchment_id = :catchmentId and v.addresslevel_id = i.address_id) " :
+                "where i.subject_type_id = c.subject_type_id " +
+                        "and (i.sync_concept_1_value = any(c.removed_sync_concept_1_values) or i.sync_concept_2_value = any(c.removed_sync_concept_2_values)) ";
+        return jdbcTemplate.query("select i.id, i.uuid from individual i join sync_scope_change c on c.id = :id " + removed +
+                "and i.id > :afterId order by i.id limit :limit", params, (rs, rowNum) -> new RemovedSubject(rs));
+    }
+}
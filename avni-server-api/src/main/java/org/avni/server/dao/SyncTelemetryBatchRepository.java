@@ -0,0 +1,78 @@
+package org.avni.server.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.avni.server.domain.JsonObject;
+import org.avni.server.domain.SyncTelemetry;
+import org.joda.time.DateTime;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserts sync telemetry with one multi-row insert per batch, instead of one insert per row. sync_telemetry is
+ * partitioned by month, see create_sync_telemetry_partition.
+ */
+@Component
+public class SyncTelemetryBatchRepository {
+    private static final String INSERT = "insert into sync_telemetry (uuid, user_id, organisation_id, sync_status, sync_start_time, sync_end_time, " +
+            "entity_status, app_version, android_version, device_name, device_info, sync_source, " +
+            "created_by_id, last_modified_by_id, created_date_time, last_modified_date_time) values ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, cast(? as jsonb), ?, ?, ?, cast(? as jsonb), ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public SyncTelemetryBatchRepository(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate.getJdbcTemplate();
+        this.objectMapper = objectMapper;
+    }
+
+    public void insert(List<SyncTelemetry> syncTelemetries) {
+        if (syncTelemetries.isEmpty()) return;
+        List<Object> args = new ArrayList<>();
+        for (SyncTelemetry syncTelemetry : syncTelemetries) {
+            Long userId = syncTelemetry.getUser().getId();
+            Timestamp receivedAt = toTimestamp(syncTelemetry.getCreatedDateTime());
+            args.add(syncTelemetry.getUuid());
+            args.add(userId);
+            args.add(syncTelemetry.getOrganisationId());
+            args.add(syncTelemetry.getSyncStatus());
+            args.add(toTimestamp(syncTelemetry.getSyncStartTime()));
+            args.add(toTimestamp(syncTelemetry.getSyncEndTime()));
+            args.add(toJson(syncTelemetry.getEntityStatus()));
+            args.add(syncTelemetry.getAppVersion());
+            args.add(syncTelemetry.getAndroidVersion());
+            args.add(syncTelemetry.getDeviceName());
+            args.add(toJson(syncTelemetry.getDeviceInfo()));
+            args.add(syncTelemetry.getSyncSource());
+            args.add(userId);
+            args.add(userId);
+            args.add(receivedAt);
+            args.add(receivedAt);
+        }
+        jdbcTemplate.update(INSERT + String.join(", ", Collections.nCopies(syncTelemetries.size(), ROW)), args.toArray());
+    }
+
+    public void createPartitions() {
+        jdbcTemplate.queryForList("select create_sync_telemetry_partition(current_date), " +
+                "create_sync_telemetry_partition((current_date + interval '1 month')::date)");
+    }
+
+    private static Timestamp toTimestamp(DateTime dateTime) {
+        return dateTime == null ? null : new Timestamp(dateTime.getMillis());
+    }
+
+    private String toJson(JsonObject jsonObject) {
+        try {
+            return jsonObject == null ? null : objectMapper.writeValueAsString(jsonObject);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
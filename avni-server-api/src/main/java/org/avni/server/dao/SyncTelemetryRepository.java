@@ -1,12 +1,16 @@
 package org.avni.server.dao;
 
+import org.avni.server.application.projections.SyncTelemetrySummaryProjection;
 import org.avni.server.domain.SyncTelemetry;
 import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -19,4 +23,22 @@ public interface SyncTelemetryRepository extends AvniJpaRepository<SyncTelemetry
     Page<SyncTelemetry> findAllBySyncStartTimeBetweenOrderByIdDesc(DateTime startDate, DateTime endDate, Pageable pageable);
 
     Page<SyncTelemetry> findAllByUserIdInAndSyncStartTimeBetweenOrderByIdDesc(List<Long> userIds, DateTime startDate, DateTime endDate, Pageable pageable);
+
+    String SUMMARY = "select st.user_id as userId, coalesce(u.name, u.username) as userName, count(*) as syncCount, " +
+            "count(*) filter (where st.sync_status = 'complete') as completeCount, " +
+            "count(*) filter (where st.sync_status = 'incomplete') as incompleteCount, " +
+            "max(st.sync_start_time) as lastSyncStartTime, " +
+            "(array_agg(st.app_version order by st.sync_start_time desc))[1] as lastAppVersion " +
+            "from sync_telemetry st join users u on u.id = st.user_id " +
+            "where st.sync_start_time >= :startTime and st.sync_start_time < :endTime ";
+    String SUMMARY_GROUPING = "group by st.user_id, u.name, u.username order by max(st.sync_start_time) desc";
+
+    /**
+     * One row per user who synced in the period. Only the partitions of the months in the period are read.
+     */
+    @Query(value = SUMMARY + SUMMARY_GROUPING, nativeQuery = true)
+    List<SyncTelemetrySummaryProjection> getSummary(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
+
+    @Query(value = SUMMARY + "and st.user_id in (:userIds) " + SUMMARY_GROUPING, nativeQuery = true)
+    List<SyncTelemetrySummaryProjection> getSummary(@Param("startTime") Date startTime, @Param("endTime") Date endTime, @Param("userIds") List<Long> userIds);
 }
@@ -0,0 +1,123 @@
+package org.avni.server.dao;
+
+import org.avni.server.framework.security.UserContextHolder;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Set based writes for user subject assignment. Assigning a subject to a user has to make the subject and all its
+ * dependent rows sync again for that user, which is done here by bumping their last_modified_date_time in bulk.
+ */
+@Component
+public class UserSubjectAssignmentBulkRepository {
+    private static final String MEMBER_SUBJECTS_QUERY = "with recursive subjects(id) as (\n" +
+            "    select i.id from individual i where i.id in (:subjectIds)\n" +
+            "    union\n" +
+            "    select gs.member_subject_id from group_subject gs\n" +
+            "        join subjects s on s.id = gs.group_subject_id\n" +
+            "    where gs.is_voided = false\n" +
+            ")\n" +
+            "select s.id from subjects s";
+
+    private static final String UPSERT_ASSIGNMENT = "insert into user_subject_assignment(uuid, user_id, subject_id, organisation_id, is_voided, version, created_by_id,\n" +
+            "                                    last_modified_by_id, created_date_time, last_modified_date_time)\n" +
+            "select uuid_generate_v4(), :userId, i.id, i.organisation_id, :voided, 0, :lastModifiedById, :lastModifiedById, current_timestamp, current_timestamp\n" +
+            "from individual i\n" +
+            "where i.id in (:subjectIds)\n" +
+            "on conflict (subject_id, user_id, organisation_id) do update\n" +
+            "    set is_voided = excluded.is_voided,\n" +
+            "        version = user_subject_assignment.version + 1,\n" +
+            "        last_modified_by_id = excluded.last_modified_by_id,\n" +
+            "        last_modified_date_time = excluded.last_modified_date_time";
+
+    private static final String AUDIT_COLUMNS = " set version = version + 1, last_modified_date_time = current_timestamp, last_modified_by_id = :lastModifiedById";
+
+    private static final String TOUCH_SUBJECTS = "update individual" + AUDIT_COLUMNS + " where id in (:subjectIds)";
+
+    private static final String TOUCH_ENROLMENTS = "update program_enrolment" + AUDIT_COLUMNS + " where individual_id in (:subjectIds)";
+
+    private static final String TOUCH_PROGRAM_ENCOUNTERS = "update program_encounter pe" + AUDIT_COLUMNS + "\n" +
+            "from program_enrolment enl\n" +
+            "where pe.program_enrolment_id = enl.id and enl.individual_id in (:subjectIds)";
+
+    private static final String TOUCH_ENCOUNTERS = "update encounter" + AUDIT_COLUMNS + " where individual_id in (:subjectIds)";
+
+    private static final String TOUCH_CHECKLISTS = "update checklist c" + AUDIT_COLUMNS + "\n" +
+            "from program_enrolment enl\n" +
+            "         join individual i on i.id = enl.individual_id\n" +
+            "where c.program_enrolment_id = enl.id\n" +
+            "  and enl.individual_id in (:subjectIds)\n" +
+            "  and concat(i.subject_type_id, ':', c.checklist_detail_id) in (:viewableChecklists)";
+
+    private static final String TOUCH_CHECKLIST_ITEMS = "update checklist_item ci" + AUDIT_COLUMNS + "\n" +
+            "from checklist c\n" +
+            "         join program_enrolment enl on enl.id = c.program_enrolment_id\n" +
+            "         join individual i on i.id = enl.individual_id\n" +
+            "where ci.checklist_id = c.id\n" +
+            "  and enl.individual_id in (:subjectIds)\n" +
+            "  and concat(i.subject_type_id, ':', c.checklist_detail_id) in (:viewableChecklists)";
+
+    private static final String TOUCH_RELATIONSHIPS = "update individual_relationship ir" + AUDIT_COLUMNS + "\n" +
+            "from individual a, individual b\n" +
+            "where a.id = ir.individual_a_id and b.id = ir.individual_b_id\n" +
+            "  and (ir.individual_a_id in (:subjectIds) or ir.individual_b_id in (:subjectIds))\n" +
+            "  and a.subject_type_id in (:viewableSubjectTypeIds) and b.subject_type_id in (:viewableSubjectTypeIds)";
+
+    private static final String TOUCH_GROUP_SUBJECTS = "update group_subject gs" + AUDIT_COLUMNS + "\n" +
+            "from individual g, individual m\n" +
+            "where g.id = gs.group_subject_id and m.id = gs.member_subject_id\n" +
+            "  and (gs.group_subject_id in (:subjectIds) or gs.member_subject_id in (:subjectIds))\n" +
+            "  and g.subject_type_id in (:viewableSubjectTypeIds) and m.subject_type_id in (:viewableSubjectTypeIds)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserSubjectAssignmentBulkRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the given subjects along with the non voided members of the groups among them, recursively
+     */
+    public List<Long> getSubjectIdsWithMembers(List<Long> subjectIds) {
+        if (subjectIds.isEmpty()) return Collections.emptyList();
+        return jdbcTemplate.queryForList(MEMBER_SUBJECTS_QUERY, Collections.singletonMap("subjectIds", subjectIds), Long.class);
+    }
+
+    /**
+     * Upserts the assignments of one chunk of subjects and marks the dependent rows changed, in a single transaction.
+     *
+     * @param viewableSubjectTypeIds subject types the user can view, used for relationships and group subjects
+     * @param viewableChecklists "subjectTypeId:checklistDetailId" pairs the user can view
+     * @return number of assignments written
+     */
+    @Transactional
+    public int assign(Long userId, List<Long> subjectIds, boolean voided, Collection<Long> viewableSubjectTypeIds, Collection<String> viewableChecklists) {
+        if (subjectIds.isEmpty()) return 0;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("subjectIds", subjectIds)
+                .addValue("voided", voided)
+                .addValue("lastModifiedById", UserContextHolder.getUserContext().getUser().getId())
+                .addValue("viewableSubjectTypeIds", viewableSubjectTypeIds)
+                .addValue("viewableChecklists", viewableChecklists);
+
+        int assigned = jdbcTemplate.update(UPSERT_ASSIGNMENT, params);
+        jdbcTemplate.update(TOUCH_SUBJECTS, params);
+        jdbcTemplate.update(TOUCH_ENROLMENTS, params);
+        jdbcTemplate.update(TOUCH_PROGRAM_ENCOUNTERS, params);
+        jdbcTemplate.update(TOUCH_ENCOUNTERS, params);
+        if (!viewableChecklists.isEmpty()) {
+            jdbcTemplate.update(TOUCH_CHECKLISTS, params);
+            jdbcTemplate.update(TOUCH_CHECKLIST_ITEMS, params);
+        }
+        if (!viewableSubjectTypeIds.isEmpty()) {
+            jdbcTemplate.update(TOUCH_RELATIONSHIPS, params);
+            jdbcTemplate.update(TOUCH_GROUP_SUBJECTS, params);
+        }
+        return assigned;
+    }
+}
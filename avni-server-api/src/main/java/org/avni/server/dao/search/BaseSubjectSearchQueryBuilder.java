@@ -40,6 +40,9 @@ public class BaseSubjectSearchQueryBuilder<T> {
     private Set<String> joinClauses = new LinkedHashSet<>();
     private Map<String, Object> parameters = new HashMap<>();
     private boolean forCount;
+    private boolean forEstimate;
+    private boolean keyset;
+    private String keysetClause;
     private Set<String> customFields = new HashSet<>();
 
     public BaseSubjectSearchQueryBuilder() {
@@ -50,12 +53,16 @@ public class BaseSubjectSearchQueryBuilder<T> {
         StringBuffer query = new StringBuffer();
         query.append(baseQuery);
         query.append(String.join(" \n ", joinClauses));
-        if (!whereClauses.isEmpty()) {
+        List<String> clauses = new ArrayList<>(whereClauses);
+        if (keysetClause != null && !forCount && !forEstimate) {
+            clauses.add(keysetClause);
+        }
+        if (!clauses.isEmpty()) {
             query.append("\n where \n");
         }
-        query.append(String.join(" \nand ", whereClauses));
+        query.append(String.join(" \nand ", clauses));
         query.append(groupByClause);
-        if (parameters.get("offset") == null || parameters.get("limit") == null) {
+        if (parameters.get("limit") == null || (!keyset && parameters.get("offset") == null)) {
             addDefaultPaginationFilters();
         }
 
@@ -63,6 +70,9 @@ public class BaseSubjectSearchQueryBuilder<T> {
         if (forCount) {
             finalQuery = "select count(*) from (" + query.toString() + ") a";
             removePaginationFilters();
+        } else if (forEstimate) {
+            finalQuery = "explain " + query.toString();
+            removePaginationFilters();
         } else {
             finalQuery = query.append("\n")
                     .append(orderByClause)
@@ -77,16 +87,23 @@ public class BaseSubjectSearchQueryBuilder<T> {
     }
 
     private void addDefaultPaginationFilters() {
-        parameters.put("offset", 0);
+        if (!keyset) {
+            parameters.put("offset", 0);
+        }
         parameters.put("limit", 10);
     }
 
     private void removePaginationFilters() {
         parameters.remove("offset");
         parameters.remove("limit");
+        parameters.remove("searchAfterId");
+        parameters.remove("searchAfterSortValue");
     }
 
     protected T withPaginationFilters(PageDetails pageElement) {
+        if (pageElement.isKeysetPagination()) {
+            return withKeysetPaginationFilters(pageElement);
+        }
         int offset = 0, limit = 10;
         if (pageElement.getNumberOfRecordPerPage() != null) {
             limit = pageElement.getNumberOfRecordPerPage();
@@ -101,22 +118,52 @@ public class BaseSubjectSearchQueryBuilder<T> {
         if (sortColumn != null && !sortColumn.isEmpty()) {
             SortOrder sortOrder = Optional.ofNullable(pageElement.getSortOrder()).orElse(SortOrder.asc);
 
-            Map<String, String> columnsMap = new HashMap<String, String>() {
-                {
-                    put("ID", "i.id");
-                    put("FULLNAME", "concat_ws(' ',i.first_name,i.middle_name,i.last_name)");
-                    put("SUBJECTTYPE", "st.name");
-                    put("GENDER", "gender.name");
-                    put("DATEOFBIRTH", "i.date_of_birth");
-                    put("TITLE_LINEAGE", "tllv.title_lineage");
+            this.orderByClause = "order by " + SubjectSearchSortColumn.from(sortColumn).getExpression() + " " + sortOrder.name() + ", i.id desc";
+        }
 
-                }
-            };
 
-            this.orderByClause = "order by " + columnsMap.get(sortColumn.toUpperCase()) + " " + sortOrder.name() + ", i.id desc";
+        return (T) this;
+    }
+
+    /**
+     * Seeks past the (sort column, i.id) of the last row of the previous page instead of skipping rows with an offset,
+     * so that the cost of fetching a page does not grow with the page number. Both columns are ordered in the same
+     * direction and nulls in the sort column are placed last, so that the seek predicate matches the ordering.
+     */
+    protected T withKeysetPaginationFilters(PageDetails pageElement) {
+        keyset = true;
+        offsetLimitClause = "limit :limit";
+        parameters.remove("offset");
+        parameters.put("limit", Optional.ofNullable(pageElement.getNumberOfRecordPerPage()).orElse(10));
+
+        SubjectSearchSortColumn sortColumn = SubjectSearchSortColumn.from(pageElement.getSortColumn());
+        SortOrder defaultSortOrder = SubjectSearchSortColumn.ID.equals(sortColumn) ? SortOrder.desc : SortOrder.asc;
+        SortOrder sortOrder = Optional.ofNullable(pageElement.getSortOrder()).orElse(defaultSortOrder);
+        String direction = sortOrder.name();
+        String comparison = SortOrder.asc.equals(sortOrder) ? ">" : "<";
+        String sortExpression = sortColumn.getExpression();
+
+        if (SubjectSearchSortColumn.ID.equals(sortColumn)) {
+            this.orderByClause = String.format("order by i.id %s", direction);
+        } else {
+            this.orderByClause = String.format("order by %s %s nulls last, i.id %s", sortExpression, direction, direction);
         }
 
+        SearchAfter searchAfter = pageElement.getSearchAfter();
+        if (searchAfter == null || searchAfter.getId() == null) return (T) this;
 
+        parameters.put("searchAfterId", searchAfter.getId());
+        String idClause = String.format("i.id %s :searchAfterId", comparison);
+        if (SubjectSearchSortColumn.ID.equals(sortColumn)) {
+            keysetClause = idClause;
+        } else if (searchAfter.getSortValue() == null) {
+            keysetClause = String.format("(%s is null and %s)", sortExpression, idClause);
+        } else {
+            parameters.put("searchAfterSortValue", searchAfter.getSortValue());
+            String sortValue = String.format("cast(:searchAfterSortValue as %s)", sortColumn.getSqlType());
+            keysetClause = String.format("(%1$s %2$s %3$s or (%1$s = %3$s and %4$s) or %1$s is null)",
+                    sortExpression, comparison, sortValue, idClause);
+        }
         return (T) this;
     }
 
@@ -162,15 +209,13 @@ public class BaseSubjectSearchQueryBuilder<T> {
         if (name != null && !name.isEmpty()) {
             String[] tokens = name.split("\\s+");
             StringBuffer whereClause = new StringBuffer();
-            whereClause.append("(");
+            whereClause.append("i.id in (select ssi.individual_id from subject_search_index ssi where ");
             List<String> clauses = new ArrayList<>();
             for (int i = 0; i < tokens.length; i++) {
                 String token = "%" + tokens[i] + "%";
                 String parameter = "subjectSearchToken" + i;
                 addParameter(parameter, token);
-                clauses.add("    (i.first_name ilike :" + parameter + "\n" +
-                        "        or i.middle_name ilike :" + parameter + "\n" +
-                        "        or i.last_name ilike :" + parameter + ")");
+                clauses.add("ssi.search_text ilike :" + parameter);
             }
             whereClause.append(String.join(" and ", clauses));
             whereClause.append(")");
@@ -374,4 +419,9 @@ public class BaseSubjectSearchQueryBuilder<T> {
         this.forCount = true;
         return (T) this;
     }
+
+    public T forEstimate() {
+        this.forEstimate = true;
+        return (T) this;
+    }
 }
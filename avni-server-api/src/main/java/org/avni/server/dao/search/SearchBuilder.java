@@ -6,4 +6,6 @@ public interface SearchBuilder {
     SqlQuery getSQLResultQuery(SubjectSearchRequest searchRequest);
 
     SqlQuery getSQLCountQuery(SubjectSearchRequest searchRequest);
+
+    SqlQuery getSQLEstimateQuery(SubjectSearchRequest searchRequest);
 }
@@ -16,11 +16,15 @@ public class SubjectAssignmentSearchQueryBuilder extends BaseSubjectSearchQueryB
                 "       cast(concat_ws(' ', i.first_name, i.middle_name, i.last_name) as text) as \"fullName\",\n" +
                 "       i.uuid                                                                 as \"uuid\",\n" +
                 "       cast(tllv.title_lineage as text)                                       as \"addressLevel\",\n" +
+                "       st.name                                                                as \"subjectTypeName\",\n" +
+                "       gender.name                                                            as \"gender\",\n" +
+                "       i.date_of_birth                                                        as \"dateOfBirth\",\n" +
                 "       string_agg(distinct p.name || ':' || p.colour, ', ')                   as \"programs\",\n" +
                 "       string_agg(distinct assigned_to.name || ':' || g.name, ', ')           as \"assignedTo\"\n" +
                 "       $CUSTOM_FIELDS\n" +
                 "from individual i\n" +
                 "         left outer join title_lineage_locations_view tllv on i.address_id = tllv.lowestpoint_id\n" +
+                "         left outer join gender on i.gender_id = gender.id\n" +
                 "         left outer join subject_type st on i.subject_type_id = st.id and st.is_voided is false\n" +
                 "         left outer join program_enrolment penr on i.id = penr.individual_id and penr.is_voided is false\n" +
                 "         left outer join program p on p.id = penr.program_id\n" +
@@ -28,7 +32,7 @@ public class SubjectAssignmentSearchQueryBuilder extends BaseSubjectSearchQueryB
                 "         left outer join users assigned_to on usa.user_id = assigned_to.id\n" +
                 "         left outer join user_group ug on ug.user_id = assigned_to.id and ug.is_voided is false\n" +
                 "         left outer join groups g on g.id = ug.group_id and g.is_voided is false\n";
-        return super.buildUsingBaseQuery(SUBJECT_ASSIGNMENT_SEARCH_BASE_QUERY, "\n group by 1, 2, 3, 4");
+        return super.buildUsingBaseQuery(SUBJECT_ASSIGNMENT_SEARCH_BASE_QUERY, "\n group by 1, 2, 3, 4, 5, 6, 7");
     }
 
     public SubjectAssignmentSearchQueryBuilder withSubjectSearchFilter(SubjectSearchRequest request) {
@@ -118,4 +122,9 @@ public class SubjectAssignmentSearchQueryBuilder extends BaseSubjectSearchQueryB
     public SqlQuery getSQLCountQuery(SubjectSearchRequest searchRequest) {
         return this.withSubjectSearchFilter(searchRequest).forCount().build();
     }
+
+    @Override
+    public SqlQuery getSQLEstimateQuery(SubjectSearchRequest searchRequest) {
+        return this.withSubjectSearchFilter(searchRequest).forEstimate().build();
+    }
 }
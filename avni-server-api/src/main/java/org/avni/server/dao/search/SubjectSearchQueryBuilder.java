@@ -78,4 +78,9 @@ public class SubjectSearchQueryBuilder extends BaseSubjectSearchQueryBuilder<Sub
     public SqlQuery getSQLCountQuery(SubjectSearchRequest searchRequest) {
         return this.withSubjectSearchFilter(searchRequest).forCount().build();
     }
+
+    @Override
+    public SqlQuery getSQLEstimateQuery(SubjectSearchRequest searchRequest) {
+        return this.withSubjectSearchFilter(searchRequest).forEstimate().build();
+    }
 }
@@ -0,0 +1,59 @@
+package org.avni.server.dao.search;
+
+import org.avni.server.web.request.webapp.search.PageDetails;
+import org.avni.server.web.request.webapp.search.SearchAfter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public enum SubjectSearchSortColumn {
+    ID("i.id", "bigint", "id"),
+    FULLNAME("concat_ws(' ',i.first_name,i.middle_name,i.last_name)", "text", "fullName"),
+    SUBJECTTYPE("st.name", "text", "subjectTypeName"),
+    GENDER("gender.name", "text", "gender"),
+    DATEOFBIRTH("i.date_of_birth", "date", "dateOfBirth"),
+    TITLE_LINEAGE("tllv.title_lineage", "text", "addressLevel");
+
+    private final String expression;
+    private final String sqlType;
+    private final String resultAlias;
+
+    SubjectSearchSortColumn(String expression, String sqlType, String resultAlias) {
+        this.expression = expression;
+        this.sqlType = sqlType;
+        this.resultAlias = resultAlias;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public String getSqlType() {
+        return sqlType;
+    }
+
+    public String getResultAlias() {
+        return resultAlias;
+    }
+
+    public static SubjectSearchSortColumn from(String sortColumn) {
+        if (sortColumn == null || sortColumn.isEmpty()) return ID;
+        return SubjectSearchSortColumn.valueOf(sortColumn.toUpperCase());
+    }
+
+    /**
+     * Cursor to be passed back as {@link PageDetails#getSearchAfter()} to fetch the page following these results.
+     * Returns null when the results do not fill the page, i.e. there are no more pages.
+     */
+    public static SearchAfter nextPage(List<Map<String, Object>> results, PageDetails pageDetails) {
+        if (pageDetails == null || !pageDetails.isKeysetPagination() || results.isEmpty()) return null;
+        int limit = Optional.ofNullable(pageDetails.getNumberOfRecordPerPage()).orElse(10);
+        if (results.size() < limit) return null;
+
+        Map<String, Object> lastRecord = results.get(results.size() - 1);
+        Object sortValue = lastRecord.get(from(pageDetails.getSortColumn()).getResultAlias());
+        Long id = Long.parseLong(lastRecord.get(ID.getResultAlias()).toString());
+        return new SearchAfter(sortValue == null ? null : sortValue.toString(), id);
+    }
+}
@@ -0,0 +1,83 @@
+package org.avni.server.dao.sync;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the rows of a sync page with the columns that go into the sync response, so that the response can be written
+ * without loading entities. Rows are handed over in the order of the given ids, which is the order of the sync query.
+ */
+@Component
+public class SyncRowRepository {
+    private static final String AUDIT_COLUMNS = "e.id, e.uuid, e.is_voided, e.created_date_time, e.last_modified_date_time, e.version, e.organisation_id,\n" +
+            "       cb.username as created_by, lmb.username as last_modified_by,\n";
+
+    private static final String AUDIT_JOINS = "         join users cb on cb.id = e.created_by_id\n" +
+            "         join users lmb on lmb.id = e.last_modified_by_id\n";
+
+    private static final String IN_PAGE_ORDER = "where e.id in (:ids)\n" +
+            "order by array_position(cast(array[:ids] as bigint[]), e.id)";
+
+    private static final String ENCOUNTER_COLUMNS = "e.name, e.earliest_visit_date_time, e.max_visit_date_time, e.encounter_date_time, e.observations,\n" +
+            "       e.cancel_date_time, e.cancel_observations, e.encounter_location, e.cancel_location, e.legacy_id,\n" +
+            "       e.encounter_type_id, et.uuid as encounter_type_uuid,\n";
+
+    private static final String INDIVIDUALS_QUERY = "select " + AUDIT_COLUMNS +
+            "       e.legacy_id, e.first_name, e.middle_name, e.last_name, e.profile_picture, e.date_of_birth, e.date_of_birth_verified,\n" +
+            "       e.registration_date, e.observations, e.registration_location, e.address_id, e.gender_id, e.subject_type_id,\n" +
+            "       al.uuid as address_uuid, g.uuid as gender_uuid, st.uuid as subject_type_uuid\n" +
+            "from individual e\n" + AUDIT_JOINS +
+            "         join subject_type st on st.id = e.subject_type_id\n" +
+            "         left join address_level al on al.id = e.address_id\n" +
+            "         left join gender g on g.id = e.gender_id\n" + IN_PAGE_ORDER;
+
+    private static final String ENCOUNTERS_QUERY = "select " + AUDIT_COLUMNS + ENCOUNTER_COLUMNS +
+            "       i.uuid as individual_uuid\n" +
+            "from encounter e\n" + AUDIT_JOINS +
+            "         join encounter_type et on et.id = e.encounter_type_id\n" +
+            "         join individual i on i.id = e.individual_id\n" + IN_PAGE_ORDER;
+
+    private static final String PROGRAM_ENCOUNTERS_QUERY = "select " + AUDIT_COLUMNS + ENCOUNTER_COLUMNS +
+            "       enl.uuid as program_enrolment_uuid\n" +
+            "from program_encounter e\n" + AUDIT_JOINS +
+            "         join encounter_type et on et.id = e.encounter_type_id\n" +
+            "         join program_enrolment enl on enl.id = e.program_enrolment_id\n" + IN_PAGE_ORDER;
+
+    private static final String REFERENCED_IDS_QUERY = "select distinct %1$s from %2$s where id in (:ids) and %1$s is not null";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SyncRowRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void readIndividuals(List<Long> ids, RowCallbackHandler rowCallbackHandler) {
+        read(INDIVIDUALS_QUERY, ids, rowCallbackHandler);
+    }
+
+    public void readEncounters(List<Long> ids, RowCallbackHandler rowCallbackHandler) {
+        read(ENCOUNTERS_QUERY, ids, rowCallbackHandler);
+    }
+
+    public void readProgramEncounters(List<Long> ids, RowCallbackHandler rowCallbackHandler) {
+        read(PROGRAM_ENCOUNTERS_QUERY, ids, rowCallbackHandler);
+    }
+
+    /**
+     * Ids of the entities that the rows of a sync page refer to through the given column, so that they can be loaded
+     * together before the rows are read.
+     */
+    public List<Long> readReferencedIds(String table, String column, List<Long> ids) {
+        if (ids.isEmpty()) return Collections.emptyList();
+        return jdbcTemplate.queryForList(String.format(REFERENCED_IDS_QUERY, column, table), Collections.singletonMap("ids", ids), Long.class);
+    }
+
+    private void read(String query, List<Long> ids, RowCallbackHandler rowCallbackHandler) {
+        if (ids.isEmpty()) return;
+        jdbcTemplate.query(query, Collections.singletonMap("ids", ids), rowCallbackHandler);
+    }
+}
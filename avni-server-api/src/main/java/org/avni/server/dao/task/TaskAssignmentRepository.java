@@ -0,0 +1,67 @@
+package org.avni.server.dao.task;
+
+import org.avni.server.domain.task.TaskStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Assigns a chunk of tasks with one statement for the unassignments and one for the tasks, instead of saving each task.
+ * Tasks are handed to the users in turn in the order of their ids, starting with the user at offset, so that a caller
+ * assigning several chunks carries the turn over from one chunk to the next.
+ */
+@Component
+public class TaskAssignmentRepository {
+    private static final String NEW_ASSIGNMENT = "with new_assignment as (" +
+            "    select t.id as task_id, t.organisation_id, t.assigned_user_id as old_user_id, u.user_id " +
+            "    from (select id, organisation_id, assigned_user_id, row_number() over (order by id) - 1 as position " +
+            "          from task where id in (:taskIds)) t " +
+            "    join unnest(cast(array[:userIds] as bigint[])) with ordinality as u(user_id, user_position) " +
+            "         on u.user_position - 1 = (t.position + :offset) % :userCount) ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TaskAssignmentRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void assign(List<Long> taskIds, List<Long> userIds, long offset, Long lastModifiedById) {
+        MapSqlParameterSource params = auditParams(taskIds, lastModifiedById)
+                .addValue("userIds", userIds)
+                .addValue("userCount", userIds.size())
+                .addValue("offset", offset);
+        jdbcTemplate.update(NEW_ASSIGNMENT +
+                "insert into task_unassignment (uuid, organisation_id, is_voided, version, created_by_id, last_modified_by_id, " +
+                "                               created_date_time, last_modified_date_time, task_id, unassigned_user_id) " +
+                "select uuid_generate_v4(), organisation_id, false, 0, :lastModifiedById, :lastModifiedById, " +
+                "       :lastModifiedDateTime, :lastModifiedDateTime, task_id, old_user_id " +
+                "from new_assignment where old_user_id <> user_id", params);
+        jdbcTemplate.update(NEW_ASSIGNMENT +
+                "update task t set assigned_user_id = a.user_id, version = t.version + 1, " +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "from new_assignment a where t.id = a.task_id and t.assigned_user_id is distinct from a.user_id", params);
+    }
+
+    /**
+     * Does what Task.updateTaskStatus does for each task of the chunk
+     */
+    public void updateStatus(List<Long> taskIds, TaskStatus taskStatus, Long lastModifiedById) {
+        MapSqlParameterSource params = auditParams(taskIds, lastModifiedById)
+                .addValue("taskStatusId", taskStatus.getId());
+        String completedOn = taskStatus.isTerminal() ? "completed_on = :lastModifiedDateTime, " : "";
+        jdbcTemplate.update("update task set task_status_id = :taskStatusId, version = version + 1, " + completedOn +
+                "last_modified_date_time = :lastModifiedDateTime, last_modified_by_id = :lastModifiedById " +
+                "where id in (:taskIds)", params);
+    }
+
+    private MapSqlParameterSource auditParams(List<Long> taskIds, Long lastModifiedById) {
+        return new MapSqlParameterSource()
+                .addValue("taskIds", taskIds)
+                .addValue("lastModifiedDateTime", new Timestamp(new Date().getTime()))
+                .addValue("lastModifiedById", lastModifiedById);
+    }
+}
@@ -35,7 +35,7 @@ public interface TaskRepository extends TransactionalDataRepository<Task>, FindB
     default Page<Task> search(TaskSearchCriteria searchCriteria, boolean isUnassigned, Pageable pageable) {
         Specification<Task> spec = (Root<Task> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
             List<Predicate> predicates = new ArrayList<>();
-            String today = TaskSearchCriteria.DATE_TIME_FORMATTER.print(new DateTime());
+            DateTime endOfToday = TaskSearchCriteria.endOfToday();
             if (searchCriteria.getTaskType() != null)
                 predicates.add(cb.equal(root.join("taskType"), searchCriteria.getTaskType()));
             if (searchCriteria.getTaskStatus() != null)
@@ -44,12 +44,18 @@ public interface TaskRepository extends TransactionalDataRepository<Task>, FindB
                 predicates.add(cb.equal(root.join("assignedTo"), searchCriteria.getAssignedTo()));
             if (isUnassigned)
                 predicates.add(cb.isNull(root.get("assignedTo")));
-            if (searchCriteria.getCreatedOn() != null)
-                predicates.add(cb.between(convertToDate(root.get("createdDateTime"), cb), searchCriteria.getFormattedCreatedOn(), today));
-            if (searchCriteria.getScheduledOn() != null)
-                predicates.add(cb.between(convertToDate(root.get("scheduledOn"), cb), searchCriteria.getFormattedScheduledOn(), today));
-            if (searchCriteria.getCompletedOn() != null)
-                predicates.add(cb.between(convertToDate(root.get("completedOn"), cb), searchCriteria.getFormattedCompletedOn(), today));
+            if (searchCriteria.getCreatedOn() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdDateTime"), cb.literal(TaskSearchCriteria.startOfDay(searchCriteria.getCreatedOn()).toDate())));
+                predicates.add(cb.lessThan(root.get("createdDateTime"), cb.literal(endOfToday.toDate())));
+            }
+            if (searchCriteria.getScheduledOn() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("scheduledOn"), cb.literal(TaskSearchCriteria.startOfDay(searchCriteria.getScheduledOn()))));
+                predicates.add(cb.lessThan(root.get("scheduledOn"), cb.literal(endOfToday)));
+            }
+            if (searchCriteria.getCompletedOn() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("completedOn"), cb.literal(TaskSearchCriteria.startOfDay(searchCriteria.getCompletedOn()))));
+                predicates.add(cb.lessThan(root.get("completedOn"), cb.literal(endOfToday)));
+            }
 
             searchCriteria.getMetadata().forEach((concept, value) -> {
                 predicates.add(cb.equal(jsonExtractPathText(root.get("metadata"), concept.getUuid(), cb), value));
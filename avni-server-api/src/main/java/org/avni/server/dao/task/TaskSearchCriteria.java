@@ -5,15 +5,11 @@ import org.avni.server.domain.User;
 import org.avni.server.domain.task.TaskStatus;
 import org.avni.server.domain.task.TaskType;
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class TaskSearchCriteria {
-    public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormat.forPattern("yyyy-MM-dd");
-
     private TaskType taskType;
     private TaskStatus taskStatus;
     private User assignedTo;
@@ -78,14 +74,15 @@ public class TaskSearchCriteria {
         this.scheduledOn = scheduledOn;
     }
 
-    public String getFormattedCreatedOn() {
-        return DATE_TIME_FORMATTER.print(createdOn);
-    }
-    public String getFormattedScheduledOn() {
-        return DATE_TIME_FORMATTER.print(scheduledOn);
+    /**
+     * Dates are matched from the start of the date in the criteria till the end of today. The range is on the column
+     * itself, rather than on its date, so that an index on the column can be used.
+     */
+    public static DateTime startOfDay(DateTime dateTime) {
+        return dateTime.withTimeAtStartOfDay();
     }
 
-    public String getFormattedCompletedOn() {
-        return DATE_TIME_FORMATTER.print(completedOn);
+    public static DateTime endOfToday() {
+        return new DateTime().plusDays(1).withTimeAtStartOfDay();
     }
 }
@@ -0,0 +1,90 @@
+package org.avni.server.dao.task;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.avni.server.domain.Concept;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds tasks a page at a time by id, starting after the last task of the previous page, so that a page deep in the
+ * result costs the same as the first one and no count is run. Coded metadata is matched by containment, which uses the
+ * GIN index on task metadata.
+ */
+@Component
+public class TaskSearchRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public TaskSearchRepository(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<Long> findTaskIds(TaskSearchCriteria searchCriteria, boolean isUnassigned, Long afterId, int limit) {
+        List<String> predicates = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("limit", limit);
+        if (afterId != null) {
+            predicates.add("t.id > :afterId");
+            params.addValue("afterId", afterId);
+        }
+        if (searchCriteria.getTaskType() != null) {
+            predicates.add("t.task_type_id = :taskTypeId");
+            params.addValue("taskTypeId", searchCriteria.getTaskType().getId());
+        }
+        if (searchCriteria.getTaskStatus() != null) {
+            predicates.add("t.task_status_id = :taskStatusId");
+            params.addValue("taskStatusId", searchCriteria.getTaskStatus().getId());
+        }
+        if (searchCriteria.getAssignedTo() != null) {
+            predicates.add("t.assigned_user_id = :assignedToId");
+            params.addValue("assignedToId", searchCriteria.getAssignedTo().getId());
+        }
+        if (isUnassigned) {
+            predicates.add("t.assigned_user_id is null");
+        }
+        if (searchCriteria.getCreatedOn() != null || searchCriteria.getScheduledOn() != null || searchCriteria.getCompletedOn() != null) {
+            params.addValue("endOfToday", TaskSearchCriteria.endOfToday().toDate());
+        }
+        if (searchCriteria.getCreatedOn() != null) {
+            predicates.add("t.created_date_time >= :createdOn and t.created_date_time < :endOfToday");
+            params.addValue("createdOn", TaskSearchCriteria.startOfDay(searchCriteria.getCreatedOn()).toDate());
+        }
+        if (searchCriteria.getScheduledOn() != null) {
+            predicates.add("t.scheduled_on >= :scheduledOn and t.scheduled_on < :endOfToday");
+            params.addValue("scheduledOn", TaskSearchCriteria.startOfDay(searchCriteria.getScheduledOn()).toDate());
+        }
+        if (searchCriteria.getCompletedOn() != null) {
+            predicates.add("t.completed_on >= :completedOn and t.completed_on < :endOfToday");
+            params.addValue("completedOn", TaskSearchCriteria.startOfDay(searchCriteria.getCompletedOn()).toDate());
+        }
+        int i = 0;
+        for (Map.Entry<Concept, Object> metadata : searchCriteria.getMetadata().entrySet()) {
+            String param = "metadata" + i++;
+            if (metadata.getKey().isCoded()) {
+                predicates.add(String.format("t.metadata @> cast(:%s as jsonb)", param));
+                params.addValue(param, toJson(metadata.getKey().getUuid(), metadata.getValue()));
+            } else {
+                predicates.add(String.format("jsonb_extract_path_text(t.metadata, :%sConcept) = :%s", param, param));
+                params.addValue(param + "Concept", metadata.getKey().getUuid());
+                params.addValue(param, String.valueOf(metadata.getValue()));
+            }
+        }
+        String where = predicates.isEmpty() ? "" : "where " + String.join(" and ", predicates) + " ";
+        return jdbcTemplate.queryForList("select t.id from task t " + where + "order by t.id limit :limit", params, Long.class);
+    }
+
+    private String toJson(String conceptUuid, Object value) {
+        try {
+            return objectMapper.writeValueAsString(Collections.singletonMap(conceptUuid, value));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
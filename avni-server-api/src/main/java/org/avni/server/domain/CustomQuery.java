@@ -16,6 +16,9 @@ public class CustomQuery extends OrganisationAwareEntity {
     @Column(name = "query")
     private String query;
 
+    @Column(name = "cache_ttl_seconds")
+    private Integer cacheTtlSeconds;
+
     public String getName() {
         return name;
     }
@@ -31,4 +34,12 @@ public class CustomQuery extends OrganisationAwareEntity {
     public void setQuery(String query) {
         this.query = query;
     }
+
+    public Integer getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(Integer cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
 }
@@ -17,6 +17,9 @@ public class ResetSync extends OrganisationAwareEntity {
     @JoinColumn(name = "subject_type_id")
     private SubjectType subjectType;
 
+    @Column(name = "sync_scope_change_id")
+    private Long syncScopeChangeId;
+
     public User getUser() {
         return user;
     }
@@ -32,4 +35,12 @@ public class ResetSync extends OrganisationAwareEntity {
     public void setSubjectType(SubjectType subjectType) {
         this.subjectType = subjectType;
     }
+
+    public Long getSyncScopeChangeId() {
+        return syncScopeChangeId;
+    }
+
+    public void setSyncScopeChangeId(Long syncScopeChangeId) {
+        this.syncScopeChangeId = syncScopeChangeId;
+    }
 }
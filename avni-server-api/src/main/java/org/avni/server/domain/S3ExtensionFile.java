@@ -8,10 +8,18 @@ import org.joda.time.DateTime;
 public class S3ExtensionFile {
     private final S3File s3File;
     private final DateTime lastModifiedDateTime;
+    private final long size;
+    private final String etag;
 
     public S3ExtensionFile(S3File s3File, DateTime lastModifiedDateTime) {
+        this(s3File, lastModifiedDateTime, 0, null);
+    }
+
+    public S3ExtensionFile(S3File s3File, DateTime lastModifiedDateTime, long size, String etag) {
         this.s3File = s3File;
         this.lastModifiedDateTime = lastModifiedDateTime;
+        this.size = size;
+        this.etag = etag;
     }
 
     @JsonProperty("url")
@@ -27,4 +35,14 @@ public class S3ExtensionFile {
     public S3File getS3File() {
         return s3File;
     }
+
+    @JsonIgnore
+    public long getSize() {
+        return size;
+    }
+
+    @JsonIgnore
+    public String getEtag() {
+        return etag;
+    }
 }
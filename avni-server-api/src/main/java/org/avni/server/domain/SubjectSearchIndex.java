@@ -0,0 +1,32 @@
+package org.avni.server.domain;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Lower cased names, identifiers and search result field values of a subject, trigram indexed for substring search.
+ * Maintained by database triggers on individual, identifier_assignment and organisation_config, hence read only here.
+ */
+@Entity
+@Table(name = "subject_search_index")
+@Immutable
+public class SubjectSearchIndex {
+    @Id
+    @Column
+    @NotNull
+    private Long individualId;
+
+    @Column
+    @NotNull
+    private String searchText;
+
+    public Long getIndividualId() {
+        return individualId;
+    }
+
+    public String getSearchText() {
+        return searchText;
+    }
+}
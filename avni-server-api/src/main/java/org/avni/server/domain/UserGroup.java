@@ -2,6 +2,7 @@ package org.avni.server.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.avni.server.service.accessControl.GroupPrivilegeChangeListener;
 import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
@@ -12,6 +13,7 @@ import java.util.UUID;
 @Table(name = "user_group")
 @JsonIgnoreProperties({"user", "group"})
 @BatchSize(size = 100)
+@EntityListeners(GroupPrivilegeChangeListener.class)
 public class UserGroup extends OrganisationAwareEntity {
 
     @NotNull
@@ -3,6 +3,7 @@ package org.avni.server.domain.accessControl;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.avni.server.domain.*;
 import org.avni.server.domain.accessControl.Privilege;
+import org.avni.server.service.accessControl.GroupPrivilegeChangeListener;
 import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
@@ -12,6 +13,7 @@ import javax.validation.constraints.NotNull;
 @Table(name = "group_privilege")
 @JsonIgnoreProperties({"group", "privilege", "subjectType", "program", "programEncounterType", "encounterType", "checklistDetail"})
 @BatchSize(size = 100)
+@EntityListeners(GroupPrivilegeChangeListener.class)
 public class GroupPrivilege extends OrganisationAwareEntity {
 
     @NotNull
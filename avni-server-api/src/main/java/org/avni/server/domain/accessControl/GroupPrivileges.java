@@ -3,31 +3,50 @@ package org.avni.server.domain.accessControl;
 import org.avni.server.domain.*;
 import org.avni.server.domain.accessControl.GroupPrivilege;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
+/**
+ * The privileges are indexed by the ids they apply to when this is created, so that checks do not scan the privileges
+ * and do not load any of the privilege entities.
+ */
 public class GroupPrivileges {
     private final boolean hasAllPrivileges;
     private final List<GroupPrivilege> privileges;
+    private final Set<PrivilegeKey> index;
 
     public GroupPrivileges(boolean hasAllPrivileges, List<GroupPrivilege> privileges) {
         this.hasAllPrivileges = hasAllPrivileges;
         this.privileges = privileges;
+        this.index = buildIndex(privileges);
     }
 
     public GroupPrivileges(boolean hasAllPrivileges, GroupPrivilege ... privileges) {
-        this.hasAllPrivileges = hasAllPrivileges;
-        this.privileges = Arrays.asList(privileges);
+        this(hasAllPrivileges, Arrays.asList(privileges));
     }
 
     public GroupPrivileges() {
-        this.hasAllPrivileges = true;
-        this.privileges = new ArrayList<>();
+        this(true, new ArrayList<>());
+    }
+
+    private static Set<PrivilegeKey> buildIndex(List<GroupPrivilege> privileges) {
+        Set<PrivilegeKey> index = new HashSet<>();
+        for (GroupPrivilege groupPrivilege : privileges) {
+            PrivilegeType privilegeType = groupPrivilege.getPrivilege().getType();
+            Long subjectTypeId = idOf(groupPrivilege.getSubjectType());
+            Long programId = idOf(groupPrivilege.getProgram());
+            Long checklistDetailId = idOf(groupPrivilege.getChecklistDetail());
+            index.add(new PrivilegeKey(privilegeType, subjectTypeId, programId, idOf(groupPrivilege.getEncounterType()), checklistDetailId));
+            index.add(new PrivilegeKey(privilegeType, subjectTypeId, programId, idOf(groupPrivilege.getProgramEncounterType()), checklistDetailId));
+        }
+        return index;
+    }
+
+    private static Long idOf(CHSBaseEntity entity) {
+        return entity == null ? null : entity.getId();
     }
 
     public boolean hasPrivilege(PrivilegeType privilegeType, SubjectType subjectType, Program program, EncounterType encounterType, ChecklistDetail checklistDetail) {
-        return this.hasAllPrivileges || privileges.stream().anyMatch(groupPrivilege -> groupPrivilege.matches(privilegeType, subjectType, program, encounterType, checklistDetail));
+        return this.hasAllPrivileges || index.contains(new PrivilegeKey(privilegeType, idOf(subjectType), idOf(program), idOf(encounterType), idOf(checklistDetail)));
     }
 
     public boolean hasViewPrivilege(ChecklistItem checklistItem) {
@@ -72,4 +91,37 @@ public class GroupPrivileges {
     public List<GroupPrivilege> getPrivileges() {
         return privileges;
     }
+
+    private static final class PrivilegeKey {
+        private final PrivilegeType privilegeType;
+        private final Long subjectTypeId;
+        private final Long programId;
+        private final Long encounterTypeId;
+        private final Long checklistDetailId;
+
+        private PrivilegeKey(PrivilegeType privilegeType, Long subjectTypeId, Long programId, Long encounterTypeId, Long checklistDetailId) {
+            this.privilegeType = privilegeType;
+            this.subjectTypeId = subjectTypeId;
+            this.programId = programId;
+            this.encounterTypeId = encounterTypeId;
+            this.checklistDetailId = checklistDetailId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PrivilegeKey that = (PrivilegeKey) o;
+            return privilegeType == that.privilegeType &&
+                    Objects.equals(subjectTypeId, that.subjectTypeId) &&
+                    Objects.equals(programId, that.programId) &&
+                    Objects.equals(encounterTypeId, that.encounterTypeId) &&
+                    Objects.equals(checklistDetailId, that.checklistDetailId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(privilegeType, subjectTypeId, programId, encounterTypeId, checklistDetailId);
+        }
+    }
 }
@@ -5,6 +5,7 @@ import org.avni.server.domain.*;
 import org.avni.server.exporter.v2.ExportV2CSVFieldExtractor;
 import org.avni.server.exporter.v2.ExportV2Processor;
 import org.avni.server.exporter.v2.LongitudinalExportV2TaskletImpl;
+import org.avni.server.framework.metrics.BatchJobMetricsListener;
 import org.avni.server.framework.security.AuthService;
 import org.avni.server.service.ExportS3Service;
 import org.avni.server.web.external.request.export.ExportFilters;
@@ -86,21 +87,23 @@ public class ExportBatchConfiguration {
     }
 
     @Bean
-    public Job exportVisitJob(JobCompletionNotificationListener listener, Step step1) {
+    public Job exportVisitJob(JobCompletionNotificationListener listener, BatchJobMetricsListener batchJobMetricsListener, Step step1) {
         return jobBuilderFactory
                 .get("exportVisitJob")
                 .incrementer(new RunIdIncrementer())
                 .listener(listener)
+                .listener(batchJobMetricsListener)
                 .start(step1)
                 .build();
     }
 
     @Bean
-    public Job exportV2Job(JobCompletionNotificationListener listener, Step exportV2Step) {
+    public Job exportV2Job(JobCompletionNotificationListener listener, BatchJobMetricsListener batchJobMetricsListener, Step exportV2Step) {
         return jobBuilderFactory
                 .get("exportVisitJob")
                 .incrementer(new RunIdIncrementer())
                 .listener(listener)
+                .listener(batchJobMetricsListener)
                 .start(exportV2Step)
                 .build();
     }
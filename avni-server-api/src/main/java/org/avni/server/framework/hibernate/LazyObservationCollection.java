@@ -0,0 +1,282 @@
+package org.avni.server.framework.hibernate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.avni.server.domain.ObservationCollection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Observations as loaded from a jsonb column. The json is parsed into the map only when the map is first used, and
+ * while the map is not modified the original json is what gets serialised and saved. Views of the map (keySet, values
+ * and entrySet) can change it, so handing one out counts as a modification.
+ */
+@JsonSerialize(using = LazyObservationCollection.Serializer.class)
+public class LazyObservationCollection extends ObservationCollection {
+    private static final TypeReference<HashMap<String, Object>> MAP_TYPE = new TypeReference<HashMap<String, Object>>() {
+    };
+
+    private transient byte[] json;
+    private transient boolean parsed;
+
+    public LazyObservationCollection(byte[] json) {
+        this.json = json;
+    }
+
+    /**
+     * @return the json the collection was loaded from, or null once the collection may have been modified
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    public boolean isParsed() {
+        return parsed;
+    }
+
+    private void parse() {
+        if (parsed) return;
+        parsed = true;
+        try {
+            Map<String, Object> observations = AbstractJsonbUserType.mapper.readValue(json, MAP_TYPE);
+            if (observations != null) super.putAll(observations);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void modify() {
+        parse();
+        json = null;
+    }
+
+    @Override
+    public int size() {
+        parse();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        parse();
+        return super.isEmpty();
+    }
+
+    @Override
+    public Object get(Object key) {
+        parse();
+        return super.get(key);
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        parse();
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        parse();
+        return super.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        parse();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        parse();
+        super.forEach(action);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        modify();
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Object> m) {
+        modify();
+        super.putAll(m);
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        modify();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        modify();
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        modify();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public void clear() {
+        modify();
+        super.clear();
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        modify();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        modify();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+        modify();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+        modify();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        modify();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        modify();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+        modify();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        modify();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        modify();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        modify();
+        return super.entrySet();
+    }
+
+    @Override
+    public Object clone() {
+        parse();
+        return toObservationCollection();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (o instanceof LazyObservationCollection) {
+            byte[] otherJson = ((LazyObservationCollection) o).json;
+            if (json != null && otherJson != null && Arrays.equals(json, otherJson)) return true;
+        }
+        if (!(o instanceof Map)) return false;
+        parse();
+        Map<?, ?> other = (Map<?, ?>) o;
+        if (other.size() != super.size()) return false;
+        for (Map.Entry<String, Object> entry : super.entrySet()) {
+            Object otherValue = other.get(entry.getKey());
+            if (entry.getValue() == null) {
+                if (otherValue != null || !other.containsKey(entry.getKey())) return false;
+            } else if (!entry.getValue().equals(otherValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        parse();
+        int hashCode = 0;
+        for (Map.Entry<String, Object> entry : super.entrySet()) {
+            hashCode += entry.hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        parse();
+        return toObservationCollection().toString();
+    }
+
+    private ObservationCollection toObservationCollection() {
+        ObservationCollection observationCollection = new ObservationCollection();
+        for (Map.Entry<String, Object> entry : super.entrySet()) {
+            observationCollection.put(entry.getKey(), entry.getValue());
+        }
+        return observationCollection;
+    }
+
+    /**
+     * HashMap serialises its own table, which is empty until the json is parsed, so a plain copy is serialised instead.
+     */
+    private Object writeReplace() {
+        parse();
+        return toObservationCollection();
+    }
+
+    public static class Serializer extends StdSerializer<LazyObservationCollection> {
+        public Serializer() {
+            super(LazyObservationCollection.class);
+        }
+
+        @Override
+        public void serialize(LazyObservationCollection value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            byte[] json = value.getJson();
+            if (json == null) {
+                provider.findPrimaryPropertySerializer(Map.class, null).serialize(value, gen, provider);
+            } else if (gen instanceof TokenBuffer) {
+                try (JsonParser parser = AbstractJsonbUserType.mapper.getFactory().createParser(json)) {
+                    parser.nextToken();
+                    gen.copyCurrentStructure(parser);
+                }
+            } else {
+                gen.writeRawValue(new String(json, StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -1,10 +1,44 @@
 package org.avni.server.framework.hibernate;
 
 import org.avni.server.domain.ObservationCollection;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Loads observations as {@link LazyObservationCollection}, so that the jsonb is parsed only for the entities whose
+ * observations are used, and unmodified observations are copied and saved as they were loaded.
+ */
 public class ObservationCollectionUserType extends AbstractJsonbUserType {
     @Override
     public Class returnedClass() {
         return ObservationCollection.class;
     }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws HibernateException, SQLException {
+        byte[] json = rs.getBytes(names[0]);
+        return json == null ? null : new LazyObservationCollection(json);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement ps, Object value, int idx, SharedSessionContractImplementor session) throws HibernateException, SQLException {
+        byte[] json = value instanceof LazyObservationCollection ? ((LazyObservationCollection) value).getJson() : null;
+        if (json == null) {
+            super.nullSafeSet(ps, value, idx, session);
+            return;
+        }
+        ps.setObject(idx, new String(json, StandardCharsets.UTF_8), Types.OTHER);
+    }
+
+    @Override
+    public Object deepCopy(Object value) throws HibernateException {
+        byte[] json = value instanceof LazyObservationCollection ? ((LazyObservationCollection) value).getJson() : null;
+        return json == null ? super.deepCopy(value) : new LazyObservationCollection(json);
+    }
 }
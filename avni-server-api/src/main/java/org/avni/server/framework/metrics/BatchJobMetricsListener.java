@@ -0,0 +1,48 @@
+package org.avni.server.framework.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long batch jobs take and how many items their steps read, wrote and skipped, by job name and status.
+ */
+@Component
+public class BatchJobMetricsListener extends JobExecutionListenerSupport {
+    private final MeterRegistry meterRegistry;
+
+    public BatchJobMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String jobName = jobExecution.getJobInstance().getJobName();
+        String status = jobExecution.getStatus().name();
+        if (jobExecution.getStartTime() != null && jobExecution.getEndTime() != null) {
+            Timer.builder("avni.batch.job")
+                    .tag("job", jobName)
+                    .tag("status", status)
+                    .register(meterRegistry)
+                    .record(jobExecution.getEndTime().getTime() - jobExecution.getStartTime().getTime(), TimeUnit.MILLISECONDS);
+        }
+        int read = 0, written = 0, skipped = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            read += stepExecution.getReadCount();
+            written += stepExecution.getWriteCount();
+            skipped += stepExecution.getSkipCount();
+        }
+        count(jobName, status, "read", read);
+        count(jobName, status, "written", written);
+        count(jobName, status, "skipped", skipped);
+    }
+
+    private void count(String jobName, String status, String type, int items) {
+        meterRegistry.counter("avni.batch.job.items", "job", jobName, "status", status, "type", type).increment(items);
+    }
+}
@@ -0,0 +1,34 @@
+package org.avni.server.framework.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.DefaultWebMvcTagsProvider;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Tags request metrics with the organisation of the user making the request. The user context is cleared before the
+ * metrics filter records the request, so the authentication filter leaves the organisation on the request for it.
+ */
+@Component
+public class OrganisationWebMvcTagsProvider extends DefaultWebMvcTagsProvider {
+    public static final String ORGANISATION_ATTRIBUTE = OrganisationWebMvcTagsProvider.class.getName() + ".organisation";
+    private static final String NO_ORGANISATION = "none";
+
+    @Override
+    public Iterable<Tag> httpRequestTags(HttpServletRequest request, HttpServletResponse response, Object handler, Throwable exception) {
+        return Tags.concat(super.httpRequestTags(request, response, handler, exception), "organisation", organisation(request));
+    }
+
+    @Override
+    public Iterable<Tag> httpLongRequestTags(HttpServletRequest request, Object handler) {
+        return Tags.concat(super.httpLongRequestTags(request, handler), "organisation", organisation(request));
+    }
+
+    private static String organisation(HttpServletRequest request) {
+        Object organisation = request.getAttribute(ORGANISATION_ATTRIBUTE);
+        return organisation == null ? NO_ORGANISATION : organisation.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package org.avni.server.framework.metrics;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times the calls made by an S3 client, tagged with the operation (the request class without the Request suffix) and
+ * whether the call succeeded.
+ */
+public class S3MetricsRequestHandler extends RequestHandler2 {
+    private static final HandlerContextKey<Timer.Sample> SAMPLE = new HandlerContextKey<>("avni.metrics.sample");
+
+    private final MeterRegistry meterRegistry;
+
+    public S3MetricsRequestHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        request.addHandlerContext(SAMPLE, Timer.start(meterRegistry));
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        record(request, "SUCCESS");
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        record(request, "ERROR");
+    }
+
+    private void record(Request<?> request, String outcome) {
+        Timer.Sample sample = request.getHandlerContext(SAMPLE);
+        if (sample == null) return;
+        sample.stop(Timer.builder("avni.s3.requests")
+                .tag("operation", operation(request.getOriginalRequest()))
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String operation(AmazonWebServiceRequest originalRequest) {
+        if (originalRequest == null) return "unknown";
+        String name = originalRequest.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+}
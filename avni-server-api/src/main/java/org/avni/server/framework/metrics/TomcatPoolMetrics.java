@@ -0,0 +1,43 @@
+package org.avni.server.framework.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Connection pool usage beyond the active/min/max connections that are published for every data source. Tomcat's pool
+ * does not time how long borrowers wait, so the number of threads waiting for a connection is published instead.
+ */
+@Component
+public class TomcatPoolMetrics implements MeterBinder {
+    private final javax.sql.DataSource dataSource;
+
+    public TomcatPoolMetrics(@Qualifier("dataSource") javax.sql.DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(dataSource instanceof DataSource)) return;
+        DataSource pool = (DataSource) dataSource;
+        gauge(registry, pool, "avni.db.pool.waiting", "Threads waiting for a connection", DataSource::getWaitCount);
+        gauge(registry, pool, "avni.db.pool.idle", "Idle connections", DataSource::getIdle);
+        gauge(registry, pool, "avni.db.pool.size", "Open connections", DataSource::getSize);
+        FunctionCounter.builder("avni.db.pool.borrowed", pool, DataSource::getBorrowedCount)
+                .description("Connections borrowed from the pool")
+                .register(registry);
+        FunctionCounter.builder("avni.db.pool.abandoned", pool, DataSource::getRemoveAbandonedCount)
+                .description("Connections taken back from borrowers that held them too long")
+                .register(registry);
+    }
+
+    private static void gauge(MeterRegistry registry, DataSource pool, String name, String description, ToDoubleFunction<DataSource> value) {
+        Gauge.builder(name, pool, value).description(description).register(registry);
+    }
+}
@@ -6,6 +6,7 @@ import org.avni.server.config.IdpType;
 import org.avni.server.domain.UserContext;
 import org.avni.server.domain.accessControl.AvniAccessException;
 import org.avni.server.domain.accessControl.AvniNoUserSessionException;
+import org.avni.server.framework.metrics.OrganisationWebMvcTagsProvider;
 import org.avni.server.util.FileUtil;
 import org.avni.server.util.ObjectMapperSingleton;
 import org.avni.server.web.util.ErrorBodyBuilder;
@@ -69,10 +70,11 @@ public class AuthenticationFilter extends BasicAuthenticationFilter {
                         ? authService.authenticateByUserName(StringUtils.isEmpty(username) ? defaultUserName : username, organisationUUID)
                         : authService.authenticateByToken(derivedAuthToken, organisationUUID);
                 authTokenManager.setAuthCookie(request, response, derivedAuthToken);
+                request.setAttribute(OrganisationWebMvcTagsProvider.ORGANISATION_ATTRIBUTE, userContext.getOrganisationName());
                 long start = System.currentTimeMillis();
                 chain.doFilter(request, response);
                 long end = System.currentTimeMillis();
-                logger.info(String.format("%s %s?%s User: %s Organisation: %s Time: %s ms", method, requestURI, queryString, userContext.getUserName(), userContext.getOrganisationName(), (end - start)));
+                logger.info("{} {}?{} User: {} Organisation: {} Time: {} ms", method, requestURI, queryString, userContext.getUserName(), userContext.getOrganisationName(), (end - start));
             } else {
                 String derivedAuthToken = authTokenManager.getDerivedAuthToken(request, queryString);
                 authTokenManager.setAuthCookie(request, response, derivedAuthToken);
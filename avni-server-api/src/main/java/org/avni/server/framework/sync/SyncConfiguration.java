@@ -37,7 +37,8 @@ public class SyncConfiguration extends WebMvcConfigurerAdapter {
             "news",
             "comment",
             "commentThread",
-            "resetSyncs"
+            "resetSyncs",
+            "syncScopeChanges"
     ).map(path-> "/" + path + "/**").toArray(String[]::new);
 
     private final String[] metadataPathList = Stream.of("addressLevel",
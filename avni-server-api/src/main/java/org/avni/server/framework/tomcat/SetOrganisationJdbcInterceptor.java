@@ -1,6 +1,8 @@
 package org.avni.server.framework.tomcat;
 
 import com.google.common.base.Strings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import org.apache.tomcat.jdbc.pool.ConnectionPool;
 import org.apache.tomcat.jdbc.pool.JdbcInterceptor;
 import org.apache.tomcat.jdbc.pool.PooledConnection;
@@ -18,6 +20,12 @@ import java.sql.Statement;
 
 public class SetOrganisationJdbcInterceptor extends JdbcInterceptor {
     private static final Logger logger = LoggerFactory.getLogger(TomcatContainerCustomizer.class);
+    /**
+     * The pool creates interceptors itself, so the counters are registered with the global registry that Spring Boot
+     * adds its registries to.
+     */
+    private static final Counter roleSetCounter = Metrics.counter("avni.db.role.switches", "type", "set");
+    private static final Counter roleResetCounter = Metrics.counter("avni.db.role.switches", "type", "reset");
 
     @Override
     public void reset(ConnectionPool connectionPool, PooledConnection pooledConnection) {
@@ -39,6 +47,7 @@ public class SetOrganisationJdbcInterceptor extends JdbcInterceptor {
             statement.execute("set role \"" + dbUser + "\";");
             statement.execute("set application_name to \"" + dbUser + "\";");
             statement.close();
+            roleSetCounter.increment();
 //            logger.info(String.format("DBUSER: %s", dbUser));
         } catch (SQLException exp) {
             throw new RuntimeException(exp);
@@ -52,6 +61,7 @@ public class SetOrganisationJdbcInterceptor extends JdbcInterceptor {
             Statement statement = ((Connection) proxy).createStatement();
             statement.execute("RESET ROLE");
             statement.close();
+            roleResetCounter.increment();
 //            logger.info(String.format("ROLE RESET"));
         }
 
@@ -17,15 +17,11 @@ import java.util.List;
 
 
 /**
- * It is assumed here that generation of identifiers for the same user will not happen in parallel.
- * If it does happen, there are database checks that ensure that one of the transactions will fail due to
- * uniqueness constraints. One of the transactions will fail in such scenarios.
- *
- * It is also assumed that every id is pre-assigned to a single user. This is to ensure server does not need to have
- * costly locking mechanisms.
- *
- * We will need to introduce row-locking on the identifier_user_assignment table if we expect parallel calls for
- * identifier generation for the same id.
+ * Every id is pre-assigned to a single user, in identifier_user_assignment. Generation for a user and source locks
+ * the user's non-exhausted assignment rows, so parallel generation for the same user (two devices, or a background
+ * top-up and a request) is serialised instead of failing on the uniqueness constraints. A batch is generated only if
+ * the balance is still below the minimum once the lock is held, so a top-up that waited on another does not generate
+ * a second batch.
  */
 @Service
 public class PrefixedUserPoolBasedIdentifierGenerator {
@@ -42,7 +38,11 @@ public class PrefixedUserPoolBasedIdentifierGenerator {
 
     @Transactional
     public void generateIdentifiers(IdentifierSource identifierSource, User user, String prefix) {
-        List<IdentifierUserAssignment> identifierUserAssignments = identifierUserAssignmentRepository.getAllNonExhaustedUserAssignments(user, identifierSource);
+        List<IdentifierUserAssignment> identifierUserAssignments = identifierUserAssignmentRepository.lockNonExhaustedUserAssignments(user.getId(), identifierSource.getId());
+        Integer spareIdentifierAssignments = identifierAssignmentRepository.countIdentifierAssignmentByIdentifierSourceEqualsAndAndAssignedToEqualsAndIndividualIsNullAndProgramEnrolmentIsNull(identifierSource, user);
+        if (spareIdentifierAssignments >= identifierSource.getMinimumBalance()) {
+            return;
+        }
         Long batchGenerationSize = identifierSource.getBatchGenerationSize();
         NextIdentifierUserAssignment nextIdentifierUserAssignment = new NextIdentifierUserAssignment(identifierUserAssignments, batchGenerationSize);
         List<IdentifierAssignment> generatedIdentifiers = new ArrayList<>();
@@ -58,7 +58,7 @@ public class PrefixedUserPoolBasedIdentifierGenerator {
 
     @Transactional
     public IdentifierAssignment generateSingleIdentifier(IdentifierSource identifierSource, User user, String prefix) {
-        List<IdentifierUserAssignment> identifierUserAssignments = identifierUserAssignmentRepository.getAllNonExhaustedUserAssignments(user, identifierSource);
+        List<IdentifierUserAssignment> identifierUserAssignments = identifierUserAssignmentRepository.lockNonExhaustedUserAssignments(user.getId(), identifierSource.getId());
         NextIdentifierUserAssignment nextIdentifierUserAssignment = new NextIdentifierUserAssignment(identifierUserAssignments, 1L);
         List<IdentifierAssignment> generatedIdentifiers = new ArrayList<>();
 
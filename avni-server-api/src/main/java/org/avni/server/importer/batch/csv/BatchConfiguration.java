@@ -1,6 +1,7 @@
 package org.avni.server.importer.batch.csv;
 
 import org.apache.commons.io.IOUtils;
+import org.avni.server.framework.metrics.BatchJobMetricsListener;
 import org.avni.server.importer.batch.csv.writer.CsvFileItemWriter;
 import org.avni.server.importer.batch.model.Row;
 import org.avni.server.service.S3Service;
@@ -69,10 +70,11 @@ public class BatchConfiguration {
     }
 
     @Bean
-    public Job importJob(ErrorFileCreatorListener listener, Step importStep) {
+    public Job importJob(ErrorFileCreatorListener listener, BatchJobMetricsListener batchJobMetricsListener, Step importStep) {
         return jobBuilderFactory.get("importJob")
                 .incrementer(new RunIdIncrementer())
                 .listener(listener)
+                .listener(batchJobMetricsListener)
                 .flow(importStep)
                 .end()
                 .build();
@@ -154,6 +154,7 @@ public class LocationWriter implements ItemWriter<Row> {
         location.setLegacyId(id);
         location.setLineage(lineage);
         updateLocationProperties(row, allErrorMsgs, location, header);
+        locationService.updateTitleLineage(location);
     }
 
     private Map.Entry<String, String> ensureAllParentsExist(List<String> allErrorMsgs, List<Map.Entry<String, String>> allNonEmptyLocations) throws Exception {
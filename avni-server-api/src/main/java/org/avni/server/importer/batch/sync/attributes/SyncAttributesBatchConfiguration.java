@@ -1,5 +1,6 @@
 package org.avni.server.importer.batch.sync.attributes;
 
+import org.avni.server.framework.metrics.BatchJobMetricsListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
@@ -45,11 +46,12 @@ public class SyncAttributesBatchConfiguration {
 
 
     @Bean
-    public Job syncAttributesJob(SyncAttributesJobListener listener, Step updateSyncAttributesStep) {
+    public Job syncAttributesJob(SyncAttributesJobListener listener, BatchJobMetricsListener batchJobMetricsListener, Step updateSyncAttributesStep) {
         return jobBuilderFactory
                 .get("syncAttributesJob")
                 .incrementer(new RunIdIncrementer())
                 .listener(listener)
+                .listener(batchJobMetricsListener)
                 .start(updateSyncAttributesStep)
                 .build();
     }
@@ -1,5 +1,6 @@
 package org.avni.server.importer.batch.zip;
 
+import org.avni.server.framework.metrics.BatchJobMetricsListener;
 import org.avni.server.importer.batch.model.BundleFile;
 import org.avni.server.service.S3Service;
 import org.springframework.batch.core.Job;
@@ -46,10 +47,11 @@ public class ZipJobBatchConfiguration {
     }
 
     @Bean
-    public Job importZipJob(Step importZipStep, ZipJobCompletionNotificationListener zipJobCompletionNotificationListener) {
+    public Job importZipJob(Step importZipStep, ZipJobCompletionNotificationListener zipJobCompletionNotificationListener, BatchJobMetricsListener batchJobMetricsListener) {
         return jobBuilderFactory.get("importZipJob")
                 .incrementer(new RunIdIncrementer())
                 .listener(zipJobCompletionNotificationListener)
+                .listener(batchJobMetricsListener)
                 .flow(importZipStep)
                 .end()
                 .build();
@@ -3,9 +3,11 @@ package org.avni.server.report;
 import org.avni.server.application.FormMapping;
 import org.avni.server.domain.Concept;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.List;
 
 @Component
@@ -39,102 +41,57 @@ public class AvniReportRepository {
         return jdbcTemplate.query(reportHelper.buildQuery(formMapping, queryWithConceptUUID, startDate, endDate, lowestLocationIds), new AggregateReportMapper());
     }
 
-    public List<AggregateReportResult> generateAggregatesForEntityByType(String entity, String operationalType, String operationalTypeIdColumn, String dynamicWhere, String dynamicJoin) {
+    public List<AggregateReportResult> generateAggregatesForEntityByType(DailyActivityEntityType entityType, DailyActivityMeasure measure, String startDate, String endDate, List<Long> typeIds, List<Long> lowestLocationIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("entityType", entityType.name());
         String baseQuery = "select o.name as indicator,\n" +
-                "       count(*) as count\n" +
-                "from ${entity} e\n" +
-                "         join ${operational_type} o on e.${operational_type_id} = o.${operational_type_id}\n" +
-                "         ${dynamic_join}\n" +
-                "where e.is_voided = false\n" +
+                "       sum(r.${measure}) as count\n" +
+                "from daily_activity_rollup r\n" +
+                "         join ${operational_type} o on r.type_id = o.${operational_type_id}\n" +
+                "where r.entity_type = :entityType\n" +
                 "  and o.is_voided = false\n" +
                 "  ${dynamic_where}\n" +
-                "group by o.name";
+                "group by o.name\n" +
+                "having sum(r.${measure}) > 0";
         String query = baseQuery
-                .replace("${entity}", entity)
-                .replace("${operational_type}", operationalType)
-                .replace("${operational_type_id}", operationalTypeIdColumn)
-                .replace("${dynamic_where}", dynamicWhere)
-                .replace("${dynamic_join}", dynamicJoin);
-        return jdbcTemplate.query(query, new AggregateReportMapper());
+                .replace("${measure}", measure.name())
+                .replace("${operational_type}", entityType.getOperationalTypeTable())
+                .replace("${operational_type_id}", entityType.getTypeIdColumn())
+                .replace("${dynamic_where}", rollupWhere(params, startDate, endDate, "typeIds", typeIds, lowestLocationIds));
+        return jdbcTemplate.query(query, params, new AggregateReportMapper());
     }
 
-    public List<CountForDay> generateDayWiseActivities(String dynamic_individual_where, String dynamic_encounter_where, String dynamic_program_enrolment_where, String dynamic_individual_join, String dynamic_encounter_join, String dynamic_enrolment_encounter_join) {
-        String baseQuery = "select date for_date, sum(count) activity_count\n" +
-                "from (select registration_date date, count(*) count\n" +
-                "      from individual e\n" +
-                "               join operational_subject_type o on o.subject_type_id = e.subject_type_id\n" +
-                "               ${dynamic_individual_join}\n" +
-                "      where e.is_voided is false\n" +
-                "         ${dynamic_individual_where}\n" +
-                "      group by registration_date\n" +
-                "      union all\n" +
-                "      select date(encounter_date_time) date, count(*) count\n" +
-                "      from encounter e\n" +
-                "               join operational_encounter_type o on o.encounter_type_id = e.encounter_type_id\n" +
-                "               ${dynamic_enrolment_encounter_join}\n" +
-                "      where encounter_date_time is not null\n" +
-                "        and e.is_voided is false\n" +
-                "         ${dynamic_encounter_where}\n" +
-                "      group by date(encounter_date_time)\n" +
-                "      union all\n" +
-                "      select date(encounter_date_time) date, count(*) count\n" +
-                "      from program_encounter e\n" +
-                "               join operational_encounter_type o on o.encounter_type_id = e.encounter_type_id\n" +
-                "               ${dynamic_encounter_join}\n" +
-                "      where encounter_date_time is not null\n" +
-                "        and e.is_voided is false\n" +
-                "         ${dynamic_encounter_where}\n" +
-                "      group by date(encounter_date_time)\n" +
-                "      union all\n" +
-                "      select date(enrolment_date_time) date, count(*) count\n" +
-                "      from program_enrolment e\n" +
-                "               join operational_program o on o.program_id = e.program_id\n" +
-                "               ${dynamic_enrolment_encounter_join}\n" +
-                "      where enrolment_date_time is not null\n" +
-                "        and e.is_voided is false\n" +
-                "         ${dynamic_program_enrolment_where}\n" +
-                "      group by date(enrolment_date_time)) data\n" +
-                "group by for_date\n" +
-                "order by for_date";
+    public List<CountForDay> generateDayWiseActivities(String startDate, String endDate, List<Long> subjectTypeIds, List<Long> programIds, List<Long> encounterTypeIds, List<Long> lowestLocationIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String baseQuery = "select activity_date for_date, sum(activity_count) activity_count\n" +
+                "from daily_activity_rollup r\n" +
+                "where activity_date <> 'infinity'\n" +
+                "  and (r.entity_type = 'individual' ${subject_type_where}\n" +
+                "    or r.entity_type = 'program_enrolment' ${program_where}\n" +
+                "    or r.entity_type in ('encounter', 'program_encounter') ${encounter_type_where})\n" +
+                "  ${dynamic_where}\n" +
+                "group by activity_date\n" +
+                "order by activity_date";
         String query = baseQuery
-                .replace("${dynamic_individual_where}", dynamic_individual_where)
-                .replace("${dynamic_encounter_where}", dynamic_encounter_where)
-                .replace("${dynamic_program_enrolment_where}", dynamic_program_enrolment_where)
-                .replace("${dynamic_individual_join}", dynamic_individual_join)
-                .replace("${dynamic_encounter_join}", dynamic_encounter_join)
-                .replace("${dynamic_enrolment_encounter_join}", dynamic_enrolment_encounter_join);
-        return jdbcTemplate.query(query, new CountForDayMapper());
+                .replace("${subject_type_where}", typeWhere(params, "subjectTypeIds", subjectTypeIds))
+                .replace("${program_where}", typeWhere(params, "programIds", programIds))
+                .replace("${encounter_type_where}", typeWhere(params, "encounterTypeIds", encounterTypeIds))
+                .replace("${dynamic_where}", rollupWhere(params, startDate, endDate, "typeIds", Collections.emptyList(), lowestLocationIds));
+        return jdbcTemplate.query(query, params, new CountForDayMapper());
     }
 
-    public List<UserActivityResult> generateUserActivityResults(String subjectWhere, String encounterWhere, String enrolmentWhere, String userWhere) {
-        String baseQuery = "with registrations as (\n" +
-                "    select last_modified_by_id, count(*) as registration_count\n" +
-                "    from individual\n" +
-                "    where is_voided = false\n" +
-                "    ${subjectWhere}\n" +
-                "    group by last_modified_by_id\n" +
-                "),\n" +
-                "     encounters as (\n" +
-                "         select last_modified_by_id, count(*) as encounter_count\n" +
-                "         from encounter\n" +
-                "         where is_voided = false\n" +
-                "         ${encounterWhere}\n" +
-                "         group by last_modified_by_id\n" +
-                "     ),\n" +
-                "     enrolments as (\n" +
-                "         select last_modified_by_id, count(*) as enrolment_count\n" +
-                "         from program_enrolment\n" +
-                "         where is_voided = false\n" +
-                "         ${enrolmentWhere}\n" +
-                "         group by last_modified_by_id\n" +
-                "     ),\n" +
-                "     program_encounters as (\n" +
-                "         select last_modified_by_id, count(*) as program_encounter_count\n" +
-                "         from program_encounter\n" +
-                "         where is_voided = false\n" +
-                "         ${encounterWhere}\n" +
-                "         group by last_modified_by_id\n" +
-                "     )\n" +
+    public List<UserActivityResult> generateUserActivityResults(String startDate, String endDate, List<Long> userIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String baseQuery = "with activities as (\n" +
+                "    select user_id,\n" +
+                "           sum(activity_count) filter ( where entity_type = 'individual' )        as registration_count,\n" +
+                "           sum(activity_count) filter ( where entity_type = 'encounter' )         as encounter_count,\n" +
+                "           sum(activity_count) filter ( where entity_type = 'program_enrolment' ) as enrolment_count,\n" +
+                "           sum(activity_count) filter ( where entity_type = 'program_encounter' ) as program_encounter_count\n" +
+                "    from daily_activity_rollup r\n" +
+                "    where true\n" +
+                "    ${dateWhere}\n" +
+                "    group by user_id\n" +
+                ")\n" +
                 "select u.id                                              as id,\n" +
                 "       coalesce(u.name, u.username)                      as name,\n" +
                 "       coalesce(registration_count, 0)                   as registration_count,\n" +
@@ -144,10 +101,7 @@ public class AvniReportRepository {
                 "       coalesce(coalesce(registration_count, 0) + coalesce(encounter_count, 0) + coalesce(enrolment_count, 0) +\n" +
                 "                coalesce(program_encounter_count, 0), 0) as total\n" +
                 "from users u\n" +
-                "         left join registrations r on r.last_modified_by_id = u.id\n" +
-                "         left join encounters e on e.last_modified_by_id = u.id\n" +
-                "         left join enrolments enl on enl.last_modified_by_id = u.id\n" +
-                "         left join program_encounters enc on enc.last_modified_by_id = u.id\n" +
+                "         join activities a on a.user_id = u.id\n" +
                 "where u.is_voided = false and u.organisation_id notnull\n" +
                 "       and coalesce(coalesce(registration_count, 0) + coalesce(encounter_count, 0) + coalesce(enrolment_count, 0) +\n" +
                 "                coalesce(program_encounter_count, 0), 0) > 0\n" +
@@ -155,11 +109,9 @@ public class AvniReportRepository {
                 "order by 7 desc\n" +
                 "limit 10;";
         String query = baseQuery
-                .replace("${subjectWhere}", subjectWhere)
-                .replace("${encounterWhere}", encounterWhere)
-                .replace("${enrolmentWhere}", enrolmentWhere)
-                .replace("${userWhere}", userWhere);
-        return jdbcTemplate.query(query, new UserActivityMapper());
+                .replace("${dateWhere}", dateWhere(params, startDate, endDate))
+                .replace("${userWhere}", userWhere(params, userIds));
+        return jdbcTemplate.query(query, params, new UserActivityMapper());
     }
 
     public List<UserActivityResult> generateUserSyncFailures(String syncTelemetryWhere, String userWhere) {
@@ -237,75 +189,90 @@ public class AvniReportRepository {
         return jdbcTemplate.query(query, new UserDetailsMapper());
     }
 
-    public List<AggregateReportResult> generateCompletedVisitsOnTimeByProportion(String proportionCondition, String encounterWhere, String userWhere) {
-        String baseQuery = "with program_enc_data as (\n" +
-                "    select last_modified_by_id,\n" +
-                "           count(*) filter ( where encounter_date_time <= max_visit_date_time )                       visits_done_on_time,\n" +
-                "           count(*) filter ( where encounter_date_time notnull and earliest_visit_date_time notnull ) total_scheduled\n" +
-                "    from program_encounter\n" +
-                "    where is_voided = false\n" +
-                "    ${encounterWhere}\n" +
-                "    group by last_modified_by_id\n" +
-                "),\n" +
-                "     general_enc_data as (\n" +
-                "         select last_modified_by_id,\n" +
-                "                count(*) filter ( where encounter_date_time <= max_visit_date_time )              visits_done_on_time,\n" +
-                "                count(*)\n" +
-                "                filter ( where encounter_date_time notnull and earliest_visit_date_time notnull ) total_scheduled\n" +
-                "         from encounter\n" +
-                "         where is_voided = false\n" +
-                "         ${encounterWhere}\n" +
-                "         group by last_modified_by_id\n" +
-                "     )\n" +
-                "select coalesce(u.name, u.username)                                                as indicator,\n" +
-                "       coalesce(ged.visits_done_on_time, 0) + coalesce(ped.visits_done_on_time, 0) as count\n" +
+    public List<AggregateReportResult> generateCompletedVisitsOnTimeByProportion(String proportionCondition, String startDate, String endDate, List<Long> userIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String baseQuery = "with enc_data as (\n" +
+                "    select user_id,\n" +
+                "           sum(on_time_count) filter ( where entity_type = 'program_encounter' )   program_visits_done_on_time,\n" +
+                "           sum(scheduled_count) filter ( where entity_type = 'program_encounter' ) program_total_scheduled,\n" +
+                "           sum(on_time_count) filter ( where entity_type = 'encounter' )           general_visits_done_on_time,\n" +
+                "           sum(scheduled_count) filter ( where entity_type = 'encounter' )         general_total_scheduled\n" +
+                "    from daily_activity_rollup r\n" +
+                "    where entity_type in ('encounter', 'program_encounter')\n" +
+                "    ${dateWhere}\n" +
+                "    group by user_id\n" +
+                "    having count(*) filter ( where entity_type = 'encounter' ) > 0\n" +
+                "       and count(*) filter ( where entity_type = 'program_encounter' ) > 0\n" +
+                ")\n" +
+                "select coalesce(u.name, u.username)                                                                as indicator,\n" +
+                "       coalesce(ed.general_visits_done_on_time, 0) + coalesce(ed.program_visits_done_on_time, 0) as count\n" +
                 "from users u\n" +
-                "          join general_enc_data ged on ged.last_modified_by_id = u.id\n" +
-                "          join program_enc_data ped on ped.last_modified_by_id = u.id\n" +
+                "          join enc_data ed on ed.user_id = u.id\n" +
                 "where u.organisation_id notnull\n" +
                 "  and is_voided = false\n" +
-                "  and coalesce(ged.visits_done_on_time, 0) + coalesce(ped.visits_done_on_time, 0) > 0\n" +
+                "  and coalesce(ed.general_visits_done_on_time, 0) + coalesce(ed.program_visits_done_on_time, 0) > 0\n" +
                 "  ${userWhere}\n" +
-                "  and ((coalesce(ged.visits_done_on_time, 0.0) + coalesce(ped.visits_done_on_time, 0.0)) /\n" +
-                "       nullif((coalesce(ged.total_scheduled, 0) + coalesce(ped.total_scheduled, 0)), 0)) ${proportion_condition}\n";
+                "  and ((coalesce(ed.general_visits_done_on_time, 0.0) + coalesce(ed.program_visits_done_on_time, 0.0)) /\n" +
+                "       nullif((coalesce(ed.general_total_scheduled, 0) + coalesce(ed.program_total_scheduled, 0)), 0)) ${proportion_condition}\n";
         String query = baseQuery
                 .replace("${proportion_condition}", proportionCondition)
-                .replace("${encounterWhere}", encounterWhere)
-                .replace("${userWhere}", userWhere);
-        return jdbcTemplate.query(query, new AggregateReportMapper());
+                .replace("${dateWhere}", dateWhere(params, startDate, endDate))
+                .replace("${userWhere}", userWhere(params, userIds));
+        return jdbcTemplate.query(query, params, new AggregateReportMapper());
     }
 
-    public List<AggregateReportResult> generateUserCancellingMostVisits(String encounterWhere, String userWhere) {
-        String baseQuery = "with program_enc_data as (\n" +
-                "    select last_modified_by_id,\n" +
-                "           count(*) filter ( where cancel_date_time notnull ) cancelled_visits\n" +
-                "    from program_encounter\n" +
-                "    where is_voided = false\n" +
-                "    ${encounterWhere}\n" +
-                "    group by last_modified_by_id\n" +
-                "),\n" +
-                "     general_enc_data as (\n" +
-                "         select last_modified_by_id,\n" +
-                "                count(*) filter ( where cancel_date_time notnull ) cancelled_visits\n" +
-                "         from encounter\n" +
-                "         where is_voided = false\n" +
-                "         ${encounterWhere}\n" +
-                "         group by last_modified_by_id\n" +
-                "     )\n" +
-                "select coalesce(u.name, u.username)                                          as indicator,\n" +
-                "       coalesce(ged.cancelled_visits, 0) + coalesce(ped.cancelled_visits, 0) as count\n" +
+    public List<AggregateReportResult> generateUserCancellingMostVisits(String startDate, String endDate, List<Long> userIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String baseQuery = "with enc_data as (\n" +
+                "    select user_id,\n" +
+                "           sum(cancelled_count) cancelled_visits\n" +
+                "    from daily_activity_rollup r\n" +
+                "    where entity_type in ('encounter', 'program_encounter')\n" +
+                "    ${dateWhere}\n" +
+                "    group by user_id\n" +
+                "    having count(*) filter ( where entity_type = 'encounter' ) > 0\n" +
+                "       and count(*) filter ( where entity_type = 'program_encounter' ) > 0\n" +
+                ")\n" +
+                "select coalesce(u.name, u.username) as indicator,\n" +
+                "       ed.cancelled_visits          as count\n" +
                 "from users u\n" +
-                "          join general_enc_data ged on ged.last_modified_by_id = u.id\n" +
-                "          join program_enc_data ped on ped.last_modified_by_id = u.id\n" +
+                "          join enc_data ed on ed.user_id = u.id\n" +
                 "where u.organisation_id notnull\n" +
                 "  and is_voided = false\n" +
-                "  and coalesce(ged.cancelled_visits, 0) + coalesce(ped.cancelled_visits, 0) > 0 \n" +
+                "  and ed.cancelled_visits > 0 \n" +
                 "  ${userWhere}\n" +
-                "order by coalesce(ged.cancelled_visits, 0.0) + coalesce(ped.cancelled_visits, 0.0) desc\n" +
+                "order by ed.cancelled_visits desc\n" +
                 "limit 5;";
         String query = baseQuery
-                .replace("${encounterWhere}", encounterWhere)
-                .replace("${userWhere}", userWhere);
-        return jdbcTemplate.query(query, new AggregateReportMapper());
+                .replace("${dateWhere}", dateWhere(params, startDate, endDate))
+                .replace("${userWhere}", userWhere(params, userIds));
+        return jdbcTemplate.query(query, params, new AggregateReportMapper());
+    }
+
+    private String rollupWhere(MapSqlParameterSource params, String startDate, String endDate, String typeIdsParam, List<Long> typeIds, List<Long> lowestLocationIds) {
+        String where = dateWhere(params, startDate, endDate) + typeWhere(params, typeIdsParam, typeIds);
+        if (!lowestLocationIds.isEmpty()) {
+            params.addValue("locationIds", lowestLocationIds);
+            where += "\n  and r.address_id in (:locationIds)";
+        }
+        return where;
+    }
+
+    private String dateWhere(MapSqlParameterSource params, String startDate, String endDate) {
+        if (startDate == null) return "";
+        params.addValue("startDate", startDate).addValue("endDate", endDate);
+        return "and r.activity_date between cast(:startDate as date) and cast(:endDate as date)";
+    }
+
+    private String typeWhere(MapSqlParameterSource params, String paramName, List<Long> typeIds) {
+        if (typeIds.isEmpty()) return "";
+        params.addValue(paramName, typeIds);
+        return String.format(" and r.type_id in (:%s)", paramName);
+    }
+
+    private String userWhere(MapSqlParameterSource params, List<Long> userIds) {
+        if (userIds.isEmpty()) return "";
+        params.addValue("userIds", userIds);
+        return "and u.id in (:userIds)";
     }
 }
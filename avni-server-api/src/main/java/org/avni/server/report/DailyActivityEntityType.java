@@ -0,0 +1,63 @@
+package org.avni.server.report;
+
+/**
+ * The tables rolled up into daily_activity_rollup, with how each of their rows is counted. The activity date is the
+ * date the reports filter the table on.
+ */
+public enum DailyActivityEntityType {
+    individual("individual", "operational_subject_type", "subject_type_id", "e.registration_date",
+            "false", "false", "false", "false", "false"),
+    program_enrolment("program_enrolment", "operational_program", "program_id", "cast(e.enrolment_date_time as date)",
+            "false", "false", "false", "false", "e.program_exit_date_time is not null"),
+    encounter("encounter", "operational_encounter_type", "encounter_type_id", "cast(e.encounter_date_time as date)",
+            DailyActivityEntityType.COMPLETED, DailyActivityEntityType.CANCELLED, DailyActivityEntityType.ON_TIME, DailyActivityEntityType.SCHEDULED, "false"),
+    program_encounter("program_encounter", "operational_encounter_type", "encounter_type_id", "cast(e.encounter_date_time as date)",
+            DailyActivityEntityType.COMPLETED, DailyActivityEntityType.CANCELLED, DailyActivityEntityType.ON_TIME, DailyActivityEntityType.SCHEDULED, "false");
+
+    private static final String COMPLETED = "e.encounter_date_time is not null and e.cancel_date_time is null";
+    private static final String CANCELLED = "e.cancel_date_time is not null";
+    private static final String ON_TIME = "coalesce(e.encounter_date_time <= e.max_visit_date_time, false)";
+    private static final String SCHEDULED = "e.encounter_date_time is not null and e.earliest_visit_date_time is not null";
+
+    private final String table;
+    private final String operationalTypeTable;
+    private final String typeIdColumn;
+    private final String activityDate;
+    private final String completed;
+    private final String cancelled;
+    private final String onTime;
+    private final String scheduled;
+    private final String exited;
+
+    DailyActivityEntityType(String table, String operationalTypeTable, String typeIdColumn, String activityDate, String completed, String cancelled, String onTime, String scheduled, String exited) {
+        this.table = table;
+        this.operationalTypeTable = operationalTypeTable;
+        this.typeIdColumn = typeIdColumn;
+        this.activityDate = activityDate;
+        this.completed = completed;
+        this.cancelled = cancelled;
+        this.onTime = onTime;
+        this.scheduled = scheduled;
+        this.exited = exited;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getOperationalTypeTable() {
+        return operationalTypeTable;
+    }
+
+    public String getTypeIdColumn() {
+        return typeIdColumn;
+    }
+
+    /**
+     * Columns of daily_activity_rollup_entry, from the row aliased e.
+     */
+    String getEntrySelect() {
+        return String.format("'%s', e.id, e.organisation_id, e.%s, e.last_modified_by_id, coalesce(e.address_id, 0), coalesce(%s, 'infinity'),\n" +
+                "       %s, %s, %s, %s, %s", name(), typeIdColumn, activityDate, completed, cancelled, onTime, scheduled, exited);
+    }
+}
@@ -0,0 +1,8 @@
+package org.avni.server.report;
+
+/**
+ * The counts kept by daily_activity_rollup, named after their columns.
+ */
+public enum DailyActivityMeasure {
+    activity_count, completed_count, cancelled_count, on_time_count, scheduled_count, exited_count
+}
@@ -0,0 +1,47 @@
+package org.avni.server.report;
+
+import org.avni.server.framework.security.AuthService;
+import org.avni.server.util.DateTimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+
+/**
+ * Brings daily_activity_rollup up to date with the subjects, enrolments and visits modified since the last run. The
+ * first run after the rollup is created reads the whole of each table, a batch at a time.
+ */
+@Component
+public class DailyActivityRollupJob {
+    private static final Logger logger = LoggerFactory.getLogger(DailyActivityRollupJob.class);
+    private static final int BATCH_SIZE = 5000;
+    private final DailyActivityRollupRepository dailyActivityRollupRepository;
+    private final AuthService authService;
+
+    @Autowired
+    public DailyActivityRollupJob(DailyActivityRollupRepository dailyActivityRollupRepository, AuthService authService) {
+        this.dailyActivityRollupRepository = dailyActivityRollupRepository;
+        this.authService = authService;
+    }
+
+    @Scheduled(fixedDelayString = "${avni.dailyActivityRollupScheduleMillis}")
+    public void refresh() {
+        logger.info("Job started");
+        authService.authenticateByUserName("admin", null);
+        Timestamp upTo = new Timestamp(DateTimeUtil.committedTill().getMillis());
+        for (DailyActivityEntityType entityType : DailyActivityEntityType.values()) {
+            try {
+                int rows;
+                do {
+                    rows = dailyActivityRollupRepository.refreshNextBatch(entityType, upTo, BATCH_SIZE);
+                } while (rows == BATCH_SIZE);
+            } catch (Exception e) {
+                logger.error(String.format("Rolling up %s failed", entityType), e);
+            }
+        }
+        logger.info("Job ended");
+    }
+}
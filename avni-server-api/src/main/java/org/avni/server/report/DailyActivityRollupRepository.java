@@ -0,0 +1,122 @@
+package org.avni.server.report;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains daily_activity_rollup from the rows of the transaction tables modified since it was last refreshed.
+ * The old contribution of a modified row is in daily_activity_rollup_entry, so the rollup rows it and its new version
+ * count towards are recomputed from the entries.
+ */
+@Component
+public class DailyActivityRollupRepository {
+    private static final String LOCK = "select pg_try_advisory_xact_lock(hashtext('daily_activity_rollup'))";
+
+    private static final String NEXT_BATCH = "create temporary table daily_activity_rollup_batch on commit drop as\n" +
+            "select e.id, e.last_modified_date_time\n" +
+            "from ${table} e\n" +
+            "where e.last_modified_date_time >= :lastModifiedDateTime\n" +
+            "  and (e.last_modified_date_time > :lastModifiedDateTime or e.id > :lastId)\n" +
+            "  and e.last_modified_date_time <= :upTo\n" +
+            "order by e.last_modified_date_time, e.id\n" +
+            "limit :batchSize";
+
+    private static final String AFFECTED_KEYS = "insert into daily_activity_rollup_key\n" +
+            "select distinct organisation_id, type_id, user_id, address_id, activity_date\n" +
+            "from daily_activity_rollup_entry\n" +
+            "where entity_type = :entityType\n" +
+            "  and entity_id in (select id from daily_activity_rollup_batch)";
+
+    private static final String DELETE_ENTRIES = "delete from daily_activity_rollup_entry\n" +
+            "where entity_type = :entityType\n" +
+            "  and entity_id in (select id from daily_activity_rollup_batch)";
+
+    private static final String INSERT_ENTRIES = "insert into daily_activity_rollup_entry (entity_type, entity_id, organisation_id, type_id, user_id, address_id, activity_date,\n" +
+            "                                         is_completed, is_cancelled, is_on_time, is_scheduled, is_exited)\n" +
+            "select ${entrySelect}\n" +
+            "from ${table} e\n" +
+            "         join daily_activity_rollup_batch b on b.id = e.id\n" +
+            "where e.is_voided = false";
+
+    private static final String DELETE_ROLLUPS = "delete from daily_activity_rollup r\n" +
+            "    using (select distinct * from daily_activity_rollup_key) k\n" +
+            "where r.entity_type = :entityType\n" +
+            "  and r.organisation_id = k.organisation_id\n" +
+            "  and r.type_id = k.type_id\n" +
+            "  and r.user_id = k.user_id\n" +
+            "  and r.address_id = k.address_id\n" +
+            "  and r.activity_date = k.activity_date";
+
+    private static final String INSERT_ROLLUPS = "insert into daily_activity_rollup (organisation_id, entity_type, type_id, user_id, address_id, activity_date, activity_count,\n" +
+            "                                   completed_count, cancelled_count, on_time_count, scheduled_count, exited_count)\n" +
+            "select e.organisation_id, e.entity_type, e.type_id, e.user_id, e.address_id, e.activity_date,\n" +
+            "       count(*),\n" +
+            "       count(*) filter ( where e.is_completed ),\n" +
+            "       count(*) filter ( where e.is_cancelled ),\n" +
+            "       count(*) filter ( where e.is_on_time ),\n" +
+            "       count(*) filter ( where e.is_scheduled ),\n" +
+            "       count(*) filter ( where e.is_exited )\n" +
+            "from daily_activity_rollup_entry e\n" +
+            "         join (select distinct * from daily_activity_rollup_key) k\n" +
+            "              on e.organisation_id = k.organisation_id\n" +
+            "                  and e.type_id = k.type_id\n" +
+            "                  and e.user_id = k.user_id\n" +
+            "                  and e.address_id = k.address_id\n" +
+            "                  and e.activity_date = k.activity_date\n" +
+            "where e.entity_type = :entityType\n" +
+            "group by e.organisation_id, e.entity_type, e.type_id, e.user_id, e.address_id, e.activity_date";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DailyActivityRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rolls up the next batch of rows of the table modified up to the given time, in (last_modified_date_time, id)
+     * order. Returns the number of rows read, which is 0 when the table has been read up to that time or when
+     * another node is refreshing the rollup.
+     */
+    @Transactional
+    public int refreshNextBatch(DailyActivityEntityType entityType, Timestamp upTo, int batchSize) {
+        MapSqlParameterSource params = new MapSqlParameterSource("entityType", entityType.name());
+        if (!jdbcTemplate.queryForObject(LOCK, params, Boolean.class)) return 0;
+
+        Map<String, Object> watermark = jdbcTemplate.queryForMap("select last_modified_date_time, last_id from daily_activity_rollup_watermark\n" +
+                "where entity_type = :entityType for update", params);
+        params.addValue("lastModifiedDateTime", watermark.get("last_modified_date_time"))
+                .addValue("lastId", watermark.get("last_id"))
+                .addValue("upTo", upTo)
+                .addValue("batchSize", batchSize);
+        // Dropped on commit, unless the refresh is part of a larger transaction
+        jdbcTemplate.update("drop table if exists daily_activity_rollup_batch, daily_activity_rollup_key", params);
+        jdbcTemplate.update(NEXT_BATCH.replace("${table}", entityType.getTable()), params);
+        List<Map<String, Object>> last = jdbcTemplate.queryForList("select id, last_modified_date_time, (select count(*) from daily_activity_rollup_batch) as count\n" +
+                "from daily_activity_rollup_batch order by last_modified_date_time desc, id desc limit 1", params);
+        if (last.isEmpty()) return 0;
+
+        jdbcTemplate.update("create temporary table daily_activity_rollup_key on commit drop as\n" +
+                "select organisation_id, type_id, user_id, address_id, activity_date from daily_activity_rollup_entry limit 0", params);
+        jdbcTemplate.update(AFFECTED_KEYS, params);
+        jdbcTemplate.update(DELETE_ENTRIES, params);
+        jdbcTemplate.update(INSERT_ENTRIES
+                .replace("${entrySelect}", entityType.getEntrySelect())
+                .replace("${table}", entityType.getTable()), params);
+        jdbcTemplate.update(AFFECTED_KEYS, params);
+        jdbcTemplate.update(DELETE_ROLLUPS, params);
+        jdbcTemplate.update(INSERT_ROLLUPS, params);
+
+        params.addValue("lastModifiedDateTime", last.get(0).get("last_modified_date_time"))
+                .addValue("lastId", last.get(0).get("id"));
+        jdbcTemplate.update("update daily_activity_rollup_watermark\n" +
+                "set last_modified_date_time = :lastModifiedDateTime, last_id = :lastId\n" +
+                "where entity_type = :entityType", params);
+        return ((Number) last.get(0).get("count")).intValue();
+    }
+}
@@ -0,0 +1,21 @@
+package org.avni.server.reporting;
+
+/**
+ * The table a reporting view has a row for each row of
+ */
+public enum ReportingSource {
+    Registration("individual"),
+    ProgramEnrolment("program_enrolment"),
+    ProgramEncounter("program_encounter"),
+    Encounter("encounter");
+
+    private final String table;
+
+    ReportingSource(String table) {
+        this.table = table;
+    }
+
+    public String getTable() {
+        return table;
+    }
+}
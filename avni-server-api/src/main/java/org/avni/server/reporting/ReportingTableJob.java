@@ -0,0 +1,46 @@
+package org.avni.server.reporting;
+
+import org.avni.server.framework.security.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+
+/**
+ * Brings the reporting tables of all organisations up to date with the rows modified since they were last refreshed.
+ * Each table is refreshed as its organisation, so that it gets only the organisation's rows.
+ */
+@Component
+public class ReportingTableJob {
+    private static final Logger logger = LoggerFactory.getLogger(ReportingTableJob.class);
+    private final ReportingTableRepository reportingTableRepository;
+    private final AuthService authService;
+
+    @Autowired
+    public ReportingTableJob(ReportingTableRepository reportingTableRepository, AuthService authService) {
+        this.reportingTableRepository = reportingTableRepository;
+        this.authService = authService;
+    }
+
+    @Scheduled(fixedDelayString = "${avni.reportingTableRefreshScheduleMillis}")
+    public void refresh() {
+        logger.info("Job started");
+        authService.authenticateByUserName("admin", null);
+        Timestamp upTo = ReportingTableRepository.refreshedTill();
+        for (ReportingTableRepository.ReportingTable reportingTable : reportingTableRepository.findAll()) {
+            try {
+                authService.authenticateByUserName("admin", reportingTable.getOrganisationUUID());
+                if (!reportingTableRepository.refresh(reportingTable, upTo)) {
+                    logger.info(String.format("Reporting table %s is being refreshed by another node", reportingTable.getName()));
+                }
+            } catch (Exception e) {
+                logger.error(String.format("Refreshing reporting table %s failed", reportingTable.getName()), e);
+            }
+        }
+        authService.authenticateByUserName("admin", null);
+        logger.info("Job ended");
+    }
+}
@@ -0,0 +1,151 @@
+package org.avni.server.reporting;
+
+import org.avni.server.domain.Organisation;
+import org.avni.server.util.DateTimeUtil;
+import org.joda.time.DateTime;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reporting views materialised as tables of the same name, so that reporting queries read plain columns instead of
+ * pivoting observations on every read. A table is refreshed by replacing the rows of the source rows modified since it
+ * was last refreshed, selected by their id from the rows of the view's own SQL, so every view has the source row's id
+ * as its id column.
+ * The view SQL is run as a plain statement, without parameters, as it can have '?' and ':' of its own.
+ */
+@Component
+public class ReportingTableRepository {
+    private static final List<String> INDEXED_COLUMNS = Arrays.asList("id", "individual_id", "program_enrolment_id", "address_id",
+            "registration_date", "enrolment_date_time", "encounter_date_time");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ReportingTableRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static class ReportingTable {
+        private final long id;
+        private final String name;
+        private final ReportingSource source;
+        private final String viewSql;
+        private final String schemaName;
+        private final String organisationUUID;
+
+        private ReportingTable(Map<String, Object> row) {
+            this.id = ((Number) row.get("id")).longValue();
+            this.name = (String) row.get("name");
+            this.source = ReportingSource.valueOf((String) row.get("source"));
+            this.viewSql = (String) row.get("view_sql");
+            this.schemaName = (String) row.get("schema_name");
+            this.organisationUUID = (String) row.get("organisation_uuid");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOrganisationUUID() {
+            return organisationUUID;
+        }
+    }
+
+    /**
+     * Replaces the reporting view, or the reporting table, of this name with a table of the rows the view has now
+     */
+    @Transactional
+    public void create(Organisation organisation, String name, ReportingSource source, String viewSql) {
+        String schemaName = organisation.getSchemaName();
+        String table = qualifiedName(schemaName, name);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("schemaName", schemaName)
+                .addValue("name", name)
+                .addValue("organisationId", organisation.getId())
+                .addValue("source", source.name())
+                .addValue("viewSql", viewSql)
+                .addValue("refreshedTill", refreshedTill());
+        List<String> relationKinds = jdbcTemplate.queryForList("select c.relkind::text from pg_class c join pg_namespace n on n.oid = c.relnamespace " +
+                "where n.nspname = :schemaName and c.relname = :name", params, String.class);
+        JdbcTemplate statements = jdbcTemplate.getJdbcTemplate();
+        if (relationKinds.contains("v")) statements.execute("drop view " + table);
+        if (relationKinds.contains("r")) statements.execute("drop table " + table);
+        statements.execute("create table " + table + " as " + withoutTerminator(viewSql));
+        List<String> columns = jdbcTemplate.queryForList("select column_name::text from information_schema.columns " +
+                "where table_schema = :schemaName and table_name = :name", params, String.class);
+        if (!columns.contains("id")) {
+            throw new IllegalArgumentException(String.format("Reporting view %s has no id column to refresh its rows by", name));
+        }
+        INDEXED_COLUMNS.stream().filter(columns::contains)
+                .forEach(column -> statements.execute(String.format("create index on %s (\"%s\")", table, column)));
+        statements.execute("analyze " + table);
+        jdbcTemplate.update("insert into reporting_table (organisation_id, name, source, view_sql, refreshed_till) " +
+                "values (:organisationId, :name, :source, :viewSql, :refreshedTill) " +
+                "on conflict (organisation_id, name) do update set source = excluded.source, view_sql = excluded.view_sql, " +
+                "refreshed_till = excluded.refreshed_till", params);
+    }
+
+    /**
+     * Drops the reporting table of this name, if there is one, so that a view can be created in its place
+     */
+    @Transactional
+    public void drop(Organisation organisation, String name) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("organisationId", organisation.getId())
+                .addValue("name", name);
+        if (jdbcTemplate.update("delete from reporting_table where organisation_id = :organisationId and name = :name", params) > 0) {
+            jdbcTemplate.getJdbcTemplate().execute("drop table if exists " + qualifiedName(organisation.getSchemaName(), name));
+        }
+    }
+
+    public List<ReportingTable> findAll() {
+        return jdbcTemplate.queryForList("select r.id, r.name, r.source, r.view_sql, o.schema_name, o.uuid as organisation_uuid " +
+                        "from reporting_table r join organisation o on o.id = r.organisation_id order by o.id, r.id",
+                new MapSqlParameterSource()).stream().map(ReportingTable::new).collect(Collectors.toList());
+    }
+
+    /**
+     * Brings the table up to date with the source rows modified till upTo. Returns false without refreshing when
+     * another node is refreshing the table.
+     */
+    @Transactional
+    public boolean refresh(ReportingTable reportingTable, Timestamp upTo) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", reportingTable.id);
+        if (!jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(hashtext('reporting_table'), cast(:id as integer))", params, Boolean.class)) {
+            return false;
+        }
+        Timestamp refreshedTill = jdbcTemplate.queryForObject("select refreshed_till from reporting_table where id = :id", params, Timestamp.class);
+        if (!refreshedTill.before(upTo)) return true;
+
+        String table = qualifiedName(reportingTable.schemaName, reportingTable.name);
+        ReportingSource source = reportingTable.source;
+        String modifiedIds = String.format("select s.id from public.%s s where s.last_modified_date_time > '%s' and s.last_modified_date_time <= '%s'",
+                source.getTable(), new DateTime(refreshedTill), new DateTime(upTo));
+        JdbcTemplate statements = jdbcTemplate.getJdbcTemplate();
+        statements.execute(String.format("delete from %s where id in (%s)", table, modifiedIds));
+        statements.execute(String.format("insert into %s select v.* from (\n%s\n) v where v.id in (%s)",
+                table, withoutTerminator(reportingTable.viewSql), modifiedIds));
+        jdbcTemplate.update("update reporting_table set refreshed_till = :refreshedTill where id = :id", params.addValue("refreshedTill", upTo));
+        return true;
+    }
+
+    public static Timestamp refreshedTill() {
+        return new Timestamp(DateTimeUtil.committedTill().getMillis());
+    }
+
+    private static String qualifiedName(String schemaName, String name) {
+        return schemaName + "." + name;
+    }
+
+    private static String withoutTerminator(String viewSql) {
+        return viewSql.trim().replaceAll(";$", "");
+    }
+}
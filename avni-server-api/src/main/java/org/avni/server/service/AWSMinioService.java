@@ -7,7 +7,9 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.avni.server.domain.UserContext;
+import org.avni.server.framework.metrics.S3MetricsRequestHandler;
 import org.avni.server.util.MinioUri;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +35,8 @@ public class AWSMinioService extends StorageService {
                            @Value("${minio.url}") String minioUrl,
                            @Value("${minio.accessKey}") String minioAccessKey,
                            @Value("${minio.secretAccessKey}") String minioSecretAccessKey,
-                           @Value("${avni.connectToS3InDev}") boolean s3InDev, Boolean isDev) {
+                           @Value("${avni.connectToS3InDev}") boolean s3InDev, Boolean isDev,
+                           MeterRegistry meterRegistry) {
         super(bucketName, s3InDev, logger, isDev);
         ClientConfiguration clientConfiguration = new ClientConfiguration();
         clientConfiguration.setSignerOverride("AWSS3V4SignerType");
@@ -42,6 +45,7 @@ public class AWSMinioService extends StorageService {
                         .EndpointConfiguration(minioUrl, REGION.getName()))
                 .withPathStyleAccessEnabled(true)
                 .withClientConfiguration(clientConfiguration)
+                .withRequestHandlers(new S3MetricsRequestHandler(meterRegistry))
                 .withCredentials(
                         new AWSStaticCredentialsProvider(new BasicAWSCredentials(minioAccessKey, minioSecretAccessKey)))
                 .build();
@@ -49,9 +53,12 @@ public class AWSMinioService extends StorageService {
 
     @Override
     public InputStream getObjectContentFromUrl(String s3url) {
-        MinioUri minioUri = new MinioUri(s3url);
-        String objectKey = minioUri.getKey();
-        return getObjectContent(objectKey);
+        return getObjectContent(getObjectKeyFromUrl(s3url));
+    }
+
+    @Override
+    public String getObjectKeyFromUrl(String s3url) {
+        return new MinioUri(s3url).getKey();
     }
 
     @Override
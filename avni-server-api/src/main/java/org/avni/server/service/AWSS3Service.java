@@ -7,7 +7,9 @@ import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.AmazonS3URI;
 import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.avni.server.domain.UserContext;
+import org.avni.server.framework.metrics.S3MetricsRequestHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,10 +33,12 @@ public class AWSS3Service extends StorageService {
     public AWSS3Service(@Value("${avni.bucketName}") String bucketName,
                         @Value("${aws.accessKeyId}") String accessKeyId,
                         @Value("${aws.secretAccessKey}") String secretAccessKey,
-                        @Value("${avni.connectToS3InDev}") boolean s3InDev, Boolean isDev) {
+                        @Value("${avni.connectToS3InDev}") boolean s3InDev, Boolean isDev,
+                        MeterRegistry meterRegistry) {
         super(bucketName, s3InDev, logger, isDev);
         s3Client = AmazonS3ClientBuilder.standard()
                 .withRegion(REGION)
+                .withRequestHandlers(new S3MetricsRequestHandler(meterRegistry))
                 .withPathStyleAccessEnabled(true)
                 .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKeyId, secretAccessKey)))
                 .build();
@@ -42,9 +46,12 @@ public class AWSS3Service extends StorageService {
 
     @Override
     public InputStream getObjectContentFromUrl(String s3url) {
-        AmazonS3URI amazonS3URI = new AmazonS3URI(s3url);
-        String objectKey = amazonS3URI.getKey();
-        return getObjectContent(objectKey);
+        return getObjectContent(getObjectKeyFromUrl(s3url));
+    }
+
+    @Override
+    public String getObjectKeyFromUrl(String s3url) {
+        return new AmazonS3URI(s3url).getKey();
     }
 
     @Override
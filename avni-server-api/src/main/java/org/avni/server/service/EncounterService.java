@@ -34,7 +34,6 @@ import org.springframework.util.StringUtils;
 import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static org.avni.server.web.request.api.ApiBaseEncounterRequest.*;
 import static org.avni.server.web.request.api.ApiSubjectRequest.OBSERVATIONS;
@@ -121,26 +120,42 @@ public class EncounterService implements ScopeAwareService<Encounter> {
         return encounterContract;
     }
 
-    public List<Encounter> scheduledEncountersByType(Individual individual, String encounterTypeName, String currentEncounterUuid) {
-        Stream<Encounter> scheduledEncounters = individual.scheduledEncountersOfType(encounterTypeName).filter(enc -> !enc.getUuid().equals(currentEncounterUuid));
-        return scheduledEncounters.collect(Collectors.toList());
+    public List<Encounter> scheduledEncountersByType(Individual individual, EncounterType encounterType, String currentEncounterUuid) {
+        return encounterRepository.findScheduledEncounters(individual, encounterType).stream()
+                .filter(enc -> !enc.getUuid().equals(currentEncounterUuid))
+                .collect(Collectors.toList());
     }
 
+    /**
+     * Encounter types are resolved once per name for all the visit schedules, and the open scheduled encounters of a
+     * type are read by query, instead of loading all the encounters of the subject
+     */
     public void saveVisitSchedules(String individualUuid, List<VisitSchedule> visitSchedules, String currentEncounterUuid) {
         Individual individual = individualRepository.findByUuid(individualUuid);
+        Map<String, EncounterType> encounterTypes = new HashMap<>();
+        Set<String> createdEncounterUuids = new HashSet<>();
         for (VisitSchedule visitSchedule : visitSchedules) {
-            saveVisitSchedule(individual, visitSchedule, currentEncounterUuid);
+            EncounterType encounterType = encounterTypes.computeIfAbsent(visitSchedule.getEncounterType(), encounterTypeRepository::findByName);
+            saveVisitSchedule(individual, visitSchedule, encounterType, currentEncounterUuid, createdEncounterUuids);
         }
     }
 
     public void saveVisitSchedule(Individual individual, VisitSchedule visitSchedule, String currentEncounterUuid) {
-        List<Encounter> allScheduleEncountersByType = scheduledEncountersByType(individual, visitSchedule.getEncounterType(), currentEncounterUuid);
+        EncounterType encounterType = encounterTypeRepository.findByName(visitSchedule.getEncounterType());
+        saveVisitSchedule(individual, visitSchedule, encounterType, currentEncounterUuid, new HashSet<>());
+    }
+
+    //Encounters created for earlier schedules of the same request are not updated by the later ones
+    private void saveVisitSchedule(Individual individual, VisitSchedule visitSchedule, EncounterType encounterType,
+                                   String currentEncounterUuid, Set<String> createdEncounterUuids) {
+        if (encounterType == null) {
+            throw new BadRequestError("Next scheduled visit is for encounter type=%s that doesn't exist", visitSchedule.getName());
+        }
+        List<Encounter> allScheduleEncountersByType = scheduledEncountersByType(individual, encounterType, currentEncounterUuid)
+                .stream().filter(enc -> !createdEncounterUuids.contains(enc.getUuid())).collect(Collectors.toList());
         if (allScheduleEncountersByType.isEmpty() || "createNew".equals(visitSchedule.getVisitCreationStrategy())) {
-            EncounterType encounterType = encounterTypeRepository.findByName(visitSchedule.getEncounterType());
-            if (encounterType == null) {
-                throw new BadRequestError("Next scheduled visit is for encounter type=%s that doesn't exist", visitSchedule.getName());
-            }
             Encounter encounter = createEmptyEncounter(individual, encounterType);
+            createdEncounterUuids.add(encounter.getUuid());
             allScheduleEncountersByType = Arrays.asList(encounter);
         }
         allScheduleEncountersByType.stream().forEach(encounter -> {
@@ -3,6 +3,11 @@ package org.avni.server.service;
 import org.avni.server.application.FormMapping;
 import org.avni.server.dao.*;
 import org.avni.server.domain.*;
+import org.avni.server.domain.accessControl.PrivilegeType;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.accessControl.AccessControlService;
+import org.avni.server.util.BadRequestError;
+import org.avni.server.web.request.BulkEntityApprovalStatusRequest;
 import org.avni.server.web.request.EntityApprovalStatusRequest;
 import org.avni.server.web.request.rules.RulesContractWrapper.EntityApprovalStatusWrapper;
 import org.joda.time.DateTime;
@@ -10,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,12 +27,16 @@ import static org.avni.server.domain.EntityApprovalStatus.EntityType.*;
 public class EntityApprovalStatusService implements NonScopeAwareService {
     private EntityApprovalStatusRepository entityApprovalStatusRepository;
     private ApprovalStatusRepository approvalStatusRepository;
+    private EntityApprovalStatusBulkRepository entityApprovalStatusBulkRepository;
+    private AccessControlService accessControlService;
     private Map<EntityApprovalStatus.EntityType, TransactionalDataRepository> typeMap = new HashMap<>();
 
     @Autowired
-    public EntityApprovalStatusService(EntityApprovalStatusRepository entityApprovalStatusRepository, ApprovalStatusRepository approvalStatusRepository, IndividualRepository individualRepository, EncounterRepository encounterRepository, ChecklistItemRepository checklistItemRepository, ProgramEncounterRepository programEncounterRepository, ProgramEnrolmentRepository programEnrolmentRepository) {
+    public EntityApprovalStatusService(EntityApprovalStatusRepository entityApprovalStatusRepository, ApprovalStatusRepository approvalStatusRepository, IndividualRepository individualRepository, EncounterRepository encounterRepository, ChecklistItemRepository checklistItemRepository, ProgramEncounterRepository programEncounterRepository, ProgramEnrolmentRepository programEnrolmentRepository, EntityApprovalStatusBulkRepository entityApprovalStatusBulkRepository, AccessControlService accessControlService) {
         this.entityApprovalStatusRepository = entityApprovalStatusRepository;
         this.approvalStatusRepository = approvalStatusRepository;
+        this.entityApprovalStatusBulkRepository = entityApprovalStatusBulkRepository;
+        this.accessControlService = accessControlService;
         this.typeMap.put(Subject, individualRepository);
         this.typeMap.put(Encounter, encounterRepository);
         this.typeMap.put(ChecklistItem, checklistItemRepository);
@@ -56,8 +66,7 @@ public class EntityApprovalStatusService implements NonScopeAwareService {
         entityApprovalStatus.updateAudit();
         entityApprovalStatus.setEntityId(entity.getId());
 
-        CHSEntity chsEntity = this.typeMap.get(entityType).findByUuid(request.getEntityUuid());
-        updateIndividualAndSyncAttributes(chsEntity, entityApprovalStatus, entityType);
+        updateIndividualAndSyncAttributes(entity, entityApprovalStatus, entityType);
         return entityApprovalStatusRepository.save(entityApprovalStatus);
     }
 
@@ -68,8 +77,7 @@ public class EntityApprovalStatusService implements NonScopeAwareService {
         }
 
         ApprovalStatus approvalStatus = approvalStatusRepository.findByStatus(status);
-        List<EntityApprovalStatus> entityApprovalStatuses = entityApprovalStatusRepository.findByEntityIdAndEntityTypeAndIsVoidedFalse(entityId, entityType);
-        if (entityApprovalStatuses != null && entityApprovalStatuses.stream().anyMatch(x -> x.getApprovalStatus().getStatus().equals(status))) {
+        if (entityApprovalStatusRepository.existsByEntityIdAndEntityTypeAndApprovalStatusAndIsVoidedFalse(entityId, entityType, approvalStatus)) {
             return;
         }
         EntityApprovalStatus entityApprovalStatus = new EntityApprovalStatus();
@@ -85,11 +93,79 @@ public class EntityApprovalStatusService implements NonScopeAwareService {
         entityApprovalStatus.setApprovalStatus(approvalStatus);
         entityApprovalStatus.setStatusDateTime(new DateTime());
         entityApprovalStatus.setAutoApproved(false);
-        CHSEntity chsEntity = this.typeMap.get(entityType).findEntity(entityId);
-        updateIndividualAndSyncAttributes(chsEntity, entityApprovalStatus, entityType);
+        updateIndividualAndSyncAttributes(entity, entityApprovalStatus, entityType);
         entityApprovalStatusRepository.save(entityApprovalStatus);
     }
 
+    /**
+     * Approves or rejects all the entities of a type matching the request with one statement, instead of one request and
+     * save per entity. Returns the number of entities whose status was changed.
+     */
+    public int bulkUpdateStatus(BulkEntityApprovalStatusRequest request) {
+        EntityApprovalStatus.EntityType entityType = parse(EntityApprovalStatus.EntityType.class, request.getEntityType());
+        ApprovalStatus.Status currentStatus = parse(ApprovalStatus.Status.class, request.getCurrentApprovalStatus());
+        ApprovalStatus.Status status = parse(ApprovalStatus.Status.class, request.getApprovalStatus());
+        if (status == ApprovalStatus.Status.Pending || status == currentStatus) {
+            throw new BadRequestError("Entities cannot be moved from %s to %s", currentStatus, status);
+        }
+        String entityTypeUuid = request.getEntityTypeUuid();
+        if (!StringUtils.hasText(entityTypeUuid)) {
+            throw new BadRequestError("entityTypeUuid is required");
+        }
+        checkPrivilege(entityType, getPrivilegeType(entityType, status), entityTypeUuid);
+        EntityApprovalStatusBulkRepository.Filter filter = new EntityApprovalStatusBulkRepository.Filter(entityType, entityTypeUuid, approvalStatusRepository.findByStatus(currentStatus).getId())
+                .withEntityUuids(request.getEntityUuids())
+                .withAddressIds(request.getAddressIds())
+                .withStatusDateTimeBetween(CHSEntity.toDate(request.getStatusFrom()), CHSEntity.toDate(request.getStatusTill()));
+        return entityApprovalStatusBulkRepository.updateStatus(filter, approvalStatusRepository.findByStatus(status).getId(),
+                request.getApprovalStatusComment(), UserContextHolder.getUser().getId(), new Date());
+    }
+
+    private void checkPrivilege(EntityApprovalStatus.EntityType entityType, PrivilegeType privilegeType, String entityTypeUuid) {
+        switch (entityType) {
+            case Subject:
+                accessControlService.checkSubjectPrivilege(privilegeType, entityTypeUuid);
+                break;
+            case ProgramEnrolment:
+            case ChecklistItem:
+                accessControlService.checkProgramPrivilege(privilegeType, entityTypeUuid);
+                break;
+            case ProgramEncounter:
+                accessControlService.checkProgramEncounterPrivilege(privilegeType, entityTypeUuid);
+                break;
+            case Encounter:
+                accessControlService.checkEncounterPrivilege(privilegeType, entityTypeUuid);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Incorrect entityType '%s' not found", entityType));
+        }
+    }
+
+    private static PrivilegeType getPrivilegeType(EntityApprovalStatus.EntityType entityType, ApprovalStatus.Status status) {
+        boolean approve = status == ApprovalStatus.Status.Approved;
+        switch (entityType) {
+            case Subject:
+                return approve ? PrivilegeType.ApproveSubject : PrivilegeType.RejectSubject;
+            case ProgramEnrolment:
+                return approve ? PrivilegeType.ApproveEnrolment : PrivilegeType.RejectEnrolment;
+            case ProgramEncounter:
+            case Encounter:
+                return approve ? PrivilegeType.ApproveEncounter : PrivilegeType.RejectEncounter;
+            case ChecklistItem:
+                return approve ? PrivilegeType.ApproveChecklistitem : PrivilegeType.RejectChecklistitem;
+            default:
+                throw new IllegalArgumentException(String.format("Incorrect entityType '%s' not found", entityType));
+        }
+    }
+
+    private static <T extends Enum<T>> T parse(Class<T> enumType, String name) {
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadRequestError("Incorrect %s '%s'", enumType.getSimpleName(), name);
+        }
+    }
+
     private void updateIndividualAndSyncAttributes(CHSEntity entity, EntityApprovalStatus entityApprovalStatus, EntityApprovalStatus.EntityType entityType) {
         Individual individual = getIndividual(entityType, entity);
         entityApprovalStatus.setIndividual(individual);
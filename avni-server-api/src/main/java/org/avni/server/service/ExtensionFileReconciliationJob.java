@@ -0,0 +1,49 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.ExtensionFileRepository;
+import org.avni.server.dao.OrganisationRepository;
+import org.avni.server.domain.Organisation;
+import org.avni.server.framework.security.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Extension files are normally recorded in the manifest when uploaded. This catches up with files that were changed
+ * in S3 directly, and fills the manifest for organisations whose extensions were uploaded before it existed.
+ */
+@Component
+public class ExtensionFileReconciliationJob {
+    private static final Logger logger = LoggerFactory.getLogger(ExtensionFileReconciliationJob.class);
+    private final S3Service s3Service;
+    private final ExtensionFileRepository extensionFileRepository;
+    private final OrganisationRepository organisationRepository;
+    private final AuthService authService;
+
+    @Autowired
+    public ExtensionFileReconciliationJob(@Qualifier("BatchS3Service") S3Service s3Service, ExtensionFileRepository extensionFileRepository,
+                                          OrganisationRepository organisationRepository, AuthService authService) {
+        this.s3Service = s3Service;
+        this.extensionFileRepository = extensionFileRepository;
+        this.organisationRepository = organisationRepository;
+        this.authService = authService;
+    }
+
+    @Scheduled(fixedDelayString = "${avni.extensionFileReconciliationScheduleMillis}")
+    public void reconcile() {
+        logger.info("Job started");
+        authService.authenticateByUserName("admin", null);
+        for (Organisation organisation : organisationRepository.findAllByIsVoidedFalse()) {
+            if (organisation.getMediaDirectory() == null) continue;
+            try {
+                extensionFileRepository.replaceAll(organisation.getId(), s3Service.listExtensionFiles(organisation));
+            } catch (Exception e) {
+                logger.error(String.format("Reconciling extension files failed for organisation with id: %d", organisation.getId()), e);
+            }
+        }
+        logger.info("Job ended");
+    }
+}
@@ -1,21 +1,49 @@
 package org.avni.server.service;
 
+import org.avni.server.dao.ExtensionFileRepository;
+import org.avni.server.domain.Organisation;
+import org.avni.server.domain.OrganisationConfig;
+import org.avni.server.domain.S3ExtensionFile;
+import org.avni.server.framework.security.UserContextHolder;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
 @Service
 public class ExtensionService implements NonScopeAwareService {
 
     private final S3Service s3Service;
+    private final ExtensionFileRepository extensionFileRepository;
 
     @Autowired
-    public ExtensionService(S3Service s3Service) {
+    public ExtensionService(S3Service s3Service, ExtensionFileRepository extensionFileRepository) {
         this.s3Service = s3Service;
+        this.extensionFileRepository = extensionFileRepository;
     }
 
     @Override
     public boolean isNonScopeEntityChanged(DateTime lastModifiedDateTime) {
-        return s3Service.listExtensionFiles(java.util.Optional.ofNullable(lastModifiedDateTime)).size() > 0;
+        return extensionFileRepository.existsModifiedSince(UserContextHolder.getOrganisation().getId(), Optional.ofNullable(lastModifiedDateTime).orElse(new DateTime(0)));
+    }
+
+    public List<S3ExtensionFile> listExtensionFiles(Optional<DateTime> lastModifiedDateTime) {
+        return extensionFileRepository.findModifiedSince(UserContextHolder.getOrganisation(), lastModifiedDateTime.orElse(new DateTime(0)));
+    }
+
+    /**
+     * @return ETag of the extension file as recorded in the manifest, null if the file is not known
+     */
+    public String getETag(Organisation organisation, String filePath) {
+        return extensionFileRepository.findETag(organisation.getId(), filePath);
+    }
+
+    public void uploadExtensionFiles(File extensionsDirectory) throws IOException, InterruptedException {
+        List<S3ExtensionFile> uploadedFiles = s3Service.uploadExtensionFiles(extensionsDirectory, OrganisationConfig.Extension.EXTENSION_DIR);
+        extensionFileRepository.replaceAll(UserContextHolder.getOrganisation().getId(), uploadedFiles);
     }
 }
@@ -5,10 +5,12 @@ import org.avni.server.application.Form;
 import org.avni.server.application.KeyType;
 import org.avni.server.dao.IdentifierAssignmentRepository;
 import org.avni.server.dao.IdentifierSourceRepository;
+import org.avni.server.dao.IdentifierUserAssignmentRepository;
 import org.avni.server.domain.CHSEntity;
 import org.avni.server.domain.IdentifierAssignment;
 import org.avni.server.domain.IdentifierSource;
 import org.avni.server.domain.User;
+import org.avni.server.domain.UserContext;
 import org.avni.server.framework.security.UserContextHolder;
 import org.avni.server.identifier.IdentifierGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,12 +29,15 @@ public class IdentifierAssignmentService implements NonScopeAwareService {
 
     private IdentifierAssignmentRepository identifierAssignmentRepository;
 
+    private IdentifierUserAssignmentRepository identifierUserAssignmentRepository;
+
     private ApplicationContext context;
 
     @Autowired
-    public IdentifierAssignmentService(IdentifierSourceRepository identifierSourceRepository, IdentifierAssignmentRepository identifierAssignmentRepository, ApplicationContext context) {
+    public IdentifierAssignmentService(IdentifierSourceRepository identifierSourceRepository, IdentifierAssignmentRepository identifierAssignmentRepository, IdentifierUserAssignmentRepository identifierUserAssignmentRepository, ApplicationContext context) {
         this.identifierSourceRepository = identifierSourceRepository;
         this.identifierAssignmentRepository = identifierAssignmentRepository;
+        this.identifierUserAssignmentRepository = identifierUserAssignmentRepository;
         this.context = context;
     }
 
@@ -70,10 +75,17 @@ public class IdentifierAssignmentService implements NonScopeAwareService {
         return spareIdentifierAssignments < identifierSource.getMinimumBalance();
     }
 
+    /**
+     * Identifiers are not generated here, as sync would wait on it. The ones generated in the background have a later
+     * last modified date time and are picked up by the next sync.
+     */
     @Override
     public boolean isNonScopeEntityChanged(DateTime lastModifiedDateTime) {
-        User user = UserContextHolder.getUserContext().getUser();
-        this.generateIdentifiersIfNecessary(user);
+        UserContext userContext = UserContextHolder.getUserContext();
+        User user = userContext.getUser();
+        if (identifierUserAssignmentRepository.isIdentifierBalanceLow(user.getId())) {
+            context.getBean(IdentifierTopUpJob.class).topUpLater(userContext);
+        }
         return identifierAssignmentRepository.existsByAssignedToAndLastModifiedDateTimeGreaterThanAndIsVoidedFalseAndIndividualIsNullAndProgramEnrolmentIsNull(user, CHSEntity.toDate(lastModifiedDateTime));
     }
 }
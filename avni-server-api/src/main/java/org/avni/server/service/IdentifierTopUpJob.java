@@ -0,0 +1,94 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.IdentifierUserAssignmentRepository;
+import org.avni.server.domain.UserContext;
+import org.avni.server.framework.security.AuthService;
+import org.avni.server.framework.security.UserContextHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifiers are generated for users in the background, so that sync does not wait on them. They are topped up when
+ * sync finds a user running low, and by a sweep over all users, which also covers the top-ups that could not be queued.
+ */
+@Component
+public class IdentifierTopUpJob {
+    private static final Logger logger = LoggerFactory.getLogger(IdentifierTopUpJob.class);
+    private final IdentifierAssignmentService identifierAssignmentService;
+    private final IdentifierUserAssignmentRepository identifierUserAssignmentRepository;
+    private final AuthService authService;
+    private final Set<Long> queuedUserIds = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {{
+        setCorePoolSize(2);
+        setMaxPoolSize(2);
+        setQueueCapacity(1000);
+        setThreadNamePrefix("identifier-top-up-");
+        initialize();
+    }};
+
+    @Autowired
+    public IdentifierTopUpJob(IdentifierAssignmentService identifierAssignmentService, IdentifierUserAssignmentRepository identifierUserAssignmentRepository,
+                              AuthService authService) {
+        this.identifierAssignmentService = identifierAssignmentService;
+        this.identifierUserAssignmentRepository = identifierUserAssignmentRepository;
+        this.authService = authService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * A user is queued only once at a time, however often the user syncs while the top-up is pending
+     */
+    public void topUpLater(UserContext userContext) {
+        Long userId = userContext.getUser().getId();
+        String organisationUUID = userContext.getOrganisationUUID();
+        if (!queuedUserIds.add(userId)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    topUp(userId, organisationUUID);
+                } finally {
+                    queuedUserIds.remove(userId);
+                    UserContextHolder.clear();
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            queuedUserIds.remove(userId);
+            logger.warn(String.format("Identifier top up not queued for user with id: %d, leaving it to the sweep", userId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${avni.identifierTopUpScheduleMillis}")
+    public void topUpAll() {
+        logger.info("Job started");
+        authService.authenticateByUserName("admin", null);
+        for (Number userId : identifierUserAssignmentRepository.getUsersWithLowIdentifierBalance()) {
+            if (queuedUserIds.contains(userId.longValue())) continue;
+            topUp(userId.longValue(), null);
+        }
+        logger.info("Job ended");
+    }
+
+    private void topUp(Long userId, String organisationUUID) {
+        try {
+            UserContext userContext = authService.authenticateByUserId(userId, organisationUUID);
+            identifierAssignmentService.generateIdentifiersIfNecessary(userContext.getUser());
+        } catch (Exception e) {
+            logger.error(String.format("Identifier top up failed for user with id: %d", userId), e);
+        }
+    }
+}
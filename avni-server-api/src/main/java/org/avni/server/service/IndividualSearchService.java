@@ -4,9 +4,11 @@ import org.avni.server.dao.IndividualRepository;
 import org.avni.server.dao.ProgramEnrolmentRepository;
 import org.avni.server.dao.SubjectSearchRepository;
 import org.avni.server.dao.search.SubjectSearchQueryBuilder;
+import org.avni.server.dao.search.SubjectSearchSortColumn;
 import org.avni.server.domain.Program;
 import org.avni.server.web.request.EnrolmentContract;
 import org.avni.server.web.request.webapp.search.SubjectSearchRequest;
+import org.avni.server.web.request.webapp.search.TotalCountMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -33,10 +35,10 @@ public class IndividualSearchService {
     public LinkedHashMap<String, Object> search(SubjectSearchRequest subjectSearchRequest) {
         List<Map<String, Object>> searchResults = subjectSearchRepository.search(subjectSearchRequest, new SubjectSearchQueryBuilder());
         BigInteger totalCount = subjectSearchRepository.getTotalCount(subjectSearchRequest, new SubjectSearchQueryBuilder());
-        return constructIndividual(searchResults, totalCount);
+        return constructIndividual(searchResults, totalCount, subjectSearchRequest);
     }
 
-    private LinkedHashMap<String, Object> constructIndividual(List<Map<String, Object>> individualList, BigInteger totalCount) {
+    private LinkedHashMap<String, Object> constructIndividual(List<Map<String, Object>> individualList, BigInteger totalCount, SubjectSearchRequest subjectSearchRequest) {
         LinkedHashMap<String, Object> recordsMap = new LinkedHashMap<String, Object>();
         List<Map<String, Object>> listOfRecords = individualList.stream()
                 .peek(individualRecord -> {
@@ -44,7 +46,9 @@ public class IndividualSearchService {
                     individualRecord.put("enrolments", constructEnrolments(individualId));
                 }).collect(Collectors.toList());
         recordsMap.put("totalElements", totalCount);
+        recordsMap.put("totalElementsEstimated", SubjectSearchRepository.getTotalCountMode(subjectSearchRequest) == TotalCountMode.estimated);
         recordsMap.put("listOfRecords", listOfRecords);
+        recordsMap.put("searchAfter", SubjectSearchSortColumn.nextPage(listOfRecords, subjectSearchRequest.getPageElement()));
         return recordsMap;
     }
 
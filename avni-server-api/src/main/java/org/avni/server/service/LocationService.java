@@ -112,6 +112,7 @@ public class LocationService implements ScopeAwareService<AddressLevel> {
         try {
             location.calculateLineage();
             locationRepository.save(location);
+            updateTitleLineage(location);
         } catch (Exception e) {
             logger.error(e.getMessage());
             throw new BuilderException(String.format("Unable to update lineage for location with Id %s - %s", location.getId(), e.getMessage()));
@@ -174,9 +175,19 @@ public class LocationService implements ScopeAwareService<AddressLevel> {
 
         location.setTitle(locationEditContract.getTitle());
         locationRepository.save(location);
+        updateTitleLineage(location);
         return location;
     }
 
+    /**
+     * Title lineage of a location is made of the titles of its ancestors, so a rename or a move changes it for the
+     * whole subtree.
+     */
+    public void updateTitleLineage(AddressLevel location) {
+        if (location.getLineage() == null) return;
+        locationRepository.updateTitleLineageOfSelfAndDescendants(location.getLineage());
+    }
+
     private void updateLocationMapping(AddressLevel location, LocationEditContract locationEditContract) {
         List<ParentLocationMapping> locationMappings = locationMappingRepository.findAllByLocation(location);
         AddressLevel newParent = locationRepository.findOne(locationEditContract.getParentId());
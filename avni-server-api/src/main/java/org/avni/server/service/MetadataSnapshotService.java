@@ -0,0 +1,187 @@
+package org.avni.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.apache.commons.io.IOUtils;
+import org.avni.server.dao.MetadataChangeRepository;
+import org.avni.server.domain.Organisation;
+import org.avni.server.domain.User;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.accessControl.GroupPrivilegeService;
+import org.avni.server.util.DateTimeUtil;
+import org.avni.server.util.ObjectMapperSingleton;
+import org.avni.server.web.request.GroupPrivilegeContract;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Snapshot of the metadata of an organisation, for a device to fetch in one request on its first sync. The snapshot
+ * is built once per organisation and set of user groups, and is rebuilt when any of the entities in it change after
+ * it was built.
+ * <p>
+ * The snapshot is a json object with two fields. {@code bundle} holds the files of the metadata bundle, as downloaded
+ * from /implementation/export without locations, keyed by file name (subjectTypes.json, concepts.json, forms/..., etc.)
+ * with the parsed content of each file as the value. The device imports them the way a bundle is uploaded, so the
+ * bundle file layout is the contract and changes to it must stay compatible with the devices in use.
+ * {@code groupPrivileges} holds the {@link GroupPrivilegeContract}s of the user's groups.
+ */
+@Service
+public class MetadataSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(MetadataSnapshotService.class);
+    private final OrganisationService organisationService;
+    private final GroupPrivilegeService groupPrivilegeService;
+    private final MetadataChangeRepository metadataChangeRepository;
+    private final Cache<String, MetadataSnapshot> snapshots;
+
+    @Autowired
+    public MetadataSnapshotService(OrganisationService organisationService, GroupPrivilegeService groupPrivilegeService,
+                                   MetadataChangeRepository metadataChangeRepository,
+                                   @Value("${avni.cache.max.entries}") int maxEntriesToCache) {
+        this.organisationService = organisationService;
+        this.groupPrivilegeService = groupPrivilegeService;
+        this.metadataChangeRepository = metadataChangeRepository;
+        this.snapshots = CacheBuilder.newBuilder().maximumSize(maxEntriesToCache).build();
+    }
+
+    public MetadataSnapshot getSnapshot() throws IOException {
+        User user = UserContextHolder.getUserContext().getUser();
+        Organisation organisation = UserContextHolder.getUserContext().getOrganisation();
+        String key = String.format("%d:%s", organisation.getId(), user.getUserGroups().stream()
+                .filter(userGroup -> !userGroup.isVoided())
+                .map(userGroup -> userGroup.getGroup().getId())
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+
+        MetadataSnapshot snapshot = snapshots.getIfPresent(key);
+        if (snapshot != null && !isChangedSince(snapshot.getBuiltAt())) {
+            return snapshot;
+        }
+        snapshot = build(organisation, user);
+        snapshots.put(key, snapshot);
+        return snapshot;
+    }
+
+    private boolean isChangedSince(DateTime builtAt) {
+        DateTime lastModifiedDateTime = metadataChangeRepository.getLastModifiedDateTime();
+        return lastModifiedDateTime != null && lastModifiedDateTime.isAfter(builtAt);
+    }
+
+    private MetadataSnapshot build(Organisation organisation, User user) throws IOException {
+        DateTime builtAt = DateTimeUtil.committedTill();
+        ObjectMapper objectMapper = ObjectMapperSingleton.getObjectMapper();
+        ObjectNode snapshot = objectMapper.createObjectNode();
+        snapshot.set("bundle", getBundleFiles(organisation));
+        List<GroupPrivilegeContract> groupPrivileges = groupPrivilegeService.getGroupPrivileges(user).getPrivileges().stream()
+                .map(GroupPrivilegeContract::fromEntity)
+                .distinct()
+                .collect(Collectors.toList());
+        snapshot.set("groupPrivileges", objectMapper.valueToTree(groupPrivileges));
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            objectMapper.writeValue(gzipOutputStream, snapshot);
+        }
+        byte[] content = compressed.toByteArray();
+        String version = Hashing.sha256().hashBytes(content).toString();
+        logger.info(String.format("Built metadata snapshot %s of %d bytes for organisation %d", version, content.length, organisation.getId()));
+        return new MetadataSnapshot(version, builtAt, content);
+    }
+
+    /**
+     * Same files as the metadata bundle download, keyed by file name, leaving out locations and icons.
+     */
+    private ObjectNode getBundleFiles(Organisation organisation) throws IOException {
+        Long orgId = organisation.getId();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            organisationService.addAddressLevelTypesJson(orgId, zos);
+            organisationService.addSubjectTypesJson(orgId, zos);
+            organisationService.addOperationalSubjectTypesJson(organisation, zos);
+            organisationService.addEncounterTypesJson(organisation, zos);
+            organisationService.addOperationalEncounterTypesJson(organisation, zos);
+            organisationService.addProgramsJson(organisation, zos);
+            organisationService.addOperationalProgramsJson(organisation, zos);
+            organisationService.addConceptsJson(orgId, zos);
+            organisationService.addFormsJson(orgId, zos);
+            organisationService.addFormMappingsJson(orgId, zos);
+            organisationService.addOrganisationConfig(orgId, zos);
+            organisationService.addIdentifierSourceJson(zos, false);
+            organisationService.addRelationJson(zos);
+            organisationService.addRelationShipTypeJson(zos);
+            organisationService.addChecklistDetailJson(zos);
+            organisationService.addGroupsJson(zos);
+            organisationService.addGroupRoleJson(zos);
+            organisationService.addVideoJson(zos);
+            organisationService.addReportCards(zos);
+            organisationService.addReportDashboard(zos);
+            organisationService.addDocumentation(zos);
+            organisationService.addTaskType(zos);
+            organisationService.addTaskStatus(zos);
+            organisationService.addApplicationMenus(zos);
+            organisationService.addMessageRules(zos);
+        }
+
+        ObjectMapper objectMapper = ObjectMapperSingleton.getObjectMapper();
+        ObjectNode files = objectMapper.createObjectNode();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (entry.isDirectory() || !entry.getName().endsWith(".json")) continue;
+                byte[] bytes = IOUtils.toByteArray(zis);
+                if (bytes.length > 0) {
+                    files.set(entry.getName(), objectMapper.readTree(bytes));
+                }
+            }
+        }
+        return files;
+    }
+
+    public static class MetadataSnapshot {
+        private final String version;
+        private final DateTime builtAt;
+        private final byte[] gzippedContent;
+
+        public MetadataSnapshot(String version, DateTime builtAt, byte[] gzippedContent) {
+            this.version = version;
+            this.builtAt = builtAt;
+            this.gzippedContent = gzippedContent;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public DateTime getBuiltAt() {
+            return builtAt;
+        }
+
+        public byte[] getGzippedContent() {
+            return gzippedContent;
+        }
+
+        public byte[] getContent() throws IOException {
+            try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(gzippedContent))) {
+                return IOUtils.toByteArray(gzipInputStream);
+            }
+        }
+    }
+}
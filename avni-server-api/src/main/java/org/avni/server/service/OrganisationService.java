@@ -41,6 +41,8 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -96,6 +98,7 @@ public class OrganisationService {
     private final GroupDashboardRepository groupDashboardRepository;
     private final Msg91ConfigRepository msg91ConfigRepository;
     private final S3Service s3Service;
+    private final S3ContentCache s3ContentCache;
 
     //Tx repositories
     private final RuleFailureTelemetryRepository ruleFailureTelemetryRepository;
@@ -185,7 +188,8 @@ public class OrganisationService {
                                DocumentationService documentationService,
                                TaskTypeService taskTypeService,
                                TaskStatusService taskStatusService,
-                               EntityTypeRetrieverService entityTypeRetrieverService) {
+                               EntityTypeRetrieverService entityTypeRetrieverService,
+                               S3ContentCache s3ContentCache) {
         this.formRepository = formRepository;
         this.addressLevelTypeRepository = addressLevelTypeRepository;
         this.locationRepository = locationRepository;
@@ -251,6 +255,7 @@ public class OrganisationService {
         this.taskTypeService = taskTypeService;
         this.taskStatusService = taskStatusService;
         this.entityTypeRetrieverService = entityTypeRetrieverService;
+        this.s3ContentCache = s3ContentCache;
         logger = LoggerFactory.getLogger(this.getClass());
     }
 
@@ -487,9 +492,11 @@ public class OrganisationService {
             addDirectoryToZip(zos, "subjectTypeIcons");
         }
         for (SubjectType subjectType : subjectTypes) {
-            InputStream objectContent = s3Service.getObjectContentFromUrl(subjectType.getIconFileS3Key());
-            String extension = S.getLastStringAfter(subjectType.getIconFileS3Key(), ".");
-            addIconToZip(zos, String.format("subjectTypeIcons/%s.%s", subjectType.getUuid(), extension), IOUtils.toByteArray(objectContent));
+            FileChannel cachedIcon = s3ContentCache.openFromUrl(subjectType.getIconFileS3Key());
+            try (InputStream icon = cachedIcon != null ? Channels.newInputStream(cachedIcon) : s3Service.getObjectContentFromUrl(subjectType.getIconFileS3Key())) {
+                String extension = S.getLastStringAfter(subjectType.getIconFileS3Key(), ".");
+                addIconToZip(zos, String.format("subjectTypeIcons/%s.%s", subjectType.getUuid(), extension), IOUtils.toByteArray(icon));
+            }
         }
     }
 
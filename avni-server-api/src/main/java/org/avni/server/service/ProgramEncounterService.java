@@ -4,10 +4,12 @@ import com.bugsnag.Bugsnag;
 import org.avni.messaging.domain.EntityType;
 import org.avni.server.application.FormMapping;
 import org.avni.server.application.FormType;
-import org.avni.server.common.EntityHelper;
 import org.avni.server.common.Messageable;
+import org.avni.server.common.UuidLookup;
 import org.avni.server.dao.*;
+import org.avni.server.dao.sync.SyncEntityName;
 import org.avni.server.domain.*;
+import org.avni.server.framework.security.UserContextHolder;
 import org.avni.server.geo.Point;
 import org.avni.server.util.BadRequestError;
 import org.avni.server.web.request.EntityTypeContract;
@@ -22,11 +24,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class ProgramEncounterService implements ScopeAwareService<ProgramEncounter> {
@@ -81,34 +80,39 @@ public class ProgramEncounterService implements ScopeAwareService<ProgramEncount
         return programEncountersContract;
     }
 
-    public List<ProgramEncounter> scheduledEncountersByType(ProgramEnrolment programEnrolment, String encounterTypeName, String currentProgramEncounterUuid) {
-        Stream<ProgramEncounter> scheduledEncounters = programEnrolment.scheduledEncountersOfType(encounterTypeName).filter(enc -> !enc.getUuid().equals(currentProgramEncounterUuid));
-        return scheduledEncounters.collect(Collectors.toList());
+    public List<ProgramEncounter> scheduledEncountersByType(ProgramEnrolment programEnrolment, EncounterType encounterType, String currentProgramEncounterUuid) {
+        return programEncounterRepository.findScheduledEncounters(programEnrolment, encounterType).stream()
+                .filter(enc -> !enc.getUuid().equals(currentProgramEncounterUuid))
+                .collect(Collectors.toList());
     }
 
+    /**
+     * Encounter types are resolved once per name for all the visit schedules, and the open scheduled encounters of a
+     * type are read by query, instead of loading all the encounters of the enrolment
+     */
     public void saveVisitSchedules(String programEnrolmentUuid, List<VisitSchedule> visitSchedules, String currentProgramEncounterUuid) {
         ProgramEnrolment programEnrolment = programEnrolmentRepository.findByUuid(programEnrolmentUuid);
+        Map<String, OperationalEncounterType> operationalEncounterTypes = new HashMap<>();
+        Set<String> createdEncounterUuids = new HashSet<>();
         for (VisitSchedule visitSchedule : visitSchedules) {
-            saveVisitSchedule(programEnrolment, visitSchedule, currentProgramEncounterUuid);
+            OperationalEncounterType operationalEncounterType = operationalEncounterTypes.computeIfAbsent(visitSchedule.getEncounterType(), this::findOperationalEncounterType);
+            saveVisitSchedule(programEnrolment, visitSchedule, operationalEncounterType, currentProgramEncounterUuid, createdEncounterUuids);
         }
     }
 
     public void saveVisitSchedule(ProgramEnrolment programEnrolment, VisitSchedule visitSchedule, String currentProgramEncounterUuid) {
-        List<ProgramEncounter> allScheduleEncountersByType = scheduledEncountersByType(programEnrolment, visitSchedule.getEncounterType(), currentProgramEncounterUuid);
+        OperationalEncounterType operationalEncounterType = findOperationalEncounterType(visitSchedule.getEncounterType());
+        saveVisitSchedule(programEnrolment, visitSchedule, operationalEncounterType, currentProgramEncounterUuid, new HashSet<>());
+    }
+
+    //Encounters created for earlier schedules of the same request are not updated by the later ones
+    private void saveVisitSchedule(ProgramEnrolment programEnrolment, VisitSchedule visitSchedule, OperationalEncounterType operationalEncounterType,
+                                   String currentProgramEncounterUuid, Set<String> createdEncounterUuids) {
+        List<ProgramEncounter> allScheduleEncountersByType = scheduledEncountersByType(programEnrolment, operationalEncounterType.getEncounterType(), currentProgramEncounterUuid)
+                .stream().filter(enc -> !createdEncounterUuids.contains(enc.getUuid())).collect(Collectors.toList());
         if (allScheduleEncountersByType.isEmpty() || "createNew".equals(visitSchedule.getVisitCreationStrategy())) {
-            OperationalEncounterType operationalEncounterType = operationalEncounterTypeRepository.findByName(visitSchedule.getEncounterType());
-            if (operationalEncounterType == null) {
-                EncounterType encounterType = encounterTypeRepository.findByName(visitSchedule.getEncounterType());
-                if (encounterType == null) {
-                    throw new BadRequestError("Next scheduled visit is for encounter type=%s that doesn't exist", visitSchedule.getEncounterType());
-                } else {
-                    operationalEncounterType = encounterType.getOperationalEncounterTypes().stream().findFirst().orElse(null);
-                    if (operationalEncounterType == null) {
-                        throw new BadRequestError("Next scheduled visit is for encounter type=%s that doesn't exist", visitSchedule.getEncounterType());
-                    }
-                }
-            }
             ProgramEncounter programEncounter = createEmptyProgramEncounter(programEnrolment, operationalEncounterType);
+            createdEncounterUuids.add(programEncounter.getUuid());
             allScheduleEncountersByType = Arrays.asList(programEncounter);
         }
         allScheduleEncountersByType.forEach(programEncounter -> {
@@ -118,6 +122,20 @@ public class ProgramEncounterService implements ScopeAwareService<ProgramEncount
         });
     }
 
+    private OperationalEncounterType findOperationalEncounterType(String encounterTypeName) {
+        OperationalEncounterType operationalEncounterType = operationalEncounterTypeRepository.findByName(encounterTypeName);
+        if (operationalEncounterType == null) {
+            EncounterType encounterType = encounterTypeRepository.findByName(encounterTypeName);
+            if (encounterType != null) {
+                operationalEncounterType = encounterType.getOperationalEncounterTypes().stream().findFirst().orElse(null);
+            }
+        }
+        if (operationalEncounterType == null) {
+            throw new BadRequestError("Next scheduled visit is for encounter type=%s that doesn't exist", encounterTypeName);
+        }
+        return operationalEncounterType;
+    }
+
     public void updateProgramEncounterWithVisitSchedule(ProgramEncounter programEncounter, VisitSchedule visitSchedule) {
         programEncounter.setEarliestVisitDateTime(visitSchedule.getEarliestDate());
         programEncounter.setMaxVisitDateTime(visitSchedule.getMaxDate());
@@ -138,18 +156,22 @@ public class ProgramEncounterService implements ScopeAwareService<ProgramEncount
 
     @Messageable(EntityType.ProgramEncounter)
     public ProgramEncounter saveProgramEncounter(ProgramEncounterRequest request) {
+        return saveProgramEncounter(request, new UuidLookup<>(programEncounterRepository), new UuidLookup<>(programEnrolmentRepository), new UuidLookup<>(encounterTypeRepository));
+    }
+
+    public ProgramEncounter saveProgramEncounter(ProgramEncounterRequest request, UuidLookup<ProgramEncounter> programEncounters, UuidLookup<ProgramEnrolment> programEnrolments, UuidLookup<EncounterType> encounterTypes) {
         logger.info(String.format("Saving programEncounter with uuid %s", request.getUuid()));
         checkForSchedulingCompleteConstraintViolation(request);
-        EncounterType encounterType = encounterTypeRepository.findByUuidOrName(request.getEncounterType(), request.getEncounterTypeUUID());
+        EncounterType encounterType = request.getEncounterTypeUUID() == null ? encounterTypeRepository.findByName(request.getEncounterType()) : encounterTypes.find(request.getEncounterTypeUUID());
         Decisions decisions = request.getDecisions();
         observationService.validateObservationsAndDecisions(request.getObservations(), decisions != null ? decisions.getEncounterDecisions() : null, formMappingService.find(encounterType, FormType.ProgramEncounter));
-        ProgramEncounter encounter = EntityHelper.newOrExistingEntity(programEncounterRepository, request, new ProgramEncounter());
+        ProgramEncounter encounter = programEncounters.newOrExisting(request, new ProgramEncounter());
         //Planned visit can not overwrite completed encounter
         if (encounter.isCompleted() && request.isPlanned())
             return null;
 
         encounter.setEncounterDateTime(request.getEncounterDateTime());
-        ProgramEnrolment programEnrolment = programEnrolmentRepository.findByUuid(request.getProgramEnrolmentUUID());
+        ProgramEnrolment programEnrolment = programEnrolments.find(request.getProgramEnrolmentUUID());
         encounter.setProgramEnrolment(programEnrolment);
         encounter.setEncounterType(encounterType);
         encounter.setObservations(observationService.createObservations(request.getObservations()));
@@ -186,6 +208,7 @@ public class ProgramEncounterService implements ScopeAwareService<ProgramEncount
             }
         }
         encounter = this.save(encounter);
+        programEncounters.add(encounter);
         logger.info(String.format("Saved programEncounter with uuid %s", request.getUuid()));
         return encounter;
     }
@@ -199,9 +222,18 @@ public class ProgramEncounterService implements ScopeAwareService<ProgramEncount
         }
     }
 
+    /**
+     * Same encounter type and subject type as the program encounters sync, so that the device is told about an
+     * encounter type only when its next page of program encounters is not empty.
+     */
     @Override
     public boolean isScopeEntityChanged(DateTime lastModifiedDateTime, String encounterTypeUUID) {
-        return true;
+        EncounterType encounterType = encounterTypeRepository.findByUuid(encounterTypeUUID);
+        if (encounterType == null) return false;
+        FormMapping formMapping = formMappingService.find(encounterType, FormType.ProgramEncounter);
+        if (formMapping == null) return true;
+        User user = UserContextHolder.getUserContext().getUser();
+        return isChangedBySubjectTypeRegistrationLocationType(user, lastModifiedDateTime, encounterType.getId(), formMapping.getSubjectType(), SyncEntityName.ProgramEncounter);
     }
 
     @Override
@@ -3,10 +3,12 @@ package org.avni.server.service;
 import org.avni.messaging.domain.EntityType;
 import org.avni.server.application.FormMapping;
 import org.avni.server.application.FormType;
-import org.avni.server.common.EntityHelper;
+import org.avni.server.common.UuidLookup;
 import org.avni.server.common.Messageable;
 import org.avni.server.dao.*;
+import org.avni.server.dao.sync.SyncEntityName;
 import org.avni.server.domain.*;
+import org.avni.server.framework.security.UserContextHolder;
 import org.avni.server.geo.Point;
 import org.avni.server.service.accessControl.AccessControlService;
 import org.avni.server.util.BadRequestError;
@@ -140,6 +142,10 @@ public class ProgramEnrolmentService implements ScopeAwareService<ProgramEnrolme
 
     @Messageable(EntityType.ProgramEnrolment)
     public ProgramEnrolment programEnrolmentSave(ProgramEnrolmentRequest request){
+        return programEnrolmentSave(request, new UuidLookup<>(programEnrolmentRepository), new UuidLookup<>(individualRepository));
+    }
+
+    public ProgramEnrolment programEnrolmentSave(ProgramEnrolmentRequest request, UuidLookup<ProgramEnrolment> programEnrolments, UuidLookup<Individual> individuals) {
         logger.info(String.format("Saving programEnrolment with uuid %s", request.getUuid()));
         Program program;
         if (request.getProgramUUID() == null) {
@@ -150,7 +156,7 @@ public class ProgramEnrolmentService implements ScopeAwareService<ProgramEnrolme
         Decisions decisions = request.getDecisions();
         observationService.validateObservationsAndDecisions(request.getObservations(), decisions != null ? decisions.getEnrolmentDecisions() : null, formMappingService.find(program, FormType.ProgramEnrolment));
         ProgramOutcome programOutcome = programOutcomeRepository.findByUuid(request.getProgramOutcomeUUID());
-        ProgramEnrolment programEnrolment = EntityHelper.newOrExistingEntity(programEnrolmentRepository,request, new ProgramEnrolment());
+        ProgramEnrolment programEnrolment = programEnrolments.newOrExisting(request, new ProgramEnrolment());
         programEnrolment.setProgram(program);
         programEnrolment.setProgramOutcome(programOutcome);
         programEnrolment.setEnrolmentDateTime(request.getEnrolmentDateTime());
@@ -174,7 +180,7 @@ public class ProgramEnrolmentService implements ScopeAwareService<ProgramEnrolme
             }
         }
 
-        Individual individual = individualRepository.findByUuid(request.getIndividualUUID());
+        Individual individual = individuals.find(request.getIndividualUUID());
         programEnrolment.setIndividual(individual);
         this.addSyncAttributes(programEnrolment);
         if (programEnrolment.isNew()) {
@@ -182,6 +188,7 @@ public class ProgramEnrolmentService implements ScopeAwareService<ProgramEnrolme
             saveIdentifierAssignments(programEnrolment, request);
         }
         programEnrolment = programEnrolmentRepository.save(programEnrolment);
+        programEnrolments.add(programEnrolment);
 
         if (request.getVisitSchedules() != null && request.getVisitSchedules().size() > 0) {
             programEncounterService.saveVisitSchedules(request.getUuid(), request.getVisitSchedules(), null);
@@ -262,19 +269,18 @@ public class ProgramEnrolmentService implements ScopeAwareService<ProgramEnrolme
         }
     }
 
+    /**
+     * Same program and subject type as the enrolments sync, so that the device is told about a program only when its
+     * next page of enrolments is not empty.
+     */
     @Override
     public boolean isScopeEntityChanged(DateTime lastModifiedDateTime, String programUUID) {
-        return true;
-//        Program program = programRepository.findByUuid(programUUID);
-//        FormMapping formMapping = formMappingRepository.getAllProgramEnrolmentFormMappings()
-//                .stream()
-//                .filter(fm -> fm.getProgramUuid().equals(programUUID))
-//                .findFirst()
-//                .orElse(null);
-//        User user = UserContextHolder.getUserContext().getUser();
-//        return program != null &&
-//                formMapping != null &&
-//                isChanged(user, lastModifiedDateTime, program.getId(), formMapping.getSubjectType());
+        Program program = programRepository.findByUuid(programUUID);
+        if (program == null) return false;
+        FormMapping formMapping = formMappingService.find(program, FormType.ProgramEnrolment);
+        if (formMapping == null) return true;
+        User user = UserContextHolder.getUserContext().getUser();
+        return isChangedBySubjectTypeRegistrationLocationType(user, lastModifiedDateTime, program.getId(), formMapping.getSubjectType(), SyncEntityName.Enrolment);
     }
 
     @Override
@@ -3,8 +3,10 @@ package org.avni.server.service;
 import org.avni.server.dao.IndividualRepository;
 import org.avni.server.dao.ResetSyncRepository;
 import org.avni.server.dao.SubjectTypeRepository;
+import org.avni.server.dao.SyncScopeChangeRepository;
 import org.avni.server.dao.UserRepository;
 import org.avni.server.domain.*;
+import org.avni.server.util.BadRequestError;
 import org.avni.server.util.JsonObjectUtil;
 import org.avni.server.web.request.CatchmentContract;
 import org.avni.server.web.request.UserContract;
@@ -17,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -27,13 +30,15 @@ public class ResetSyncService {
     private final UserRepository userRepository;
     private final IndividualRepository individualRepository;
     private final SubjectTypeRepository subjectTypeRepository;
+    private final SyncScopeChangeRepository syncScopeChangeRepository;
 
     @Autowired
-    public ResetSyncService(ResetSyncRepository resetSyncRepository, UserRepository userRepository, IndividualRepository individualRepository, SubjectTypeRepository subjectTypeRepository) {
+    public ResetSyncService(ResetSyncRepository resetSyncRepository, UserRepository userRepository, IndividualRepository individualRepository, SubjectTypeRepository subjectTypeRepository, SyncScopeChangeRepository syncScopeChangeRepository) {
         this.resetSyncRepository = resetSyncRepository;
         this.userRepository = userRepository;
         this.individualRepository = individualRepository;
         this.subjectTypeRepository = subjectTypeRepository;
+        this.syncScopeChangeRepository = syncScopeChangeRepository;
     }
 
     public void recordCatchmentChange(Catchment savedCatchment, CatchmentContract request) {
@@ -42,9 +47,12 @@ public class ResetSyncService {
         if (!usersAssignedThisCatchment.isEmpty() &&
                 isCatchmentChanged(savedLocationIds, request.getLocationIds()) &&
                 hasSubjectsInNewLocation(savedLocationIds, request.getLocationIds())) {
+            List<Long> addedLocationIds = minus(request.getLocationIds(), savedLocationIds);
+            List<Long> removedLocationIds = minus(savedLocationIds, request.getLocationIds());
             List<ResetSync> resetSyncList = usersAssignedThisCatchment.stream().map(user -> {
                 ResetSync resetSync = buildNewResetSync();
                 resetSync.setUser(user);
+                resetSync.setSyncScopeChangeId(syncScopeChangeRepository.createLocationChange(user, addedLocationIds, removedLocationIds));
                 return resetSync;
             }).collect(Collectors.toList());
             resetSyncRepository.saveAll(resetSyncList);
@@ -77,21 +85,29 @@ public class ResetSyncService {
             resetSync.setUser(savedUser);
             resetSyncRepository.save(resetSync);
         } else {
-            List<SubjectType> changedSubjectTypes = getChangedSubjectTypes(savedUser.getSyncSettings(), newSyncSettings);
-            changedSubjectTypes.forEach(st -> {
+            List<UserSyncSettings> oldUserSettings = JsonObjectUtil.getUserSyncSettings(savedUser.getSyncSettings());
+            getChangedSubjectTypes(oldUserSettings, newSyncSettings).forEach(st -> {
                 ResetSync resetSync = buildNewResetSync();
                 resetSync.setUser(savedUser);
                 resetSync.setSubjectType(st);
+                UserSyncSettings olderSettings = findSettings(oldUserSettings, st.getUuid());
+                UserSyncSettings newSettings = findSettings(JsonObjectUtil.getUserSyncSettings(newSyncSettings), st.getUuid());
+                if (isOnlyOneConceptValuesChanged(olderSettings, newSettings)) {
+                    resetSync.setSyncScopeChangeId(syncScopeChangeRepository.createSyncConceptValueChange(savedUser, st,
+                            minus(newSettings.getSyncConcept1Values(), olderSettings.getSyncConcept1Values()),
+                            minus(olderSettings.getSyncConcept1Values(), newSettings.getSyncConcept1Values()),
+                            minus(newSettings.getSyncConcept2Values(), olderSettings.getSyncConcept2Values()),
+                            minus(olderSettings.getSyncConcept2Values(), newSettings.getSyncConcept2Values())));
+                }
                 resetSyncRepository.save(resetSync);
             });
         }
     }
 
-    private List<SubjectType> getChangedSubjectTypes(JsonObject olderSettings, JsonObject newSettings) {
-        List<UserSyncSettings> oldUserSettings = JsonObjectUtil.getUserSyncSettings(olderSettings);
+    private List<SubjectType> getChangedSubjectTypes(List<UserSyncSettings> oldUserSettings, JsonObject newSettings) {
         List<UserSyncSettings> newUserSettings = JsonObjectUtil.getUserSyncSettings(newSettings);
         List<String> changedSubjectTypeUUIDs = newUserSettings.stream().filter(nus -> {
-            UserSyncSettings savedUserSyncSetting = oldUserSettings.stream().filter(ous -> nus.getSubjectTypeUUID().equals(ous.getSubjectTypeUUID())).findFirst().orElse(null);
+            UserSyncSettings savedUserSyncSetting = findSettings(oldUserSettings, nus.getSubjectTypeUUID());
             return savedUserSyncSetting == null || isSyncConcept1Changed(savedUserSyncSetting, nus) || isSyncConcept2Changed(savedUserSyncSetting, nus);
         })
                 .map(UserSyncSettings::getSubjectTypeUUID)
@@ -100,6 +116,31 @@ public class ResetSyncService {
         return subjectTypeRepository.findAllByUuidIn(changedSubjectTypeUUIDs);
     }
 
+    private static UserSyncSettings findSettings(List<UserSyncSettings> userSyncSettings, String subjectTypeUUID) {
+        return userSyncSettings.stream().filter(settings -> subjectTypeUUID.equals(settings.getSubjectTypeUUID())).findFirst().orElse(null);
+    }
+
+    /**
+     * A change can be applied on the device, instead of resetting sync, only when the sync concepts are the same and
+     * the values of only one of them changed. With both changed, the subjects that came into scope are not those of
+     * the added values of either.
+     */
+    private boolean isOnlyOneConceptValuesChanged(UserSyncSettings olderSettings, UserSyncSettings newSettings) {
+        if (olderSettings == null || isChanged(olderSettings.getSyncConcept1(), newSettings.getSyncConcept1()) ||
+                isChanged(olderSettings.getSyncConcept2(), newSettings.getSyncConcept2())) {
+            return false;
+        }
+        boolean concept1ValuesChanged = olderSettings.getSyncConcept1() != null && isConceptValueChanged(olderSettings.getSyncConcept1Values(), newSettings.getSyncConcept1Values());
+        boolean concept2ValuesChanged = olderSettings.getSyncConcept2() != null && isConceptValueChanged(olderSettings.getSyncConcept2Values(), newSettings.getSyncConcept2Values());
+        return concept1ValuesChanged != concept2ValuesChanged;
+    }
+
+    private static <T> List<T> minus(List<T> list, List<T> toRemove) {
+        List<T> difference = new ArrayList<>(list == null ? Collections.emptyList() : list);
+        if (toRemove != null) difference.removeAll(toRemove);
+        return difference;
+    }
+
     private boolean isSyncConcept1Changed(UserSyncSettings olderSettings, UserSyncSettings newSettings) {
         return isChanged(olderSettings.getSyncConcept1(), newSettings.getSyncConcept1()) ||
                 isConceptValueChanged(olderSettings.getSyncConcept1Values(), newSettings.getSyncConcept1Values());
@@ -115,12 +156,8 @@ public class ResetSyncService {
     }
 
     private boolean hasSubjectsInNewLocation(List<Long> savedLocationIds, List<Long> locationIdsPassedInRequest) {
-        List<Long> newlyAddedIds = new ArrayList<>(locationIdsPassedInRequest);
-        newlyAddedIds.removeAll(savedLocationIds);
-        List<Long> removedIds = new ArrayList<>(savedLocationIds);
-        removedIds.removeAll(locationIdsPassedInRequest);
-        return individualRepository.hasSubjectsInLocations(newlyAddedIds) ||
-                individualRepository.hasSubjectsInLocations(removedIds);
+        return individualRepository.hasSubjectsInLocations(minus(locationIdsPassedInRequest, savedLocationIds)) ||
+                individualRepository.hasSubjectsInLocations(minus(savedLocationIds, locationIdsPassedInRequest));
     }
 
     private ResetSync buildNewResetSync() {
@@ -137,7 +174,22 @@ public class ResetSyncService {
         return !Objects.equals(str1, str2);
     }
 
-    public Page<ResetSync> getByLastModifiedForUser(DateTime lastModifiedDateTime, DateTime now, User user, Pageable pageable) {
+    public Page<ResetSync> getByLastModifiedForUser(DateTime lastModifiedDateTime, DateTime now, User user, boolean syncScopeChangeSupported, Pageable pageable) {
+        if (syncScopeChangeSupported) {
+            return resetSyncRepository.findAllWithoutSyncScopeChange(user, lastModifiedDateTime.toDate(), now.toDate(), pageable);
+        }
         return resetSyncRepository.findAllByUserIsNullOrUserAndLastModifiedDateTimeBetweenOrderByLastModifiedDateTimeAscIdAsc(user, lastModifiedDateTime.toDate(), now.toDate(), pageable);
     }
+
+    public List<SyncScopeChangeRepository.SyncScopeChange> getSyncScopeChanges(DateTime lastModifiedDateTime, DateTime now, User user) {
+        return syncScopeChangeRepository.findByUser(user, lastModifiedDateTime, now);
+    }
+
+    public List<SyncScopeChangeRepository.RemovedSubject> getRemovedSubjects(String syncScopeChangeUuid, User user, Long afterId, int size) {
+        SyncScopeChangeRepository.SyncScopeChange syncScopeChange = syncScopeChangeRepository.findByUuid(user, syncScopeChangeUuid);
+        if (syncScopeChange == null) {
+            throw new BadRequestError("Sync scope change %s not found", syncScopeChangeUuid);
+        }
+        return syncScopeChangeRepository.findRemovedSubjects(syncScopeChange, user.getCatchmentId().orElse(null), afterId, size);
+    }
 }
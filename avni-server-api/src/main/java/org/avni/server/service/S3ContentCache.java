@@ -0,0 +1,110 @@
+package org.avni.server.service;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * Bounded on disk cache of S3 objects that are read often, like extension files and icons. Entries are keyed by the
+ * object key and its ETag, so a changed object is fetched afresh and its older copy ages out of the cache.
+ */
+@Component
+public class S3ContentCache {
+    private static final Logger logger = LoggerFactory.getLogger(S3ContentCache.class);
+    private final S3Service s3Service;
+    private final Path cacheDirectory;
+    private final long maxSizeInBytes;
+    private final AtomicLong sizeInBytes = new AtomicLong();
+
+    @Autowired
+    public S3ContentCache(S3Service s3Service,
+                          @Value("${avni.s3ContentCache.directory}") String cacheDirectory,
+                          @Value("${avni.s3ContentCache.maxSizeInMB}") long maxSizeInMB) throws IOException {
+        this.s3Service = s3Service;
+        this.cacheDirectory = Files.createDirectories(Paths.get(cacheDirectory));
+        this.maxSizeInBytes = maxSizeInMB * 1024 * 1024;
+        for (File file : listCachedFiles()) {
+            sizeInBytes.addAndGet(file.length());
+        }
+    }
+
+    /**
+     * Opens the cached copy of the object, fetching it from S3 when it is not cached. The channel is opened before the
+     * copy can be evicted and can be read to the end even if the copy is evicted while it is open.
+     *
+     * @return null when the object has no ETag and so cannot be cached
+     */
+    public FileChannel open(String s3Key, String etag) throws IOException {
+        if (etag == null) return null;
+        Path cachedFile = cacheDirectory.resolve(Hashing.sha256().hashString(s3Key + "|" + etag, StandardCharsets.UTF_8).toString());
+        try {
+            FileChannel cachedContent = FileChannel.open(cachedFile, StandardOpenOption.READ);
+            cachedFile.toFile().setLastModified(System.currentTimeMillis());
+            return cachedContent;
+        } catch (NoSuchFileException ignored) {
+        }
+
+        Path downloadFile = cacheDirectory.resolve(format("%s.download", UUID.randomUUID()));
+        try (InputStream objectContent = s3Service.getObjectContent(s3Key)) {
+            Files.copy(objectContent, downloadFile);
+        }
+        FileChannel downloadedContent = FileChannel.open(downloadFile, StandardOpenOption.READ);
+        addToCache(downloadFile, cachedFile, downloadedContent.size());
+        evictIfFull();
+        return downloadedContent;
+    }
+
+    public FileChannel openFromUrl(String s3Url) throws IOException {
+        String s3Key = s3Service.getObjectKeyFromUrl(s3Url);
+        return open(s3Key, s3Service.getObjectETag(s3Key));
+    }
+
+    /**
+     * An atomic move replaces an existing file, so when two requests fetch the same object at once only the first copy
+     * is moved in and counted, the other is discarded.
+     */
+    private synchronized void addToCache(Path downloadFile, Path cachedFile, long size) throws IOException {
+        if (Files.exists(cachedFile)) {
+            Files.deleteIfExists(downloadFile);
+            return;
+        }
+        Files.move(downloadFile, cachedFile, StandardCopyOption.ATOMIC_MOVE);
+        sizeInBytes.addAndGet(size);
+    }
+
+    private synchronized void evictIfFull() {
+        if (sizeInBytes.get() <= maxSizeInBytes) return;
+        File[] cachedFiles = listCachedFiles();
+        Arrays.sort(cachedFiles, Comparator.comparingLong(File::lastModified));
+        for (File cachedFile : cachedFiles) {
+            if (sizeInBytes.get() <= maxSizeInBytes) break;
+            long size = cachedFile.length();
+            if (cachedFile.delete()) {
+                sizeInBytes.addAndGet(-size);
+            } else {
+                logger.warn(format("Could not evict %s from the S3 content cache", cachedFile.getName()));
+            }
+        }
+    }
+
+    private File[] listCachedFiles() {
+        File[] files = cacheDirectory.toFile().listFiles(file -> file.isFile() && !file.getName().endsWith(".download"));
+        return files == null ? new File[0] : files;
+    }
+}
@@ -45,10 +45,14 @@ public interface S3Service {
 
     List<S3ExtensionFile> listExtensionFiles(Optional<DateTime> modifiedSince);
 
-    void uploadExtensionFiles(File tempDirectory, String targetFilePath) throws IOException, InterruptedException;
+    List<S3ExtensionFile> listExtensionFiles(Organisation organisation);
+
+    List<S3ExtensionFile> uploadExtensionFiles(File tempDirectory, String targetFilePath) throws IOException, InterruptedException;
 
     InputStream getObjectContent(String s3Key);
 
+    String getObjectETag(String s3Key);
+
     InputStream getExtensionContent(String fileName, Organisation organisation);
 
     URL getURLForExtensions(String fileName, Organisation organisation);
@@ -101,5 +105,7 @@ public interface S3Service {
 
     InputStream getObjectContentFromUrl(String s3Url);
 
+    String getObjectKeyFromUrl(String s3Url);
+
     boolean isInternalUrl(String url);
 }
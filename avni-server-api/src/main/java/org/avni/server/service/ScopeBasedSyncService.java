@@ -1,52 +1,113 @@
 package org.avni.server.service;
 
 import org.avni.server.dao.SyncParameters;
+import org.avni.server.dao.SyncScopeChangeRepository;
+import org.avni.server.dao.SyncScopeChangeRepository.SyncScopeChange;
 import org.avni.server.dao.sync.SyncEntityName;
 import org.avni.server.domain.CHSEntity;
+import org.avni.server.domain.JsonObject;
 import org.avni.server.domain.SubjectType;
 import org.avni.server.domain.User;
+import org.avni.server.util.BadRequestError;
 import org.joda.time.DateTime;
 import org.avni.server.dao.OperatingIndividualScopeAwareRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+/**
+ * A sync request with a syncScopeChangeUuid gets only the rows of the subjects that came into the user's scope with
+ * that change, and the locations and location mappings that were added to the catchment, so that a device can apply
+ * the change instead of resetting sync.
+ */
 @Service
 public class ScopeBasedSyncService<T extends CHSEntity> {
     private final AddressLevelService addressLevelService;
+    private final SyncScopeChangeRepository syncScopeChangeRepository;
 
-    public ScopeBasedSyncService(AddressLevelService addressLevelService) {
+    public ScopeBasedSyncService(AddressLevelService addressLevelService, SyncScopeChangeRepository syncScopeChangeRepository) {
         this.addressLevelService = addressLevelService;
+        this.syncScopeChangeRepository = syncScopeChangeRepository;
     }
 
-    public Page<T> getSyncResultsBySubjectTypeRegistrationLocation(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Long typeId, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName) {
-        List<Long> addressLevels = addressLevelService.getAllRegistrationAddressIdsBySubjectType(user.getCatchment(), subjectType);
-        return repository.getSyncResults(new SyncParameters(lastModifiedDateTime, now, typeId, null, pageable, addressLevels, subjectType, user.getSyncSettings(), syncEntityName, user.getCatchment()));
+    public Page<T> getSyncResultsBySubjectTypeRegistrationLocation(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Long typeId, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        SyncParameters syncParameters = syncParameters(user, lastModifiedDateTime, now, typeId, null, pageable, subjectType, syncEntityName, syncScopeChangeUuid);
+        return syncParameters == null ? new PageImpl<>(Collections.emptyList()) : repository.getSyncResults(syncParameters);
     }
 
-    public Page<T> getSyncResultsBySubjectTypeRegistrationLocation(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, String entityTypeUuid, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName) {
-        List<Long> addressLevels = addressLevelService.getAllRegistrationAddressIdsBySubjectType(user.getCatchment(), subjectType);
-        return repository.getSyncResults(new SyncParameters(lastModifiedDateTime, now, null, entityTypeUuid, pageable, addressLevels, subjectType, user.getSyncSettings(), syncEntityName, user.getCatchment()));
+    public Page<T> getSyncResultsBySubjectTypeRegistrationLocation(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, String entityTypeUuid, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        SyncParameters syncParameters = syncParameters(user, lastModifiedDateTime, now, null, entityTypeUuid, pageable, subjectType, syncEntityName, syncScopeChangeUuid);
+        return syncParameters == null ? new PageImpl<>(Collections.emptyList()) : repository.getSyncResults(syncParameters);
     }
 
-    public Page<T> getSyncResultsByCatchment(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Pageable pageable, SyncEntityName syncEntityName) {
-        return repository.getSyncResults(new SyncParameters(lastModifiedDateTime, now, null, null, pageable, null, null, user.getSyncSettings(), syncEntityName, user.getCatchment()));
+    public Page<T> getSyncResultsByCatchment(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Pageable pageable, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        SyncParameters syncParameters = catchmentSyncParameters(user, lastModifiedDateTime, now, pageable, syncEntityName, syncScopeChangeUuid);
+        return syncParameters == null ? new PageImpl<>(Collections.emptyList()) : repository.getSyncResults(syncParameters);
     }
 
-    public Slice<T> getSyncResultsBySubjectTypeRegistrationLocationAsSlice(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Long typeId, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName) {
-        List<Long> addressLevels = addressLevelService.getAllRegistrationAddressIdsBySubjectType(user.getCatchment(), subjectType);
-        return repository.getSyncResultsAsSlice(new SyncParameters(lastModifiedDateTime, now, typeId, null, pageable, addressLevels, subjectType, user.getSyncSettings(), syncEntityName, user.getCatchment()));
+    public Slice<T> getSyncResultsBySubjectTypeRegistrationLocationAsSlice(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Long typeId, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        SyncParameters syncParameters = syncParameters(user, lastModifiedDateTime, now, typeId, null, pageable, subjectType, syncEntityName, syncScopeChangeUuid);
+        return syncParameters == null ? new SliceImpl<>(Collections.emptyList()) : repository.getSyncResultsAsSlice(syncParameters);
     }
 
-    public Slice<T> getSyncResultsBySubjectTypeRegistrationLocationAsSlice(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, String entityTypeUuid, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName) {
+    public Slice<Long> getSyncResultIdsBySubjectTypeRegistrationLocationAsSlice(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Long typeId, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        SyncParameters syncParameters = syncParameters(user, lastModifiedDateTime, now, typeId, null, pageable, subjectType, syncEntityName, syncScopeChangeUuid);
+        return syncParameters == null ? new SliceImpl<>(Collections.emptyList()) : repository.getSyncResultIdsAsSlice(syncParameters);
+    }
+
+    public Slice<T> getSyncResultsBySubjectTypeRegistrationLocationAsSlice(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, String entityTypeUuid, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        SyncParameters syncParameters = syncParameters(user, lastModifiedDateTime, now, null, entityTypeUuid, pageable, subjectType, syncEntityName, syncScopeChangeUuid);
+        return syncParameters == null ? new SliceImpl<>(Collections.emptyList()) : repository.getSyncResultsAsSlice(syncParameters);
+    }
+
+    public Slice<T> getSyncResultsByCatchmentAsSlice(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Pageable pageable, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        SyncParameters syncParameters = catchmentSyncParameters(user, lastModifiedDateTime, now, pageable, syncEntityName, syncScopeChangeUuid);
+        return syncParameters == null ? new SliceImpl<>(Collections.emptyList()) : repository.getSyncResultsAsSlice(syncParameters);
+    }
+
+    //null when no subject of the type came into scope with the requested sync scope change
+    private SyncParameters syncParameters(User user, DateTime lastModifiedDateTime, DateTime now, Long typeId, String entityTypeUuid, Pageable pageable, SubjectType subjectType, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
         List<Long> addressLevels = addressLevelService.getAllRegistrationAddressIdsBySubjectType(user.getCatchment(), subjectType);
-        return repository.getSyncResultsAsSlice(new SyncParameters(lastModifiedDateTime, now, null, entityTypeUuid, pageable, addressLevels, subjectType, user.getSyncSettings(), syncEntityName, user.getCatchment()));
+        JsonObject syncSettings = user.getSyncSettings();
+        SyncScopeChange syncScopeChange = getRequestedSyncScopeChange(user, syncScopeChangeUuid);
+        if (syncScopeChange != null) {
+            if (!syncScopeChange.bringsIntoScope(subjectType)) return null;
+            if (syncScopeChange.isLocationChange()) {
+                Set<Long> addedAddressLevelIds = syncScopeChangeRepository.getAddedAddressLevelIds(syncScopeChange);
+                addressLevels = addressLevels.stream().filter(addedAddressLevelIds::contains).collect(Collectors.toList());
+            } else {
+                syncSettings = syncScopeChange.restrict(syncSettings);
+            }
+        }
+        return new SyncParameters(lastModifiedDateTime, now, typeId, entityTypeUuid, pageable, addressLevels, subjectType, syncSettings, syncEntityName, user.getCatchment());
+    }
+
+    //null when no change is requested, the address levels in the catchment that came into scope otherwise
+    private SyncParameters catchmentSyncParameters(User user, DateTime lastModifiedDateTime, DateTime now, Pageable pageable, SyncEntityName syncEntityName, String syncScopeChangeUuid) {
+        List<Long> addressLevels = null;
+        SyncScopeChange syncScopeChange = getRequestedSyncScopeChange(user, syncScopeChangeUuid);
+        if (syncScopeChange != null) {
+            if (!syncScopeChange.isLocationChange() || syncScopeChange.getAddedAddressLevelIds().isEmpty()) return null;
+            addressLevels = new ArrayList<>(syncScopeChangeRepository.getAddedAddressLevelIds(syncScopeChange));
+        }
+        return new SyncParameters(lastModifiedDateTime, now, null, null, pageable, addressLevels, null, user.getSyncSettings(), syncEntityName, user.getCatchment());
     }
 
-    public Slice<T> getSyncResultsByCatchmentAsSlice(OperatingIndividualScopeAwareRepository<T> repository, User user, DateTime lastModifiedDateTime, DateTime now, Pageable pageable, SyncEntityName syncEntityName) {
-        return repository.getSyncResultsAsSlice(new SyncParameters(lastModifiedDateTime, now, null, null, pageable, null, null, user.getSyncSettings(), syncEntityName, user.getCatchment()));
+    private SyncScopeChange getRequestedSyncScopeChange(User user, String syncScopeChangeUuid) {
+        if (syncScopeChangeUuid == null || syncScopeChangeUuid.isEmpty()) return null;
+        SyncScopeChange syncScopeChange = syncScopeChangeRepository.findByUuid(user, syncScopeChangeUuid);
+        if (syncScopeChange == null) {
+            throw new BadRequestError("Sync scope change %s not found", syncScopeChangeUuid);
+        }
+        return syncScopeChange;
     }
 }
@@ -7,6 +7,8 @@ import com.amazonaws.services.s3.model.*;
 import com.amazonaws.services.s3.transfer.MultipleFileUpload;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import com.amazonaws.services.s3.transfer.Upload;
+import com.amazonaws.services.s3.transfer.model.UploadResult;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.avni.server.domain.S3ExtensionFile;
@@ -145,11 +147,22 @@ public abstract class StorageService implements S3Service {
 
     @Override
     public List<S3ExtensionFile> listExtensionFiles(Optional<DateTime> modifiedSince) {
+        DateTime latestDate = modifiedSince.orElse(new DateTime(0));
+        List<S3ExtensionFile> extensionFiles = new ArrayList<>();
+        listExtensionFiles(UserContextHolder.getOrganisation()).forEach(extensionFile -> {
+            if (latestDate.isBefore(extensionFile.getLastModifiedDateTime())) {
+                extensionFiles.add(extensionFile);
+            }
+        });
+        return extensionFiles;
+    }
+
+    @Override
+    public List<S3ExtensionFile> listExtensionFiles(Organisation organisation) {
         if (isDev && !s3InDev) {
             return new ArrayList<>();
         }
-        DateTime latestDate = modifiedSince.orElse(new DateTime(0));
-        String filePrefix = getOrgDirectoryName() + "/" + OrganisationConfig.Extension.EXTENSION_DIR + "/";
+        String filePrefix = organisation.getMediaDirectory() + "/" + OrganisationConfig.Extension.EXTENSION_DIR + "/";
         ListObjectsRequest listObjectsRequest = new ListObjectsRequest()
                 .withBucketName(bucketName)
                 .withPrefix(filePrefix);
@@ -164,11 +177,8 @@ public abstract class StorageService implements S3Service {
                 break;
             }
 
-            summaries.forEach(s -> {
-                if (latestDate.isBefore(s.getLastModified().getTime())) {
-                    keys.add(new S3ExtensionFile(S3File.organisationFileFromFullPath(UserContextHolder.getOrganisation(), s.getKey(), S3FileType.Extensions), new DateTime(s.getLastModified())));
-                }
-            });
+            summaries.forEach(s -> keys.add(new S3ExtensionFile(S3File.organisationFileFromFullPath(organisation, s.getKey(), S3FileType.Extensions),
+                    new DateTime(s.getLastModified()), s.getSize(), s.getETag())));
             objects = s3Client.listNextBatchOfObjects(objects);
         }
 
@@ -176,16 +186,25 @@ public abstract class StorageService implements S3Service {
     }
 
     @Override
-    public void uploadExtensionFiles(File tempDirectory, String targetFilePath) throws IOException, InterruptedException {
+    public List<S3ExtensionFile> uploadExtensionFiles(File tempDirectory, String targetFilePath) throws IOException, InterruptedException {
         if (isDev && !s3InDev) {
-            return;
+            return new ArrayList<>();
         }
         String s3KeyForMediaUpload = getS3KeyForMediaUpload(targetFilePath);
         deleteDirectory(s3KeyForMediaUpload);
         TransferManager transferManager = TransferManagerBuilder.standard().withS3Client(s3Client).build();
         MultipleFileUpload multipleFileUpload = transferManager.uploadDirectory(bucketName, s3KeyForMediaUpload, tempDirectory, true);
         multipleFileUpload.waitForCompletion();
+
+        Organisation organisation = UserContextHolder.getOrganisation();
+        List<S3ExtensionFile> uploadedFiles = new ArrayList<>();
+        for (Upload upload : multipleFileUpload.getSubTransfers()) {
+            UploadResult uploadResult = upload.waitForUploadResult();
+            uploadedFiles.add(new S3ExtensionFile(S3File.organisationFileFromFullPath(organisation, uploadResult.getKey(), S3FileType.Extensions),
+                    new DateTime(), upload.getProgress().getTotalBytesToTransfer(), uploadResult.getETag()));
+        }
         FileUtils.forceDelete(tempDirectory);
+        return uploadedFiles;
     }
 
     @Override
@@ -202,6 +221,14 @@ public abstract class StorageService implements S3Service {
         return s3Client.getObject(bucketName, s3Key).getObjectContent();
     }
 
+    @Override
+    public String getObjectETag(String s3Key) {
+        if (isDev && !s3InDev) {
+            return null;
+        }
+        return s3Client.getObjectMetadata(bucketName, s3Key).getETag();
+    }
+
     @Override
     public InputStream getExtensionContent(String fileName, Organisation organisation) {
         String objectKey = format("%s/%s", organisation.getMediaDirectory(), fileName);
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import javax.transaction.Transactional;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class SubjectMigrationService implements ScopeAwareService<SubjectMigration> {
@@ -30,6 +31,7 @@ public class SubjectMigrationService implements ScopeAwareService<SubjectMigrati
     private final ChecklistRepository checklistRepository;
     private final ChecklistItemRepository checklistItemRepository;
     private final IndividualRelationshipRepository individualRelationshipRepository;
+    private final SubjectRelocationRepository subjectRelocationRepository;
 
     @Autowired
     public SubjectMigrationService(EntityApprovalStatusRepository entityApprovalStatusRepository,
@@ -42,7 +44,8 @@ public class SubjectMigrationService implements ScopeAwareService<SubjectMigrati
                                    GroupSubjectRepository groupSubjectRepository, AddressLevelService addressLevelService,
                                    ChecklistRepository checklistRepository,
                                    ChecklistItemRepository checklistItemRepository,
-                                   IndividualRelationshipRepository individualRelationshipRepository) {
+                                   IndividualRelationshipRepository individualRelationshipRepository,
+                                   SubjectRelocationRepository subjectRelocationRepository) {
         this.entityApprovalStatusRepository = entityApprovalStatusRepository;
         this.subjectMigrationRepository = subjectMigrationRepository;
         this.subjectTypeRepository = subjectTypeRepository;
@@ -55,6 +58,7 @@ public class SubjectMigrationService implements ScopeAwareService<SubjectMigrati
         this.checklistRepository = checklistRepository;
         this.checklistItemRepository = checklistItemRepository;
         this.individualRelationshipRepository = individualRelationshipRepository;
+        this.subjectRelocationRepository = subjectRelocationRepository;
     }
 
     @Override
@@ -121,12 +125,26 @@ public class SubjectMigrationService implements ScopeAwareService<SubjectMigrati
         }
     }
 
+    /**
+     * Same as markSubjectMigrationIfRequired for each subject, with the observations unchanged, but with a fixed number
+     * of statements for all the subjects.
+     */
     @Transactional
     public void changeSubjectsAddressLevel(List<Individual> subjects, AddressLevel destAddressLevel) {
-        subjects.forEach(individual -> {
-            this.markSubjectMigrationIfRequired(individual.getUuid(), destAddressLevel, individual.getObservations(), true);
-            individual.setAddressLevel(destAddressLevel);
-            individualRepository.save(individual);
-        });
+        List<SubjectRelocationRepository.RelocatedSubject> relocatedSubjects = subjects.stream()
+                .filter(individual -> !Objects.equals(individual.getAddressLevel().getId(), destAddressLevel.getId()))
+                .map(individual -> {
+                    SubjectType subjectType = individual.getSubjectType();
+                    ObservationCollection observations = individual.getObservations();
+                    return new SubjectRelocationRepository.RelocatedSubject(individual.getId(), individual.getAddressLevel().getId(),
+                            observations.getObjectAsSingleStringValue(subjectType.getSyncRegistrationConcept1()),
+                            observations.getObjectAsSingleStringValue(subjectType.getSyncRegistrationConcept2()));
+                })
+                .collect(Collectors.toList());
+        if (relocatedSubjects.isEmpty()) {
+            return;
+        }
+        logger.info(String.format("Migrating %d subjects to %s", relocatedSubjects.size(), addressLevelService.getTitleLineage(destAddressLevel)));
+        subjectRelocationRepository.relocate(relocatedSubjects, destAddressLevel.getId(), UserContextHolder.getUserId());
     }
 }
@@ -0,0 +1,78 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.SyncTelemetryBatchRepository;
+import org.avni.server.domain.SyncTelemetry;
+import org.avni.server.framework.security.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Sync telemetry is held in memory and saved in batches in the background, so that the request posting it does not
+ * take a database connection. When the buffer is full, telemetry is saved on the request thread as before.
+ * Telemetry still in the buffer when the server is killed, instead of being shut down, is lost.
+ */
+@Component
+public class SyncTelemetryBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(SyncTelemetryBuffer.class);
+    private static final int BATCH_SIZE = 500;
+    private final SyncTelemetryBatchRepository syncTelemetryBatchRepository;
+    private final AuthService authService;
+    private final BlockingQueue<SyncTelemetry> buffer;
+
+    @Autowired
+    public SyncTelemetryBuffer(SyncTelemetryBatchRepository syncTelemetryBatchRepository, AuthService authService,
+                               @Value("${avni.syncTelemetry.buffer.capacity}") int capacity) {
+        this.syncTelemetryBatchRepository = syncTelemetryBatchRepository;
+        this.authService = authService;
+        this.buffer = new LinkedBlockingQueue<>(capacity);
+    }
+
+    public void add(SyncTelemetry syncTelemetry) {
+        if (!buffer.offer(syncTelemetry)) {
+            syncTelemetryBatchRepository.insert(Collections.singletonList(syncTelemetry));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${avni.syncTelemetryFlushMillis}")
+    public void flush() {
+        if (buffer.isEmpty()) return;
+        //Rows of all organisations are saved together
+        authService.authenticateByUserName("admin", null);
+        List<SyncTelemetry> batch = new ArrayList<>(BATCH_SIZE);
+        while (buffer.drainTo(batch, BATCH_SIZE) > 0) {
+            try {
+                syncTelemetryBatchRepository.insert(batch);
+            } catch (Exception e) {
+                //So that one bad row does not lose the rest of the batch
+                insertOneAtATime(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void insertOneAtATime(List<SyncTelemetry> batch) {
+        for (SyncTelemetry syncTelemetry : batch) {
+            try {
+                syncTelemetryBatchRepository.insert(Collections.singletonList(syncTelemetry));
+            } catch (Exception e) {
+                logger.error(String.format("Saving sync telemetry with uuid %s failed", syncTelemetry.getUuid()), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
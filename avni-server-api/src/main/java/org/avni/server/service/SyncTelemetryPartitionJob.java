@@ -0,0 +1,38 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.SyncTelemetryBatchRepository;
+import org.avni.server.framework.security.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the sync telemetry partitions of this month and the next, so that a month's partition is there before the
+ * month starts
+ */
+@Component
+public class SyncTelemetryPartitionJob {
+    private static final Logger logger = LoggerFactory.getLogger(SyncTelemetryPartitionJob.class);
+    private final SyncTelemetryBatchRepository syncTelemetryBatchRepository;
+    private final AuthService authService;
+
+    @Autowired
+    public SyncTelemetryPartitionJob(SyncTelemetryBatchRepository syncTelemetryBatchRepository, AuthService authService) {
+        this.syncTelemetryBatchRepository = syncTelemetryBatchRepository;
+        this.authService = authService;
+    }
+
+    @Scheduled(fixedDelayString = "${avni.syncTelemetryPartitionScheduleMillis}")
+    public void createPartitions() {
+        logger.info("Job started");
+        authService.authenticateByUserName("admin", null);
+        try {
+            syncTelemetryBatchRepository.createPartitions();
+        } catch (Exception e) {
+            logger.error("Creating sync telemetry partitions failed", e);
+        }
+        logger.info("Job ended");
+    }
+}
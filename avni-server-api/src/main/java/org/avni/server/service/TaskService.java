@@ -4,8 +4,10 @@ import org.avni.server.common.EntityHelper;
 import org.avni.server.dao.ConceptRepository;
 import org.avni.server.dao.IndividualRepository;
 import org.avni.server.dao.UserRepository;
+import org.avni.server.dao.task.TaskAssignmentRepository;
 import org.avni.server.dao.task.TaskRepository;
 import org.avni.server.dao.task.TaskSearchCriteria;
+import org.avni.server.dao.task.TaskSearchRepository;
 import org.avni.server.dao.task.TaskStatusRepository;
 import org.avni.server.dao.task.TaskTypeRepository;
 import org.avni.server.domain.*;
@@ -14,7 +16,6 @@ import org.avni.server.domain.task.TaskStatus;
 import org.avni.server.domain.task.TaskType;
 import org.avni.server.framework.security.UserContextHolder;
 import org.avni.server.projection.UserWebProjection;
-import org.avni.server.util.CircularList;
 import org.avni.server.web.request.TaskRequest;
 import org.avni.server.web.request.task.TaskAssignmentRequest;
 import org.avni.server.web.request.task.TaskFilterCriteria;
@@ -22,17 +23,18 @@ import org.avni.server.web.request.webapp.task.TaskStatusContract;
 import org.avni.server.web.request.webapp.task.TaskTypeWebContract;
 import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class TaskService implements NonScopeAwareService {
+    private static final int ASSIGNMENT_CHUNK_SIZE = 1000;
 
     private final TaskRepository taskRepository;
     private final ObservationService observationService;
@@ -42,13 +44,14 @@ public class TaskService implements NonScopeAwareService {
     private final UserRepository userRepository;
     private final ConceptRepository conceptRepository;
     private final ConceptService conceptService;
-    private final TaskUnAssigmentService taskUnAssigmentService;
+    private final TaskSearchRepository taskSearchRepository;
+    private final TaskAssignmentRepository taskAssignmentRepository;
 
     public TaskService(TaskRepository taskRepository, ObservationService observationService,
                        TaskTypeRepository taskTypeRepository, TaskStatusRepository taskStatusRepository,
                        IndividualRepository individualRepository, UserRepository userRepository,
                        ConceptRepository conceptRepository, ConceptService conceptService,
-                       TaskUnAssigmentService taskUnAssigmentService) {
+                       TaskSearchRepository taskSearchRepository, TaskAssignmentRepository taskAssignmentRepository) {
         this.taskRepository = taskRepository;
         this.observationService = observationService;
         this.taskTypeRepository = taskTypeRepository;
@@ -57,7 +60,8 @@ public class TaskService implements NonScopeAwareService {
         this.userRepository = userRepository;
         this.conceptRepository = conceptRepository;
         this.conceptService = conceptService;
-        this.taskUnAssigmentService = taskUnAssigmentService;
+        this.taskSearchRepository = taskSearchRepository;
+        this.taskAssignmentRepository = taskAssignmentRepository;
     }
 
     @Override
@@ -86,6 +90,21 @@ public class TaskService implements NonScopeAwareService {
     }
 
     public Page<Task> searchTaskByCriteria(@RequestBody TaskFilterCriteria filterCriteria, Pageable pageable) {
+        return taskRepository.search(toSearchCriteria(filterCriteria), filterCriteria.isUnassigned(), pageable);
+    }
+
+    /**
+     * Tasks in the order of their ids, after the task with afterId
+     */
+    public List<Task> searchTaskByCriteria(TaskFilterCriteria filterCriteria, Long afterId, int size) {
+        List<Long> taskIds = taskSearchRepository.findTaskIds(toSearchCriteria(filterCriteria), filterCriteria.isUnassigned(), afterId, size);
+        if (taskIds.isEmpty()) return Collections.emptyList();
+        return taskRepository.findAllByIdIn(taskIds).stream()
+                .sorted(Comparator.comparing(Task::getId))
+                .collect(Collectors.toList());
+    }
+
+    private TaskSearchCriteria toSearchCriteria(TaskFilterCriteria filterCriteria) {
         TaskSearchCriteria searchCriteria = new TaskSearchCriteria();
         searchCriteria.setTaskType(taskTypeRepository.getTaskType(filterCriteria.getTaskType()));
         searchCriteria.setTaskStatus(taskStatusRepository.getTaskStatus(filterCriteria.getTaskStatus()));
@@ -106,7 +125,7 @@ public class TaskService implements NonScopeAwareService {
         searchCriteria.setCompletedOn(filterCriteria.getCompletedOn());
         searchCriteria.setCreatedOn(filterCriteria.getCreatedOn());
         searchCriteria.setScheduledOn(filterCriteria.getScheduledOn());
-        return taskRepository.search(searchCriteria, filterCriteria.isUnassigned(), pageable);
+        return searchCriteria;
     }
 
     public JsonObject getTaskMetaData() {
@@ -135,47 +154,64 @@ public class TaskService implements NonScopeAwareService {
         }
     }
 
+    /**
+     * Every task matching the filter is assigned, a chunk at a time, however many there are
+     */
     private void assignmentForSelectedAll(TaskAssignmentRequest taskAssignmentRequest) {
-        Page<Task> taskPage = searchTaskByCriteria(taskAssignmentRequest.getTaskFilterCriteria(), PageRequest.of(0, 1000));
-        List<User> users = userRepository.findByIdIn(taskAssignmentRequest.getAssignedToUserIdArray());
-        performAssignment(users, taskPage.getContent(), taskAssignmentRequest);
+        TaskFilterCriteria filterCriteria = taskAssignmentRequest.getTaskFilterCriteria();
+        TaskSearchCriteria searchCriteria = toSearchCriteria(filterCriteria);
+        List<Long> userIds = getUserIds(taskAssignmentRequest);
+        TaskStatus taskStatus = getTaskStatus(taskAssignmentRequest);
+        if (userIds.isEmpty() && taskStatus == null) return;
+        List<Long> taskIds = taskSearchRepository.findTaskIds(searchCriteria, filterCriteria.isUnassigned(), null, ASSIGNMENT_CHUNK_SIZE);
+        if (taskIds.size() < ASSIGNMENT_CHUNK_SIZE) {
+            checkUsersAreNotMoreThanTasks(userIds, taskIds);
+        }
+        long assigned = 0;
+        while (!taskIds.isEmpty()) {
+            performAssignment(userIds, taskIds, taskStatus, assigned);
+            assigned += taskIds.size();
+            if (taskIds.size() < ASSIGNMENT_CHUNK_SIZE) break;
+            Long lastTaskId = taskIds.get(taskIds.size() - 1);
+            taskIds = taskSearchRepository.findTaskIds(searchCriteria, filterCriteria.isUnassigned(), lastTaskId, ASSIGNMENT_CHUNK_SIZE);
+        }
     }
 
     private void assignmentForSelectedTaskIds(TaskAssignmentRequest taskAssignmentRequest) {
-        List<User> users = userRepository.findByIdIn(taskAssignmentRequest.getAssignedToUserIdArray());
-        List<Task> tasksToUpdate = taskRepository.findAllByIdIn(taskAssignmentRequest.getTaskIds());
-        performAssignment(users, tasksToUpdate, taskAssignmentRequest);
+        List<Long> userIds = getUserIds(taskAssignmentRequest);
+        List<Long> taskIds = taskAssignmentRequest.getTaskIds().stream().distinct().sorted().collect(Collectors.toList());
+        checkUsersAreNotMoreThanTasks(userIds, taskIds);
+        TaskStatus taskStatus = getTaskStatus(taskAssignmentRequest);
+        for (int from = 0; from < taskIds.size(); from += ASSIGNMENT_CHUNK_SIZE) {
+            performAssignment(userIds, taskIds.subList(from, Math.min(from + ASSIGNMENT_CHUNK_SIZE, taskIds.size())), taskStatus, from);
+        }
     }
 
-    private void performAssignment(List<User> users, List<Task> tasksToUpdate, TaskAssignmentRequest taskAssignmentRequest) {
-        if (users.size() > tasksToUpdate.size()) {
-            throw new IllegalArgumentException("Users cannot be more than the selected tasks");
-        }
-        TaskStatus taskStatus = null;
-        if (taskAssignmentRequest.getStatusId() != null) {
-            taskStatus = taskStatusRepository.findOne(taskAssignmentRequest.getStatusId());
-        }
-        assignTasksEquallyToUsersAndUpdateStatus(users, tasksToUpdate, taskStatus);
-        taskRepository.saveAll(tasksToUpdate);
+    private List<Long> getUserIds(TaskAssignmentRequest taskAssignmentRequest) {
+        return userRepository.findByIdIn(taskAssignmentRequest.getAssignedToUserIdArray())
+                .stream().map(User::getId).collect(Collectors.toList());
     }
 
-    private void assignTasksEquallyToUsersAndUpdateStatus(List<User> userList, List<Task> tasksToUpdate, TaskStatus taskStatus) {
-        Iterator<User> users = new CircularList<>(userList).iterator();
-        tasksToUpdate.forEach(task -> {
-            if(userList.size() > 0) {
-                User newUser = users.next();
-                populateTaskUnAssignment(task.getAssignedTo(), newUser, task);
-                task.setAssignedTo(newUser);
-            }
-            if (taskStatus != null) {
-                task.updateTaskStatus(taskStatus);
-            }
-        });
+    private TaskStatus getTaskStatus(TaskAssignmentRequest taskAssignmentRequest) {
+        return taskAssignmentRequest.getStatusId() == null ? null : taskStatusRepository.findOne(taskAssignmentRequest.getStatusId());
     }
 
-    private void populateTaskUnAssignment(User olderUser, User newUser, Task task) {
-        if (olderUser != null && !olderUser.getId().equals(newUser.getId())) {
-            taskUnAssigmentService.saveTaskUnAssignment(task, olderUser);
+    private void checkUsersAreNotMoreThanTasks(List<Long> userIds, List<Long> taskIds) {
+        if (userIds.size() > taskIds.size()) {
+            throw new IllegalArgumentException("Users cannot be more than the selected tasks");
+        }
+    }
+
+    /**
+     * The users take the tasks in turn, continuing from where the previous chunk's turn ended
+     */
+    private void performAssignment(List<Long> userIds, List<Long> taskIds, TaskStatus taskStatus, long assignedSoFar) {
+        Long lastModifiedById = UserContextHolder.getUserId();
+        if (!userIds.isEmpty()) {
+            taskAssignmentRepository.assign(taskIds, userIds, assignedSoFar % userIds.size(), lastModifiedById);
+        }
+        if (taskStatus != null) {
+            taskAssignmentRepository.updateStatus(taskIds, taskStatus, lastModifiedById);
         }
     }
 }
@@ -2,8 +2,10 @@ package org.avni.server.service;
 
 import org.avni.server.dao.*;
 import org.avni.server.dao.search.SubjectAssignmentSearchQueryBuilder;
+import org.avni.server.dao.search.SubjectSearchSortColumn;
 import org.avni.server.domain.*;
 import org.avni.server.domain.accessControl.GroupPrivileges;
+import org.avni.server.domain.accessControl.PrivilegeType;
 import org.avni.server.framework.security.UserContextHolder;
 import org.avni.server.projection.UserWebProjection;
 import org.avni.server.service.accessControl.GroupPrivilegeService;
@@ -11,7 +13,10 @@ import org.avni.server.web.request.ConceptContract;
 import org.avni.server.web.request.GroupContract;
 import org.avni.server.web.request.UserSubjectAssignmentContract;
 import org.avni.server.web.request.webapp.search.SubjectSearchRequest;
+import org.avni.server.web.request.webapp.search.TotalCountMode;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.projection.ProjectionFactory;
 import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
@@ -27,6 +32,8 @@ import static java.util.stream.Collectors.groupingBy;
 
 @Service
 public class UserSubjectAssignmentService implements NonScopeAwareService {
+    private static final int ASSIGNMENT_CHUNK_SIZE = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(UserSubjectAssignmentService.class);
     private final UserSubjectAssignmentRepository userSubjectAssignmentRepository;
     private final UserRepository userRepository;
     private final SubjectTypeRepository subjectTypeRepository;
@@ -35,10 +42,8 @@ public class UserSubjectAssignmentService implements NonScopeAwareService {
     private final SubjectSearchRepository subjectSearchRepository;
     private final ConceptRepository conceptRepository;
     private final IndividualRepository individualRepository;
-    private final ChecklistService checklistService;
-    private final ChecklistItemService checklistItemService;
-    private final IndividualRelationshipService individualRelationshipService;
-    private final GroupSubjectRepository groupSubjectRepository;
+    private final ChecklistDetailRepository checklistDetailRepository;
+    private final UserSubjectAssignmentBulkRepository userSubjectAssignmentBulkRepository;
     private final GroupPrivilegeService privilegeService;
     private final AvniMetaDataRuleService avniMetaDataRuleService;
     private final AddressLevelService addressLevelService;
@@ -48,9 +53,8 @@ public class UserSubjectAssignmentService implements NonScopeAwareService {
                                         SubjectTypeRepository subjectTypeRepository, ProgramRepository programRepository,
                                         GroupRepository groupRepository, SubjectSearchRepository subjectSearchRepository,
                                         ConceptRepository conceptRepository, IndividualRepository individualRepository,
-                                        ChecklistService checklistService, ChecklistItemService checklistItemService,
-                                        IndividualRelationshipService individualRelationshipService,
-                                        GroupSubjectRepository groupSubjectRepository, GroupPrivilegeService privilegeService,
+                                        ChecklistDetailRepository checklistDetailRepository,
+                                        UserSubjectAssignmentBulkRepository userSubjectAssignmentBulkRepository, GroupPrivilegeService privilegeService,
                                         AvniMetaDataRuleService avniMetaDataRuleService, AddressLevelService addressLevelService) {
         this.userSubjectAssignmentRepository = userSubjectAssignmentRepository;
         this.userRepository = userRepository;
@@ -60,10 +64,8 @@ public class UserSubjectAssignmentService implements NonScopeAwareService {
         this.subjectSearchRepository = subjectSearchRepository;
         this.conceptRepository = conceptRepository;
         this.individualRepository = individualRepository;
-        this.checklistService = checklistService;
-        this.checklistItemService = checklistItemService;
-        this.individualRelationshipService = individualRelationshipService;
-        this.groupSubjectRepository = groupSubjectRepository;
+        this.checklistDetailRepository = checklistDetailRepository;
+        this.userSubjectAssignmentBulkRepository = userSubjectAssignmentBulkRepository;
         this.privilegeService = privilegeService;
         this.avniMetaDataRuleService = avniMetaDataRuleService;
         this.addressLevelService = addressLevelService;
@@ -128,32 +130,47 @@ public class UserSubjectAssignmentService implements NonScopeAwareService {
 
         LinkedHashMap<String, Object> recordsMap = new LinkedHashMap<String, Object>();
         recordsMap.put("totalElements", totalCount);
+        recordsMap.put("totalElementsEstimated", SubjectSearchRepository.getTotalCountMode(subjectSearchRequest) == TotalCountMode.estimated);
         recordsMap.put("listOfRecords", searchResults);
+        recordsMap.put("searchAfter", SubjectSearchSortColumn.nextPage(searchResults, subjectSearchRequest.getPageElement()));
         return recordsMap;
     }
 
-    public List<UserSubjectAssignment> assignSubjects(UserSubjectAssignmentContract userSubjectAssignmentRequest) throws ValidationException {
+    public int assignSubjects(UserSubjectAssignmentContract userSubjectAssignmentRequest) throws ValidationException {
         List<Individual> subjectList = individualRepository.findAllById(userSubjectAssignmentRequest.getSubjectIds());
         User user = userRepository.findOne(userSubjectAssignmentRequest.getUserId());
         return assignSubjects(user, subjectList, userSubjectAssignmentRequest.isVoided());
     }
 
-    public List<UserSubjectAssignment> assignSubjects(User user, List<Individual> subjectList, boolean assignmentVoided) throws ValidationException {
-        List<UserSubjectAssignment> userSubjectAssignmentList = new ArrayList<>();
+    /**
+     * Validates all the subjects up front and then writes the assignments, along with those of the group members, in
+     * chunks. Each chunk is committed on its own so that large assignments do not hold one long transaction.
+     */
+    public int assignSubjects(User user, List<Individual> subjectList, boolean assignmentVoided) throws ValidationException {
         Map<SubjectType, List<Individual>> subjectTypeListMap = subjectList.stream().collect(groupingBy(Individual::getSubjectType));
         for (Map.Entry<SubjectType, List<Individual>> subjectTypeList : subjectTypeListMap.entrySet()) {
             SubjectType subjectType = subjectTypeList.getKey();
-            List<Individual> listOfSubjects = subjectTypeList.getValue();
+            if (!avniMetaDataRuleService.isDirectAssignmentAllowedFor(subjectType)) {
+                throw new ValidationException("Assigment of this subject cannot be done because it is of subject type that is part of another group");
+            }
             List<Long> addressLevels = addressLevelService.getAllRegistrationAddressIdsBySubjectType(user.getCatchment(), subjectType);
-            for (Individual subject : listOfSubjects) {
-                if (!avniMetaDataRuleService.isDirectAssignmentAllowedFor(subject.getSubjectType())) {
-                    throw new ValidationException("Assigment of this subject cannot be done because it is of subject type that is part of another group");
-                }
+            for (Individual subject : subjectTypeList.getValue()) {
                 checkIfSubjectLiesWithinUserCatchment(assignmentVoided, subject, addressLevels);
-                createUpdateAssignment(assignmentVoided, userSubjectAssignmentList, user, subject);
             }
         }
-        return this.saveAll(userSubjectAssignmentList);
+
+        List<Long> subjectIds = userSubjectAssignmentBulkRepository.getSubjectIdsWithMembers(subjectList.stream().map(Individual::getId).collect(Collectors.toList()));
+        GroupPrivileges groupPrivileges = privilegeService.getGroupPrivileges(user);
+        List<Long> viewableSubjectTypeIds = getViewableSubjectTypeIds(groupPrivileges);
+        List<String> viewableChecklists = getViewableChecklists(groupPrivileges);
+
+        int assigned = 0;
+        for (int from = 0; from < subjectIds.size(); from += ASSIGNMENT_CHUNK_SIZE) {
+            List<Long> chunk = subjectIds.subList(from, Math.min(from + ASSIGNMENT_CHUNK_SIZE, subjectIds.size()));
+            assigned += userSubjectAssignmentBulkRepository.assign(user.getId(), chunk, assignmentVoided, viewableSubjectTypeIds, viewableChecklists);
+            logger.info(String.format("Assigned %d of %d subjects to user %s", from + chunk.size(), subjectIds.size(), user.getUsername()));
+        }
+        return assigned;
     }
 
     private void checkIfSubjectLiesWithinUserCatchment(boolean assignmentVoided, Individual subject, List<Long> addressLevels) throws ValidationException {
@@ -162,71 +179,21 @@ public class UserSubjectAssignmentService implements NonScopeAwareService {
         }
     }
 
-    private List<UserSubjectAssignment> saveAll(List<UserSubjectAssignment> userSubjectAssignmentList) throws ValidationException {
-        List<UserSubjectAssignment> savedUSA = new ArrayList<>();
-        for (UserSubjectAssignment userSubjectAssignment : userSubjectAssignmentList) {
-            savedUSA.add(save(userSubjectAssignment));
-        }
-        return savedUSA;
-    }
-
-    public UserSubjectAssignment save(UserSubjectAssignment userSubjectAssignment) throws ValidationException {
-        userSubjectAssignmentRepository.save(userSubjectAssignment);
-        updateAuditForUserSubjectAssignment(userSubjectAssignment);
-        return userSubjectAssignment;
+    private List<Long> getViewableSubjectTypeIds(GroupPrivileges groupPrivileges) {
+        return subjectTypeRepository.findAll().stream()
+                .filter(subjectType -> groupPrivileges.hasPrivilege(PrivilegeType.ViewSubject, subjectType, null, null, null))
+                .map(SubjectType::getId)
+                .collect(Collectors.toList());
     }
 
-    private void createUpdateAssignment(boolean assignmentVoided, List<UserSubjectAssignment> userSubjectAssignmentList,
-                                        User user, Individual subject) {
-        UserSubjectAssignment userSubjectAssignment = userSubjectAssignmentRepository.findByUserAndSubject(user, subject);
-        if (userSubjectAssignment == null) {
-            userSubjectAssignment = UserSubjectAssignment.createNew(user, subject);
+    private List<String> getViewableChecklists(GroupPrivileges groupPrivileges) {
+        List<ChecklistDetail> checklistDetails = checklistDetailRepository.findAll();
+        List<String> viewableChecklists = new ArrayList<>();
+        for (SubjectType subjectType : subjectTypeRepository.findAll()) {
+            checklistDetails.stream()
+                    .filter(checklistDetail -> groupPrivileges.hasPrivilege(PrivilegeType.ViewChecklist, subjectType, null, null, checklistDetail))
+                    .forEach(checklistDetail -> viewableChecklists.add(subjectType.getId() + ":" + checklistDetail.getId()));
         }
-        userSubjectAssignment.setVoided(assignmentVoided);
-        if (subject.getSubjectType().isGroup()) {
-            List<GroupSubject> groupSubjects = groupSubjectRepository.findAllByGroupSubjectAndIsVoidedFalse(subject);
-            for (GroupSubject groupSubject : groupSubjects) {
-                createUpdateAssignment(assignmentVoided, userSubjectAssignmentList, user, groupSubject.getMemberSubject());
-            }
-        }
-        userSubjectAssignmentList.add(userSubjectAssignment);
-    }
-
-    private void updateAuditForUserSubjectAssignment(UserSubjectAssignment userSubjectAssignment) {
-        userSubjectAssignment.updateAudit();
-        triggerSyncForSubjectAndItsChildrenForUser(userSubjectAssignment.getSubject(), userSubjectAssignment.getUser());
-    }
-
-    private void triggerSyncForSubjectAndItsChildrenForUser(Individual individual, User user) {
-        individual.updateAudit();
-        individual.getProgramEnrolments()
-                .forEach(CHSEntity::updateAudit);
-        individual.getProgramEncounters()
-                .forEach(CHSEntity::updateAudit);
-        individual.getEncounters()
-                .forEach(CHSEntity::updateAudit);
-
-        GroupPrivileges groupPrivileges = privilegeService.getGroupPrivileges(user);
-        checklistService.findChecklistsByIndividual(individual)
-                .stream()
-                .filter(groupPrivileges::hasViewPrivilege)
-                .forEach(CHSEntity::updateAudit);
-        checklistItemService.findChecklistItemsByIndividual(individual)
-                .stream()
-                .filter(groupPrivileges::hasViewPrivilege)
-                .forEach(CHSEntity::updateAudit);
-        individualRelationshipService.findByIndividual(individual)
-                .stream()
-                .filter(individualRelationship ->
-                        groupPrivileges.hasViewPrivilege(individualRelationship.getIndividuala()) &&
-                                groupPrivileges.hasViewPrivilege(individualRelationship.getIndividualB()))
-                .forEach(CHSEntity::updateAudit);
-        groupSubjectRepository.findAllByGroupSubjectOrMemberSubject(individual)
-                .stream()
-                .filter(groupSubject ->
-                        groupPrivileges.hasViewPrivilege(groupSubject.getGroupSubject()) &&
-                                groupPrivileges.hasViewPrivilege(groupSubject.getMemberSubject())
-                )
-                .forEach(CHSEntity::updateAudit);
+        return viewableChecklists;
     }
 }
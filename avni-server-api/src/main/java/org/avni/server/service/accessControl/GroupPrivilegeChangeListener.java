@@ -0,0 +1,36 @@
+package org.avni.server.service.accessControl;
+
+import org.avni.server.framework.ApplicationContextProvider;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Entity listener for groups, group privileges and user groups. Any change to them can change the privileges of
+ * users, so the cached privilege versions are dropped once the change is committed and the next check reads them
+ * afresh.
+ */
+public class GroupPrivilegeChangeListener {
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictCachedVersions();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                evictCachedVersions();
+            }
+        });
+    }
+
+    private void evictCachedVersions() {
+        ApplicationContextProvider.getContext().getBean(GroupPrivilegesCache.class).evictPrivilegesVersions();
+    }
+}
@@ -31,8 +31,9 @@ public class GroupPrivilegeService implements NonScopeAwareService {
     private final FormMappingRepository formMappingRepository;
     private final GroupPrivilegeRepository groupPrivilegeRepository;
     private final UserGroupRepository userGroupRepository;
+    private final GroupPrivilegesCache groupPrivilegesCache;
 
-    public GroupPrivilegeService(GroupRepository groupRepository, PrivilegeRepository privilegeRepository, SubjectTypeRepository subjectTypeRepository, ProgramRepository programRepository, EncounterTypeRepository encounterTypeRepository, ChecklistDetailRepository checklistDetailRepository, FormMappingRepository formMappingRepository, GroupPrivilegeRepository groupPrivilegeRepository, UserGroupRepository userGroupRepository) {
+    public GroupPrivilegeService(GroupRepository groupRepository, PrivilegeRepository privilegeRepository, SubjectTypeRepository subjectTypeRepository, ProgramRepository programRepository, EncounterTypeRepository encounterTypeRepository, ChecklistDetailRepository checklistDetailRepository, FormMappingRepository formMappingRepository, GroupPrivilegeRepository groupPrivilegeRepository, UserGroupRepository userGroupRepository, GroupPrivilegesCache groupPrivilegesCache) {
         this.groupRepository = groupRepository;
         this.privilegeRepository = privilegeRepository;
         this.subjectTypeRepository = subjectTypeRepository;
@@ -42,6 +43,7 @@ public class GroupPrivilegeService implements NonScopeAwareService {
         this.formMappingRepository = formMappingRepository;
         this.groupPrivilegeRepository = groupPrivilegeRepository;
         this.userGroupRepository = userGroupRepository;
+        this.groupPrivilegesCache = groupPrivilegesCache;
     }
 
     private boolean isGroupSubjectTypePrivilege(SubjectType subjectType, Privilege privilege) {
@@ -198,13 +200,14 @@ public class GroupPrivilegeService implements NonScopeAwareService {
         return new GroupPrivileges(false, privileges);
     }
 
+    /**
+     * Privileges of the context user for privilege checks, cached across requests. The cache is keyed on the version of
+     * the user's groups, group privileges and user groups read from the database, so a change made through any server
+     * is seen on every server once the cached version expires.
+     */
     public GroupPrivileges getGroupPrivileges() {
-        if (this.userHasAllPrivileges()) {
-            return new GroupPrivileges();
-        }
         User user = UserContextHolder.getUserContext().getUser();
-        List<GroupPrivilege> privileges = groupPrivilegeRepository.getAllAllowedPrivilegesForUser(user.getId());
-        return new GroupPrivileges(false, privileges);
+        return groupPrivilegesCache.getGroupPrivileges(user, groupPrivilegesCache.getPrivilegesVersion(user));
     }
 
     public boolean userHasAllPrivileges() {
@@ -0,0 +1,60 @@
+package org.avni.server.service.accessControl;
+
+import org.avni.server.dao.GroupPrivilegeRepository;
+import org.avni.server.dao.UserGroupRepository;
+import org.avni.server.domain.User;
+import org.avni.server.domain.accessControl.GroupPrivilege;
+import org.avni.server.domain.accessControl.GroupPrivileges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Privileges of a user, compiled for lookups. Only meant for privilege checks, the privilege entities held by the
+ * cached value are detached once the request that loaded them is over.
+ */
+@Component
+public class GroupPrivilegesCache {
+    public static final String GROUP_PRIVILEGES_FOR_USER = "groupPrivilegesForUser";
+    public static final String GROUP_PRIVILEGES_VERSION_FOR_USER = "groupPrivilegesVersionForUser";
+
+    private final GroupPrivilegeRepository groupPrivilegeRepository;
+    private final UserGroupRepository userGroupRepository;
+
+    @Autowired
+    public GroupPrivilegesCache(GroupPrivilegeRepository groupPrivilegeRepository, UserGroupRepository userGroupRepository) {
+        this.groupPrivilegeRepository = groupPrivilegeRepository;
+        this.userGroupRepository = userGroupRepository;
+    }
+
+    /**
+     * Kept for a short ttl so that the version is not read on every check. Evicted by {@link GroupPrivilegeChangeListener}
+     * on changes made through this server, changes made through other servers are seen once the entry expires.
+     */
+    @Cacheable(value = GROUP_PRIVILEGES_VERSION_FOR_USER, key = "#user.id")
+    public String getPrivilegesVersion(User user) {
+        return groupPrivilegeRepository.getPrivilegesVersionForUser(user.getId());
+    }
+
+    @CacheEvict(value = GROUP_PRIVILEGES_VERSION_FOR_USER, allEntries = true)
+    public void evictPrivilegesVersions() {
+    }
+
+    /**
+     * @param version {@link #getPrivilegesVersion(User)}, only used in the key so that
+     *                the privileges are loaded again once they change. Entries of older versions expire with the cache ttl.
+     */
+    @Cacheable(value = GROUP_PRIVILEGES_FOR_USER, key = "#user.id + ':' + #version")
+    @Transactional(readOnly = true)
+    public GroupPrivileges getGroupPrivileges(User user, String version) {
+        if (userGroupRepository.findByUserAndGroupHasAllPrivilegesTrueAndIsVoidedFalse(user).size() > 0) {
+            return new GroupPrivileges();
+        }
+        List<GroupPrivilege> privileges = groupPrivilegeRepository.getAllAllowedPrivilegesForUser(user.getId());
+        return new GroupPrivileges(false, privileges);
+    }
+}
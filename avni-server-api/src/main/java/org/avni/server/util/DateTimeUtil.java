@@ -19,6 +19,15 @@ public class DateTimeUtil {
         return dateTime == null ? null : dateTime.withZone(DateTimeZone.forID(timeZone));
     }
 
+    /**
+     * Now, less the last few seconds, which transactions still in flight can commit rows into. Like sync, whatever
+     * reads rows modified till a time and continues from that time the next round reads only till this time, so that
+     * such rows are not missed.
+     */
+    public static DateTime committedTill() {
+        return new DateTime().minusSeconds(10);
+    }
+
     public static DateTime parseNullableDateTime(String dateTimeString) {
         if (dateTimeString == null) {
             return null;
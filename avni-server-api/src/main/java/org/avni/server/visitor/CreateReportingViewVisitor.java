@@ -8,10 +8,13 @@ import org.avni.server.domain.Organisation;
 import org.avni.server.domain.Program;
 import org.avni.server.domain.SubjectType;
 import org.avni.server.domain.metadata.MetaDataVisitor;
+import org.avni.server.reporting.ReportingSource;
+import org.avni.server.reporting.ReportingTableRepository;
 import org.avni.server.reporting.ViewGenService;
 import org.avni.server.service.ViewNameGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
@@ -21,12 +24,26 @@ public class CreateReportingViewVisitor implements MetaDataVisitor {
     private ViewGenService viewGenService;
     private ImplementationRepository implementationRepository;
     private OrganisationRepository organisationRepository;
+    private ReportingTableRepository reportingTableRepository;
+    private final boolean asTables;
     private static Logger logger = LoggerFactory.getLogger(CreateReportingViewVisitor.class);
 
-    public CreateReportingViewVisitor(ViewGenService viewGenService, ImplementationRepository implementationRepository, OrganisationRepository organisationRepository) {
+    @Autowired
+    public CreateReportingViewVisitor(ViewGenService viewGenService, ImplementationRepository implementationRepository, OrganisationRepository organisationRepository,
+                                      ReportingTableRepository reportingTableRepository) {
+        this(viewGenService, implementationRepository, organisationRepository, reportingTableRepository, false);
+    }
+
+    /**
+     * @param asTables materialise each view as a table, which ReportingTableJob keeps up to date
+     */
+    public CreateReportingViewVisitor(ViewGenService viewGenService, ImplementationRepository implementationRepository, OrganisationRepository organisationRepository,
+                                      ReportingTableRepository reportingTableRepository, boolean asTables) {
         this.viewGenService = viewGenService;
         this.implementationRepository = implementationRepository;
         this.organisationRepository = organisationRepository;
+        this.reportingTableRepository = reportingTableRepository;
+        this.asTables = asTables;
     }
 
     private ViewNameGenerator getViewNameGenerator(Long organisationId) {
@@ -39,7 +56,7 @@ public class CreateReportingViewVisitor implements MetaDataVisitor {
         ViewNameGenerator viewNameGenerator = getViewNameGenerator(subjectType.getOperationalSubjectType().getOrganisationId());
         Map<String, String> registrationViewMap = viewGenService.registrationViews(subjectType.getOperationalSubjectTypeName(), false);
         String registrationViewName = viewNameGenerator.getSubjectRegistrationViewName(subjectType);
-        createView(viewNameGenerator.getOrganisation(), registrationViewMap.get("Registration"), registrationViewName);
+        createView(viewNameGenerator.getOrganisation(), registrationViewMap.get("Registration"), registrationViewName, ReportingSource.Registration);
     }
 
     @Override
@@ -48,7 +65,7 @@ public class CreateReportingViewVisitor implements MetaDataVisitor {
         Map<String, String> programEnrolmentSqlMap = viewGenService.enrolmentViews(subjectType.getOperationalSubjectTypeName(), program.getOperationalProgramName());
         programEnrolmentSqlMap.forEach((prg, programSql) -> {
             String programEnrolmentViewName = viewNameGenerator.getProgramEnrolmentViewName(subjectType, prg);
-            createView(viewNameGenerator.getOrganisation(), programSql, programEnrolmentViewName);
+            createView(viewNameGenerator.getOrganisation(), programSql, programEnrolmentViewName, ReportingSource.ProgramEnrolment);
         });
     }
 
@@ -58,7 +75,7 @@ public class CreateReportingViewVisitor implements MetaDataVisitor {
         Map<String, String> programEncounterViewMap = viewGenService.getSqlsFor(program.getOperationalProgramName(), null, false, subjectType.getOperationalSubjectTypeName());
         programEncounterViewMap.forEach((et, programEncounterSql) -> {
             String programEncounterViewName = viewNameGenerator.getProgramEncounterViewName(subjectType, program, et);
-            createView(viewNameGenerator.getOrganisation(), programEncounterSql, programEncounterViewName);
+            createView(viewNameGenerator.getOrganisation(), programEncounterSql, programEncounterViewName, ReportingSource.ProgramEncounter);
         });
     }
 
@@ -68,12 +85,17 @@ public class CreateReportingViewVisitor implements MetaDataVisitor {
         Map<String, String> generalEncounterViewMap = viewGenService.getSqlsFor(null, encounterType.getOperationalEncounterTypeName(), false, subjectType.getOperationalSubjectTypeName());
         generalEncounterViewMap.forEach((et, etSql) -> {
             String generalEncounterViewName = viewNameGenerator.getGeneralEncounterViewName(subjectType, et);
-            createView(viewNameGenerator.getOrganisation(), etSql, generalEncounterViewName);
+            createView(viewNameGenerator.getOrganisation(), etSql, generalEncounterViewName, ReportingSource.Encounter);
         });
     }
 
-    private void createView(Organisation organisation, String viewSql, String viewName) {
+    private void createView(Organisation organisation, String viewSql, String viewName, ReportingSource source) {
         try {
+            if (asTables) {
+                reportingTableRepository.create(organisation, viewName, source, viewSql);
+                return;
+            }
+            reportingTableRepository.drop(organisation, viewName);
             implementationRepository.createView(organisation.getSchemaName(), viewName, viewSql);
         } catch (Exception e) {
             logger.error("Error while creating view {}", viewName, e);
@@ -9,6 +9,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import javax.transaction.Transactional;
+import java.io.IOException;
 
 @RestController
 public class CustomQueryController {
@@ -30,4 +31,26 @@ public class CustomQueryController {
         }
         return queryRepository.runQuery(customQueryRequest);
     }
+
+    @RequestMapping(value = "/executeQuery/job", method = RequestMethod.POST)
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    @ResponseBody
+    public ResponseEntity<?> submitQuery(@RequestBody CustomQueryRequest customQueryRequest) {
+        if (customQueryRequest.getName() == null) {
+            return ResponseEntity.badRequest().body("No query name passed in the request");
+        }
+        return queryRepository.submitQuery(customQueryRequest);
+    }
+
+    @RequestMapping(value = "/executeQuery/job/{jobUuid}", method = RequestMethod.GET)
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    @ResponseBody
+    public ResponseEntity<?> getQueryJob(@PathVariable("jobUuid") String jobUuid,
+                                         @RequestParam(value = "page", defaultValue = "0") int page,
+                                         @RequestParam(value = "size", defaultValue = "100") int size) throws IOException {
+        if (page < 0 || size < 1) {
+            return ResponseEntity.badRequest().body("page should not be negative and size should be positive");
+        }
+        return queryRepository.getQueryJob(jobUuid, page, size);
+    }
 }
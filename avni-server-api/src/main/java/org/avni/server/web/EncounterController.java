@@ -3,6 +3,7 @@ package org.avni.server.web;
 import com.bugsnag.Bugsnag;
 import org.avni.server.application.FormMapping;
 import org.avni.server.application.FormType;
+import org.avni.server.common.UuidLookup;
 import org.avni.server.dao.EncounterRepository;
 import org.avni.server.dao.EncounterTypeRepository;
 import org.avni.server.dao.IndividualRepository;
@@ -17,11 +18,14 @@ import org.avni.server.web.request.EncounterRequest;
 import org.avni.server.web.request.PointRequest;
 import org.avni.server.web.request.rules.RulesContractWrapper.Decisions;
 import org.avni.server.web.response.slice.SlicedResources;
+import org.avni.server.web.response.slice.StreamingSlicedResourcesWriter;
 import org.joda.time.DateTime;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.SliceImpl;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.Link;
@@ -31,6 +35,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
 import java.util.Collections;
 
@@ -48,6 +53,10 @@ public class EncounterController extends AbstractController<Encounter> implement
     private final FormMappingService formMappingService;
     private final AccessControlService accessControlService;
     private final EntityApprovalStatusService entityApprovalStatusService;
+    private final StreamingSlicedResourcesWriter streamingSlicedResourcesWriter;
+
+    @Value("${avni.sync.streaming.enabled}")
+    private boolean streamingSyncEnabled;
 
     @Autowired
     public EncounterController(IndividualRepository individualRepository,
@@ -56,7 +65,7 @@ public class EncounterController extends AbstractController<Encounter> implement
                                ObservationService observationService,
                                UserService userService,
                                Bugsnag bugsnag,
-                               EncounterService encounterService, ScopeBasedSyncService<Encounter> scopeBasedSyncService, FormMappingService formMappingService, AccessControlService accessControlService, EntityApprovalStatusService entityApprovalStatusService) {
+                               EncounterService encounterService, ScopeBasedSyncService<Encounter> scopeBasedSyncService, FormMappingService formMappingService, AccessControlService accessControlService, EntityApprovalStatusService entityApprovalStatusService, StreamingSlicedResourcesWriter streamingSlicedResourcesWriter) {
         this.individualRepository = individualRepository;
         this.encounterTypeRepository = encounterTypeRepository;
         this.encounterRepository = encounterRepository;
@@ -68,6 +77,7 @@ public class EncounterController extends AbstractController<Encounter> implement
         this.formMappingService = formMappingService;
         this.accessControlService = accessControlService;
         this.entityApprovalStatusService = entityApprovalStatusService;
+        this.streamingSlicedResourcesWriter = streamingSlicedResourcesWriter;
     }
 
     @GetMapping(value = "/web/encounter/{uuid}")
@@ -94,9 +104,17 @@ public class EncounterController extends AbstractController<Encounter> implement
     @Transactional
     @PreAuthorize(value = "hasAnyAuthority('user')")
     public void save(@RequestBody EncounterRequest request) {
+        save(request, new UuidLookup<>(encounterRepository), new UuidLookup<>(individualRepository), new UuidLookup<>(encounterTypeRepository));
+    }
+
+    /**
+     * For saving a request whose references have been looked up along with those of other requests
+     */
+    @Transactional
+    public void save(EncounterRequest request, UuidLookup<Encounter> encounters, UuidLookup<Individual> individuals, UuidLookup<EncounterType> encounterTypes) {
         logger.info(String.format("Saving encounter with uuid %s", request.getUuid()));
 
-        createEncounter(request, encounterService);
+        createEncounter(request, encounters, individuals, encounterTypes);
 
         logger.info(String.format("Saved encounter with uuid %s", request.getUuid()));
     }
@@ -107,7 +125,7 @@ public class EncounterController extends AbstractController<Encounter> implement
     public void saveForWeb(@RequestBody EncounterRequest request) {
         logger.info("Saving encounter with uuid %s", request.getUuid());
 
-        Encounter encounter = createEncounter(request, encounterService);
+        Encounter encounter = createEncounter(request, new UuidLookup<>(encounterRepository), new UuidLookup<>(individualRepository), new UuidLookup<>(encounterTypeRepository));
         addEntityApprovalStatusIfRequired(encounter);
 
         logger.info(String.format("Saved encounter with uuid %s", request.getUuid()));
@@ -119,19 +137,19 @@ public class EncounterController extends AbstractController<Encounter> implement
         entityApprovalStatusService.createStatus(EntityApprovalStatus.EntityType.Encounter, encounter.getId(), ApprovalStatus.Status.Pending, encounter.getEncounterType().getUuid(), formMapping);
     }
 
-    private Encounter createEncounter(EncounterRequest request, EncounterService encounterService) {
+    private Encounter createEncounter(EncounterRequest request, UuidLookup<Encounter> encounters, UuidLookup<Individual> individuals, UuidLookup<EncounterType> encounterTypes) {
 
         checkForSchedulingCompleteConstraintViolation(request);
 
-        EncounterType encounterType = encounterTypeRepository.findByUuidOrName(request.getEncounterType(), request.getEncounterTypeUUID());
+        EncounterType encounterType = request.getEncounterTypeUUID() == null ? encounterTypeRepository.findByName(request.getEncounterType()) : encounterTypes.find(request.getEncounterTypeUUID());
         Decisions decisions = request.getDecisions();
         observationService.validateObservationsAndDecisions(request.getObservations(), decisions != null ? decisions.getEncounterDecisions() : null, formMappingService.find(encounterType, FormType.Encounter));
-        Individual individual = individualRepository.findByUuid(request.getIndividualUUID());
+        Individual individual = individuals.find(request.getIndividualUUID());
         if (individual == null) {
             throw new IllegalArgumentException(String.format("Individual not found with UUID '%s'", request.getIndividualUUID()));
         }
 
-        Encounter encounter = newOrExistingEntity(encounterRepository, request, new Encounter());
+        Encounter encounter = encounters.newOrExisting(request, new Encounter());
         //Planned visit can not overwrite completed encounter
         if (encounter.isCompleted() && request.isPlanned())
             return null;
@@ -163,6 +181,7 @@ public class EncounterController extends AbstractController<Encounter> implement
             }
         }
         this.encounterService.save(encounter);
+        encounters.add(encounter);
 
         if (request.getVisitSchedules() != null && request.getVisitSchedules().size() > 0) {
             this.encounterService.saveVisitSchedules(individual.getUuid(), request.getVisitSchedules(), request.getUuid());
@@ -195,14 +214,21 @@ public class EncounterController extends AbstractController<Encounter> implement
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "encounterTypeUuid", required = false) String encounterTypeUuid,
-            Pageable pageable) throws Exception {
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
+            Pageable pageable,
+            HttpServletResponse response) throws Exception {
         if (encounterTypeUuid.isEmpty()) return wrap(new SliceImpl<>(Collections.emptyList()));
         EncounterType encounterType = encounterTypeRepository.findByUuid(encounterTypeUuid);
         if (encounterType == null) return wrap(new SliceImpl<>(Collections.emptyList()));
         FormMapping formMapping = formMappingService.find(encounterType, FormType.Encounter);
         if (formMapping == null)
             throw new Exception(String.format("No form mapping found for encounter %s", encounterType.getName()));
-        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(encounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Encounter));
+        if (streamingSyncEnabled) {
+            Slice<Long> ids = scopeBasedSyncService.getSyncResultIdsBySubjectTypeRegistrationLocationAsSlice(encounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Encounter, syncScopeChangeUuid);
+            streamingSlicedResourcesWriter.writeEncounters(ids, response);
+            return null;
+        }
+        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(encounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Encounter, syncScopeChangeUuid));
     }
 
     @RequestMapping(value = "/encounter", method = RequestMethod.GET)
@@ -211,6 +237,7 @@ public class EncounterController extends AbstractController<Encounter> implement
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "encounterTypeUuid", required = false) String encounterTypeUuid,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) throws Exception {
         if (encounterTypeUuid.isEmpty()) return wrap(new PageImpl<>(Collections.emptyList()));
         EncounterType encounterType = encounterTypeRepository.findByUuid(encounterTypeUuid);
@@ -218,7 +245,7 @@ public class EncounterController extends AbstractController<Encounter> implement
         FormMapping formMapping = formMappingService.find(encounterType, FormType.Encounter);
         if (formMapping == null)
             throw new Exception(String.format("No form mapping found for encounter %s", encounterType.getName()));
-        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(encounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Encounter));
+        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(encounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Encounter, syncScopeChangeUuid));
     }
 
     @DeleteMapping("/web/encounter/{uuid}")
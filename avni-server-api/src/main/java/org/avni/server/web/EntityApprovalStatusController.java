@@ -9,6 +9,7 @@ import org.avni.server.service.EntityApprovalStatusService;
 import org.avni.server.service.FormMappingService;
 import org.avni.server.service.ScopeBasedSyncService;
 import org.avni.server.service.UserService;
+import org.avni.server.web.request.BulkEntityApprovalStatusRequest;
 import org.avni.server.web.request.EntityApprovalStatusRequest;
 import org.avni.server.web.response.slice.SlicedResources;
 import org.joda.time.DateTime;
@@ -65,6 +66,16 @@ public class EntityApprovalStatusController implements RestControllerResourcePro
         entityApprovalStatusService.save(request);
     }
 
+    /**
+     * Approves or rejects all the entities matching the filter in the request. Returns the number of entities changed.
+     */
+    @RequestMapping(value = "/entityApprovalStatuses/bulk", method = RequestMethod.POST)
+    @Transactional
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    public int bulkUpdate(@RequestBody BulkEntityApprovalStatusRequest request) {
+        return entityApprovalStatusService.bulkUpdateStatus(request);
+    }
+
     @RequestMapping(value = "/entityApprovalStatus", method = RequestMethod.GET)
     @PreAuthorize(value = "hasAnyAuthority('user')")
     public PagedResources<Resource<EntityApprovalStatus>> getEntityApprovals(
@@ -72,6 +83,7 @@ public class EntityApprovalStatusController implements RestControllerResourcePro
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "entityType", required = false) SyncEntityName entityName,
             @RequestParam(value = "entityTypeUuid", required = false) String entityTypeUuid,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) {
         if(entityName == null) {
             return wrap(entityApprovalStatusRepository
@@ -79,7 +91,7 @@ public class EntityApprovalStatusController implements RestControllerResourcePro
                             CHSEntity.toDate(lastModifiedDateTime), CHSEntity.toDate(now), pageable));
         }
         return getScopeBasedSyncResults(lastModifiedDateTime, now,
-                fetchSubjectTypeForEntityNameAndUuid(entityName, entityTypeUuid), pageable, entityName, entityTypeUuid);
+                fetchSubjectTypeForEntityNameAndUuid(entityName, entityTypeUuid), pageable, entityName, entityTypeUuid, syncScopeChangeUuid);
     }
 
     @RequestMapping(value = "/entityApprovalStatus/v2", method = RequestMethod.GET)
@@ -89,10 +101,11 @@ public class EntityApprovalStatusController implements RestControllerResourcePro
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "entityType", required = false) SyncEntityName entityName,
             @RequestParam(value = "entityTypeUuid", required = false) String entityTypeUuid,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) {
 
         return getScopeBasedSyncResultsAsSlice(lastModifiedDateTime, now,
-                fetchSubjectTypeForEntityNameAndUuid(entityName, entityTypeUuid), pageable, entityName, entityTypeUuid);
+                fetchSubjectTypeForEntityNameAndUuid(entityName, entityTypeUuid), pageable, entityName, entityTypeUuid, syncScopeChangeUuid);
     }
 
     @Override
@@ -140,21 +153,21 @@ public class EntityApprovalStatusController implements RestControllerResourcePro
 
     private SlicedResources<Resource<EntityApprovalStatus>> getScopeBasedSyncResultsAsSlice(DateTime lastModifiedDateTime,
                                                                                             DateTime now, String subjectTypeUuid, Pageable pageable,
-                                                                                            SyncEntityName entityName, String entityTypeUuid) {
+                                                                                            SyncEntityName entityName, String entityTypeUuid, String syncScopeChangeUuid) {
         if (subjectTypeUuid == null || subjectTypeUuid.isEmpty()) return wrap(new SliceImpl<>(Collections.emptyList()));
         SubjectType subjectType = subjectTypeRepository.findByUuid(subjectTypeUuid);
         if (subjectType == null) return wrap(new SliceImpl<>(Collections.emptyList()));
         return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(entityApprovalStatusRepository,
-                userService.getCurrentUser(), lastModifiedDateTime, now, entityTypeUuid, pageable, subjectType, entityName));
+                userService.getCurrentUser(), lastModifiedDateTime, now, entityTypeUuid, pageable, subjectType, entityName, syncScopeChangeUuid));
     }
 
     private PagedResources<Resource<EntityApprovalStatus>> getScopeBasedSyncResults(DateTime lastModifiedDateTime,
                                                                                     DateTime now, String subjectTypeUuid, Pageable pageable,
-                                                                                    SyncEntityName entityName, String entityTypeUuid) {
+                                                                                    SyncEntityName entityName, String entityTypeUuid, String syncScopeChangeUuid) {
         if (subjectTypeUuid == null || subjectTypeUuid.isEmpty()) return wrap(new PageImpl<>(Collections.emptyList()));
         SubjectType subjectType = subjectTypeRepository.findByUuid(subjectTypeUuid);
         if (subjectType == null) return wrap(new PageImpl<>(Collections.emptyList()));
         return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(entityApprovalStatusRepository,
-                userService.getCurrentUser(), lastModifiedDateTime, now, entityTypeUuid, pageable, subjectType, entityName));
+                userService.getCurrentUser(), lastModifiedDateTime, now, entityTypeUuid, pageable, subjectType, entityName, syncScopeChangeUuid));
     }
 }
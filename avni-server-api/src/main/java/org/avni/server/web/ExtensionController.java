@@ -6,7 +6,9 @@ import org.avni.server.domain.Organisation;
 import org.avni.server.domain.OrganisationConfig;
 import org.avni.server.domain.accessControl.PrivilegeType;
 import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.ExtensionService;
 import org.avni.server.service.OrganisationConfigService;
+import org.avni.server.service.S3ContentCache;
 import org.avni.server.service.S3Service;
 import org.avni.server.service.accessControl.AccessControlService;
 import org.avni.server.util.AvniFiles;
@@ -21,20 +23,26 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.HandlerMapping;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -45,21 +53,27 @@ import static java.lang.String.format;
 
 @RestController
 public class ExtensionController implements RestControllerResourceProcessor<S3ExtensionFile> {
+    private static final CacheControl EXTENSION_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
     private final Logger logger;
     private final S3Service s3Service;
     private final OrganisationConfigService organisationConfigService;
     private final ImplementationRepository implementationRepository;
     private final AccessControlService accessControlService;
     private final ErrorBodyBuilder errorBodyBuilder;
+    private final ExtensionService extensionService;
+    private final S3ContentCache s3ContentCache;
 
     @Autowired
     public ExtensionController(S3Service s3Service, OrganisationConfigService organisationConfigService,
-                               ImplementationRepository implementationRepository, AccessControlService accessControlService, ErrorBodyBuilder errorBodyBuilder) {
+                               ImplementationRepository implementationRepository, AccessControlService accessControlService, ErrorBodyBuilder errorBodyBuilder,
+                               ExtensionService extensionService, S3ContentCache s3ContentCache) {
         this.s3Service = s3Service;
         this.organisationConfigService = organisationConfigService;
         this.implementationRepository = implementationRepository;
         this.accessControlService = accessControlService;
         this.errorBodyBuilder = errorBodyBuilder;
+        this.extensionService = extensionService;
+        this.s3ContentCache = s3ContentCache;
         logger = LoggerFactory.getLogger(this.getClass());
     }
 
@@ -72,7 +86,7 @@ public class ExtensionController implements RestControllerResourceProcessor<S3Ex
         try {
             Path tempPath = Files.createTempDirectory(UUID.randomUUID().toString()).toFile().toPath();
             AvniFiles.extractFileToPath(file, tempPath);
-            s3Service.uploadExtensionFiles(tempPath.toFile(), OrganisationConfig.Extension.EXTENSION_DIR);
+            extensionService.uploadExtensionFiles(tempPath.toFile());
             return ResponseEntity.ok().build();
         } catch (IOException e) {
             logger.error(format("Error while uploading the files %s", e.getMessage()));
@@ -85,11 +99,11 @@ public class ExtensionController implements RestControllerResourceProcessor<S3Ex
 
     @GetMapping(value = "/extensions")
     public PagedResources<Resource<S3ExtensionFile>> listExtensionFiles(@RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<DateTime> lastModifiedDateTime) {
-        return wrap(new PageImpl<>(s3Service.listExtensionFiles(lastModifiedDateTime)));
+        return wrap(new PageImpl<>(extensionService.listExtensionFiles(lastModifiedDateTime)));
     }
 
     @RequestMapping(value = "/extension/{basePath}/**", method = RequestMethod.GET)
-    public ResponseEntity<?> serveExtensionFile(@CookieValue(name = "IMPLEMENTATION-NAME", required = false) String implementationName, @PathVariable String basePath, HttpServletRequest request) {
+    public ResponseEntity<?> serveExtensionFile(@CookieValue(name = "IMPLEMENTATION-NAME", required = false) String implementationName, @PathVariable String basePath, HttpServletRequest request, HttpServletResponse response) {
         Organisation organisation = UserContextHolder.getOrganisation();
         if (organisation == null) {
             organisation = implementationRepository.findByName(implementationName);
@@ -103,6 +117,10 @@ public class ExtensionController implements RestControllerResourceProcessor<S3Ex
         String filePath = null != arguments && !arguments.isEmpty() ? basePath + "/" + arguments : basePath;
         logger.info(format("Getting the content of extension file %s", filePath));
         try {
+            String etag = extensionService.getETag(organisation, filePath);
+            if (etag != null) {
+                return serveCachedExtensionFile(organisation, filePath, etag, request, response);
+            }
             InputStream contentStream = s3Service.getExtensionContent(format("%s/%s", OrganisationConfig.Extension.EXTENSION_DIR, filePath), organisation);
             return ResponseEntity.ok().body(new InputStreamResource(contentStream));
         } catch (AccessDeniedException e) {
@@ -114,6 +132,26 @@ public class ExtensionController implements RestControllerResourceProcessor<S3Ex
         }
     }
 
+    /**
+     * Files are served from the local cache and revalidated by browsers with their ETag. Returns null once the
+     * response has been written.
+     */
+    private ResponseEntity<?> serveCachedExtensionFile(Organisation organisation, String filePath, String etag, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String quotedETag = format("\"%s\"", etag.replace("\"", ""));
+        if (quotedETag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(quotedETag).cacheControl(EXTENSION_CACHE_CONTROL).build();
+        }
+        String s3Key = format("%s/%s/%s", organisation.getMediaDirectory(), OrganisationConfig.Extension.EXTENSION_DIR, filePath);
+        try (FileChannel cachedContent = s3ContentCache.open(s3Key, etag)) {
+            response.setHeader(HttpHeaders.ETAG, quotedETag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, EXTENSION_CACHE_CONTROL.getHeaderValue());
+            String contentType = s3Service.getContentType(filePath);
+            if (contentType != null) response.setContentType(contentType);
+            response.setContentLengthLong(cachedContent.size());
+            StreamUtils.copy(Channels.newInputStream(cachedContent), response.getOutputStream());
+        }
+        return null;
+    }
 
     @RequestMapping(value = "/extension/serve/{basePath}/**", method = RequestMethod.GET)
     public ResponseEntity<?> serveCustomPrintFile(@CookieValue(name = "IMPLEMENTATION-NAME") String implementationName, @PathVariable String basePath, HttpServletRequest request) {
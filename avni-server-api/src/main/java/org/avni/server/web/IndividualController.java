@@ -2,6 +2,7 @@ package org.avni.server.web;
 
 import org.avni.server.application.FormMapping;
 import org.avni.server.application.FormType;
+import org.avni.server.common.UuidLookup;
 import org.avni.server.dao.*;
 import org.avni.server.dao.sync.SyncEntityName;
 import org.avni.server.domain.*;
@@ -20,12 +21,15 @@ import org.avni.server.web.request.rules.constructWrappers.IndividualConstructio
 import org.avni.server.web.request.webapp.search.SubjectSearchRequest;
 import org.avni.server.web.response.AvniEntityResponse;
 import org.avni.server.web.response.slice.SlicedResources;
+import org.avni.server.web.response.slice.StreamingSlicedResourcesWriter;
 import org.joda.time.DateTime;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.projection.ProjectionFactory;
 import org.springframework.data.repository.query.Param;
@@ -38,7 +42,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -68,6 +74,10 @@ public class IndividualController extends AbstractController<Individual> impleme
     private final AccessControlService accessControlService;
     private final EntityApprovalStatusService entityApprovalStatusService;
     private final FormMappingService formMappingService;
+    private final StreamingSlicedResourcesWriter streamingSlicedResourcesWriter;
+
+    @Value("${avni.sync.streaming.enabled}")
+    private boolean streamingSyncEnabled;
 
     @Autowired
     public IndividualController(IndividualRepository individualRepository,
@@ -82,7 +92,7 @@ public class IndividualController extends AbstractController<Individual> impleme
                                 IndividualSearchService individualSearchService,
                                 IdentifierAssignmentRepository identifierAssignmentRepository,
                                 IndividualConstructionService individualConstructionService,
-                                ScopeBasedSyncService<Individual> scopeBasedSyncService, SubjectMigrationService subjectMigrationService, AccessControlService accessControlService, EntityApprovalStatusService entityApprovalStatusService, FormMappingService formMappingService) {
+                                ScopeBasedSyncService<Individual> scopeBasedSyncService, SubjectMigrationService subjectMigrationService, AccessControlService accessControlService, EntityApprovalStatusService entityApprovalStatusService, FormMappingService formMappingService, StreamingSlicedResourcesWriter streamingSlicedResourcesWriter) {
         this.individualRepository = individualRepository;
         this.locationRepository = locationRepository;
         this.genderRepository = genderRepository;
@@ -100,6 +110,7 @@ public class IndividualController extends AbstractController<Individual> impleme
         this.accessControlService = accessControlService;
         this.entityApprovalStatusService = entityApprovalStatusService;
         this.formMappingService = formMappingService;
+        this.streamingSlicedResourcesWriter = streamingSlicedResourcesWriter;
     }
 
     // used in offline mode hence no access check
@@ -107,9 +118,18 @@ public class IndividualController extends AbstractController<Individual> impleme
     @Transactional
     @PreAuthorize(value = "hasAnyAuthority('user')")
     public AvniEntityResponse save(@RequestBody IndividualRequest individualRequest) {
+        return save(individualRequest, new UuidLookup<>(individualRepository), new UuidLookup<>(subjectTypeRepository));
+    }
+
+    /**
+     * For saving a request whose references have been looked up along with those of other requests
+     */
+    @Transactional
+    public AvniEntityResponse save(IndividualRequest individualRequest, UuidLookup<Individual> individuals, UuidLookup<SubjectType> subjectTypes) {
         logger.info(String.format("Saving individual with UUID %s", individualRequest.getUuid()));
 
-        Individual individual = createIndividual(individualRequest);
+        Individual individual = createIndividual(individualRequest, individuals, subjectTypes);
+        individuals.add(individual);
 
         logger.info(String.format("Saved individual with UUID %s", individualRequest.getUuid()));
 
@@ -150,11 +170,18 @@ public class IndividualController extends AbstractController<Individual> impleme
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "subjectTypeUuid", required = false) String subjectTypeUuid,
-            Pageable pageable) {
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
+            Pageable pageable,
+            HttpServletResponse response) throws IOException {
         if (subjectTypeUuid.isEmpty()) return wrap(new SliceImpl<>(Collections.emptyList()));
         SubjectType subjectType = subjectTypeRepository.findByUuid(subjectTypeUuid);
         if (subjectType == null) return wrap(new SliceImpl<>(Collections.emptyList()));
-        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(individualRepository, userService.getCurrentUser(), lastModifiedDateTime, now, subjectType.getId(), pageable, subjectType, SyncEntityName.Individual));
+        if (streamingSyncEnabled) {
+            Slice<Long> ids = scopeBasedSyncService.getSyncResultIdsBySubjectTypeRegistrationLocationAsSlice(individualRepository, userService.getCurrentUser(), lastModifiedDateTime, now, subjectType.getId(), pageable, subjectType, SyncEntityName.Individual, syncScopeChangeUuid);
+            streamingSlicedResourcesWriter.writeIndividuals(ids, response);
+            return null;
+        }
+        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(individualRepository, userService.getCurrentUser(), lastModifiedDateTime, now, subjectType.getId(), pageable, subjectType, SyncEntityName.Individual, syncScopeChangeUuid));
     }
 
     @GetMapping(value = {"/individual", /*-->Both are Deprecated */ "/individual/search/byCatchmentAndLastModified", "/individual/search/lastModified"})
@@ -163,11 +190,12 @@ public class IndividualController extends AbstractController<Individual> impleme
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "subjectTypeUuid", required = false) String subjectTypeUuid,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) {
         if (subjectTypeUuid.isEmpty()) return wrap(new PageImpl<>(Collections.emptyList()));
         SubjectType subjectType = subjectTypeRepository.findByUuid(subjectTypeUuid);
         if (subjectType == null) return wrap(new PageImpl<>(Collections.emptyList()));
-        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(individualRepository, userService.getCurrentUser(), lastModifiedDateTime, now, subjectType.getId(), pageable, subjectType, SyncEntityName.Individual));
+        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(individualRepository, userService.getCurrentUser(), lastModifiedDateTime, now, subjectType.getId(), pageable, subjectType, SyncEntityName.Individual, syncScopeChangeUuid));
     }
 
     @GetMapping(value = "/individual/search")
@@ -337,7 +365,7 @@ public class IndividualController extends AbstractController<Individual> impleme
     public AvniEntityResponse saveForWeb(@RequestBody IndividualRequest individualRequest) {
         logger.info(String.format("Saving individual with UUID %s", individualRequest.getUuid()));
 
-        Individual individual = createIndividual(individualRequest);
+        Individual individual = createIndividual(individualRequest, new UuidLookup<>(individualRepository), new UuidLookup<>(subjectTypeRepository));
 
         FormMapping formMapping = formMappingService.findBy(individual.getSubjectType(), null, null, FormType.IndividualProfile);
         entityApprovalStatusService.createStatus(EntityApprovalStatus.EntityType.Subject, individual.getId(), ApprovalStatus.Status.Pending, individual.getSubjectType().getUuid(), formMapping);
@@ -347,14 +375,14 @@ public class IndividualController extends AbstractController<Individual> impleme
         return new AvniEntityResponse(individual);
     }
 
-    private Individual createIndividual(IndividualRequest individualRequest) {
+    private Individual createIndividual(IndividualRequest individualRequest, UuidLookup<Individual> individuals, UuidLookup<SubjectType> subjectTypes) {
         Decisions decisions = individualRequest.getDecisions();
         observationService.validateObservationsAndDecisions(individualRequest.getObservations(), decisions != null ? decisions.getRegistrationDecisions() : null, formMappingService.findForSubject(individualRequest.getSubjectTypeUUID()));
         ObservationCollection observations = observationService.createObservations(individualRequest.getObservations());
         addObservationsFromDecisions(observations, individualRequest.getDecisions());
         this.markSubjectMigrationIfRequired(individualRequest, observations);
 
-        Individual individual = createIndividualWithoutObservations(individualRequest);
+        Individual individual = createIndividualWithoutObservations(individualRequest, individuals, subjectTypes);
         individual.setObservations(observations);
 
         Individual savedIndividual = individualService.save(individual);
@@ -364,11 +392,11 @@ public class IndividualController extends AbstractController<Individual> impleme
         return savedIndividual;
     }
 
-    private Individual createIndividualWithoutObservations(@RequestBody IndividualRequest individualRequest) {
+    private Individual createIndividualWithoutObservations(@RequestBody IndividualRequest individualRequest, UuidLookup<Individual> individuals, UuidLookup<SubjectType> subjectTypes) {
         AddressLevel addressLevel = getAddressLevel(individualRequest);
         Gender gender = individualRequest.getGender() == null ? genderRepository.findByUuid(individualRequest.getGenderUUID()) : genderRepository.findByName(individualRequest.getGender());
-        SubjectType subjectType = individualRequest.getSubjectTypeUUID() == null ? subjectTypeRepository.findByUuid("9f2af1f9-e150-4f8e-aad3-40bb7eb05aa3") : subjectTypeRepository.findByUuid(individualRequest.getSubjectTypeUUID());
-        Individual individual = newOrExistingEntity(individualRepository, individualRequest, new Individual());
+        SubjectType subjectType = individualRequest.getSubjectTypeUUID() == null ? subjectTypes.find("9f2af1f9-e150-4f8e-aad3-40bb7eb05aa3") : subjectTypes.find(individualRequest.getSubjectTypeUUID());
+        Individual individual = individuals.newOrExisting(individualRequest, new Individual());
         individual.setSubjectType(subjectType);
         individual.setFirstName(individualRequest.getFirstName());
         individual.setMiddleName(individualRequest.getMiddleName());
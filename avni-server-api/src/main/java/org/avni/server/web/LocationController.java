@@ -110,8 +110,9 @@ public class LocationController implements RestControllerResourceProcessor<Addre
     public PagedResources<Resource<AddressLevel>> getAddressLevelsByOperatingIndividualScope(
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) {
-        return wrap(scopeBasedSyncService.getSyncResultsByCatchment(locationRepository, userService.getCurrentUser(), lastModifiedDateTime, now, pageable, SyncEntityName.Location));
+        return wrap(scopeBasedSyncService.getSyncResultsByCatchment(locationRepository, userService.getCurrentUser(), lastModifiedDateTime, now, pageable, SyncEntityName.Location, syncScopeChangeUuid));
     }
 
     @PutMapping(value = "/locations/{id}")
@@ -147,6 +148,7 @@ public class LocationController implements RestControllerResourceProcessor<Addre
         location.setVoided(true);
         location.updateAudit();
         locationRepository.save(location);
+        locationService.updateTitleLineage(location);
 
         return ResponseEntity.ok(null);
     }
@@ -34,8 +34,9 @@ public class LocationMappingController implements RestControllerResourceProcesso
     public PagedResources<Resource<ParentLocationMapping>> getParentLocationMappingsByOperatingIndividualScope(
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) {
-        return wrap(scopeBasedSyncService.getSyncResultsByCatchment(locationMappingRepository, userService.getCurrentUser(), lastModifiedDateTime, now, pageable, SyncEntityName.LocationMapping));
+        return wrap(scopeBasedSyncService.getSyncResultsByCatchment(locationMappingRepository, userService.getCurrentUser(), lastModifiedDateTime, now, pageable, SyncEntityName.LocationMapping, syncScopeChangeUuid));
     }
 
     @Override
@@ -0,0 +1,68 @@
+package org.avni.server.web;
+
+import org.avni.server.service.MetadataSnapshotService;
+import org.avni.server.service.MetadataSnapshotService.MetadataSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+@RestController
+public class MetadataSnapshotController {
+    private final MetadataSnapshotService metadataSnapshotService;
+
+    @Autowired
+    public MetadataSnapshotController(MetadataSnapshotService metadataSnapshotService) {
+        this.metadataSnapshotService = metadataSnapshotService;
+    }
+
+    /**
+     * Metadata of the organisation, as json that is gzipped for clients accepting gzip, for a device doing its first
+     * sync. The ETag is the version of the snapshot, so a device that already has it gets a 304.
+     */
+    @GetMapping(value = "/metadataSnapshot")
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    public ResponseEntity<byte[]> getMetadataSnapshot(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException {
+        MetadataSnapshot snapshot = metadataSnapshotService.getSnapshot();
+        String etag = format("\"%s\"", snapshot.getVersion());
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (!acceptsGzip(acceptEncoding)) {
+            byte[] content = snapshot.getContent();
+            return response.contentLength(content.length).body(content);
+        }
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentLength(snapshot.getGzippedContent().length)
+                .body(snapshot.getGzippedContent());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(coding -> coding.split(";"))
+                .anyMatch(coding -> {
+                    String name = coding[0].trim();
+                    boolean refused = Arrays.stream(coding).skip(1).anyMatch(parameter -> parameter.replace(" ", "").matches("q=0(\\.0*)?"));
+                    return !refused && (name.equalsIgnoreCase("gzip") || name.equals("*"));
+                });
+    }
+}
@@ -2,6 +2,7 @@ package org.avni.server.web;
 
 import org.avni.server.application.FormMapping;
 import org.avni.server.application.FormType;
+import org.avni.server.common.UuidLookup;
 import org.avni.server.dao.EncounterTypeRepository;
 import org.avni.server.dao.ProgramEncounterRepository;
 import org.avni.server.dao.sync.SyncEntityName;
@@ -12,11 +13,14 @@ import org.avni.server.service.accessControl.AccessControlService;
 import org.avni.server.web.request.ProgramEncounterContract;
 import org.avni.server.web.request.ProgramEncounterRequest;
 import org.avni.server.web.response.slice.SlicedResources;
+import org.avni.server.web.response.slice.StreamingSlicedResourcesWriter;
 import org.joda.time.DateTime;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.SliceImpl;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.Link;
@@ -26,6 +30,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
 import java.util.Collections;
 
@@ -40,9 +45,13 @@ public class ProgramEncounterController implements RestControllerResourceProcess
     private final FormMappingService formMappingService;
     private final AccessControlService accessControlService;
     private final EntityApprovalStatusService entityApprovalStatusService;
+    private final StreamingSlicedResourcesWriter streamingSlicedResourcesWriter;
+
+    @Value("${avni.sync.streaming.enabled}")
+    private boolean streamingSyncEnabled;
 
     @Autowired
-    public ProgramEncounterController(EncounterTypeRepository encounterTypeRepository, ProgramEncounterRepository programEncounterRepository, UserService userService, ProgramEncounterService programEncounterService, ScopeBasedSyncService<ProgramEncounter> scopeBasedSyncService, FormMappingService formMappingService, AccessControlService accessControlService, EntityApprovalStatusService entityApprovalStatusService) {
+    public ProgramEncounterController(EncounterTypeRepository encounterTypeRepository, ProgramEncounterRepository programEncounterRepository, UserService userService, ProgramEncounterService programEncounterService, ScopeBasedSyncService<ProgramEncounter> scopeBasedSyncService, FormMappingService formMappingService, AccessControlService accessControlService, EntityApprovalStatusService entityApprovalStatusService, StreamingSlicedResourcesWriter streamingSlicedResourcesWriter) {
         this.encounterTypeRepository = encounterTypeRepository;
         this.programEncounterRepository = programEncounterRepository;
         this.userService = userService;
@@ -51,6 +60,7 @@ public class ProgramEncounterController implements RestControllerResourceProcess
         this.formMappingService = formMappingService;
         this.accessControlService = accessControlService;
         this.entityApprovalStatusService = entityApprovalStatusService;
+        this.streamingSlicedResourcesWriter = streamingSlicedResourcesWriter;
     }
 
     @GetMapping(value = "/web/programEncounter/{uuid}")
@@ -69,6 +79,19 @@ public class ProgramEncounterController implements RestControllerResourceProcess
     @PreAuthorize(value = "hasAnyAuthority('user')")
     public void save(@RequestBody ProgramEncounterRequest request) {
         programEncounterService.saveProgramEncounter(request);
+        saveVisitSchedules(request);
+    }
+
+    /**
+     * For saving a request whose references have been looked up along with those of other requests
+     */
+    @Transactional
+    public void save(ProgramEncounterRequest request, UuidLookup<ProgramEncounter> programEncounters, UuidLookup<ProgramEnrolment> programEnrolments, UuidLookup<EncounterType> encounterTypes) {
+        programEncounterService.saveProgramEncounter(request, programEncounters, programEnrolments, encounterTypes);
+        saveVisitSchedules(request);
+    }
+
+    private void saveVisitSchedules(ProgramEncounterRequest request) {
         if (request.getVisitSchedules() != null && request.getVisitSchedules().size() > 0) {
             programEncounterService.saveVisitSchedules(request.getProgramEnrolmentUUID(), request.getVisitSchedules(), request.getUuid());
         }
@@ -79,9 +102,7 @@ public class ProgramEncounterController implements RestControllerResourceProcess
     @PreAuthorize(value = "hasAnyAuthority('user')")
     public void saveForWeb(@RequestBody ProgramEncounterRequest request) {
         ProgramEncounter programEncounter = programEncounterService.saveProgramEncounter(request);
-        if (request.getVisitSchedules() != null && request.getVisitSchedules().size() > 0) {
-            programEncounterService.saveVisitSchedules(request.getProgramEnrolmentUUID(), request.getVisitSchedules(), request.getUuid());
-        }
+        saveVisitSchedules(request);
 
         FormMapping formMapping = programEncounterService.getFormMapping(programEncounter);
         entityApprovalStatusService.createStatus(EntityApprovalStatus.EntityType.ProgramEncounter, programEncounter.getId(), ApprovalStatus.Status.Pending, programEncounter.getEncounterType().getUuid(), formMapping);
@@ -113,7 +134,9 @@ public class ProgramEncounterController implements RestControllerResourceProcess
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "programEncounterTypeUuid", required = false) String encounterTypeUuid,
-            Pageable pageable) throws Exception {
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
+            Pageable pageable,
+            HttpServletResponse response) throws Exception {
         if (encounterTypeUuid.isEmpty()) return wrap(new SliceImpl<>(Collections.emptyList()));
         EncounterType encounterType = encounterTypeRepository.findByUuid(encounterTypeUuid);
         if (encounterType == null) return wrap(new SliceImpl<>(Collections.emptyList()));
@@ -121,7 +144,12 @@ public class ProgramEncounterController implements RestControllerResourceProcess
         FormMapping formMapping = formMappingService.find(encounterType, FormType.ProgramEncounter);
         if (formMapping == null)
             throw new Exception(String.format("No form mapping found for program encounter %s", encounterType.getName()));
-        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(programEncounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.ProgramEncounter));
+        if (streamingSyncEnabled) {
+            Slice<Long> ids = scopeBasedSyncService.getSyncResultIdsBySubjectTypeRegistrationLocationAsSlice(programEncounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.ProgramEncounter, syncScopeChangeUuid);
+            streamingSlicedResourcesWriter.writeProgramEncounters(ids, response);
+            return null;
+        }
+        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(programEncounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.ProgramEncounter, syncScopeChangeUuid));
     }
 
     @RequestMapping(value = "/programEncounter", method = RequestMethod.GET)
@@ -130,6 +158,7 @@ public class ProgramEncounterController implements RestControllerResourceProcess
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "programEncounterTypeUuid", required = false) String encounterTypeUuid,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) throws Exception {
         if (encounterTypeUuid.isEmpty()) return wrap(new PageImpl<>(Collections.emptyList()));
         EncounterType encounterType = encounterTypeRepository.findByUuid(encounterTypeUuid);
@@ -138,7 +167,7 @@ public class ProgramEncounterController implements RestControllerResourceProcess
         FormMapping formMapping = formMappingService.find(encounterType, FormType.ProgramEncounter);
         if (formMapping == null)
             throw new Exception(String.format("No form mapping found for program encounter %s", encounterType.getName()));
-        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(programEncounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.ProgramEncounter));
+        return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(programEncounterRepository, userService.getCurrentUser(), lastModifiedDateTime, now, encounterType.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.ProgramEncounter, syncScopeChangeUuid));
     }
 
     @DeleteMapping("/web/programEncounter/{uuid}")
@@ -2,11 +2,13 @@ package org.avni.server.web;
 
 import org.avni.server.application.FormMapping;
 import org.avni.server.application.FormType;
+import org.avni.server.common.UuidLookup;
 import org.avni.server.dao.ProgramEnrolmentRepository;
 import org.avni.server.dao.ProgramRepository;
 import org.avni.server.dao.sync.SyncEntityName;
 import org.avni.server.domain.ApprovalStatus;
 import org.avni.server.domain.EntityApprovalStatus;
+import org.avni.server.domain.Individual;
 import org.avni.server.domain.Program;
 import org.avni.server.domain.ProgramEnrolment;
 import org.avni.server.projection.ProgramEnrolmentProjection;
@@ -70,6 +72,15 @@ public class ProgramEnrolmentController extends AbstractController<ProgramEnrolm
         return new AvniEntityResponse(programEnrolment);
     }
 
+    /**
+     * For saving a request whose references have been looked up along with those of other requests
+     */
+    @Transactional
+    public AvniEntityResponse save(ProgramEnrolmentRequest request, UuidLookup<ProgramEnrolment> programEnrolments, UuidLookup<Individual> individuals) {
+        ProgramEnrolment programEnrolment = programEnrolmentService.programEnrolmentSave(request, programEnrolments, individuals);
+        return new AvniEntityResponse(programEnrolment);
+    }
+
     @RequestMapping(value = "/web/programEnrolments", method = RequestMethod.POST)
     @PreAuthorize(value = "hasAnyAuthority('user')")
     @Transactional
@@ -89,6 +100,7 @@ public class ProgramEnrolmentController extends AbstractController<ProgramEnrolm
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "programUuid", required = false) String programUuid,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) throws Exception {
         if (programUuid.isEmpty()) return wrap(new SliceImpl<>(Collections.emptyList()));
         else {
@@ -97,7 +109,7 @@ public class ProgramEnrolmentController extends AbstractController<ProgramEnrolm
             FormMapping formMapping = formMappingService.find(program, FormType.ProgramEnrolment);
             if (formMapping == null)
                 throw new Exception(String.format("No form mapping found for program %s", program.getName()));
-            return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(programEnrolmentRepository, userService.getCurrentUser(), lastModifiedDateTime, now, program.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Enrolment));
+            return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocationAsSlice(programEnrolmentRepository, userService.getCurrentUser(), lastModifiedDateTime, now, program.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Enrolment, syncScopeChangeUuid));
         }
     }
 
@@ -107,6 +119,7 @@ public class ProgramEnrolmentController extends AbstractController<ProgramEnrolm
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
             @RequestParam(value = "programUuid", required = false) String programUuid,
+            @RequestParam(value = "syncScopeChangeUuid", required = false) String syncScopeChangeUuid,
             Pageable pageable) throws Exception {
         if (programUuid.isEmpty()) return wrap(new PageImpl<>(Collections.emptyList()));
         else {
@@ -115,7 +128,7 @@ public class ProgramEnrolmentController extends AbstractController<ProgramEnrolm
             FormMapping formMapping = formMappingService.find(program, FormType.ProgramEnrolment);
             if (formMapping == null)
                 throw new Exception(String.format("No form mapping found for program %s", program.getName()));
-            return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(programEnrolmentRepository, userService.getCurrentUser(), lastModifiedDateTime, now, program.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Enrolment));
+            return wrap(scopeBasedSyncService.getSyncResultsBySubjectTypeRegistrationLocation(programEnrolmentRepository, userService.getCurrentUser(), lastModifiedDateTime, now, program.getId(), pageable, formMapping.getSubjectType(), SyncEntityName.Enrolment, syncScopeChangeUuid));
         }
     }
 
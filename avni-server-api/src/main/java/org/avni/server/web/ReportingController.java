@@ -122,12 +122,7 @@ public class ReportingController {
                                                           @RequestParam(value = "endDate", required = false) String endDate,
                                                           @RequestParam(value = "userIds", required = false, defaultValue = "") List<Long> userIds) {
         accessControlService.checkPrivilege(PrivilegeType.Analytics);
-        return avniReportRepository.generateUserActivityResults(
-                reportService.getDateDynamicWhere(startDate, endDate, "registration_date"),
-                reportService.getDateDynamicWhere(startDate, endDate, "encounter_date_time"),
-                reportService.getDateDynamicWhere(startDate, endDate, "enrolment_date_time"),
-                reportService.getDynamicUserWhere(userIds, "u.id")
-        );
+        return reportService.userActivities(startDate, endDate, userIds);
     }
 
     @RequestMapping(value = "/report/hr/syncFailures", method = RequestMethod.GET)
@@ -164,11 +159,7 @@ public class ReportingController {
                                                         @RequestParam(value = "endDate", required = false) String endDate,
                                                         @RequestParam(value = "userIds", required = false, defaultValue = "") List<Long> userIds) {
         accessControlService.checkPrivilege(PrivilegeType.Analytics);
-        return avniReportRepository.generateCompletedVisitsOnTimeByProportion(
-                ">= 0.8",
-                reportService.getDateDynamicWhere(startDate, endDate, "encounter_date_time"),
-                reportService.getDynamicUserWhere(userIds, "u.id")
-        );
+        return reportService.usersWithVisitsOnTimeProportion(">= 0.8", startDate, endDate, userIds);
     }
 
     @RequestMapping(value = "/report/hr/nonPerformingUsers", method = RequestMethod.GET)
@@ -176,11 +167,7 @@ public class ReportingController {
                                                              @RequestParam(value = "endDate", required = false) String endDate,
                                                              @RequestParam(value = "userIds", required = false, defaultValue = "") List<Long> userIds) {
         accessControlService.checkPrivilege(PrivilegeType.Analytics);
-        return avniReportRepository.generateCompletedVisitsOnTimeByProportion(
-                "<= 0.5",
-                reportService.getDateDynamicWhere(startDate, endDate, "encounter_date_time"),
-                reportService.getDynamicUserWhere(userIds, "u.id")
-        );
+        return reportService.usersWithVisitsOnTimeProportion("<= 0.5", startDate, endDate, userIds);
     }
 
     @RequestMapping(value = "/report/hr/mostCancelled", method = RequestMethod.GET)
@@ -188,9 +175,7 @@ public class ReportingController {
                                                                     @RequestParam(value = "endDate", required = false) String endDate,
                                                                     @RequestParam(value = "userIds", required = false, defaultValue = "") List<Long> userIds) {
         accessControlService.checkPrivilege(PrivilegeType.Analytics);
-        return avniReportRepository.generateUserCancellingMostVisits(
-                reportService.getDateDynamicWhere(startDate, endDate, "encounter_date_time"),
-                reportService.getDynamicUserWhere(userIds, "u.id"));
+        return reportService.usersCancellingMostVisits(startDate, endDate, userIds);
     }
 
     @RequestMapping(value = "/report/hr/commonUserIds", method = RequestMethod.GET)
@@ -4,6 +4,8 @@ import org.avni.server.domain.ResetSync;
 import org.avni.server.domain.User;
 import org.avni.server.framework.security.UserContextHolder;
 import org.avni.server.service.ResetSyncService;
+import org.avni.server.web.response.RemovedSubjectResponse;
+import org.avni.server.web.response.SyncScopeChangeResponse;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
@@ -12,13 +14,14 @@ import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestMethod;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 public class ResetSyncController extends AbstractController<ResetSync> implements RestControllerResourceProcessor<ResetSync> {
+    private static final int MAX_REMOVED_SUBJECTS_PAGE_SIZE = 1000;
 
     private final ResetSyncService resetSyncService;
 
@@ -32,9 +35,41 @@ public class ResetSyncController extends AbstractController<ResetSync> implement
     public PagedResources<Resource<ResetSync>> fetchByLastModified(
             @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
             @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now,
+            @RequestParam(value = "syncScopeChangeSupported", required = false, defaultValue = "false") boolean syncScopeChangeSupported,
             Pageable pageable) {
         User user = UserContextHolder.getUserContext().getUser();
-        return wrap(resetSyncService.getByLastModifiedForUser(lastModifiedDateTime, now, user, pageable));
+        return wrap(resetSyncService.getByLastModifiedForUser(lastModifiedDateTime, now, user, syncScopeChangeSupported, pageable));
+    }
+
+    /**
+     * Changes to the user's sync scope that a device can apply without resetting sync. For each change, in order, the
+     * device removes the subjects from removedSubjects, along with their enrolments, encounters and other rows, and then
+     * syncs the locations, the subjects and their dependents from the beginning with the change's uuid as
+     * syncScopeChangeUuid.
+     */
+    @RequestMapping(value = "/syncScopeChanges", method = RequestMethod.GET)
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    public List<SyncScopeChangeResponse> getSyncScopeChanges(
+            @RequestParam("lastModifiedDateTime") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime lastModifiedDateTime,
+            @RequestParam("now") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) DateTime now) {
+        return resetSyncService.getSyncScopeChanges(lastModifiedDateTime, now, UserContextHolder.getUserContext().getUser()).stream()
+                .map(SyncScopeChangeResponse::from)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Subjects that went out of the user's scope with the change, a page at a time in the order of their ids. The next
+     * page is fetched with the id of the last subject of this page as afterId. A page has at most
+     * MAX_REMOVED_SUBJECTS_PAGE_SIZE subjects.
+     */
+    @RequestMapping(value = "/syncScopeChanges/{uuid}/removedSubjects", method = RequestMethod.GET)
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    public List<RemovedSubjectResponse> getRemovedSubjects(@PathVariable("uuid") String uuid,
+                                                           @RequestParam(value = "afterId", required = false) Long afterId,
+                                                           @RequestParam(value = "size", required = false, defaultValue = "1000") int size) {
+        return resetSyncService.getRemovedSubjects(uuid, UserContextHolder.getUserContext().getUser(), afterId, Math.max(1, Math.min(size, MAX_REMOVED_SUBJECTS_PAGE_SIZE))).stream()
+                .map(RemovedSubjectResponse::from)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -1,5 +1,7 @@
 package org.avni.server.web;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.avni.server.dao.sync.SyncEntityName;
 import org.avni.server.domain.JsonObject;
 import org.avni.server.domain.SyncableItem;
@@ -104,6 +106,7 @@ public class SyncController {
     private final UserSubjectAssignmentService userSubjectAssignmentService;
     private final ScopedEntityApprovalStatusService scopedEntityApprovalStatusService;
     private final DashboardFilterService dashboardFilterService;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
     public SyncController(Environment environment, IndividualService individualService, EncounterService encounterService,
@@ -136,7 +139,8 @@ public class SyncController {
                           DocumentationService documentationService, DocumentationItemService documentationItemService,
                           TaskService taskService, TaskTypeService taskTypeService, TaskStatusService taskStatusService,
                           TaskUnAssigmentService taskUnAssigmentService, SubjectProgramEligibilityService subjectProgramEligibilityService, MenuItemService menuItemService, UserSubjectAssignmentService userSubjectAssignmentService,
-                          ScopedEntityApprovalStatusService scopedEntityApprovalStatusService, DashboardFilterService dashboardFilterService) {
+                          ScopedEntityApprovalStatusService scopedEntityApprovalStatusService, DashboardFilterService dashboardFilterService,
+                          MeterRegistry meterRegistry) {
         this.environment = environment;
         this.individualService = individualService;
         this.encounterService = encounterService;
@@ -205,6 +209,7 @@ public class SyncController {
         this.userSubjectAssignmentService = userSubjectAssignmentService;
         this.scopedEntityApprovalStatusService = scopedEntityApprovalStatusService;
         this.dashboardFilterService = dashboardFilterService;
+        this.meterRegistry = meterRegistry;
         this.logger = LoggerFactory.getLogger(this.getClass());
     }
 
@@ -300,11 +305,8 @@ public class SyncController {
                                                              @RequestParam(value = "isStockApp", required = false) boolean isStockApp) {
         DateTime now = new DateTime();
         DateTime nowMinus10Seconds = getNowMinus10Seconds();
-        Set<SyncableItem> allSyncableItems = syncDetailService.getAllSyncableItems(true);
-        long afterSyncDetailsService = new DateTime().getMillis();
-        logger.info(String.format("Time taken for syncDetailsService %d", afterSyncDetailsService - now.getMillis()));
-        List<EntitySyncStatusContract> changedEntities = getChangedEntities(entitySyncStatusContracts, allSyncableItems, true);
-        logger.info(String.format("Time taken for stuff %d", new DateTime().getMillis() - afterSyncDetailsService));
+        Set<SyncableItem> allSyncableItems = syncDetailsTimer("syncableItems").record(() -> syncDetailService.getAllSyncableItems(true));
+        List<EntitySyncStatusContract> changedEntities = syncDetailsTimer("changedEntities").record(() -> getChangedEntities(entitySyncStatusContracts, allSyncableItems, true));
         return ResponseEntity.ok().body(new JsonObject()
                 .with("syncDetails", changedEntities)
                 .with("now", now)
@@ -324,11 +326,8 @@ public class SyncController {
                                             @RequestParam(value = "isStockApp", required = false) boolean isStockApp) {
         DateTime now = new DateTime();
         DateTime nowMinus10Seconds = getNowMinus10Seconds();
-        Set<SyncableItem> allSyncableItems = syncDetailService.getAllSyncableItems(false);
-        long afterSyncDetailsService = new DateTime().getMillis();
-        logger.info(String.format("Time taken for syncDetailsService %d", afterSyncDetailsService - now.getMillis()));
-        List<EntitySyncStatusContract> changedEntities = getChangedEntities(entitySyncStatusContracts, allSyncableItems, false);
-        logger.info(String.format("Time taken for stuff %d", new DateTime().getMillis() - afterSyncDetailsService));
+        Set<SyncableItem> allSyncableItems = syncDetailsTimer("syncableItems").record(() -> syncDetailService.getAllSyncableItems(false));
+        List<EntitySyncStatusContract> changedEntities = syncDetailsTimer("changedEntities").record(() -> getChangedEntities(entitySyncStatusContracts, allSyncableItems, false));
         return ResponseEntity.ok().body(new JsonObject()
                 .with("syncDetails", changedEntities)
                 .with("now", now)
@@ -399,16 +398,24 @@ public class SyncController {
         NonScopeAwareService nonScopeAwareService = this.nonScopeAwareServiceMap.get(syncEntityName);
 
         if (nonScopeAwareService != null) {
-            return nonScopeAwareService.isNonScopeEntityChanged(loadedSince);
+            return entityChangedTimer(syncEntityName).record(() -> nonScopeAwareService.isNonScopeEntityChanged(loadedSince));
         }
 
         if (scopeAwareService != null) {
-            return scopeAwareService.isScopeEntityChanged(loadedSince, entitySyncStatusContract.getEntityTypeUuid());
+            return entityChangedTimer(syncEntityName).record(() -> scopeAwareService.isScopeEntityChanged(loadedSince, entitySyncStatusContract.getEntityTypeUuid()));
         }
 
         return false;
     }
 
+    private Timer syncDetailsTimer(String phase) {
+        return meterRegistry.timer("avni.sync.details", "phase", phase);
+    }
+
+    private Timer entityChangedTimer(SyncEntityName syncEntityName) {
+        return meterRegistry.timer("avni.sync.entity.changed", "entity", syncEntityName.name());
+    }
+
     /**
      * This is a hack to fix the problem of missing data when multiple users sync at the same time.
      * During sync, it is possible that the tables being sync GETted are also being updated concurrently.
@@ -1,10 +1,12 @@
 package org.avni.server.web;
 
+import org.avni.server.application.projections.SyncTelemetrySummaryProjection;
 import org.avni.server.dao.SyncTelemetryRepository;
 import org.avni.server.domain.Organisation;
 import org.avni.server.domain.SyncTelemetry;
 import org.avni.server.domain.User;
 import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.SyncTelemetryBuffer;
 import org.avni.server.web.request.SyncTelemetryRequest;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,26 +17,27 @@ import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import javax.transaction.Transactional;
 import java.util.List;
 
 @RestController
 public class SyncTelemetryController implements RestControllerResourceProcessor<SyncTelemetry> {
     private final SyncTelemetryRepository syncTelemetryRepository;
+    private final SyncTelemetryBuffer syncTelemetryBuffer;
 
     @Autowired
-    public SyncTelemetryController(SyncTelemetryRepository syncTelemetryRepository) {
+    public SyncTelemetryController(SyncTelemetryRepository syncTelemetryRepository, SyncTelemetryBuffer syncTelemetryBuffer) {
         this.syncTelemetryRepository = syncTelemetryRepository;
+        this.syncTelemetryBuffer = syncTelemetryBuffer;
     }
 
     @RequestMapping(value = "syncTelemetry", method = RequestMethod.POST)
-    @Transactional
     @PreAuthorize(value = "hasAnyAuthority('user')")
     public void saveSyncTelemetry(@RequestBody SyncTelemetryRequest request) {
         User user = UserContextHolder.getUserContext().getUser();
         Organisation organisation = UserContextHolder.getUserContext().getOrganisation();
         SyncTelemetry syncTelemetry = new SyncTelemetry();
         syncTelemetry.setUuid(request.getUuid());
+        syncTelemetry.assignUUIDIfRequired();
         syncTelemetry.setUser(user);
         syncTelemetry.setOrganisationId(organisation.getId());
         syncTelemetry.setSyncStatus(request.getSyncStatus());
@@ -46,7 +49,10 @@ public class SyncTelemetryController implements RestControllerResourceProcessor<
         syncTelemetry.setDeviceName(request.getDeviceName());
         syncTelemetry.setDeviceInfo(request.getDeviceInfo());
         syncTelemetry.setSyncSource(request.getSyncSource());
-        syncTelemetryRepository.save(syncTelemetry);
+        DateTime now = DateTime.now();
+        syncTelemetry.setCreatedDateTime(now);
+        syncTelemetry.setLastModifiedDateTime(now);
+        syncTelemetryBuffer.add(syncTelemetry);
     }
 
     @RequestMapping(value = "/report/syncTelemetry", method = RequestMethod.GET)
@@ -66,6 +72,21 @@ public class SyncTelemetryController implements RestControllerResourceProcessor<
         }
     }
 
+    /**
+     * Sync counts of each user in the period, the last 30 days by default. Both dates are inclusive.
+     */
+    @RequestMapping(value = "/report/syncTelemetry/summary", method = RequestMethod.GET)
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    public List<SyncTelemetrySummaryProjection> getSummary(@RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) DateTime startDate,
+                                                           @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) DateTime endDate,
+                                                           @RequestParam(value = "userIds", required = false, defaultValue = "") List<Long> userIds) {
+        DateTime endTime = (endDate == null ? DateTime.now() : endDate).withTimeAtStartOfDay().plusDays(1);
+        DateTime startTime = startDate == null ? endTime.minusDays(30) : startDate.withTimeAtStartOfDay();
+        return userIds.isEmpty() ?
+                syncTelemetryRepository.getSummary(startTime.toDate(), endTime.toDate()) :
+                syncTelemetryRepository.getSummary(startTime.toDate(), endTime.toDate(), userIds);
+    }
+
     @Override
     public Resource<SyncTelemetry> process(Resource<SyncTelemetry> resource) {
         SyncTelemetry syncTelemetry = resource.getContent();
@@ -0,0 +1,221 @@
+package org.avni.server.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.avni.server.common.UuidLookup;
+import org.avni.server.dao.*;
+import org.avni.server.domain.*;
+import org.avni.server.web.request.*;
+import org.avni.server.web.response.UploadBatchItemResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Saves the entities a device uploads, a batch at a time instead of one per request. Each item is saved by the same
+ * code as its own upload endpoint, in the order of the batch, so an item can refer to one earlier in the batch. The
+ * batch is saved in one transaction: if an item fails, nothing in the batch is saved and the response says which item
+ * failed.
+ * <p>
+ * The subjects, enrolments, encounters, subject types and encounter types the batch refers to are looked up before
+ * saving, with one query per entity, instead of per item. The batch is flushed once at the end, so the updates of
+ * existing entities are sent in JDBC batches. New entities are still inserted one at a time, as their ids are identity
+ * columns. A failure that only shows up at the end is reported against every item.
+ */
+@RestController
+public class UploadBatchController {
+    private static final Logger logger = LoggerFactory.getLogger(UploadBatchController.class);
+    private final IndividualController individualController;
+    private final ProgramEnrolmentController programEnrolmentController;
+    private final ProgramEncounterController programEncounterController;
+    private final EncounterController encounterController;
+    private final IndividualRepository individualRepository;
+    private final ProgramEnrolmentRepository programEnrolmentRepository;
+    private final ProgramEncounterRepository programEncounterRepository;
+    private final EncounterRepository encounterRepository;
+    private final SubjectTypeRepository subjectTypeRepository;
+    private final EncounterTypeRepository encounterTypeRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public UploadBatchController(IndividualController individualController, ProgramEnrolmentController programEnrolmentController,
+                                 ProgramEncounterController programEncounterController, EncounterController encounterController,
+                                 IndividualRepository individualRepository, ProgramEnrolmentRepository programEnrolmentRepository,
+                                 ProgramEncounterRepository programEncounterRepository, EncounterRepository encounterRepository,
+                                 SubjectTypeRepository subjectTypeRepository, EncounterTypeRepository encounterTypeRepository,
+                                 ObjectMapper objectMapper, @Value("${avni.upload.batch.max.size}") int maxBatchSize) {
+        this.individualController = individualController;
+        this.programEnrolmentController = programEnrolmentController;
+        this.programEncounterController = programEncounterController;
+        this.encounterController = encounterController;
+        this.individualRepository = individualRepository;
+        this.programEnrolmentRepository = programEnrolmentRepository;
+        this.programEncounterRepository = programEncounterRepository;
+        this.encounterRepository = encounterRepository;
+        this.subjectTypeRepository = subjectTypeRepository;
+        this.encounterTypeRepository = encounterTypeRepository;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @RequestMapping(value = "/upload/batch", method = RequestMethod.POST)
+    @Transactional
+    @PreAuthorize(value = "hasAnyAuthority('user')")
+    public ResponseEntity<?> save(@RequestBody List<UploadBatchItemRequest> items) {
+        if (items.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(String.format("A batch can have at most %d items", maxBatchSize));
+        }
+        List<UploadBatchItemResponse> responses = items.stream()
+                .map(item -> new UploadBatchItemResponse(item.getEntityName(), item.getUuid(), UploadBatchItemResponse.Status.NotSaved))
+                .collect(Collectors.toList());
+        logger.info(String.format("Saving batch of %d items", items.size()));
+        List<CHSRequest> requests = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                requests.add(toRequest(items.get(i)));
+            } catch (Exception e) {
+                return failed(responses, responses.get(i), e);
+            }
+        }
+        References references = new References(requests);
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                save(requests.get(i), references);
+            } catch (Exception e) {
+                return failed(responses, responses.get(i), e);
+            }
+        }
+        try {
+            entityManager.flush();
+        } catch (Exception e) {
+            return failed(responses, e);
+        }
+        responses.forEach(response -> response.setStatus(UploadBatchItemResponse.Status.Saved));
+        logger.info(String.format("Saved batch of %d items", items.size()));
+        return ResponseEntity.ok(responses);
+    }
+
+    private CHSRequest toRequest(UploadBatchItemRequest item) throws JsonProcessingException {
+        if (item.getEntityName() == null || item.getRequest() == null) {
+            throw new IllegalArgumentException("Every item needs an entityName and a request");
+        }
+        switch (item.getEntityName()) {
+            case "Individual":
+                return objectMapper.treeToValue(item.getRequest(), IndividualRequest.class);
+            case "ProgramEnrolment":
+                return objectMapper.treeToValue(item.getRequest(), ProgramEnrolmentRequest.class);
+            case "ProgramEncounter":
+                return objectMapper.treeToValue(item.getRequest(), ProgramEncounterRequest.class);
+            case "Encounter":
+                return objectMapper.treeToValue(item.getRequest(), EncounterRequest.class);
+            default:
+                throw new IllegalArgumentException(String.format("%s can not be uploaded in a batch", item.getEntityName()));
+        }
+    }
+
+    private void save(CHSRequest request, References references) {
+        if (request instanceof IndividualRequest) {
+            individualController.save((IndividualRequest) request, references.individuals, references.subjectTypes);
+        } else if (request instanceof ProgramEnrolmentRequest) {
+            programEnrolmentController.save((ProgramEnrolmentRequest) request, references.programEnrolments, references.individuals);
+        } else if (request instanceof ProgramEncounterRequest) {
+            programEncounterController.save((ProgramEncounterRequest) request, references.programEncounters, references.programEnrolments, references.encounterTypes);
+        } else {
+            encounterController.save((EncounterRequest) request, references.encounters, references.individuals, references.encounterTypes);
+        }
+    }
+
+    /**
+     * Changes made by the items before the failed one are rolled back too
+     */
+    private ResponseEntity<List<UploadBatchItemResponse>> failed(List<UploadBatchItemResponse> responses, UploadBatchItemResponse failedItem, Exception e) {
+        logger.error(String.format("Saving batch failed at %s with uuid %s", failedItem.getEntityName(), failedItem.getUuid()), e);
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        failedItem.setStatus(UploadBatchItemResponse.Status.Failed);
+        failedItem.setErrorMessage(e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responses);
+    }
+
+    /**
+     * For a failure that can not be told apart by item, such as that of the flush at the end of the batch
+     */
+    private ResponseEntity<List<UploadBatchItemResponse>> failed(List<UploadBatchItemResponse> responses, Exception e) {
+        logger.error(String.format("Saving batch of %d items failed", responses.size()), e);
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        responses.forEach(response -> {
+            response.setStatus(UploadBatchItemResponse.Status.Failed);
+            response.setErrorMessage(e.getMessage());
+        });
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responses);
+    }
+
+    /**
+     * The entities the requests of a batch refer to, looked up together
+     */
+    private class References {
+        private final UuidLookup<Individual> individuals;
+        private final UuidLookup<ProgramEnrolment> programEnrolments;
+        private final UuidLookup<ProgramEncounter> programEncounters;
+        private final UuidLookup<Encounter> encounters;
+        private final UuidLookup<SubjectType> subjectTypes;
+        private final UuidLookup<EncounterType> encounterTypes;
+
+        References(List<CHSRequest> requests) {
+            Set<String> individualUuids = new HashSet<>();
+            Set<String> programEnrolmentUuids = new HashSet<>();
+            Set<String> programEncounterUuids = new HashSet<>();
+            Set<String> encounterUuids = new HashSet<>();
+            Set<String> subjectTypeUuids = new HashSet<>();
+            Set<String> encounterTypeUuids = new HashSet<>();
+            for (CHSRequest request : requests) {
+                if (request instanceof IndividualRequest) {
+                    add(individualUuids, request.getUuid());
+                    add(subjectTypeUuids, ((IndividualRequest) request).getSubjectTypeUUID());
+                } else if (request instanceof ProgramEnrolmentRequest) {
+                    add(programEnrolmentUuids, request.getUuid());
+                    add(individualUuids, ((ProgramEnrolmentRequest) request).getIndividualUUID());
+                } else if (request instanceof ProgramEncounterRequest) {
+                    add(programEncounterUuids, request.getUuid());
+                    add(programEnrolmentUuids, ((ProgramEncounterRequest) request).getProgramEnrolmentUUID());
+                    add(encounterTypeUuids, ((ProgramEncounterRequest) request).getEncounterTypeUUID());
+                } else {
+                    add(encounterUuids, request.getUuid());
+                    add(individualUuids, ((EncounterRequest) request).getIndividualUUID());
+                    add(encounterTypeUuids, ((EncounterRequest) request).getEncounterTypeUUID());
+                }
+            }
+            individuals = UuidLookup.resolve(individualRepository, individualUuids);
+            programEnrolments = UuidLookup.resolve(programEnrolmentRepository, programEnrolmentUuids);
+            programEncounters = UuidLookup.resolve(programEncounterRepository, programEncounterUuids);
+            encounters = UuidLookup.resolve(encounterRepository, encounterUuids);
+            subjectTypes = UuidLookup.resolve(subjectTypeRepository, subjectTypeUuids);
+            encounterTypes = UuidLookup.resolve(encounterTypeRepository, encounterTypeUuids);
+        }
+
+        private void add(Set<String> uuids, String uuid) {
+            if (uuid != null) uuids.add(uuid);
+        }
+    }
+}
@@ -76,7 +76,6 @@ public class UserSubjectAssignmentController extends AbstractController<UserSubj
     }
 
     @RequestMapping(value = "/web/userSubjectAssignment", method = RequestMethod.POST)
-    @Transactional
     ResponseEntity<?> save(@RequestBody UserSubjectAssignmentContract userSubjectAssignmentContract) {
         try {
             accessControlService.checkPrivilege(PrivilegeType.EditUserConfiguration);
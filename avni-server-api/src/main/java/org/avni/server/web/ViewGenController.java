@@ -7,6 +7,8 @@ import org.avni.server.domain.Organisation;
 import org.avni.server.domain.accessControl.PrivilegeType;
 import org.avni.server.domain.metadata.SubjectTypes;
 import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.dao.OrganisationRepository;
+import org.avni.server.reporting.ReportingTableRepository;
 import org.avni.server.reporting.ViewGenService;
 import org.avni.server.service.MetaDataRepository;
 import org.avni.server.service.accessControl.AccessControlService;
@@ -32,11 +34,14 @@ public class ViewGenController {
     private MetaDataRepository metaDataService;
     private CreateReportingViewVisitor createReportingViewVisitor;
     private ImplementationRepository implementationRepository;
+    private final OrganisationRepository organisationRepository;
+    private final ReportingTableRepository reportingTableRepository;
     private final Logger logger;
     private AccessControlService accessControlService;
 
     public ViewGenController(ViewGenService viewGenService, SubjectTypeRepository subjectTypeRepository,
-                             FormMappingRepository formMappingRepository, MetaDataRepository metaDataService, CreateReportingViewVisitor createReportingViewVisitor, ImplementationRepository implementationRepository, AccessControlService accessControlService) {
+                             FormMappingRepository formMappingRepository, MetaDataRepository metaDataService, CreateReportingViewVisitor createReportingViewVisitor, ImplementationRepository implementationRepository, AccessControlService accessControlService,
+                             OrganisationRepository organisationRepository, ReportingTableRepository reportingTableRepository) {
         this.viewGenService = viewGenService;
         this.subjectTypeRepository = subjectTypeRepository;
         this.formMappingRepository = formMappingRepository;
@@ -44,6 +49,8 @@ public class ViewGenController {
         this.createReportingViewVisitor = createReportingViewVisitor;
         this.implementationRepository = implementationRepository;
         this.accessControlService = accessControlService;
+        this.organisationRepository = organisationRepository;
+        this.reportingTableRepository = reportingTableRepository;
         logger = LoggerFactory.getLogger(this.getClass());
     }
 
@@ -61,13 +68,19 @@ public class ViewGenController {
         }
     }
 
+    /**
+     * @param asTables creates tables, refreshed in the background, instead of views. Reporting queries on the tables do
+     *                 not pivot the observations on every read, but see changes only after the next refresh.
+     */
     @PostMapping(value = "/createReportingViews")
     @Transactional
-    public List<ReportingViewResponse> createViews() {
+    public List<ReportingViewResponse> createViews(@RequestParam(value = "asTables", defaultValue = "false") boolean asTables) {
         accessControlService.checkPrivilege(PrivilegeType.Analytics);
         Organisation organisation = UserContextHolder.getOrganisation();
         SubjectTypes subjectTypes = metaDataService.getSubjectTypes();
-        subjectTypes.accept(createReportingViewVisitor);
+        subjectTypes.accept(asTables ?
+                new CreateReportingViewVisitor(viewGenService, implementationRepository, organisationRepository, reportingTableRepository, true) :
+                createReportingViewVisitor);
 
         GetReportingViewSourceVisitor getReportingViewSourceVisitor = new GetReportingViewSourceVisitor(implementationRepository, organisation, formMappingRepository);
         subjectTypes.accept(getReportingViewSourceVisitor);
@@ -87,6 +100,7 @@ public class ViewGenController {
     public ResponseEntity deleteView(@PathVariable String viewName) {
         accessControlService.checkPrivilege(PrivilegeType.Analytics);
         Organisation organisation = UserContextHolder.getOrganisation();
+        reportingTableRepository.drop(organisation, viewName);
         implementationRepository.dropView(viewName, organisation.getSchemaName());
         return ResponseEntity.ok().build();
     }
@@ -6,6 +6,7 @@ import org.avni.server.framework.security.UserContextHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.web.client.MetricsRestTemplateCustomizer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,10 +20,20 @@ public class RuleServiceClient {
     @Value("${node.server.url}")
     private String NODE_SERVER_HOST;
     private Logger logger = LoggerFactory.getLogger(RuleServiceClient.class);
+    private final RestTemplate restTemplate;
+
+    /**
+     * A plain RestTemplate, not one from RestTemplateBuilder, so that requests keep being written by the default
+     * ObjectMapper (dates as timestamps) that the rules server reads. Only the metrics customizer is applied, so that
+     * calls are recorded in the http client request metrics.
+     */
+    public RuleServiceClient(MetricsRestTemplateCustomizer metricsRestTemplateCustomizer) {
+        this.restTemplate = new RestTemplate();
+        metricsRestTemplateCustomizer.customize(this.restTemplate);
+    }
 
     public <T> String post(String api, T jsonObj) throws HttpClientErrorException {
         String uri = NODE_SERVER_HOST.concat(api);
-        RestTemplate restTemplate = new RestTemplate();
         HttpEntity<Object> entityCredentials = new HttpEntity<>(jsonObj, constructHeaders());
         try {
             return restTemplate.postForObject(uri, entityCredentials, String.class);
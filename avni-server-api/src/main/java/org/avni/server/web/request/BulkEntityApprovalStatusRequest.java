@@ -0,0 +1,95 @@
+package org.avni.server.web.request;
+
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the entities of a type, whose latest approval status is currentApprovalStatus, to approvalStatus. entityTypeUuid
+ * is the uuid of the subject type, program or encounter type of the entities, as in their approval statuses. The other
+ * fields narrow down the entities and are optional.
+ */
+public class BulkEntityApprovalStatusRequest {
+    private String entityType;
+    private String entityTypeUuid;
+    private String currentApprovalStatus = "Pending";
+    private String approvalStatus;
+    private String approvalStatusComment;
+    private List<String> entityUuids = new ArrayList<>();
+    private List<Long> addressIds = new ArrayList<>();
+    private DateTime statusFrom;
+    private DateTime statusTill;
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityTypeUuid() {
+        return entityTypeUuid;
+    }
+
+    public void setEntityTypeUuid(String entityTypeUuid) {
+        this.entityTypeUuid = entityTypeUuid;
+    }
+
+    public String getCurrentApprovalStatus() {
+        return currentApprovalStatus;
+    }
+
+    public void setCurrentApprovalStatus(String currentApprovalStatus) {
+        this.currentApprovalStatus = currentApprovalStatus;
+    }
+
+    public String getApprovalStatus() {
+        return approvalStatus;
+    }
+
+    public void setApprovalStatus(String approvalStatus) {
+        this.approvalStatus = approvalStatus;
+    }
+
+    public String getApprovalStatusComment() {
+        return approvalStatusComment;
+    }
+
+    public void setApprovalStatusComment(String approvalStatusComment) {
+        this.approvalStatusComment = approvalStatusComment;
+    }
+
+    public List<String> getEntityUuids() {
+        return entityUuids;
+    }
+
+    public void setEntityUuids(List<String> entityUuids) {
+        this.entityUuids = entityUuids;
+    }
+
+    public List<Long> getAddressIds() {
+        return addressIds;
+    }
+
+    public void setAddressIds(List<Long> addressIds) {
+        this.addressIds = addressIds;
+    }
+
+    public DateTime getStatusFrom() {
+        return statusFrom;
+    }
+
+    public void setStatusFrom(DateTime statusFrom) {
+        this.statusFrom = statusFrom;
+    }
+
+    public DateTime getStatusTill() {
+        return statusTill;
+    }
+
+    public void setStatusTill(DateTime statusTill) {
+        this.statusTill = statusTill;
+    }
+}
@@ -0,0 +1,29 @@
+package org.avni.server.web.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class UploadBatchItemRequest {
+
+    private String entityName;
+    private JsonNode request;
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public JsonNode getRequest() {
+        return request;
+    }
+
+    public void setRequest(JsonNode request) {
+        this.request = request;
+    }
+
+    public String getUuid() {
+        return request == null || !request.hasNonNull("uuid") ? null : request.get("uuid").asText();
+    }
+}
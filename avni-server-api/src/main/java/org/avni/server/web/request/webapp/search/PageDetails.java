@@ -5,6 +5,9 @@ public class PageDetails {
     private Integer numberOfRecordPerPage;
     private String sortColumn;
     private SortOrder sortOrder;
+    private PaginationMode paginationMode;
+    private SearchAfter searchAfter;
+    private TotalCountMode totalCountMode;
 
     public Integer getPageNumber() {
         return pageNumber;
@@ -37,4 +40,32 @@ public class PageDetails {
     public void setSortOrder(SortOrder sortOrder) {
         this.sortOrder = sortOrder;
     }
+
+    public PaginationMode getPaginationMode() {
+        return paginationMode == null ? PaginationMode.offset : paginationMode;
+    }
+
+    public void setPaginationMode(PaginationMode paginationMode) {
+        this.paginationMode = paginationMode;
+    }
+
+    public boolean isKeysetPagination() {
+        return PaginationMode.keyset.equals(getPaginationMode());
+    }
+
+    public SearchAfter getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(SearchAfter searchAfter) {
+        this.searchAfter = searchAfter;
+    }
+
+    public TotalCountMode getTotalCountMode() {
+        return totalCountMode == null ? TotalCountMode.exact : totalCountMode;
+    }
+
+    public void setTotalCountMode(TotalCountMode totalCountMode) {
+        this.totalCountMode = totalCountMode;
+    }
 }
@@ -0,0 +1,6 @@
+package org.avni.server.web.request.webapp.search;
+
+public enum PaginationMode {
+    offset,
+    keyset;
+}
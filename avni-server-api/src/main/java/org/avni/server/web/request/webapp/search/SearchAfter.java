@@ -0,0 +1,30 @@
+package org.avni.server.web.request.webapp.search;
+
+public class SearchAfter {
+    private String sortValue;
+    private Long id;
+
+    public SearchAfter() {
+    }
+
+    public SearchAfter(String sortValue, Long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public String getSortValue() {
+        return sortValue;
+    }
+
+    public void setSortValue(String sortValue) {
+        this.sortValue = sortValue;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,7 @@
+package org.avni.server.web.request.webapp.search;
+
+public enum TotalCountMode {
+    exact,
+    estimated,
+    none;
+}
@@ -0,0 +1,58 @@
+package org.avni.server.web.response;
+
+import java.util.List;
+
+public class CustomQueryJobResponse {
+
+    private String jobUuid;
+    private String status;
+    private String errorMessage;
+    private List<String> headers;
+    private List<List<Object>> data;
+    private Integer total;
+
+    public CustomQueryJobResponse(String jobUuid, String status) {
+        this.jobUuid = jobUuid;
+        this.status = status;
+    }
+
+    public String getJobUuid() {
+        return jobUuid;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(List<String> headers) {
+        this.headers = headers;
+    }
+
+    public List<List<Object>> getData() {
+        return data;
+    }
+
+    public void setData(List<List<Object>> data) {
+        this.data = data;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public void setTotal(Integer total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,23 @@
+package org.avni.server.web.response;
+
+import org.avni.server.dao.SyncScopeChangeRepository;
+
+public class RemovedSubjectResponse {
+    private long id;
+    private String uuid;
+
+    public static RemovedSubjectResponse from(SyncScopeChangeRepository.RemovedSubject removedSubject) {
+        RemovedSubjectResponse response = new RemovedSubjectResponse();
+        response.id = removedSubject.getId();
+        response.uuid = removedSubject.getUuid();
+        return response;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+}
@@ -0,0 +1,74 @@
+package org.avni.server.web.response;
+
+import org.avni.server.dao.SyncScopeChangeRepository;
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+public class SyncScopeChangeResponse {
+    private String uuid;
+    private String subjectTypeUUID;
+    private DateTime createdDateTime;
+    private boolean locationChange;
+    private List<Long> addedAddressLevelIds;
+    private List<Long> removedAddressLevelIds;
+    private List<String> addedSyncConcept1Values;
+    private List<String> removedSyncConcept1Values;
+    private List<String> addedSyncConcept2Values;
+    private List<String> removedSyncConcept2Values;
+
+    public static SyncScopeChangeResponse from(SyncScopeChangeRepository.SyncScopeChange syncScopeChange) {
+        SyncScopeChangeResponse response = new SyncScopeChangeResponse();
+        response.uuid = syncScopeChange.getUuid();
+        response.subjectTypeUUID = syncScopeChange.getSubjectTypeUUID();
+        response.createdDateTime = syncScopeChange.getCreatedDateTime();
+        response.locationChange = syncScopeChange.isLocationChange();
+        response.addedAddressLevelIds = syncScopeChange.getAddedAddressLevelIds();
+        response.removedAddressLevelIds = syncScopeChange.getRemovedAddressLevelIds();
+        response.addedSyncConcept1Values = syncScopeChange.getAddedSyncConcept1Values();
+        response.removedSyncConcept1Values = syncScopeChange.getRemovedSyncConcept1Values();
+        response.addedSyncConcept2Values = syncScopeChange.getAddedSyncConcept2Values();
+        response.removedSyncConcept2Values = syncScopeChange.getRemovedSyncConcept2Values();
+        return response;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getSubjectTypeUUID() {
+        return subjectTypeUUID;
+    }
+
+    public DateTime getCreatedDateTime() {
+        return createdDateTime;
+    }
+
+    public boolean isLocationChange() {
+        return locationChange;
+    }
+
+    public List<Long> getAddedAddressLevelIds() {
+        return addedAddressLevelIds;
+    }
+
+    public List<Long> getRemovedAddressLevelIds() {
+        return removedAddressLevelIds;
+    }
+
+    public List<String> getAddedSyncConcept1Values() {
+        return addedSyncConcept1Values;
+    }
+
+    public List<String> getRemovedSyncConcept1Values() {
+        return removedSyncConcept1Values;
+    }
+
+    public List<String> getAddedSyncConcept2Values() {
+        return addedSyncConcept2Values;
+    }
+
+    public List<String> getRemovedSyncConcept2Values() {
+        return removedSyncConcept2Values;
+    }
+}
@@ -0,0 +1,42 @@
+package org.avni.server.web.response;
+
+public class UploadBatchItemResponse {
+    public enum Status {
+        Saved, Failed, NotSaved
+    }
+
+    private final String entityName;
+    private final String uuid;
+    private Status status;
+    private String errorMessage;
+
+    public UploadBatchItemResponse(String entityName, String uuid, Status status) {
+        this.entityName = entityName;
+        this.uuid = uuid;
+        this.status = status;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
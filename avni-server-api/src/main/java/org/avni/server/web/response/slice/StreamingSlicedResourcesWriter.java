@@ -0,0 +1,247 @@
+package org.avni.server.web.response.slice;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.avni.server.dao.EncounterTypeRepository;
+import org.avni.server.dao.GenderRepository;
+import org.avni.server.dao.LocationRepository;
+import org.avni.server.dao.SubjectTypeRepository;
+import org.avni.server.dao.sync.SyncRowRepository;
+import org.avni.server.domain.AddressLevel;
+import org.avni.server.domain.CHSBaseEntity;
+import org.avni.server.domain.EncounterType;
+import org.avni.server.domain.Gender;
+import org.avni.server.domain.SubjectType;
+import org.avni.server.geo.Point;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.postgresql.geometric.PGpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes a sync page in the same json shape as {@link SlicedResources} of entity resources, straight from the rows
+ * read by {@link SyncRowRepository}. The synced entities are not loaded and observations are copied from the stored
+ * jsonb token by token, instead of being read into maps and serialised again. Scalar values are written with the
+ * application's object mapper so that they are formatted as in the entity response. The entity response also has the
+ * gender, address level, subject type and encounter type inline, so these are loaded together for the page and
+ * written with the object mapper.
+ */
+@Component
+public class StreamingSlicedResourcesWriter {
+    private final SyncRowRepository syncRowRepository;
+    private final ObjectMapper objectMapper;
+    private final GenderRepository genderRepository;
+    private final LocationRepository locationRepository;
+    private final SubjectTypeRepository subjectTypeRepository;
+    private final EncounterTypeRepository encounterTypeRepository;
+
+    @Autowired
+    public StreamingSlicedResourcesWriter(SyncRowRepository syncRowRepository, ObjectMapper objectMapper, GenderRepository genderRepository,
+                                          LocationRepository locationRepository, SubjectTypeRepository subjectTypeRepository,
+                                          EncounterTypeRepository encounterTypeRepository) {
+        this.syncRowRepository = syncRowRepository;
+        this.objectMapper = objectMapper;
+        this.genderRepository = genderRepository;
+        this.locationRepository = locationRepository;
+        this.subjectTypeRepository = subjectTypeRepository;
+        this.encounterTypeRepository = encounterTypeRepository;
+    }
+
+    public void writeIndividuals(Slice<Long> slice, HttpServletResponse response) throws IOException {
+        List<Long> ids = slice.getContent();
+        Map<Long, Gender> genders = byId(genderRepository.findAllById(syncRowRepository.readReferencedIds("individual", "gender_id", ids)));
+        Map<Long, AddressLevel> addressLevels = byId(locationRepository.findAllById(syncRowRepository.readReferencedIds("individual", "address_id", ids)));
+        Map<Long, SubjectType> subjectTypes = byId(subjectTypeRepository.findAllById(syncRowRepository.readReferencedIds("individual", "subject_type_id", ids)));
+        write("individual", slice, response, rowWriter -> syncRowRepository.readIndividuals(ids, rowWriter), (generator, rs) -> {
+            writeString(generator, "legacyId", rs, "legacy_id");
+            writeString(generator, "firstName", rs, "first_name");
+            writeString(generator, "middleName", rs, "middle_name");
+            writeString(generator, "lastName", rs, "last_name");
+            writeString(generator, "profilePicture", rs, "profile_picture");
+            writeLocalDate(generator, "dateOfBirth", rs, "date_of_birth");
+            generator.writeBooleanField("dateOfBirthVerified", rs.getBoolean("date_of_birth_verified"));
+            writeLocalDate(generator, "registrationDate", rs, "registration_date");
+            writeJsonb(generator, "observations", rs, "observations");
+            writePoint(generator, "registrationLocation", rs, "registration_location");
+            writeReference(generator, "gender", rs, "gender_id", genders);
+            writeReference(generator, "addressLevel", rs, "address_id", addressLevels);
+            writeReference(generator, "subjectType", rs, "subject_type_id", subjectTypes);
+            writeAuditNames(generator, rs);
+            writeLinks(generator, rs, "address_uuid", "addressUUID", "gender_uuid", "genderUUID", "subject_type_uuid", "subjectTypeUUID");
+        });
+    }
+
+    public void writeEncounters(Slice<Long> slice, HttpServletResponse response) throws IOException {
+        List<Long> ids = slice.getContent();
+        Map<Long, EncounterType> encounterTypes = byId(encounterTypeRepository.findAllById(syncRowRepository.readReferencedIds("encounter", "encounter_type_id", ids)));
+        write("encounter", slice, response, rowWriter -> syncRowRepository.readEncounters(ids, rowWriter), (generator, rs) -> {
+            writeEncounterFields(generator, rs, encounterTypes);
+            writeAuditNames(generator, rs);
+            writeLinks(generator, rs, "encounter_type_uuid", "encounterTypeUUID", "individual_uuid", "individualUUID");
+        });
+    }
+
+    public void writeProgramEncounters(Slice<Long> slice, HttpServletResponse response) throws IOException {
+        List<Long> ids = slice.getContent();
+        Map<Long, EncounterType> encounterTypes = byId(encounterTypeRepository.findAllById(syncRowRepository.readReferencedIds("program_encounter", "encounter_type_id", ids)));
+        write("programEncounter", slice, response, rowWriter -> syncRowRepository.readProgramEncounters(ids, rowWriter), (generator, rs) -> {
+            writeEncounterFields(generator, rs, encounterTypes);
+            writeAuditNames(generator, rs);
+            writeLinks(generator, rs, "encounter_type_uuid", "encounterTypeUUID", "program_enrolment_uuid", "programEnrolmentUUID");
+        });
+    }
+
+    private void write(String rel, Slice<Long> slice, HttpServletResponse response, Consumer<RowCallbackHandler> rowReader, RowWriter rowWriter) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            List<Long> ids = slice.getContent();
+            if (!ids.isEmpty()) {
+                generator.writeObjectFieldStart("_embedded");
+                generator.writeArrayFieldStart(rel);
+                rowReader.accept(rs -> {
+                    try {
+                        generator.writeStartObject();
+                        writeCommonFields(generator, rs);
+                        rowWriter.write(generator, rs);
+                        generator.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeObjectFieldStart("slice");
+            generator.writeNumberField("size", slice.getSize());
+            generator.writeNumberField("number", slice.getNumber());
+            generator.writeBooleanField("hasNext", slice.hasNext());
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeCommonFields(JsonGenerator generator, ResultSet rs) throws SQLException, IOException {
+        writeLong(generator, "id", rs, "id");
+        generator.writeStringField("uuid", rs.getString("uuid"));
+        generator.writeBooleanField("voided", rs.getBoolean("is_voided"));
+        writeDateTime(generator, "createdDateTime", rs, "created_date_time");
+        writeDateTime(generator, "lastModifiedDateTime", rs, "last_modified_date_time");
+        generator.writeNumberField("version", rs.getInt("version"));
+        writeLong(generator, "organisationId", rs, "organisation_id");
+    }
+
+    private void writeAuditNames(JsonGenerator generator, ResultSet rs) throws SQLException, IOException {
+        writeString(generator, "createdBy", rs, "created_by");
+        writeString(generator, "lastModifiedBy", rs, "last_modified_by");
+    }
+
+    private void writeEncounterFields(JsonGenerator generator, ResultSet rs, Map<Long, EncounterType> encounterTypes) throws SQLException, IOException {
+        writeReference(generator, "encounterType", rs, "encounter_type_id", encounterTypes);
+        writeString(generator, "name", rs, "name");
+        writeDateTime(generator, "earliestVisitDateTime", rs, "earliest_visit_date_time");
+        writeDateTime(generator, "maxVisitDateTime", rs, "max_visit_date_time");
+        Timestamp encounterDateTime = writeDateTime(generator, "encounterDateTime", rs, "encounter_date_time");
+        writeJsonb(generator, "observations", rs, "observations");
+        Timestamp cancelDateTime = writeDateTime(generator, "cancelDateTime", rs, "cancel_date_time");
+        writeJsonb(generator, "cancelObservations", rs, "cancel_observations");
+        writePoint(generator, "encounterLocation", rs, "encounter_location");
+        writePoint(generator, "cancelLocation", rs, "cancel_location");
+        writeString(generator, "legacyId", rs, "legacy_id");
+        generator.writeBooleanField("cancelled", cancelDateTime != null);
+        generator.writeBooleanField("completed", encounterDateTime != null);
+    }
+
+    /**
+     * @param columnsAndRels pairs of the uuid column and the rel of the link to write for it
+     */
+    private void writeLinks(JsonGenerator generator, ResultSet rs, String... columnsAndRels) throws SQLException, IOException {
+        generator.writeObjectFieldStart("_links");
+        for (int i = 0; i < columnsAndRels.length; i += 2) {
+            String uuid = rs.getString(columnsAndRels[i]);
+            if (uuid == null) continue;
+            generator.writeObjectFieldStart(columnsAndRels[i + 1]);
+            generator.writeStringField("href", uuid);
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeString(JsonGenerator generator, String field, ResultSet rs, String column) throws SQLException, IOException {
+        generator.writeFieldName(field);
+        generator.writeString(rs.getString(column));
+    }
+
+    private void writeLong(JsonGenerator generator, String field, ResultSet rs, String column) throws SQLException, IOException {
+        long value = rs.getLong(column);
+        generator.writeFieldName(field);
+        if (rs.wasNull()) generator.writeNull();
+        else generator.writeNumber(value);
+    }
+
+    private Timestamp writeDateTime(JsonGenerator generator, String field, ResultSet rs, String column) throws SQLException, IOException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        generator.writeFieldName(field);
+        generator.writeObject(timestamp == null ? null : new DateTime(timestamp));
+        return timestamp;
+    }
+
+    private void writeLocalDate(JsonGenerator generator, String field, ResultSet rs, String column) throws SQLException, IOException {
+        Date date = rs.getDate(column);
+        generator.writeFieldName(field);
+        generator.writeObject(date == null ? null : LocalDate.fromDateFields(date));
+    }
+
+    private void writePoint(JsonGenerator generator, String field, ResultSet rs, String column) throws SQLException, IOException {
+        PGpoint point = (PGpoint) rs.getObject(column);
+        generator.writeFieldName(field);
+        generator.writeObject(point == null ? null : new Point(point.x, point.y));
+    }
+
+    private void writeReference(JsonGenerator generator, String field, ResultSet rs, String column, Map<Long, ?> entities) throws SQLException, IOException {
+        long id = rs.getLong(column);
+        generator.writeFieldName(field);
+        generator.writeObject(rs.wasNull() ? null : entities.get(id));
+    }
+
+    private void writeJsonb(JsonGenerator generator, String field, ResultSet rs, String column) throws SQLException, IOException {
+        byte[] json = rs.getBytes(column);
+        generator.writeFieldName(field);
+        if (json == null) {
+            generator.writeNull();
+            return;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    private static <T extends CHSBaseEntity> Map<Long, T> byId(Iterable<T> entities) {
+        Map<Long, T> entitiesById = new HashMap<>();
+        entities.forEach(entity -> entitiesById.put(entity.getId(), entity));
+        return entitiesById;
+    }
+
+    private interface RowWriter {
+        void write(JsonGenerator generator, ResultSet rs) throws SQLException, IOException;
+    }
+}
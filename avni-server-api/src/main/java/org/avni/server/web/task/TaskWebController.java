@@ -19,10 +19,14 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.transaction.Transactional;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 public class TaskWebController {
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ConceptRepository conceptRepository;
     private final ConceptService conceptService;
     private final TaskService taskService;
@@ -41,11 +45,23 @@ public class TaskWebController {
     public Page<TaskSearchResponse> getTasks(@RequestBody TaskFilterCriteria filterCriteria, Pageable pageable) {
         accessControlService.checkPrivilege(PrivilegeType.EditTask);
         Page<Task> searchResult = taskService.searchTaskByCriteria(filterCriteria, pageable);
-        return searchResult.map(task -> {
-            Map<String, Object> metadataMap = new HashMap<>();
-            Response.mapObservations(conceptRepository, conceptService, metadataMap, task.getMetadata());
-            return TaskSearchResponse.from(task, metadataMap);
-        });
+        return searchResult.map(this::toResponse);
+    }
+
+    /**
+     * Tasks a page at a time in the order of their ids. The next page is fetched with the id of the last task of this
+     * page as afterId. A page has at most MAX_PAGE_SIZE tasks.
+     */
+    @RequestMapping(value = "/web/task/v2", method = RequestMethod.POST)
+    @ResponseBody
+    @Transactional
+    public List<TaskSearchResponse> getTasksAfter(@RequestBody TaskFilterCriteria filterCriteria,
+                                                  @RequestParam(value = "afterId", required = false) Long afterId,
+                                                  @RequestParam(value = "size", defaultValue = "50") int size) {
+        accessControlService.checkPrivilege(PrivilegeType.EditTask);
+        return taskService.searchTaskByCriteria(filterCriteria, afterId, Math.max(1, Math.min(size, MAX_PAGE_SIZE))).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
     }
 
     @RequestMapping(value = "/web/taskMetadata", method = RequestMethod.GET)
@@ -60,4 +76,10 @@ public class TaskWebController {
         accessControlService.checkPrivilege(PrivilegeType.EditTask);
         taskService.assignTask(taskAssignmentRequest);
     }
+
+    private TaskSearchResponse toResponse(Task task) {
+        Map<String, Object> metadataMap = new HashMap<>();
+        Response.mapObservations(conceptRepository, conceptService, metadataMap, task.getMetadata());
+        return TaskSearchResponse.from(task, metadataMap);
+    }
 }
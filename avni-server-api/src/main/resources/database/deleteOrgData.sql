@@ -6,8 +6,10 @@ delete from individual_relationship where organisation_id = :orgId and organisat
 delete from individual_relationship_type where organisation_id = :orgId and organisation_id > 1;
 delete from individual_relative where organisation_id = :orgId and organisation_id > 1;
 delete from encounter where organisation_id = :orgId and organisation_id > 1;
+delete from subject_search_index where organisation_id = :orgId and organisation_id > 1;
 delete from individual where organisation_id = :orgId and organisation_id > 1;
 delete from catchment_address_mapping where addresslevel_id in (select id from address_level where organisation_id = :orgId and organisation_id > 1);
+delete from title_lineage_locations where organisation_id = :orgId and organisation_id > 1;
 delete from address_level where organisation_id = :orgId and organisation_id > 1;
 delete from catchment where organisation_id = :orgId and organisation_id > 1;
 delete from concept_answer where organisation_id = :orgId and organisation_id > 1;
@@ -27,7 +29,15 @@ delete from program_organisation_config where organisation_id = :orgId and organ
 delete from program where organisation_id = :orgId and organisation_id > 1;
 delete from program_outcome where organisation_id = :orgId and organisation_id > 1;
 delete from rule_dependency where organisation_id = :orgId and organisation_id > 1;
+delete from reset_sync where organisation_id = :orgId and organisation_id > 1;
+delete from sync_scope_change where organisation_id = :orgId and organisation_id > 1;
 delete from users where organisation_id = :orgId and organisation_id > 1;
+delete from extension_file where organisation_id = :orgId and organisation_id > 1;
+delete from reporting_table where organisation_id = :orgId and organisation_id > 1;
+delete from daily_activity_rollup where organisation_id = :orgId and organisation_id > 1;
+delete from daily_activity_rollup_entry where organisation_id = :orgId and organisation_id > 1;
+delete from custom_query_job_row where organisation_id = :orgId and organisation_id > 1;
+delete from custom_query_job where organisation_id = :orgId and organisation_id > 1;
 delete from organisation where id = :orgId and id > 1;
 
 select setval('catchment_id_seq', coalesce((select max(id)+1 from catchment), 1), false);
@@ -10,6 +10,7 @@ delete from form_element_group where organisation_id = :orgId;
 delete from form where organisation_id = :orgId;
 delete from catchment_address_mapping where catchment_id in (select id from catchment where organisation_id = :orgId);
 delete from location_location_mapping where organisation_id = :orgId;
+delete from title_lineage_locations where organisation_id = :orgId;
 delete from address_level where organisation_id = :orgId;
 delete from address_level_type where organisation_id = :orgId;
 delete from operational_subject_type where organisation_id = :orgId;
@@ -184,19 +184,29 @@ BEGIN
 END
 $$;
 
--- function to archive records from sync_telemetry
+-- function to archive records from sync_telemetry. The monthly partitions that end by olderthan are detached and stay
+-- as tables of their own, with the rows they have. The rows of the month olderthan is in are not archived.
 CREATE OR REPLACE FUNCTION archive_sync_telemetry(olderthan date) RETURNS bigint
     LANGUAGE plpgsql
 AS
 $$
 DECLARE
-    archived_row_count bigint;
+    archived_row_count bigint := 0;
+    partition_row_count bigint;
+    part record;
 BEGIN
-    CREATE TABLE IF NOT EXISTS public.sync_telemetry_history (LIKE public.sync_telemetry INCLUDING ALL);
-    PERFORM enable_rls_on_tx_table('sync_telemetry_history');
-    INSERT INTO public.sync_telemetry_history SELECT * from public.sync_telemetry WHERE sync_start_time < olderthan;
-    DELETE FROM public.sync_telemetry WHERE sync_start_time < olderthan;
-    GET DIAGNOSTICS archived_row_count = ROW_COUNT;
+    FOR part IN
+        SELECT c.relname AS name,
+               cast(substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)') AS timestamptz) AS till_time
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'public.sync_telemetry'::regclass
+        LOOP
+            CONTINUE WHEN part.till_time IS NULL OR part.till_time > olderthan;
+            EXECUTE format('SELECT count(*) FROM public.%I', part.name) INTO partition_row_count;
+            EXECUTE format('ALTER TABLE public.sync_telemetry DETACH PARTITION public.%I', part.name);
+            archived_row_count := archived_row_count + partition_row_count;
+        END LOOP;
     RETURN archived_row_count;
 END;
 $$;
@@ -77,9 +77,10 @@ where case when addressId isnull then true else al.id = addressId end
 group by al.id
 $$;
 
+-- title_lineage_locations is maintained by LocationService whenever a location is created, renamed or re-parented
 CREATE OR REPLACE VIEW title_lineage_locations_view AS
-select *
-from title_lineage_locations_function(null);
+select lowestpoint_id, title_lineage
+from title_lineage_locations;
 
 CREATE OR REPLACE VIEW individual_program_enrolment_search_view AS
 SELECT progralalise.individual_id,
@@ -0,0 +1,107 @@
+create extension if not exists pg_trgm;
+
+create table subject_search_index
+(
+    individual_id           bigint                      not null primary key references individual (id),
+    organisation_id         integer                     not null references organisation (id),
+    search_text             text                        not null,
+    last_modified_date_time timestamp(3) with time zone not null
+);
+
+create index subject_search_index_search_text_idx on subject_search_index using gin (search_text gin_trgm_ops);
+create index subject_search_index_organisation_id_idx on subject_search_index (organisation_id);
+
+select enable_rls_on_tx_table('subject_search_index');
+
+-- Names, assigned identifiers and the values of the searchResultFields concepts configured for the subject type
+create or replace function subject_search_text(individual_id bigint) returns text
+    language sql
+    stable
+as
+$$
+select lower(concat_ws(' ', i.first_name, i.middle_name, i.last_name,
+                       (select string_agg(ia.identifier, ' ')
+                        from identifier_assignment ia
+                        where ia.individual_id = i.id
+                          and ia.is_voided = false),
+                       (select string_agg(i.observations ->> (src.concept ->> 'uuid'), ' ')
+                        from organisation_config oc
+                                 cross join jsonb_array_elements(coalesce(oc.settings -> 'searchResultFields', '[]'::jsonb)) srf(fields)
+                                 cross join jsonb_array_elements(coalesce(srf.fields -> 'searchResultConcepts', '[]'::jsonb)) src(concept)
+                        where oc.organisation_id = i.organisation_id
+                          and srf.fields ->> 'subjectTypeUUID' = st.uuid
+                          and jsonb_typeof(i.observations -> (src.concept ->> 'uuid')) not in ('array', 'object'))))
+from individual i
+         left join subject_type st on st.id = i.subject_type_id
+where i.id = subject_search_text.individual_id;
+$$;
+
+create or replace function index_subject_search_text() returns trigger
+    language plpgsql
+as
+$$
+begin
+    insert into subject_search_index (individual_id, organisation_id, search_text, last_modified_date_time)
+    values (new.id, new.organisation_id, subject_search_text(new.id), now())
+    on conflict (individual_id) do update set organisation_id         = excluded.organisation_id,
+                                              search_text             = excluded.search_text,
+                                              last_modified_date_time = excluded.last_modified_date_time;
+    return null;
+end
+$$;
+
+-- Only existing rows are refreshed, as the row of a subject is created with the subject
+create or replace function reindex_subject_search_text_for_identifier() returns trigger
+    language plpgsql
+as
+$$
+begin
+    if tg_op <> 'INSERT' and old.individual_id is not null then
+        update subject_search_index
+        set search_text = subject_search_text(old.individual_id), last_modified_date_time = now()
+        where individual_id = old.individual_id;
+    end if;
+    if tg_op <> 'DELETE' and new.individual_id is not null then
+        update subject_search_index
+        set search_text = subject_search_text(new.individual_id), last_modified_date_time = now()
+        where individual_id = new.individual_id;
+    end if;
+    return null;
+end
+$$;
+
+create or replace function reindex_subject_search_text_for_organisation() returns trigger
+    language plpgsql
+as
+$$
+begin
+    if old.settings -> 'searchResultFields' is distinct from new.settings -> 'searchResultFields' then
+        update subject_search_index
+        set search_text = subject_search_text(individual_id), last_modified_date_time = now()
+        where organisation_id = new.organisation_id;
+    end if;
+    return null;
+end
+$$;
+
+create trigger individual_subject_search_index
+    after insert or update of first_name, middle_name, last_name, observations, subject_type_id, organisation_id
+    on individual
+    for each row
+execute procedure index_subject_search_text();
+
+create trigger identifier_assignment_subject_search_index
+    after insert or update of individual_id, identifier, is_voided or delete
+    on identifier_assignment
+    for each row
+execute procedure reindex_subject_search_text_for_identifier();
+
+create trigger organisation_config_subject_search_index
+    after update of settings
+    on organisation_config
+    for each row
+execute procedure reindex_subject_search_text_for_organisation();
+
+insert into subject_search_index (individual_id, organisation_id, search_text, last_modified_date_time)
+select i.id, i.organisation_id, subject_search_text(i.id), now()
+from individual i;
@@ -0,0 +1,19 @@
+create table title_lineage_locations
+(
+    lowestpoint_id  integer not null primary key references address_level (id),
+    organisation_id integer not null references organisation (id),
+    title_lineage   text    not null
+);
+
+create index title_lineage_locations_lower_title_lineage_idx on title_lineage_locations (lower(title_lineage));
+create index title_lineage_locations_organisation_id_idx on title_lineage_locations (organisation_id);
+create index if not exists address_level_lineage_gist_idx on address_level using gist (lineage);
+
+select enable_rls_on_ref_table('title_lineage_locations');
+
+insert into title_lineage_locations (lowestpoint_id, organisation_id, title_lineage)
+select al.id, al.organisation_id, string_agg(alevel_in_lineage.title, ', ' order by lineage.level)
+from address_level al
+         join regexp_split_to_table(al.lineage :: text, '[.]') with ordinality lineage (point_id, level) ON TRUE
+         join address_level alevel_in_lineage on alevel_in_lineage.id = lineage.point_id :: int
+group by al.id, al.organisation_id;
@@ -0,0 +1,17 @@
+create table extension_file
+(
+    id                      serial primary key,
+    organisation_id         integer                     not null references organisation (id),
+    path                    text                        not null,
+    size                    bigint                      not null default 0,
+    etag                    text,
+    is_voided               boolean                     not null default false,
+    last_modified_date_time timestamp(3) with time zone not null
+);
+
+alter table extension_file
+    add unique (organisation_id, path);
+
+create index extension_file_organisation_id_last_modified_date_time_index on extension_file (organisation_id, last_modified_date_time);
+
+select enable_rls_on_tx_table('extension_file');
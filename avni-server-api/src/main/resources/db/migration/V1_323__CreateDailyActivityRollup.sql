@@ -0,0 +1,60 @@
+-- What each subject, enrolment, encounter and program encounter contributes to daily_activity_rollup, so that its old
+-- contribution can be taken out of the rollup when it changes.
+-- address_id is 0 for rows without an address, and activity_date is 'infinity' for visits that are not done yet, so that
+-- the key columns can be compared with '='.
+create table daily_activity_rollup_entry
+(
+    entity_type     text    not null,
+    entity_id       bigint  not null,
+    organisation_id integer not null references organisation (id),
+    type_id         integer not null,
+    user_id         integer not null,
+    address_id      bigint  not null,
+    activity_date   date    not null,
+    is_completed    boolean not null,
+    is_cancelled    boolean not null,
+    is_on_time      boolean not null,
+    is_scheduled    boolean not null,
+    is_exited       boolean not null,
+    primary key (entity_type, entity_id)
+);
+
+create index daily_activity_rollup_entry_key_idx on daily_activity_rollup_entry (organisation_id, entity_type, type_id, user_id, address_id, activity_date);
+
+select enable_rls_on_tx_table('daily_activity_rollup_entry');
+
+create table daily_activity_rollup
+(
+    organisation_id integer not null references organisation (id),
+    entity_type     text    not null,
+    type_id         integer not null,
+    user_id         integer not null,
+    address_id      bigint  not null,
+    activity_date   date    not null,
+    activity_count  integer not null,
+    completed_count integer not null,
+    cancelled_count integer not null,
+    on_time_count   integer not null,
+    scheduled_count integer not null,
+    exited_count    integer not null,
+    primary key (organisation_id, entity_type, type_id, user_id, address_id, activity_date)
+);
+
+create index daily_activity_rollup_activity_date_idx on daily_activity_rollup (organisation_id, entity_type, activity_date);
+create index daily_activity_rollup_user_id_idx on daily_activity_rollup (organisation_id, user_id);
+
+select enable_rls_on_tx_table('daily_activity_rollup');
+
+-- How far the rollup job has read each table, in (last_modified_date_time, id) order
+create table daily_activity_rollup_watermark
+(
+    entity_type             text                        not null primary key,
+    last_modified_date_time timestamp(3) with time zone not null,
+    last_id                 bigint                      not null
+);
+
+insert into daily_activity_rollup_watermark (entity_type, last_modified_date_time, last_id)
+values ('individual', '1900-01-01', 0),
+       ('program_enrolment', '1900-01-01', 0),
+       ('encounter', '1900-01-01', 0),
+       ('program_encounter', '1900-01-01', 0);
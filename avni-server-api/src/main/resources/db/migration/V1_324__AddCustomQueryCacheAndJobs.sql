@@ -0,0 +1,34 @@
+-- How long the results of a custom query can be served from the cache. Results are not cached when null.
+alter table custom_query
+    add column cache_ttl_seconds integer;
+
+-- Custom queries run in the background, whose results are fetched a page at a time
+create table custom_query_job
+(
+    id                  serial primary key,
+    uuid                varchar(255)                not null unique,
+    organisation_id     integer                     not null references organisation (id),
+    query_name          text                        not null,
+    status              varchar(20)                 not null,
+    error_message       text,
+    headers             jsonb,
+    total               integer,
+    created_by_id       bigint                      not null references users (id),
+    created_date_time   timestamp(3) with time zone not null,
+    completed_date_time timestamp(3) with time zone
+);
+
+create index custom_query_job_created_date_time_idx on custom_query_job (organisation_id, created_date_time);
+
+select enable_rls_on_tx_table('custom_query_job');
+
+create table custom_query_job_row
+(
+    job_id          integer not null references custom_query_job (id) on delete cascade,
+    row_number      integer not null,
+    organisation_id integer not null references organisation (id),
+    data            jsonb   not null,
+    primary key (job_id, row_number)
+);
+
+select enable_rls_on_tx_table('custom_query_job_row');
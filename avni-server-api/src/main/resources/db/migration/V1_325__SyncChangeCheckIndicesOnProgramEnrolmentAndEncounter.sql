@@ -0,0 +1,6 @@
+-- For checking whether a program or a program encounter type has rows to sync for a catchment since a time
+CREATE INDEX IF NOT EXISTS program_enrolment_sync_change_idx ON
+    program_enrolment(program_id, address_id, last_modified_date_time);
+
+CREATE INDEX IF NOT EXISTS program_encounter_sync_change_idx ON
+    program_encounter(encounter_type_id, address_id, last_modified_date_time);
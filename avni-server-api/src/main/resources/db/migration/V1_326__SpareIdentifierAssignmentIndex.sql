@@ -0,0 +1,3 @@
+-- For counting the spare identifiers of a user, which is done on every sync and by the identifier top up job
+CREATE INDEX IF NOT EXISTS identifier_assignment_spare_idx ON
+    identifier_assignment(assigned_to_user_id, identifier_source_id) WHERE individual_id IS NULL AND program_enrolment_id IS NULL;
@@ -0,0 +1,3 @@
+create index if not exists task_task_type_id_task_status_id_id_idx on task (task_type_id, task_status_id, id);
+create index if not exists task_assigned_user_id_id_idx on task (assigned_user_id, id);
+create index if not exists task_scheduled_on_idx on task (scheduled_on);
@@ -0,0 +1,14 @@
+-- Reporting views that are materialised as tables in the organisation's schema, with the time up to which the rows
+-- of each have been refreshed from its source table
+create table reporting_table
+(
+    id              serial primary key,
+    organisation_id integer                     not null references organisation (id),
+    name            text                        not null,
+    source          text                        not null,
+    view_sql        text                        not null,
+    refreshed_till  timestamp(3) with time zone not null,
+    unique (organisation_id, name)
+);
+
+select enable_rls_on_tx_table('reporting_table');
@@ -0,0 +1,64 @@
+-- sync_telemetry is partitioned by the month of sync_start_time, so that a report on a date range reads only the months
+-- in the range, and old months can be archived by detaching them. The rows there already are stay in
+-- sync_telemetry_before_partitioning, which becomes the partition for everything before the current month. Rows of a
+-- month without a partition, from devices with clocks far ahead, go to sync_telemetry_default. Each partition has the
+-- same row level security as sync_telemetry, as the organisations' users can read a partition directly.
+create or replace function create_sync_telemetry_partition(month date) returns text
+    language plpgsql
+as
+$$
+declare
+    partition_name text        := 'sync_telemetry_' || to_char(month, 'YYYY_MM');
+    from_time      timestamptz := date_trunc('month', month);
+    till_time      timestamptz := date_trunc('month', month) + interval '1 month';
+begin
+    perform pg_advisory_xact_lock(hashtext('create_sync_telemetry_partition'));
+    if to_regclass('public.' || partition_name) is not null then
+        return partition_name;
+    end if;
+    execute format('create table public.%I (like public.sync_telemetry including defaults)', partition_name);
+    perform enable_rls_on_tx_table(partition_name);
+    execute format('with moved as (delete from public.sync_telemetry_default where sync_start_time >= %L and sync_start_time < %L returning *) ' ||
+                   'insert into public.%I select * from moved', from_time, till_time, partition_name);
+    execute format('alter table public.sync_telemetry attach partition public.%I for values from (%L) to (%L)',
+                   partition_name, from_time, till_time);
+    return partition_name;
+end
+$$;
+
+alter table sync_telemetry rename to sync_telemetry_before_partitioning;
+alter index sync_telemetry_pkey rename to sync_telemetry_before_partitioning_pkey;
+
+create table sync_telemetry (like sync_telemetry_before_partitioning including defaults) partition by range (sync_start_time);
+alter sequence sync_telemetry_id_seq owned by sync_telemetry.id;
+alter table sync_telemetry
+    add constraint sync_telemetry_pkey primary key (id, sync_start_time),
+    add constraint sync_telemetry_organisation foreign key (organisation_id) references organisation (id),
+    add constraint sync_telemetry_user foreign key (user_id) references users (id);
+
+-- The same indexes as before, so that the existing ones are used for the old rows
+create index sync_telemetry_sync_start_time_part_idx on sync_telemetry (sync_start_time);
+create index sync_telemetry_user_id_part_idx on sync_telemetry (user_id);
+create index sync_telemetry_organisation_id_part_idx on sync_telemetry (organisation_id);
+create index sync_telemetry_last_modified_time_part_idx on sync_telemetry (last_modified_date_time);
+
+create table sync_telemetry_default partition of sync_telemetry default;
+select enable_rls_on_tx_table('sync_telemetry_default');
+
+do
+$$
+    declare
+        current_month timestamptz := date_trunc('month', now());
+    begin
+        create temporary table sync_telemetry_ahead on commit drop as
+        select * from sync_telemetry_before_partitioning where sync_start_time >= current_month;
+        delete from sync_telemetry_before_partitioning where sync_start_time >= current_month;
+        execute format('alter table sync_telemetry attach partition sync_telemetry_before_partitioning for values from (minvalue) to (%L)',
+                       current_month);
+        perform create_sync_telemetry_partition(current_month::date);
+        perform create_sync_telemetry_partition((current_month + interval '1 month')::date);
+        insert into sync_telemetry select * from sync_telemetry_ahead;
+    end
+$$;
+
+select enable_rls_on_tx_table('sync_telemetry');
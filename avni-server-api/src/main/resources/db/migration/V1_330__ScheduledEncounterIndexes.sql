@@ -0,0 +1,6 @@
+-- For finding the open scheduled encounters of a type when saving visit schedules
+CREATE INDEX IF NOT EXISTS program_encounter_scheduled_idx ON
+    program_encounter(program_enrolment_id, encounter_type_id) WHERE encounter_date_time IS NULL AND cancel_date_time IS NULL AND NOT is_voided;
+
+CREATE INDEX IF NOT EXISTS encounter_scheduled_idx ON
+    encounter(individual_id, encounter_type_id) WHERE encounter_date_time IS NULL AND cancel_date_time IS NULL AND NOT is_voided;
@@ -0,0 +1,31 @@
+-- What was added to and removed from a user's sync scope, so that a device can fetch only the subjects that came into
+-- scope and remove the ones that went out of it, instead of resetting sync. The reset sync recorded with it is for
+-- devices that cannot do this.
+create table sync_scope_change
+(
+    id                            SERIAL PRIMARY KEY,
+    uuid                          varchar(255)                NOT NULL,
+    user_id                       integer                     NOT NULL references users (id),
+    subject_type_id               integer references subject_type (id),
+    added_address_level_ids       bigint[]                    NOT NULL DEFAULT '{}',
+    removed_address_level_ids     bigint[]                    NOT NULL DEFAULT '{}',
+    added_sync_concept_1_values   text[]                      NOT NULL DEFAULT '{}',
+    removed_sync_concept_1_values text[]                      NOT NULL DEFAULT '{}',
+    added_sync_concept_2_values   text[]                      NOT NULL DEFAULT '{}',
+    removed_sync_concept_2_values text[]                      NOT NULL DEFAULT '{}',
+    organisation_id               integer                     NOT NULL references organisation (id),
+    is_voided                     boolean                     NOT NULL DEFAULT FALSE,
+    version                       integer                     NOT NULL DEFAULT 0,
+    created_by_id                 bigint                      NOT NULL,
+    last_modified_by_id           bigint                      NOT NULL,
+    created_date_time             timestamp(3) with time zone NOT NULL,
+    last_modified_date_time       timestamp(3) with time zone NOT NULL,
+    unique (uuid, organisation_id)
+);
+
+create index sync_scope_change_user_id_index on sync_scope_change (user_id, last_modified_date_time);
+
+select enable_rls_on_tx_table('sync_scope_change');
+
+alter table reset_sync
+    add column sync_scope_change_id integer references sync_scope_change (id);
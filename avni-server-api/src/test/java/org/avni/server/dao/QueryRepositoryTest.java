@@ -2,7 +2,9 @@ package org.avni.server.dao;
 
 import org.avni.server.common.AbstractControllerIntegrationTest;
 import org.avni.server.domain.CustomQuery;
+import org.avni.server.service.builder.TestDataSetupService;
 import org.avni.server.web.request.CustomQueryRequest;
+import org.avni.server.web.response.CustomQueryJobResponse;
 import org.avni.server.web.response.CustomQueryResponse;
 import org.joda.time.Instant;
 import org.junit.Test;
@@ -11,7 +13,10 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -26,6 +31,16 @@ public class QueryRepositoryTest extends AbstractControllerIntegrationTest {
     @Qualifier("externalQueryJdbcTemplate")
     private NamedParameterJdbcTemplate externalQueryJdbcTemplate;
 
+    @Autowired
+    @Qualifier("asyncExternalQueryJdbcTemplate")
+    private NamedParameterJdbcTemplate asyncExternalQueryJdbcTemplate;
+
+    @Autowired
+    private CustomQueryJobRepository customQueryJobRepository;
+
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+
     private final CustomQueryRepository customQueryRepository = mock(CustomQueryRepository.class);
 
     @Test
@@ -84,4 +99,58 @@ public class QueryRepositoryTest extends AbstractControllerIntegrationTest {
         assertThat(responseEntity.getStatusCode(), equalTo(HttpStatus.OK));
         assertThat(responseEntity.getBody().getData().size(), equalTo(20));
     }
+
+    @Test
+    @Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldServeSameQueryAndParamsFromCacheWithinTtl() {
+        testDataSetupService.setupOrganisation();
+        CustomQuery customQuery = new CustomQuery();
+        customQuery.setName("query");
+        customQuery.setQuery("select :id + 0 as id, clock_timestamp() as now;");
+        customQuery.setCacheTtlSeconds(60);
+        when(customQueryRepository.findAllByName("query")).thenReturn(customQuery);
+
+        QueryRepository queryRepository = new QueryRepository(externalQueryJdbcTemplate, customQueryRepository);
+
+        CustomQueryResponse first = (CustomQueryResponse) queryRepository.runQuery(queryRequest(1)).getBody();
+        assertThat(queryRepository.runQuery(queryRequest(1)).getBody(), sameInstance(first));
+        assertThat(queryRepository.runQuery(queryRequest(2)).getBody(), not(sameInstance(first)));
+    }
+
+    @Test
+    @Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldRunQueryInBackgroundAndReturnRowsInPages() throws Exception {
+        testDataSetupService.setupOrganisation();
+        CustomQuery customQuery = new CustomQuery();
+        customQuery.setName("query");
+        customQuery.setQuery("SELECT generate_series(1, 2500) as n;");
+        when(customQueryRepository.findAllByName("query")).thenReturn(customQuery);
+
+        QueryRepository queryRepository = new QueryRepository(externalQueryJdbcTemplate, asyncExternalQueryJdbcTemplate, customQueryRepository, customQueryJobRepository);
+
+        ResponseEntity<?> submitted = queryRepository.submitQuery(queryRequest(1));
+        assertThat(submitted.getStatusCode(), equalTo(HttpStatus.ACCEPTED));
+        String jobUuid = ((CustomQueryJobResponse) submitted.getBody()).getJobUuid();
+
+        CustomQueryJobResponse job = (CustomQueryJobResponse) queryRepository.getQueryJob(jobUuid, 2, 1000).getBody();
+        for (int i = 0; i < 100 && job.getStatus().equals(CustomQueryJobRepository.Status.Running.name()); i++) {
+            Thread.sleep(100);
+            job = (CustomQueryJobResponse) queryRepository.getQueryJob(jobUuid, 2, 1000).getBody();
+        }
+
+        assertThat(job.getStatus(), equalTo(CustomQueryJobRepository.Status.Completed.name()));
+        assertThat(job.getTotal(), equalTo(2500));
+        assertThat(job.getHeaders(), equalTo(Collections.singletonList("n")));
+        assertThat(job.getData().size(), equalTo(500));
+        assertThat(job.getData().get(0), equalTo(Arrays.<Object>asList(2001)));
+    }
+
+    private CustomQueryRequest queryRequest(int id) {
+        CustomQueryRequest customQueryRequest = new CustomQueryRequest();
+        customQueryRequest.setName("query");
+        customQueryRequest.setQueryParams(Collections.singletonMap("id", id));
+        return customQueryRequest;
+    }
 }
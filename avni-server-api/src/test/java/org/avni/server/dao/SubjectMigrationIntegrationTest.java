@@ -24,6 +24,7 @@ import org.springframework.hateoas.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -49,6 +50,8 @@ public class SubjectMigrationIntegrationTest extends AbstractControllerIntegrati
     private SyncController syncController;
     @Autowired
     private TestGroupService testGroupService;
+    @Autowired
+    private IndividualRepository individualRepository;
 
     private Concept concept1;
     private Concept concept2;
@@ -57,7 +60,7 @@ public class SubjectMigrationIntegrationTest extends AbstractControllerIntegrati
     private TestDataSetupService.TestOrganisationData organisationData;
 
     private List<SubjectMigration> getMigrations(SubjectType subjectType, DateTime lastModifiedDateTime, DateTime now) {
-        PagedResources<Resource<SubjectMigration>> migrations = subjectMigrationController.getMigrationsByCatchmentAndLastModified(lastModifiedDateTime, now, subjectType.getUuid(), PageRequest.of(0, 10));
+        PagedResources<Resource<SubjectMigration>> migrations = subjectMigrationController.getMigrationsByCatchmentAndLastModified(lastModifiedDateTime, now, subjectType.getUuid(), null, PageRequest.of(0, 10));
         return migrations.getContent().stream().map(Resource::getContent).collect(Collectors.toList());
     }
 
@@ -173,6 +176,23 @@ public class SubjectMigrationIntegrationTest extends AbstractControllerIntegrati
         assertFalse(getSyncDetails().contains(EntitySyncStatusContract.createForComparison(SyncEntityName.SubjectMigration.name(), subjectType.getUuid())));
     }
 
+    @Test
+    public void changeSubjectsAddressLevelMigratesOnlySubjectsNotAlreadyInTheAddressLevel() {
+        ObservationCollection observations = ObservationCollectionBuilder.withOneObservation(concept1, concept1.getAnswerConcept("Answer 11").getUuid());
+        Individual s1 = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel1()).withObservations(observations).build());
+        Individual s2 = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel1()).withObservations(observations).build());
+        Individual s3 = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel2()).withObservations(observations).build());
+
+        subjectMigrationService.changeSubjectsAddressLevel(Arrays.asList(s1, s2, s3), catchmentData.getAddressLevel2());
+
+        assertEquals(2, getMigrations(subjectType, DateTime.now().minusDays(1), DateTime.now()).size());
+        assertTrue(hasMigrationFor(subjectType, DateTime.now().minusDays(1), DateTime.now(), s1));
+        assertTrue(hasMigrationFor(subjectType, DateTime.now().minusDays(1), DateTime.now(), s2));
+        assertFalse(hasMigrationFor(subjectType, DateTime.now().minusDays(1), DateTime.now(), s3));
+        assertEquals(catchmentData.getAddressLevel2().getId(), individualRepository.findByUuid(s1.getUuid()).getAddressLevel().getId());
+        assertEquals(catchmentData.getAddressLevel2().getId(), individualRepository.findByUuid(s2.getUuid()).getAddressLevel().getId());
+    }
+
     @Test
     public void migrations_created_by_one_user_is_returned_for_another_user_even_when_concept_attributes_dont_match() {
         ObservationCollection observations = ObservationCollectionBuilder.withOneObservation(concept1, concept1.getAnswerConcept("Answer 11").getUuid());
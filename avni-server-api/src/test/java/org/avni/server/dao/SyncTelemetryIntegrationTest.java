@@ -0,0 +1,119 @@
+package org.avni.server.dao;
+
+import org.avni.server.application.projections.SyncTelemetrySummaryProjection;
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.domain.SyncTelemetry;
+import org.avni.server.domain.User;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.builder.TestDataSetupService;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class SyncTelemetryIntegrationTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private SyncTelemetryBatchRepository syncTelemetryBatchRepository;
+    @Autowired
+    private SyncTelemetryRepository syncTelemetryRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    public void batchInsertedTelemetryShouldBeInTheReport() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        DateTime now = new DateTime();
+        SyncTelemetry first = syncTelemetry(organisationData.getUser(), "complete", now.minusDays(2), "3.0");
+        SyncTelemetry second = syncTelemetry(organisationData.getUser2(), "incomplete", now.minusDays(1), "3.1");
+        syncTelemetryBatchRepository.insert(Arrays.asList(first, second));
+
+        List<SyncTelemetry> report = syncTelemetryRepository.findAllByOrderByIdDesc(PageRequest.of(0, 10)).getContent();
+        assertEquals(Arrays.asList(second.getUuid(), first.getUuid()), report.stream().map(SyncTelemetry::getUuid).collect(Collectors.toList()));
+        assertEquals("incomplete", report.get(0).getSyncStatus());
+        assertEquals("3.0", report.get(1).getAppVersion());
+    }
+
+    @Test
+    public void summaryShouldCountTheSyncsOfEachUserInThePeriod() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        User user1 = organisationData.getUser();
+        User user2 = organisationData.getUser2();
+        DateTime now = new DateTime();
+        syncTelemetryBatchRepository.insert(Arrays.asList(
+                syncTelemetry(user1, "complete", now.minusDays(2), "3.0"),
+                syncTelemetry(user1, "incomplete", now.minusDays(1), "3.1"),
+                syncTelemetry(user1, "complete", now.minusDays(40), "2.9"),
+                syncTelemetry(user2, "complete", now.minusDays(3), "3.0")));
+
+        List<SyncTelemetrySummaryProjection> summary = syncTelemetryRepository.getSummary(now.minusDays(30).toDate(), now.plusDays(1).toDate());
+        assertEquals(2, summary.size());
+        assertEquals(user1.getId(), summary.get(0).getUserId());
+        assertEquals(Long.valueOf(2), summary.get(0).getSyncCount());
+        assertEquals(Long.valueOf(1), summary.get(0).getCompleteCount());
+        assertEquals(Long.valueOf(1), summary.get(0).getIncompleteCount());
+        assertEquals("3.1", summary.get(0).getLastAppVersion());
+        assertEquals(user2.getId(), summary.get(1).getUserId());
+        assertEquals(Long.valueOf(1), summary.get(1).getSyncCount());
+
+        summary = syncTelemetryRepository.getSummary(now.minusDays(30).toDate(), now.plusDays(1).toDate(), Collections.singletonList(user2.getId()));
+        assertEquals(1, summary.size());
+        assertEquals(user2.getId(), summary.get(0).getUserId());
+    }
+
+    @Test
+    public void creatingAPartitionShouldMoveItsRowsOutOfTheDefaultPartition() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        LocalDate month = new LocalDate().plusYears(5).withDayOfMonth(1);
+        SyncTelemetry ahead = syncTelemetry(organisationData.getUser(), "complete", month.toDateTimeAtStartOfDay().plusDays(3), "3.0");
+        syncTelemetryBatchRepository.insert(Collections.singletonList(ahead));
+
+        //partitions are created by the superuser, as by SyncTelemetryPartitionJob
+        UserContextHolder.clear();
+        String partition = String.format("sync_telemetry_%s", month.toString("yyyy_MM"));
+        MapSqlParameterSource params = new MapSqlParameterSource("uuid", ahead.getUuid()).addValue("month", month.toDate());
+        try {
+            assertEquals(1, countIn("sync_telemetry_default", params));
+            assertEquals(partition, jdbcTemplate.queryForObject("select create_sync_telemetry_partition(cast(:month as date))", params, String.class));
+            assertEquals(0, countIn("sync_telemetry_default", params));
+            assertEquals(1, countIn(partition, params));
+            assertEquals(1, countIn("sync_telemetry", params));
+        } finally {
+            jdbcTemplate.getJdbcTemplate().execute(String.format("drop table if exists %s", partition));
+        }
+    }
+
+    private int countIn(String table, MapSqlParameterSource params) {
+        return jdbcTemplate.queryForObject(String.format("select count(*) from %s where uuid = :uuid", table), params, Integer.class);
+    }
+
+    private static SyncTelemetry syncTelemetry(User user, String syncStatus, DateTime syncStartTime, String appVersion) {
+        SyncTelemetry syncTelemetry = new SyncTelemetry();
+        syncTelemetry.setUuid(UUID.randomUUID().toString());
+        syncTelemetry.setUser(user);
+        syncTelemetry.setOrganisationId(user.getOrganisationId());
+        syncTelemetry.setSyncStatus(syncStatus);
+        syncTelemetry.setSyncStartTime(syncStartTime);
+        syncTelemetry.setSyncEndTime(syncStartTime.plusMinutes(5));
+        syncTelemetry.setAppVersion(appVersion);
+        DateTime now = new DateTime();
+        syncTelemetry.setCreatedDateTime(now);
+        syncTelemetry.setLastModifiedDateTime(now);
+        return syncTelemetry;
+    }
+}
@@ -0,0 +1,17 @@
+package org.avni.server.dao.search;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubjectAssignmentSearchQueryBuilderTest {
+
+    @Test
+    public void shouldSelectEverySortColumnUnderItsResultAlias() {
+        SqlQuery query = new SubjectAssignmentSearchQueryBuilder().build();
+        for (SubjectSearchSortColumn sortColumn : SubjectSearchSortColumn.values()) {
+            assertThat(query.getSql()).contains(String.format("as \"%s\"", sortColumn.getResultAlias()));
+        }
+        assertThat(query.getSql()).contains("left outer join gender on i.gender_id = gender.id");
+    }
+}
@@ -6,6 +6,9 @@ import org.junit.Test;
 import org.avni.server.web.request.webapp.search.Concept;
 import org.avni.server.web.request.webapp.search.DateRange;
 import org.avni.server.web.request.webapp.search.IntegerRange;
+import org.avni.server.web.request.webapp.search.PageDetails;
+import org.avni.server.web.request.webapp.search.PaginationMode;
+import org.avni.server.web.request.webapp.search.SearchAfter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -106,4 +109,39 @@ public class SubjectSearchQueryBuilderTest {
         SqlQuery query = new SubjectSearchQueryBuilder().forCount()
                 .build();
     }
+
+    @Test
+    public void shouldSeekInsteadOfOffsetForKeysetPagination() {
+        PageDetails pageDetails = new PageDetails();
+        pageDetails.setPaginationMode(PaginationMode.keyset);
+        pageDetails.setSortColumn("fullName");
+        pageDetails.setNumberOfRecordPerPage(20);
+        SqlQuery query = new SubjectSearchQueryBuilder()
+                .withPaginationFilters(pageDetails)
+                .build();
+        assertThat(query.getSql()).doesNotContain("offset");
+        assertThat(query.getParameters().containsKey("offset")).isFalse();
+        assertThat(query.getParameters().get("limit")).isEqualTo(20);
+
+        pageDetails.setSearchAfter(new SearchAfter("Ram Kumar", 42L));
+        query = new SubjectSearchQueryBuilder()
+                .withPaginationFilters(pageDetails)
+                .build();
+        assertThat(query.getSql()).contains("i.id > :searchAfterId");
+        assertThat(query.getParameters().get("searchAfterSortValue")).isEqualTo("Ram Kumar");
+        assertThat(query.getParameters().get("searchAfterId")).isEqualTo(42L);
+    }
+
+    @Test
+    public void shouldNotApplySeekPredicateToCount() {
+        PageDetails pageDetails = new PageDetails();
+        pageDetails.setPaginationMode(PaginationMode.keyset);
+        pageDetails.setSearchAfter(new SearchAfter(null, 42L));
+        SqlQuery query = new SubjectSearchQueryBuilder()
+                .withPaginationFilters(pageDetails)
+                .forCount()
+                .build();
+        assertThat(query.getSql()).doesNotContain(":searchAfterId");
+        assertThat(query.getParameters()).isEmpty();
+    }
 }
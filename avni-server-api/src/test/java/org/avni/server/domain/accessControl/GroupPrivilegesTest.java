@@ -0,0 +1,67 @@
+package org.avni.server.domain.accessControl;
+
+import org.avni.server.domain.EncounterType;
+import org.avni.server.domain.Program;
+import org.avni.server.domain.SubjectType;
+import org.avni.server.domain.factory.access.TestGroupPrivilegeBuilder;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GroupPrivilegesTest {
+    @Test
+    public void allPrivilegesAllowAnything() {
+        GroupPrivileges groupPrivileges = new GroupPrivileges();
+        assertTrue(groupPrivileges.hasPrivilege(PrivilegeType.ViewSubject, subjectType(1L), null, null, null));
+        assertTrue(groupPrivileges.hasPrivilege(PrivilegeType.ViewVisit, subjectType(2L), program(1L), encounterType(1L), null));
+    }
+
+    @Test
+    public void privilegesAreScopedToTheirTypes() {
+        GroupPrivileges groupPrivileges = new GroupPrivileges(false,
+                new TestGroupPrivilegeBuilder().withDefaultValuesForNewEntity().setPrivilege(privilege(PrivilegeType.ViewSubject)).setSubjectType(subjectType(1L)).build(),
+                new TestGroupPrivilegeBuilder().withDefaultValuesForNewEntity().setPrivilege(privilege(PrivilegeType.ViewVisit)).setSubjectType(subjectType(1L)).setProgram(program(1L)).setProgramEncounterType(encounterType(1L)).build(),
+                new TestGroupPrivilegeBuilder().withDefaultValuesForNewEntity().setPrivilege(privilege(PrivilegeType.ViewVisit)).setSubjectType(subjectType(1L)).setEncounterType(encounterType(2L)).build());
+
+        assertTrue(groupPrivileges.hasPrivilege(PrivilegeType.ViewSubject, subjectType(1L), null, null, null));
+        assertTrue(groupPrivileges.hasPrivilege(PrivilegeType.ViewVisit, subjectType(1L), program(1L), encounterType(1L), null));
+        assertTrue(groupPrivileges.hasPrivilege(PrivilegeType.ViewVisit, subjectType(1L), null, encounterType(2L), null));
+
+        assertFalse(groupPrivileges.hasPrivilege(PrivilegeType.ViewSubject, subjectType(2L), null, null, null));
+        assertFalse(groupPrivileges.hasPrivilege(PrivilegeType.EditSubject, subjectType(1L), null, null, null));
+        assertFalse(groupPrivileges.hasPrivilege(PrivilegeType.ViewVisit, subjectType(1L), program(2L), encounterType(1L), null));
+        assertFalse(groupPrivileges.hasPrivilege(PrivilegeType.ViewVisit, subjectType(1L), null, encounterType(1L), null));
+    }
+
+    @Test
+    public void noPrivilegesDenyEverything() {
+        GroupPrivileges groupPrivileges = new GroupPrivileges(false);
+        assertFalse(groupPrivileges.hasPrivilege(PrivilegeType.ViewSubject, subjectType(1L), null, null, null));
+    }
+
+    private static Privilege privilege(PrivilegeType privilegeType) {
+        Privilege privilege = new Privilege();
+        ReflectionTestUtils.setField(privilege, "type", privilegeType);
+        return privilege;
+    }
+
+    private static SubjectType subjectType(Long id) {
+        SubjectType subjectType = new SubjectType();
+        subjectType.setId(id);
+        return subjectType;
+    }
+
+    private static Program program(Long id) {
+        Program program = new Program();
+        program.setId(id);
+        return program;
+    }
+
+    private static EncounterType encounterType(Long id) {
+        EncounterType encounterType = new EncounterType();
+        encounterType.setId(id);
+        return encounterType;
+    }
+}
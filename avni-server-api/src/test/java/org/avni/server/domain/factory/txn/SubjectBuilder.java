@@ -54,6 +54,11 @@ public class SubjectBuilder {
     	return this;
     }
 
+    public SubjectBuilder withGender(Gender gender) {
+        individual.setGender(gender);
+        return this;
+    }
+
     public SubjectBuilder withRegistrationDate(LocalDate date) {
         individual.setRegistrationDate(date);
     	return this;
@@ -0,0 +1,52 @@
+package org.avni.server.framework.hibernate;
+
+import org.avni.server.domain.ObservationCollection;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazyObservationCollectionTest {
+    private static final byte[] JSON = "{\"a\": 1, \"b\": [\"x\", 2.5]}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void shouldWriteOriginalJsonUntilModified() throws Exception {
+        LazyObservationCollection observations = new LazyObservationCollection(JSON);
+        assertThat(AbstractJsonbUserType.mapper.writeValueAsString(Collections.singletonMap("observations", observations)))
+                .isEqualTo("{\"observations\":{\"a\": 1, \"b\": [\"x\", 2.5]}}");
+        assertThat(observations.isParsed()).as("Serialising unmodified observations does not parse them").isFalse();
+
+        observations.put("c", "z");
+        assertThat(observations.getJson()).isNull();
+        assertThat(AbstractJsonbUserType.mapper.readValue(AbstractJsonbUserType.mapper.writeValueAsString(observations), ObservationCollection.class))
+                .containsEntry("a", 1).containsEntry("c", "z");
+    }
+
+    @Test
+    public void shouldParseOnFirstAccessWithoutDroppingJson() {
+        LazyObservationCollection observations = new LazyObservationCollection(JSON);
+        assertThat(observations.get("a")).isEqualTo(1);
+        assertThat(observations.isParsed()).isTrue();
+        assertThat(observations.getJson()).isNotNull();
+    }
+
+    @Test
+    public void shouldBeEqualToEagerlyParsedObservations() throws Exception {
+        ObservationCollection eager = AbstractJsonbUserType.mapper.readValue(JSON, ObservationCollection.class);
+        LazyObservationCollection lazy = new LazyObservationCollection(JSON);
+        assertThat(lazy.equals(new LazyObservationCollection(JSON))).isTrue();
+        assertThat(lazy.isParsed()).as("Same json is equal without parsing").isFalse();
+        assertThat(lazy.equals(eager)).isTrue();
+        assertThat(eager.equals(new LazyObservationCollection(JSON))).isTrue();
+        assertThat(lazy.hashCode()).isEqualTo(eager.hashCode());
+    }
+
+    @Test
+    public void deepCopyOfUnmodifiedObservationsShouldNotParse() {
+        LazyObservationCollection copy = (LazyObservationCollection) new ObservationCollectionUserType().deepCopy(new LazyObservationCollection(JSON));
+        assertThat(copy.isParsed()).isFalse();
+        assertThat(copy.getJson()).isEqualTo(JSON);
+    }
+}
@@ -0,0 +1,36 @@
+package org.avni.server.framework.metrics;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class S3MetricsRequestHandlerTest {
+    @Test
+    public void shouldTimeCallsByOperationAndOutcome() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        S3MetricsRequestHandler handler = new S3MetricsRequestHandler(registry);
+
+        DefaultRequest<GetObjectRequest> get = new DefaultRequest<>(new GetObjectRequest("bucket", "key"), "Amazon S3");
+        handler.beforeRequest(get);
+        handler.afterResponse(get, null);
+        DefaultRequest<PutObjectRequest> put = new DefaultRequest<>(new PutObjectRequest("bucket", "key", new File("file")), "Amazon S3");
+        handler.beforeRequest(put);
+        handler.afterError(put, null, new RuntimeException());
+
+        assertThat(registry.get("avni.s3.requests").tag("operation", "GetObject").tag("outcome", "SUCCESS").timer().count()).isEqualTo(1);
+        assertThat(registry.get("avni.s3.requests").tag("operation", "PutObject").tag("outcome", "ERROR").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldIgnoreCallsThatWereNotStarted() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new S3MetricsRequestHandler(registry).afterResponse(new DefaultRequest<>(new GetObjectRequest("bucket", "key"), "Amazon S3"), null);
+        assertThat(registry.find("avni.s3.requests").timer()).isNull();
+    }
+}
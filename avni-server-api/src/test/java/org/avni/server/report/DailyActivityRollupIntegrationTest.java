@@ -0,0 +1,70 @@
+package org.avni.server.report;
+
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.domain.*;
+import org.avni.server.domain.factory.UserBuilder;
+import org.avni.server.domain.factory.metadata.ProgramBuilder;
+import org.avni.server.domain.factory.txn.ProgramEnrolmentBuilder;
+import org.avni.server.domain.factory.txn.SubjectBuilder;
+import org.avni.server.domain.metadata.SubjectTypeBuilder;
+import org.avni.server.service.builder.*;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class DailyActivityRollupIntegrationTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private TestSubjectTypeService testSubjectTypeService;
+    @Autowired
+    private TestProgramService testProgramService;
+    @Autowired
+    private TestSubjectService testSubjectService;
+    @Autowired
+    private TestProgramEnrolmentService testProgramEnrolmentService;
+    @Autowired
+    private DailyActivityRollupRepository dailyActivityRollupRepository;
+    @Autowired
+    private ReportService reportService;
+
+    @Test
+    public void rollupShouldFollowChangesToSubjectsAndEnrolments() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        TestDataSetupService.TestCatchmentData catchmentData = testDataSetupService.setupACatchment();
+        userRepository.save(new UserBuilder(organisationData.getUser()).withCatchment(catchmentData.getCatchment()).withOperatingIndividualScope(OperatingIndividualScope.ByCatchment).build());
+        setUser(organisationData.getUser().getUsername());
+
+        SubjectType subjectType = testSubjectTypeService.createWithDefaults(new SubjectTypeBuilder().setMandatoryFieldsForNewEntity().setName("Person").build());
+        Program program = testProgramService.addProgram(new ProgramBuilder().withName("Pregnancy").build(), subjectType);
+        Individual subject = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel1()).build());
+        testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel2()).build());
+        testProgramEnrolmentService.save(new ProgramEnrolmentBuilder().withMandatoryFieldsForNewEntity().setProgram(program).setIndividual(subject).build());
+
+        refresh();
+        assertEquals(2L, reportService.allRegistrations(null, null, Collections.emptyList(), Collections.emptyList()).get("total"));
+        assertEquals(1L, reportService.allRegistrations(null, null, Collections.emptyList(), Collections.singletonList(catchmentData.getAddressLevel1().getId())).get("total"));
+        assertEquals(1L, reportService.allEnrolments(null, null, Collections.emptyList(), Collections.emptyList()).get("total"));
+
+        subject.setVoided(true);
+        testSubjectService.save(subject);
+        refresh();
+        assertEquals(1L, reportService.allRegistrations(null, null, Collections.emptyList(), Collections.emptyList()).get("total"));
+        assertEquals(0L, reportService.allRegistrations(null, null, Collections.emptyList(), Collections.singletonList(catchmentData.getAddressLevel1().getId())).get("total"));
+    }
+
+    private void refresh() {
+        Timestamp upTo = new Timestamp(new DateTime().plusMinutes(1).getMillis());
+        for (DailyActivityEntityType entityType : DailyActivityEntityType.values()) {
+            dailyActivityRollupRepository.refreshNextBatch(entityType, upTo, 100);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.avni.server.reporting;
+
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.domain.Individual;
+import org.avni.server.domain.Organisation;
+import org.avni.server.domain.SubjectType;
+import org.avni.server.domain.factory.txn.SubjectBuilder;
+import org.avni.server.domain.metadata.SubjectTypeBuilder;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.builder.TestDataSetupService;
+import org.avni.server.service.builder.TestSubjectService;
+import org.avni.server.service.builder.TestSubjectTypeService;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ReportingTableRepositoryIntegrationTest extends AbstractControllerIntegrationTest {
+    private static final String VIEW_SQL = "--[SQL template for auto generated view]\n" +
+            "SELECT individual.id \"id\", individual.first_name \"first_name\"\n" +
+            "FROM public.individual individual\n" +
+            "WHERE individual.is_voided = false;";
+
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private TestSubjectTypeService testSubjectTypeService;
+    @Autowired
+    private TestSubjectService testSubjectService;
+    @Autowired
+    private ReportingTableRepository reportingTableRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    public void tableShouldFollowChangesToItsSourceRowsTillDropped() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        TestDataSetupService.TestCatchmentData catchmentData = testDataSetupService.setupACatchment();
+        SubjectType subjectType = testSubjectTypeService.createWithDefaults(new SubjectTypeBuilder().setMandatoryFieldsForNewEntity().setName("Person").build());
+        Individual renamed = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel1()).withFirstName("Ram").build());
+        Individual voided = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel1()).withFirstName("Shyam").build());
+        Organisation organisation = createSchema(organisationData, "reporting_" + Long.toHexString(System.nanoTime()));
+        try {
+            reportingTableRepository.create(organisation, "person", ReportingSource.Registration, VIEW_SQL);
+            assertEquals(2, rows(organisation).size());
+
+            renamed.setFirstName("Ramesh");
+            testSubjectService.save(renamed);
+            voided.setVoided(true);
+            testSubjectService.save(voided);
+            Individual added = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel2()).withFirstName("Sita").build());
+            ReportingTableRepository.ReportingTable reportingTable = reportingTableRepository.findAll().stream()
+                    .filter(table -> table.getName().equals("person")).findFirst().get();
+            assertTrue(reportingTableRepository.refresh(reportingTable, new Timestamp(new DateTime().plusMinutes(1).getMillis())));
+
+            Map<Long, String> rows = rows(organisation);
+            assertEquals(2, rows.size());
+            assertEquals("Ramesh", rows.get(renamed.getId()));
+            assertEquals("Sita", rows.get(added.getId()));
+
+            reportingTableRepository.drop(organisation, "person");
+            assertTrue(reportingTableRepository.findAll().isEmpty());
+            assertNull(jdbcTemplate.queryForObject("select cast(to_regclass(:table) as text)",
+                    new MapSqlParameterSource("table", organisation.getSchemaName() + ".person"), String.class));
+        } finally {
+            UserContextHolder.clear();
+            jdbcTemplate.getJdbcTemplate().execute(String.format("drop schema %s cascade", organisation.getSchemaName()));
+        }
+    }
+
+    /**
+     * The test organisations' schema names are uuids, which reporting SQL does not quote, so the organisation is moved
+     * to a schema of a plain name. This is done as the superuser, without a user in the context.
+     */
+    private Organisation createSchema(TestDataSetupService.TestOrganisationData organisationData, String schemaName) {
+        Organisation organisation = UserContextHolder.getUserContext().getOrganisation();
+        UserContextHolder.clear();
+        jdbcTemplate.getJdbcTemplate().execute(String.format("create schema %s authorization \"%s\"", schemaName, organisation.getDbUser()));
+        jdbcTemplate.update("update organisation set schema_name = :schemaName where id = :id",
+                new MapSqlParameterSource("schemaName", schemaName).addValue("id", organisation.getId()));
+        setUser(organisationData.getUser());
+        organisation.setSchemaName(schemaName);
+        return organisation;
+    }
+
+    private Map<Long, String> rows(Organisation organisation) {
+        Map<Long, String> rows = new HashMap<>();
+        jdbcTemplate.getJdbcTemplate().query(String.format("select id, first_name from %s.person", organisation.getSchemaName()),
+                resultSet -> {
+                    rows.put(resultSet.getLong("id"), resultSet.getString("first_name"));
+                });
+        return rows;
+    }
+}
@@ -0,0 +1,105 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.*;
+import org.avni.server.domain.ApprovalStatus;
+import org.avni.server.domain.User;
+import org.avni.server.domain.UserContext;
+import org.avni.server.domain.accessControl.PrivilegeType;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.accessControl.AccessControlService;
+import org.avni.server.util.BadRequestError;
+import org.avni.server.web.request.BulkEntityApprovalStatusRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+public class EntityApprovalStatusServiceTest {
+    private ApprovalStatusRepository approvalStatusRepository;
+    private EntityApprovalStatusBulkRepository entityApprovalStatusBulkRepository;
+    private AccessControlService accessControlService;
+    private EntityApprovalStatusService entityApprovalStatusService;
+
+    @Before
+    public void setup() {
+        approvalStatusRepository = mock(ApprovalStatusRepository.class);
+        entityApprovalStatusBulkRepository = mock(EntityApprovalStatusBulkRepository.class);
+        accessControlService = mock(AccessControlService.class);
+        entityApprovalStatusService = new EntityApprovalStatusService(mock(EntityApprovalStatusRepository.class), approvalStatusRepository,
+                mock(IndividualRepository.class), mock(EncounterRepository.class), mock(ChecklistItemRepository.class), mock(ProgramEncounterRepository.class),
+                mock(ProgramEnrolmentRepository.class), entityApprovalStatusBulkRepository, accessControlService);
+        when(approvalStatusRepository.findByStatus(ApprovalStatus.Status.Pending)).thenReturn(approvalStatus(1L));
+        when(approvalStatusRepository.findByStatus(ApprovalStatus.Status.Approved)).thenReturn(approvalStatus(2L));
+        User user = new User();
+        user.setId(7L);
+        UserContext context = new UserContext();
+        context.setUser(user);
+        UserContextHolder.create(context);
+    }
+
+    @After
+    public void tearDown() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    public void shouldApprovePendingEntitiesWithOneStatement() {
+        BulkEntityApprovalStatusRequest request = request("ProgramEncounter", "Approved");
+        when(entityApprovalStatusBulkRepository.updateStatus(any(), eq(2L), eq("Checked"), eq(7L), any())).thenReturn(1200);
+
+        assertEquals(1200, entityApprovalStatusService.bulkUpdateStatus(request));
+        verify(accessControlService).checkProgramEncounterPrivilege(PrivilegeType.ApproveEncounter, "entity-type-uuid");
+    }
+
+    @Test
+    public void shouldCheckThePrivilegeOnTheTypeOfTheEntities() {
+        entityApprovalStatusService.bulkUpdateStatus(request("Subject", "Approved"));
+        verify(accessControlService).checkSubjectPrivilege(PrivilegeType.ApproveSubject, "entity-type-uuid");
+
+        entityApprovalStatusService.bulkUpdateStatus(request("ChecklistItem", "Approved"));
+        verify(accessControlService).checkProgramPrivilege(PrivilegeType.ApproveChecklistitem, "entity-type-uuid");
+
+        entityApprovalStatusService.bulkUpdateStatus(request("Encounter", "Approved"));
+        verify(accessControlService).checkEncounterPrivilege(PrivilegeType.ApproveEncounter, "entity-type-uuid");
+    }
+
+    @Test
+    public void shouldRequireTheEntityType() {
+        BulkEntityApprovalStatusRequest request = request("Subject", "Approved");
+        request.setEntityTypeUuid(null);
+        try {
+            entityApprovalStatusService.bulkUpdateStatus(request);
+            fail();
+        } catch (BadRequestError ignored) {
+        }
+        verifyZeroInteractions(accessControlService, entityApprovalStatusBulkRepository);
+    }
+
+    @Test(expected = BadRequestError.class)
+    public void shouldNotMoveEntitiesBackToPending() {
+        entityApprovalStatusService.bulkUpdateStatus(request("Subject", "Pending"));
+    }
+
+    @Test(expected = BadRequestError.class)
+    public void shouldNotAcceptUnknownEntityType() {
+        entityApprovalStatusService.bulkUpdateStatus(request("Task", "Approved"));
+    }
+
+    private static BulkEntityApprovalStatusRequest request(String entityType, String approvalStatus) {
+        BulkEntityApprovalStatusRequest request = new BulkEntityApprovalStatusRequest();
+        request.setEntityType(entityType);
+        request.setEntityTypeUuid("entity-type-uuid");
+        request.setApprovalStatus(approvalStatus);
+        request.setApprovalStatusComment("Checked");
+        return request;
+    }
+
+    private static ApprovalStatus approvalStatus(long id) {
+        ApprovalStatus approvalStatus = new ApprovalStatus();
+        approvalStatus.setId(id);
+        return approvalStatus;
+    }
+}
@@ -0,0 +1,112 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.MetadataChangeRepository;
+import org.avni.server.domain.Group;
+import org.avni.server.domain.Organisation;
+import org.avni.server.domain.User;
+import org.avni.server.domain.UserContext;
+import org.avni.server.domain.accessControl.GroupPrivileges;
+import org.avni.server.domain.factory.access.TestGroupBuilder;
+import org.avni.server.domain.factory.access.TestUserGroupBuilder;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.MetadataSnapshotService.MetadataSnapshot;
+import org.avni.server.service.accessControl.GroupPrivilegeService;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class MetadataSnapshotServiceTest {
+    @Mock
+    private OrganisationService organisationService;
+    @Mock
+    private GroupPrivilegeService groupPrivilegeService;
+    @Mock
+    private MetadataChangeRepository metadataChangeRepository;
+    private MetadataSnapshotService metadataSnapshotService;
+    private Organisation organisation;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        organisation = new Organisation();
+        organisation.setId(1L);
+        when(groupPrivilegeService.getGroupPrivileges(any(User.class))).thenReturn(new GroupPrivileges(false));
+        metadataSnapshotService = new MetadataSnapshotService(organisationService, groupPrivilegeService, metadataChangeRepository, 10);
+    }
+
+    @After
+    public void teardown() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    public void shouldServeTheSameSnapshotUntilItsMetadataChanges() throws IOException {
+        setUser(1L);
+        MetadataSnapshot snapshot = metadataSnapshotService.getSnapshot();
+        assertEquals(snapshot, metadataSnapshotService.getSnapshot());
+        verify(organisationService, times(1)).addSubjectTypesJson(anyLong(), any());
+
+        when(metadataChangeRepository.getLastModifiedDateTime()).thenReturn(snapshot.getBuiltAt());
+        assertEquals(snapshot, metadataSnapshotService.getSnapshot());
+        verify(organisationService, times(1)).addSubjectTypesJson(anyLong(), any());
+
+        when(metadataChangeRepository.getLastModifiedDateTime()).thenReturn(snapshot.getBuiltAt().plusMillis(1));
+        MetadataSnapshot rebuiltSnapshot = metadataSnapshotService.getSnapshot();
+        verify(organisationService, times(2)).addSubjectTypesJson(anyLong(), any());
+        assertEquals(snapshot.getVersion(), rebuiltSnapshot.getVersion());
+    }
+
+    @Test
+    public void shouldCheckForChangesWithOneQueryPerRequest() throws IOException {
+        setUser(1L);
+        metadataSnapshotService.getSnapshot();
+        metadataSnapshotService.getSnapshot();
+        metadataSnapshotService.getSnapshot();
+        verify(metadataChangeRepository, times(2)).getLastModifiedDateTime();
+    }
+
+    @Test
+    public void shouldLagTheBuildTimeToNotMissChangesCommittedDuringTheBuild() throws IOException {
+        setUser(1L);
+        assertTrue(metadataSnapshotService.getSnapshot().getBuiltAt().isBefore(new DateTime().minusSeconds(9)));
+    }
+
+    @Test
+    public void shouldKeySnapshotsOnTheUserGroups() throws IOException {
+        setUser(1L, 2L);
+        MetadataSnapshot snapshot = metadataSnapshotService.getSnapshot();
+        setUser(2L, 1L);
+        assertEquals(snapshot, metadataSnapshotService.getSnapshot());
+        verify(organisationService, times(1)).addSubjectTypesJson(anyLong(), any());
+
+        setUser(1L);
+        metadataSnapshotService.getSnapshot();
+        verify(organisationService, times(2)).addSubjectTypesJson(anyLong(), any());
+    }
+
+    private void setUser(Long... groupIds) {
+        User user = new User();
+        user.setUserGroups(Arrays.stream(groupIds).map(groupId -> {
+            Group group = new TestGroupBuilder().withMandatoryFieldsForNewEntity().build();
+            group.setId(groupId);
+            return new TestUserGroupBuilder().withUser(user).withGroup(group).build();
+        }).collect(Collectors.toList()));
+        UserContext userContext = new UserContext();
+        userContext.setUser(user);
+        userContext.setOrganisation(organisation);
+        UserContextHolder.create(userContext);
+    }
+}
@@ -0,0 +1,128 @@
+package org.avni.server.service;
+
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.dao.EncounterTypeRepository;
+import org.avni.server.dao.OperationalEncounterTypeRepository;
+import org.avni.server.dao.ProgramEncounterRepository;
+import org.avni.server.domain.*;
+import org.avni.server.domain.factory.metadata.ProgramBuilder;
+import org.avni.server.domain.factory.txn.ProgramEnrolmentBuilder;
+import org.avni.server.domain.factory.txn.SubjectBuilder;
+import org.avni.server.domain.metadata.SubjectTypeBuilder;
+import org.avni.server.service.builder.*;
+import org.avni.server.web.request.rules.RulesContractWrapper.VisitSchedule;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class ProgramEncounterServiceIntegrationTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private TestSubjectTypeService testSubjectTypeService;
+    @Autowired
+    private TestProgramService testProgramService;
+    @Autowired
+    private TestSubjectService testSubjectService;
+    @Autowired
+    private TestProgramEnrolmentService testProgramEnrolmentService;
+    @Autowired
+    private EncounterTypeRepository encounterTypeRepository;
+    @Autowired
+    private OperationalEncounterTypeRepository operationalEncounterTypeRepository;
+    @Autowired
+    private ProgramEncounterRepository programEncounterRepository;
+    @Autowired
+    private ProgramEncounterService programEncounterService;
+
+    @Test
+    public void visitSchedulesShouldUpdateOnlyTheOpenEncountersOfTheirType() {
+        testDataSetupService.setupOrganisation();
+        TestDataSetupService.TestCatchmentData catchmentData = testDataSetupService.setupACatchment();
+        SubjectType subjectType = testSubjectTypeService.createWithDefaults(new SubjectTypeBuilder().setMandatoryFieldsForNewEntity().setName("Person").build());
+        Program program = testProgramService.addProgram(new ProgramBuilder().withName("Pregnancy").build(), subjectType);
+        Individual subject = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel1()).build());
+        ProgramEnrolment enrolment = testProgramEnrolmentService.save(new ProgramEnrolmentBuilder().withMandatoryFieldsForNewEntity().setProgram(program).setIndividual(subject).build());
+        EncounterType anc = createEncounterType("ANC");
+        EncounterType delivery = createEncounterType("Delivery");
+
+        DateTime now = new DateTime();
+        ProgramEncounter completedAnc = createEncounter(enrolment, anc, "ANC 1", now.minusDays(30), now.minusDays(28), null);
+        ProgramEncounter cancelledAnc = createEncounter(enrolment, anc, "ANC Cancelled", now.minusDays(20), null, now.minusDays(18));
+        ProgramEncounter openAnc = createEncounter(enrolment, anc, "ANC 2", now.minusDays(2), null, null);
+        ProgramEncounter completedDelivery = createEncounter(enrolment, delivery, "Delivery 1", now.minusDays(10), now.minusDays(9), null);
+        ProgramEncounter openDelivery = createEncounter(enrolment, delivery, "Delivery 2", now.minusDays(1), null, null);
+
+        programEncounterService.saveVisitSchedules(enrolment.getUuid(), Arrays.asList(
+                visitSchedule("ANC", "ANC 3", now.plusDays(30), null),
+                visitSchedule("Delivery", "Delivery Due", now.plusDays(60), null),
+                visitSchedule("ANC", "ANC 4", now.plusDays(40), "createNew"),
+                visitSchedule("ANC", "ANC 5", now.plusDays(50), null)), completedAnc.getUuid());
+
+        assertEquals("ANC 1", name(completedAnc));
+        assertEquals("ANC Cancelled", name(cancelledAnc));
+        assertEquals("ANC 5", name(openAnc));
+        assertEquals(now.plusDays(50).getMillis(), programEncounterRepository.findByUuid(openAnc.getUuid()).getEarliestVisitDateTime().getMillis());
+        assertEquals("Delivery 1", name(completedDelivery));
+        assertEquals("Delivery Due", name(openDelivery));
+
+        List<String> openAncNames = programEncounterRepository.findScheduledEncounters(enrolment, anc).stream()
+                .map(ProgramEncounter::getName).sorted().collect(Collectors.toList());
+        assertEquals(Arrays.asList("ANC 4", "ANC 5"), openAncNames);
+        assertEquals(1, programEncounterRepository.findScheduledEncounters(enrolment, delivery).size());
+    }
+
+    private EncounterType createEncounterType(String name) {
+        EncounterType encounterType = new EncounterType();
+        encounterType.setName(name);
+        encounterType.setUuid(UUID.randomUUID().toString());
+        encounterType.setActive(true);
+        encounterTypeRepository.save(encounterType);
+        OperationalEncounterType operationalEncounterType = new OperationalEncounterType();
+        operationalEncounterType.setName(name);
+        operationalEncounterType.setUuid(UUID.randomUUID().toString());
+        operationalEncounterType.setEncounterType(encounterType);
+        operationalEncounterTypeRepository.save(operationalEncounterType);
+        return encounterType;
+    }
+
+    private ProgramEncounter createEncounter(ProgramEnrolment enrolment, EncounterType encounterType, String name,
+                                             DateTime earliestVisitDateTime, DateTime encounterDateTime, DateTime cancelDateTime) {
+        ProgramEncounter programEncounter = new ProgramEncounter();
+        programEncounter.setUuid(UUID.randomUUID().toString());
+        programEncounter.setProgramEnrolment(enrolment);
+        programEncounter.setEncounterType(encounterType);
+        programEncounter.setName(name);
+        programEncounter.setEarliestVisitDateTime(earliestVisitDateTime);
+        programEncounter.setMaxVisitDateTime(earliestVisitDateTime.plusDays(5));
+        programEncounter.setEncounterDateTime(encounterDateTime);
+        programEncounter.setCancelDateTime(cancelDateTime);
+        programEncounter.setObservations(new ObservationCollection());
+        programEncounter.setCancelObservations(new ObservationCollection());
+        return programEncounterService.save(programEncounter);
+    }
+
+    private static VisitSchedule visitSchedule(String encounterType, String name, DateTime earliestDate, String visitCreationStrategy) {
+        VisitSchedule visitSchedule = new VisitSchedule();
+        visitSchedule.setEncounterType(encounterType);
+        visitSchedule.setName(name);
+        visitSchedule.setEarliestDate(earliestDate);
+        visitSchedule.setMaxDate(earliestDate.plusDays(5));
+        visitSchedule.setVisitCreationStrategy(visitCreationStrategy);
+        return visitSchedule;
+    }
+
+    private String name(ProgramEncounter programEncounter) {
+        return programEncounterRepository.findByUuid(programEncounter.getUuid()).getName();
+    }
+}
@@ -0,0 +1,78 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.*;
+import org.avni.server.domain.JsonObject;
+import org.avni.server.domain.ResetSync;
+import org.avni.server.domain.SubjectType;
+import org.avni.server.domain.User;
+import org.avni.server.web.request.syncAttribute.UserSyncSettings;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.*;
+
+public class ResetSyncServiceTest {
+    private ResetSyncRepository resetSyncRepository;
+    private SyncScopeChangeRepository syncScopeChangeRepository;
+    private ResetSyncService resetSyncService;
+    private SubjectType subjectType;
+
+    @Before
+    public void setup() {
+        resetSyncRepository = mock(ResetSyncRepository.class);
+        syncScopeChangeRepository = mock(SyncScopeChangeRepository.class);
+        IndividualRepository individualRepository = mock(IndividualRepository.class);
+        SubjectTypeRepository subjectTypeRepository = mock(SubjectTypeRepository.class);
+        resetSyncService = new ResetSyncService(resetSyncRepository, mock(UserRepository.class), individualRepository, subjectTypeRepository, syncScopeChangeRepository);
+        subjectType = new SubjectType();
+        subjectType.setUuid("st");
+        when(individualRepository.existsBySubjectTypeUuid("st")).thenReturn(true);
+        when(subjectTypeRepository.findAllByUuidIn(Collections.singletonList("st"))).thenReturn(Collections.singletonList(subjectType));
+    }
+
+    @Test
+    public void shouldRecordAddedAndRemovedValuesWhenValuesOfOneSyncConceptChange() {
+        User user = user(settings(Arrays.asList("a", "b"), Collections.singletonList("x")));
+        when(syncScopeChangeRepository.createSyncConceptValueChange(any(), any(), any(), any(), any(), any())).thenReturn(3L);
+
+        resetSyncService.recordSyncAttributeValueChangeForUser(user, null, settings(Arrays.asList("b", "c"), Collections.singletonList("x")));
+
+        verify(syncScopeChangeRepository).createSyncConceptValueChange(user, subjectType, Collections.singletonList("c"), Collections.singletonList("a"),
+                Collections.emptyList(), Collections.emptyList());
+        assertEquals(Long.valueOf(3L), savedResetSync().getSyncScopeChangeId());
+    }
+
+    @Test
+    public void shouldOnlyResetSyncWhenValuesOfBothSyncConceptsChange() {
+        User user = user(settings(Arrays.asList("a", "b"), Collections.singletonList("x")));
+
+        resetSyncService.recordSyncAttributeValueChangeForUser(user, null, settings(Arrays.asList("b", "c"), Collections.singletonList("y")));
+
+        verifyZeroInteractions(syncScopeChangeRepository);
+        assertNull(savedResetSync().getSyncScopeChangeId());
+    }
+
+    private ResetSync savedResetSync() {
+        ArgumentCaptor<ResetSync> captor = ArgumentCaptor.forClass(ResetSync.class);
+        verify(resetSyncRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static User user(JsonObject syncSettings) {
+        User user = new User();
+        user.setSyncSettings(syncSettings);
+        return user;
+    }
+
+    private static JsonObject settings(List<String> syncConcept1Values, List<String> syncConcept2Values) {
+        UserSyncSettings userSyncSettings = new UserSyncSettings("st", "concept1", syncConcept1Values, "concept2", syncConcept2Values);
+        return new JsonObject().with(User.SyncSettingKeys.subjectTypeSyncSettings.name(), Collections.singletonList(userSyncSettings));
+    }
+}
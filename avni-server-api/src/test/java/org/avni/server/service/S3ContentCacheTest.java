@@ -0,0 +1,136 @@
+package org.avni.server.service;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class S3ContentCacheTest {
+    private static final int MB = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    @Mock
+    private S3Service s3Service;
+    private S3ContentCache s3ContentCache;
+
+    @Before
+    public void setup() throws IOException {
+        initMocks(this);
+        when(s3Service.getObjectContent(anyString())).thenAnswer(invocation -> new ByteArrayInputStream(content(invocation.getArgument(0), MB / 2)));
+        s3ContentCache = new S3ContentCache(s3Service, temporaryFolder.getRoot().getPath(), 1);
+    }
+
+    @Test
+    public void shouldFetchAnObjectOnlyOncePerETag() throws IOException {
+        assertArrayEquals(content("a", MB / 2), read(s3ContentCache.open("a", "etag1")));
+        assertArrayEquals(content("a", MB / 2), read(s3ContentCache.open("a", "etag1")));
+        verify(s3Service, times(1)).getObjectContent("a");
+
+        read(s3ContentCache.open("a", "etag2"));
+        verify(s3Service, times(2)).getObjectContent("a");
+    }
+
+    @Test
+    public void shouldNotCacheObjectsWithoutETag() throws IOException {
+        assertNull(s3ContentCache.open("a", null));
+        verifyZeroInteractions(s3Service);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedObjectsOnceFull() throws IOException {
+        read(s3ContentCache.open("a", "etag"));
+        ageCachedObjects();
+        read(s3ContentCache.open("b", "etag"));
+        ageCachedObjects();
+        read(s3ContentCache.open("c", "etag"));
+
+        assertTrue(cachedSize() <= MB);
+        read(s3ContentCache.open("c", "etag"));
+        verify(s3Service, times(1)).getObjectContent("c");
+        read(s3ContentCache.open("a", "etag"));
+        verify(s3Service, times(2)).getObjectContent("a");
+    }
+
+    @Test
+    public void shouldReadAnOpenObjectToTheEndAfterItIsEvicted() throws IOException {
+        FileChannel openObject = s3ContentCache.open("a", "etag");
+        ageCachedObjects();
+        read(s3ContentCache.open("b", "etag"));
+        ageCachedObjects();
+        read(s3ContentCache.open("c", "etag"));
+
+        assertArrayEquals(content("a", MB / 2), read(openObject));
+    }
+
+    @Test
+    public void shouldServeObjectsLargerThanTheCache() throws IOException {
+        when(s3Service.getObjectContent("large")).thenReturn(new ByteArrayInputStream(content("large", 2 * MB)));
+        assertArrayEquals(content("large", 2 * MB), read(s3ContentCache.open("large", "etag")));
+        assertEquals(0, cachedSize());
+    }
+
+    @Test
+    public void shouldCountAnObjectFetchedByConcurrentRequestsOnce() throws Exception {
+        CyclicBarrier bothFetching = new CyclicBarrier(2);
+        when(s3Service.getObjectContent("a")).thenAnswer(invocation -> {
+            bothFetching.await(10, TimeUnit.SECONDS);
+            return new ByteArrayInputStream(content("a", MB / 2));
+        });
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Callable<byte[]> load = () -> read(s3ContentCache.open("a", "etag"));
+            Future<byte[]> first = executorService.submit(load);
+            Future<byte[]> second = executorService.submit(load);
+            assertArrayEquals(content("a", MB / 2), first.get(10, TimeUnit.SECONDS));
+            assertArrayEquals(content("a", MB / 2), second.get(10, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+        verify(s3Service, times(2)).getObjectContent("a");
+        assertEquals(MB / 2, cachedSize());
+
+        ageCachedObjects();
+        read(s3ContentCache.open("b", "etag"));
+        read(s3ContentCache.open("a", "etag"));
+        verify(s3Service, times(2)).getObjectContent("a");
+    }
+
+    //the objects are cached within the same millisecond, so make the ones cached earlier older
+    private void ageCachedObjects() {
+        for (File file : temporaryFolder.getRoot().listFiles()) {
+            file.setLastModified(file.lastModified() - 1000);
+        }
+    }
+
+    private long cachedSize() {
+        return Arrays.stream(temporaryFolder.getRoot().listFiles()).mapToLong(File::length).sum();
+    }
+
+    private static byte[] read(FileChannel fileChannel) throws IOException {
+        try (FileChannel channel = fileChannel) {
+            return StreamUtils.copyToByteArray(Channels.newInputStream(channel));
+        }
+    }
+
+    private static byte[] content(String s3Key, int size) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) s3Key.charAt(0));
+        return content;
+    }
+}
@@ -0,0 +1,64 @@
+package org.avni.server.service;
+
+import org.avni.server.dao.SyncTelemetryBatchRepository;
+import org.avni.server.domain.SyncTelemetry;
+import org.avni.server.framework.security.AuthService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class SyncTelemetryBufferTest {
+    private SyncTelemetryBatchRepository syncTelemetryBatchRepository;
+    private SyncTelemetryBuffer syncTelemetryBuffer;
+    private List<String> savedUuids;
+
+    @Before
+    public void setup() {
+        syncTelemetryBatchRepository = mock(SyncTelemetryBatchRepository.class);
+        savedUuids = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<SyncTelemetry> syncTelemetries = invocation.getArgument(0);
+            if (syncTelemetries.stream().anyMatch(syncTelemetry -> syncTelemetry.getUuid().equals("bad"))) {
+                throw new RuntimeException("value too long");
+            }
+            syncTelemetries.forEach(syncTelemetry -> savedUuids.add(syncTelemetry.getUuid()));
+            return null;
+        }).when(syncTelemetryBatchRepository).insert(anyList());
+        syncTelemetryBuffer = new SyncTelemetryBuffer(syncTelemetryBatchRepository, mock(AuthService.class), 10);
+    }
+
+    @Test
+    public void shouldSaveTheRestOfTheBatchWhenARowIsRejected() {
+        syncTelemetryBuffer.add(syncTelemetry("a"));
+        syncTelemetryBuffer.add(syncTelemetry("bad"));
+        syncTelemetryBuffer.add(syncTelemetry("b"));
+
+        syncTelemetryBuffer.flush();
+
+        assertEquals(Arrays.asList("a", "b"), savedUuids);
+    }
+
+    @Test
+    public void shouldSaveTheBatchTogetherWhenNoRowIsRejected() {
+        syncTelemetryBuffer.add(syncTelemetry("a"));
+        syncTelemetryBuffer.add(syncTelemetry("b"));
+
+        syncTelemetryBuffer.flush();
+
+        verify(syncTelemetryBatchRepository, times(1)).insert(anyList());
+        assertEquals(Arrays.asList("a", "b"), savedUuids);
+    }
+
+    private static SyncTelemetry syncTelemetry(String uuid) {
+        SyncTelemetry syncTelemetry = new SyncTelemetry();
+        syncTelemetry.setUuid(uuid);
+        return syncTelemetry;
+    }
+}
@@ -0,0 +1,73 @@
+package org.avni.server.service;
+
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.domain.User;
+import org.avni.server.service.builder.TestDataSetupService;
+import org.avni.server.web.request.task.TaskAssignmentRequest;
+import org.avni.server.web.request.task.TaskFilterCriteria;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class TaskServiceIntegrationTest extends AbstractControllerIntegrationTest {
+    private static final int NUMBER_OF_TASKS = 2503;
+
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    public void allSelectedTasksShouldBeAssignedInTurnAcrossChunks() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        User user1 = organisationData.getUser();
+        User user2 = organisationData.getUser2();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("organisationId", organisationData.getOrganisationId())
+                .addValue("userId", user1.getId())
+                .addValue("numberOfTasks", NUMBER_OF_TASKS);
+        params.addValue("taskTypeId", jdbcTemplate.queryForObject("insert into task_type (organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time, name, type) " +
+                "values (:organisationId, 0, :userId, :userId, now(), now(), 'Call', 'Call') returning id", params, Long.class));
+        params.addValue("taskStatusId", jdbcTemplate.queryForObject("insert into task_status (organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time, name, task_type_id, is_terminal) " +
+                "values (:organisationId, 0, :userId, :userId, now(), now(), 'Open', :taskTypeId, false) returning id", params, Long.class));
+        jdbcTemplate.update("insert into task (organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time, name, task_status_id, task_type_id, assigned_user_id, metadata, observations) " +
+                "select :organisationId, 0, :userId, :userId, now(), now(), 'Task ' || i, :taskStatusId, :taskTypeId, :userId, '{}', '{}' " +
+                "from generate_series(1, :numberOfTasks) i", params);
+
+        TaskFilterCriteria filterCriteria = new TaskFilterCriteria();
+        filterCriteria.setTaskType((Long) params.getValue("taskTypeId"));
+        filterCriteria.setTaskStatus((Long) params.getValue("taskStatusId"));
+        TaskAssignmentRequest assignmentRequest = new TaskAssignmentRequest();
+        assignmentRequest.setAllSelected(true);
+        assignmentRequest.setTaskFilterCriteria(filterCriteria);
+        assignmentRequest.setAssignToUserIds(Arrays.asList(user2.getId(), user1.getId()));
+        taskService.assignTask(assignmentRequest);
+
+        List<Map<String, Object>> tasks = jdbcTemplate.queryForList("select id, assigned_user_id, version from task order by id", params);
+        assertEquals(NUMBER_OF_TASKS, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            boolean reassigned = i % 2 == 0;
+            assertEquals((reassigned ? user2 : user1).getId().longValue(), ((Number) tasks.get(i).get("assigned_user_id")).longValue());
+            assertEquals(reassigned ? 1 : 0, ((Number) tasks.get(i).get("version")).intValue());
+        }
+
+        List<Map<String, Object>> unassignments = jdbcTemplate.queryForList("select task_id, unassigned_user_id from task_unassignment order by task_id", params);
+        assertEquals((NUMBER_OF_TASKS + 1) / 2, unassignments.size());
+        for (int i = 0; i < unassignments.size(); i++) {
+            assertEquals(((Number) tasks.get(2 * i).get("id")).longValue(), ((Number) unassignments.get(i).get("task_id")).longValue());
+            assertEquals(user1.getId().longValue(), ((Number) unassignments.get(i).get("unassigned_user_id")).longValue());
+        }
+    }
+}
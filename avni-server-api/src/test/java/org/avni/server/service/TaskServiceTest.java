@@ -3,57 +3,69 @@ package org.avni.server.service;
 import org.avni.server.dao.ConceptRepository;
 import org.avni.server.dao.IndividualRepository;
 import org.avni.server.dao.UserRepository;
+import org.avni.server.dao.task.TaskAssignmentRepository;
 import org.avni.server.dao.task.TaskRepository;
 import org.avni.server.dao.task.TaskSearchCriteria;
+import org.avni.server.dao.task.TaskSearchRepository;
 import org.avni.server.dao.task.TaskStatusRepository;
 import org.avni.server.dao.task.TaskTypeRepository;
 import org.avni.server.domain.User;
-import org.avni.server.domain.task.Task;
 import org.avni.server.domain.task.TaskStatus;
 import org.avni.server.web.request.task.TaskAssignmentRequest;
 import org.avni.server.web.request.task.TaskFilterCriteria;
 import org.junit.Test;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class TaskServiceTest {
 
     @Test
-    public void shouldAssignTasksToUsers() {
+    public void shouldAssignAllMatchingTasksToUsersInTurnAcrossChunks() {
         TaskAssignmentRequest taskAssignmentRequest = new TaskAssignmentRequest();
         taskAssignmentRequest.setAllSelected(true);
-        taskAssignmentRequest.setAssignToUserIds(Arrays.asList(4L, 5L));
+        taskAssignmentRequest.setAssignToUserIds(Arrays.asList(4L, 5L, 6L));
         TaskFilterCriteria taskFilterCriteria = new TaskFilterCriteria();
         taskAssignmentRequest.setTaskFilterCriteria(taskFilterCriteria);
-        TaskRepository taskRepository = mock(TaskRepository.class);
         UserRepository userRepository = mock(UserRepository.class);
-        TaskService taskService = new TaskService(taskRepository, mock(ObservationService.class), mock(TaskTypeRepository.class), mock(TaskStatusRepository.class), mock(IndividualRepository.class), userRepository,
-                mock(ConceptRepository.class), mock(ConceptService.class), mock(TaskUnAssigmentService.class));
-        List<User> users = Arrays.asList(new User(), new User());
+        TaskSearchRepository taskSearchRepository = mock(TaskSearchRepository.class);
+        TaskAssignmentRepository taskAssignmentRepository = mock(TaskAssignmentRepository.class);
+        TaskService taskService = new TaskService(mock(TaskRepository.class), mock(ObservationService.class), mock(TaskTypeRepository.class), mock(TaskStatusRepository.class), mock(IndividualRepository.class), userRepository,
+                mock(ConceptRepository.class), mock(ConceptService.class), taskSearchRepository, taskAssignmentRepository);
+        List<User> users = Arrays.asList(user(4L), user(5L), user(6L));
         when(userRepository.findByIdIn(taskAssignmentRequest.getAssignedToUserIdArray())).thenReturn(users);
 
-        List<Task> tasks = new ArrayList<>();
-        for (int i = 0; i < 1000; i ++) {
-            tasks.add(new Task());
-        }
-        when(taskRepository.search(any(TaskSearchCriteria.class), any(Boolean.class), any(Pageable.class))).thenReturn(new PageImpl<>(tasks, PageRequest.of(0, 1000), 2000));
+        List<Long> firstChunk = taskIds(1, 1000);
+        List<Long> secondChunk = taskIds(1001, 1500);
+        when(taskSearchRepository.findTaskIds(any(TaskSearchCriteria.class), anyBoolean(), isNull(), anyInt())).thenReturn(firstChunk);
+        when(taskSearchRepository.findTaskIds(any(TaskSearchCriteria.class), anyBoolean(), eq(1000L), anyInt())).thenReturn(secondChunk);
 
         taskService.assignTask(taskAssignmentRequest);
 
-        assertThat(tasks.get(0).getAssignedTo()).isIn(users);
-        assertThat(tasks.get(1).getAssignedTo()).isIn(users);
-        assertThat(tasks.get(2).getAssignedTo()).isIn(users);
-        assertThat(tasks.get(3).getAssignedTo()).isIn(users);
+        List<Long> userIds = Arrays.asList(4L, 5L, 6L);
+        verify(taskAssignmentRepository).assign(eq(firstChunk), eq(userIds), eq(0L), any());
+        verify(taskAssignmentRepository).assign(eq(secondChunk), eq(userIds), eq(1L), any());
+        verify(taskSearchRepository, never()).findTaskIds(any(TaskSearchCriteria.class), anyBoolean(), eq(1500L), anyInt());
+        verify(taskAssignmentRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAssignWhenUsersAreMoreThanTasks() {
+        TaskAssignmentRequest taskAssignmentRequest = new TaskAssignmentRequest();
+        taskAssignmentRequest.setAllSelected(false);
+        taskAssignmentRequest.setTaskIds(Arrays.asList(12L));
+        taskAssignmentRequest.setAssignToUserIds(Arrays.asList(4L, 5L));
+        UserRepository userRepository = mock(UserRepository.class);
+        TaskService taskService = new TaskService(mock(TaskRepository.class), mock(ObservationService.class), mock(TaskTypeRepository.class), mock(TaskStatusRepository.class), mock(IndividualRepository.class), userRepository,
+                mock(ConceptRepository.class), mock(ConceptService.class), mock(TaskSearchRepository.class), mock(TaskAssignmentRepository.class));
+        when(userRepository.findByIdIn(any())).thenReturn(Arrays.asList(user(4L), user(5L)));
+
+        taskService.assignTask(taskAssignmentRequest);
     }
 
     @Test
@@ -65,23 +77,30 @@ public class TaskServiceTest {
         taskAssignmentRequest.setStatusId(7L);
         TaskFilterCriteria taskFilterCriteria = new TaskFilterCriteria();
         taskAssignmentRequest.setTaskFilterCriteria(taskFilterCriteria);
-        TaskRepository taskRepository = mock(TaskRepository.class);
         UserRepository userRepository = mock(UserRepository.class);
         TaskStatusRepository taskStatusRepository = mock(TaskStatusRepository.class);
-        TaskService taskService = new TaskService(taskRepository, mock(ObservationService.class), mock(TaskTypeRepository.class), taskStatusRepository, mock(IndividualRepository.class), userRepository,
-                mock(ConceptRepository.class), mock(ConceptService.class), mock(TaskUnAssigmentService.class));
+        TaskAssignmentRepository taskAssignmentRepository = mock(TaskAssignmentRepository.class);
+        TaskService taskService = new TaskService(mock(TaskRepository.class), mock(ObservationService.class), mock(TaskTypeRepository.class), taskStatusRepository, mock(IndividualRepository.class), userRepository,
+                mock(ConceptRepository.class), mock(ConceptService.class), mock(TaskSearchRepository.class), taskAssignmentRepository);
 
         when(userRepository.findByIdIn(any())).thenReturn(new ArrayList<>());
-        List<Task> tasks = new ArrayList<>();
-        tasks.add(new Task());
-        when(taskRepository.findAllByIdIn(any())).thenReturn(tasks);
         TaskStatus taskStatus = new TaskStatus();
         taskStatus.setName("test task");
         when(taskStatusRepository.findOne((Long) any())).thenReturn(taskStatus);
 
         taskService.assignTask(taskAssignmentRequest);
 
-        assertThat(tasks.get(0).getTaskStatus().getName()).isEqualTo("test task");
+        verify(taskAssignmentRepository).updateStatus(eq(Arrays.asList(12L)), eq(taskStatus), any());
+        verify(taskAssignmentRepository, never()).assign(any(), any(), anyLong(), any());
     }
 
-}
\ No newline at end of file
+    private User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private List<Long> taskIds(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+}
@@ -1,29 +1,23 @@
 package org.avni.server.service;
 
-import org.avni.server.dao.GroupSubjectRepository;
-import org.avni.server.dao.IndividualRepository;
-import org.avni.server.dao.UserRepository;
-import org.avni.server.dao.UserSubjectAssignmentRepository;
+import org.avni.server.dao.*;
 import org.avni.server.domain.*;
 import org.avni.server.domain.accessControl.GroupPrivileges;
 import org.avni.server.domain.factory.*;
 import org.avni.server.domain.factory.txn.SubjectBuilder;
-import org.avni.server.domain.factory.txn.TestGroupSubjectBuilder;
 import org.avni.server.domain.metadata.SubjectTypeBuilder;
 import org.avni.server.service.accessControl.GroupPrivilegeService;
 import org.avni.server.web.request.UserSubjectAssignmentContract;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.Mock;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 import java.util.stream.Collectors;
 
-import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -35,17 +29,13 @@ public class UserSubjectAssignmentServiceTest {
     @Mock
     private UserSubjectAssignmentRepository userSubjectAssignmentRepository;
     @Mock
-    private GroupSubjectRepository groupSubjectRepository;
+    private UserSubjectAssignmentBulkRepository userSubjectAssignmentBulkRepository;
     @Mock
     private GroupPrivilegeService groupPrivilegeService;
     @Mock
-    private ChecklistService checklistService;
+    private SubjectTypeRepository subjectTypeRepository;
     @Mock
-    private ChecklistItemService checklistItemService;
-    @Mock
-    private IndividualRelationshipService individualRelationshipService;
-    @Captor
-    ArgumentCaptor<UserSubjectAssignment> userSubjectAssignmentCaptor;
+    private ChecklistDetailRepository checklistDetailRepository;
     @Mock
     private AvniMetaDataRuleService avniMetaDataRuleService;
     @Mock
@@ -64,7 +54,7 @@ public class UserSubjectAssignmentServiceTest {
     public void initialize() {
         initMocks(this);
 
-        userSubjectAssignmentService = new UserSubjectAssignmentService(userSubjectAssignmentRepository, userRepository, null, null, null, null, null, individualRepository, checklistService, checklistItemService, individualRelationshipService, groupSubjectRepository, groupPrivilegeService, avniMetaDataRuleService, addressLevelService);
+        userSubjectAssignmentService = new UserSubjectAssignmentService(userSubjectAssignmentRepository, userRepository, subjectTypeRepository, null, null, null, null, individualRepository, checklistDetailRepository, userSubjectAssignmentBulkRepository, groupPrivilegeService, avniMetaDataRuleService, addressLevelService);
         userSubjectAssignmentContract = new UserSubjectAssignmentContract();
         userSubjectAssignmentContract.setSubjectIds(Collections.singletonList(1l));
         userSubjectAssignmentContract.setUserId(1l);
@@ -81,18 +71,14 @@ public class UserSubjectAssignmentServiceTest {
         Individual group = new SubjectBuilder().setId(1).withLocation(addressLevelWithinCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(true).build()).build();
         when(individualRepository.findAllById(any())).thenReturn(Collections.singletonList(group));
         when(userRepository.findOne(1l)).thenReturn(new UserBuilder().setId(1).withCatchment(catchment).withDefaultValuesForNewEntity().userName("user1@example").organisationId(organisation.getId()).build());
-        when(groupSubjectRepository.findAllByGroupSubjectAndIsVoidedFalse(group)).thenReturn(Collections.singletonList(new TestGroupSubjectBuilder().setId(1l).withGroup(group)
-                .withMember(new SubjectBuilder().setId(2).withLocation(addressLevelWithinCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(false).build()).setId(2).build()).build()));
+        when(userSubjectAssignmentBulkRepository.getSubjectIdsWithMembers(Collections.singletonList(1l))).thenReturn(Arrays.asList(1l, 2l));
         when(groupPrivilegeService.getGroupPrivileges(any())).thenReturn(new GroupPrivileges(false));
         when(avniMetaDataRuleService.isDirectAssignmentAllowedFor(any())).thenReturn(true);
         when(addressLevelService.getAllRegistrationAddressIdsBySubjectType(any(), any())).thenReturn(catchment.getAddressLevels().stream().map(AddressLevel::getId).collect(Collectors.toList()));
 
 
         userSubjectAssignmentService.assignSubjects(userSubjectAssignmentContract);
-        verify(userSubjectAssignmentRepository, times(2)).save(userSubjectAssignmentCaptor.capture());
-        List<UserSubjectAssignment> usa = userSubjectAssignmentCaptor.getAllValues();
-        assertEquals(usa.get(0).getUser().getId().longValue(), 1l);
-        assertEquals(usa.get(1).getUser().getId().longValue(), 1l);
+        verify(userSubjectAssignmentBulkRepository).assign(eq(1l), eq(Arrays.asList(1l, 2l)), eq(false), any(), any());
     }
 
     @Test(expected = ValidationException.class)
@@ -101,8 +87,7 @@ public class UserSubjectAssignmentServiceTest {
         Individual group = new SubjectBuilder().setId(1).withLocation(addressLevelOutsideCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(true).build()).build();
         when(individualRepository.findAllById(any())).thenReturn(Collections.singletonList(group));
         when(userRepository.findOne(1l)).thenReturn(new UserBuilder().setId(1).withCatchment(catchment).withDefaultValuesForNewEntity().userName("user1@example").organisationId(organisation.getId()).build());
-        when(groupSubjectRepository.findAllByGroupSubjectAndIsVoidedFalse(group)).thenReturn(Collections.singletonList(new TestGroupSubjectBuilder().setId(1l).withGroup(group)
-                .withMember(new SubjectBuilder().setId(2).withLocation(addressLevelWithinCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(false).build()).setId(2).build()).build()));
+        when(userSubjectAssignmentBulkRepository.getSubjectIdsWithMembers(Collections.singletonList(1l))).thenReturn(Arrays.asList(1l, 2l));
         when(groupPrivilegeService.getGroupPrivileges(any())).thenReturn(new GroupPrivileges(false));
         when(avniMetaDataRuleService.isDirectAssignmentAllowedFor(any())).thenReturn(true);
         when(addressLevelService.getAllRegistrationAddressIdsBySubjectType(any(), any())).thenReturn(catchment.getAddressLevels().stream().map(AddressLevel::getId).collect(Collectors.toList()));
@@ -116,17 +101,13 @@ public class UserSubjectAssignmentServiceTest {
         Individual group = new SubjectBuilder().setId(1).withLocation(addressLevelWithinCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(true).build()).build();
         when(individualRepository.findAllById(any())).thenReturn(Collections.singletonList(group));
         when(userRepository.findOne(1l)).thenReturn(new UserBuilder().setId(1).withCatchment(catchment).withDefaultValuesForNewEntity().userName("user1@example").organisationId(organisation.getId()).build());
-        when(groupSubjectRepository.findAllByGroupSubjectAndIsVoidedFalse(group)).thenReturn(Collections.singletonList(new TestGroupSubjectBuilder().setId(1l).withGroup(group)
-                .withMember(new SubjectBuilder().setId(2).withLocation(addressLevelOutsideCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(false).build()).setId(2).build()).build()));
+        when(userSubjectAssignmentBulkRepository.getSubjectIdsWithMembers(Collections.singletonList(1l))).thenReturn(Arrays.asList(1l, 2l));
         when(groupPrivilegeService.getGroupPrivileges(any())).thenReturn(new GroupPrivileges(false));
         when(avniMetaDataRuleService.isDirectAssignmentAllowedFor(any())).thenReturn(true);
         when(addressLevelService.getAllRegistrationAddressIdsBySubjectType(any(), any())).thenReturn(catchment.getAddressLevels().stream().map(AddressLevel::getId).collect(Collectors.toList()));
 
         userSubjectAssignmentService.assignSubjects(userSubjectAssignmentContract);
-        verify(userSubjectAssignmentRepository, times(2)).save(userSubjectAssignmentCaptor.capture());
-        List<UserSubjectAssignment> usa = userSubjectAssignmentCaptor.getAllValues();
-        assertEquals(usa.get(0).getUser().getId().longValue(), 1l);
-        assertEquals(usa.get(1).getUser().getId().longValue(), 1l);
+        verify(userSubjectAssignmentBulkRepository).assign(eq(1l), eq(Arrays.asList(1l, 2l)), eq(false), any(), any());
     }
 
     @Test
@@ -136,16 +117,12 @@ public class UserSubjectAssignmentServiceTest {
         Individual group = new SubjectBuilder().setId(1).withLocation(addressLevelWithinCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(true).build()).build();
         when(individualRepository.findAllById(any())).thenReturn(Collections.singletonList(group));
         when(userRepository.findOne(1l)).thenReturn(new UserBuilder().setId(1).withCatchment(catchment).withDefaultValuesForNewEntity().userName("user1@example").organisationId(organisation.getId()).build());
-        when(groupSubjectRepository.findAllByGroupSubjectAndIsVoidedFalse(group)).thenReturn(Collections.singletonList(new TestGroupSubjectBuilder().setId(1l).withGroup(group)
-                .withMember(new SubjectBuilder().setId(2).withLocation(addressLevelOutsideCatchment).withSubjectType(new SubjectTypeBuilder().setGroup(false).build()).setId(2).build()).build()));
+        when(userSubjectAssignmentBulkRepository.getSubjectIdsWithMembers(Collections.singletonList(1l))).thenReturn(Arrays.asList(1l, 2l));
         when(groupPrivilegeService.getGroupPrivileges(any())).thenReturn(new GroupPrivileges(false));
         when(avniMetaDataRuleService.isDirectAssignmentAllowedFor(any())).thenReturn(true);
         when(addressLevelService.getAllRegistrationAddressIdsBySubjectType(any(), any())).thenReturn(catchment.getAddressLevels().stream().map(AddressLevel::getId).collect(Collectors.toList()));
 
         userSubjectAssignmentService.assignSubjects(userSubjectAssignmentContract);
-        verify(userSubjectAssignmentRepository, times(2)).save(userSubjectAssignmentCaptor.capture());
-        List<UserSubjectAssignment> usa = userSubjectAssignmentCaptor.getAllValues();
-        assertEquals(usa.get(0).getUser().getId().longValue(), 1l);
-        assertEquals(usa.get(1).getUser().getId().longValue(), 1l);
+        verify(userSubjectAssignmentBulkRepository).assign(eq(1l), eq(Arrays.asList(1l, 2l)), eq(true), any(), any());
     }
 }
@@ -0,0 +1,64 @@
+package org.avni.server.service.accessControl;
+
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.dao.GroupPrivilegeRepository;
+import org.avni.server.dao.GroupRepository;
+import org.avni.server.domain.Group;
+import org.avni.server.domain.SubjectType;
+import org.avni.server.domain.accessControl.GroupPrivilege;
+import org.avni.server.domain.accessControl.PrivilegeType;
+import org.avni.server.domain.metadata.SubjectTypeBuilder;
+import org.avni.server.service.builder.TestDataSetupService;
+import org.avni.server.service.builder.TestGroupService;
+import org.avni.server.service.builder.TestSubjectTypeService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(scripts = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class GroupPrivilegeServiceIntegrationTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private TestSubjectTypeService testSubjectTypeService;
+    @Autowired
+    private TestGroupService testGroupService;
+    @Autowired
+    private GroupPrivilegeService groupPrivilegeService;
+    @Autowired
+    private GroupPrivilegeRepository groupPrivilegeRepository;
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Test
+    public void cachedPrivilegesShouldBeReloadedWhenTheyChange() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        SubjectType subjectType = testSubjectTypeService.createWithDefaults(new SubjectTypeBuilder().setMandatoryFieldsForNewEntity().setUuid("st_Privileged").setName("st_Privileged").build());
+        SubjectType otherSubjectType = testSubjectTypeService.createWithDefaults(new SubjectTypeBuilder().setMandatoryFieldsForNewEntity().setUuid("st_Other").setName("st_Other").build());
+        Group group = organisationData.getGroup();
+
+        assertFalse(canViewSubject(subjectType));
+
+        testGroupService.giveViewSubjectPrivilegeTo(group, subjectType);
+        assertTrue(canViewSubject(subjectType));
+        assertFalse(canViewSubject(otherSubjectType));
+
+        for (GroupPrivilege groupPrivilege : groupPrivilegeRepository.findByGroup_Id(group.getId())) {
+            groupPrivilege.setVoided(true);
+            groupPrivilegeRepository.save(groupPrivilege);
+        }
+        assertFalse(canViewSubject(subjectType));
+
+        group.setHasAllPrivileges(true);
+        groupRepository.save(group);
+        assertTrue(canViewSubject(otherSubjectType));
+    }
+
+    private boolean canViewSubject(SubjectType subjectType) {
+        return groupPrivilegeService.getGroupPrivileges().hasPrivilege(PrivilegeType.ViewSubject, subjectType, null, null, null);
+    }
+}
@@ -63,6 +63,21 @@ public class IdentifierUserAssignmentRepositoryTest extends AbstractControllerIn
         assertFalse(hasOverlapUserSpecific(identifierSource, assignmentUserUsingSamePrefix, 310, 550));
     }
 
+    @Test
+    public void identifierBalanceIsLowOnlyWhileIdentifiersAreLeftToGenerate() {
+        organisationSetupService.setupOrganisation(this);
+        IdentifierSource identifierSource = identifierSourceRepository.save(new IdentifierSourceBuilder().addPrefix("Foo-").setType(IdentifierGeneratorType.userPoolBasedIdentifierGenerator).build());
+        User userWithIdentifiersLeft = userRepository.save(new UserBuilder().withDefaultValuesForNewEntity().withAuditUser(organisationSetupService.getUser()).organisationId(organisationSetupService.getUser().getOrganisationId()).build());
+        User userWithAllIdentifiersGenerated = userRepository.save(new UserBuilder().withDefaultValuesForNewEntity().withAuditUser(organisationSetupService.getUser()).organisationId(organisationSetupService.getUser().getOrganisationId()).build());
+        identifierUserAssignmentRepository.save(new IdentifierUserAssignmentBuilder().setIdentifierSource(identifierSource).setIdentifierStart("Foo-100").setIdentifierEnd("Foo-200").setAssignedTo(userWithIdentifiersLeft).build());
+        identifierUserAssignmentRepository.save(new IdentifierUserAssignmentBuilder().setIdentifierSource(identifierSource).setIdentifierStart("Foo-300").setIdentifierEnd("Foo-400").setLastAssignedIdentifier("Foo-400").setAssignedTo(userWithAllIdentifiersGenerated).build());
+
+        assertTrue(identifierUserAssignmentRepository.isIdentifierBalanceLow(userWithIdentifiersLeft.getId()));
+        assertFalse(identifierUserAssignmentRepository.isIdentifierBalanceLow(userWithAllIdentifiersGenerated.getId()));
+        assertTrue(identifierUserAssignmentRepository.getUsersWithLowIdentifierBalance().stream().anyMatch(userId -> userId.longValue() == userWithIdentifiersLeft.getId()));
+        assertFalse(identifierUserAssignmentRepository.getUsersWithLowIdentifierBalance().stream().anyMatch(userId -> userId.longValue() == userWithAllIdentifiersGenerated.getId()));
+    }
+
     private boolean hasOverlapPooled(IdentifierSource identifierSource, long start, long end) {
         IdentifierUserAssignment incident = new IdentifierUserAssignmentBuilder().setIdentifierSource(identifierSource).setIdentifierStart(String.format("Foo-%d", start)).setIdentifierEnd(String.format("Foo-%d", end)).build();
         return identifierUserAssignmentRepository.getOverlappingAssignmentForPooledIdentifier(incident).size() > 0;
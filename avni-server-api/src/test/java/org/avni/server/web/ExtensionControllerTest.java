@@ -0,0 +1,101 @@
+package org.avni.server.web;
+
+import org.avni.server.domain.Organisation;
+import org.avni.server.domain.UserContext;
+import org.avni.server.framework.security.UserContextHolder;
+import org.avni.server.service.ExtensionService;
+import org.avni.server.service.S3ContentCache;
+import org.avni.server.service.S3Service;
+import org.avni.server.service.accessControl.AccessControlServiceStub;
+import org.avni.server.web.util.ErrorBodyBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ExtensionControllerTest {
+    private static final String CONTENT = "<html>print</html>";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    @Mock
+    private S3Service s3Service;
+    @Mock
+    private ExtensionService extensionService;
+    private ExtensionController extensionController;
+    private Organisation organisation;
+
+    @Before
+    public void setup() throws IOException {
+        initMocks(this);
+        organisation = new Organisation();
+        organisation.setMediaDirectory("org");
+        UserContext userContext = new UserContext();
+        userContext.setOrganisation(organisation);
+        UserContextHolder.create(userContext);
+        when(extensionService.getETag(organisation, "print/index.html")).thenReturn("etag1");
+        when(s3Service.getObjectContent(anyString())).thenAnswer(invocation -> new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        S3ContentCache s3ContentCache = new S3ContentCache(s3Service, temporaryFolder.getRoot().getPath(), 1);
+        extensionController = new ExtensionController(s3Service, null, null, new AccessControlServiceStub(), ErrorBodyBuilder.createForTest(), extensionService, s3ContentCache);
+    }
+
+    @After
+    public void teardown() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    public void shouldServeTheFileWithItsETagFromTheCache() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(extensionController.serveExtensionFile(null, "print", request(null), response));
+        assertEquals("\"etag1\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(CONTENT, response.getContentAsString());
+
+        response = new MockHttpServletResponse();
+        extensionController.serveExtensionFile(null, "print", request(null), response);
+        assertEquals(CONTENT, response.getContentAsString());
+        verify(s3Service, times(1)).getObjectContent("org/extensions/print/index.html");
+    }
+
+    @Test
+    public void shouldRespondNotModifiedWhenTheETagMatches() {
+        ResponseEntity<?> responseEntity = extensionController.serveExtensionFile(null, "print", request("\"etag1\""), new MockHttpServletResponse());
+        assertEquals(304, responseEntity.getStatusCodeValue());
+        assertEquals("\"etag1\"", responseEntity.getHeaders().getETag());
+        verify(s3Service, never()).getObjectContent(anyString());
+    }
+
+    @Test
+    public void shouldServeTheChangedFileWhenTheETagDoesNotMatch() throws IOException {
+        when(extensionService.getETag(organisation, "print/index.html")).thenReturn("etag2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        extensionController.serveExtensionFile(null, "print", request("\"etag1\""), response);
+        assertEquals(200, response.getStatus());
+        assertEquals("\"etag2\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    private static MockHttpServletRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/extension/print/index.html");
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/extension/print/index.html");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/extension/{basePath}/**");
+        if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return request;
+    }
+}
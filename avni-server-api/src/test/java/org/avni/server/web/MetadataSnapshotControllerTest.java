@@ -0,0 +1,71 @@
+package org.avni.server.web;
+
+import org.avni.server.service.MetadataSnapshotService;
+import org.avni.server.service.MetadataSnapshotService.MetadataSnapshot;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class MetadataSnapshotControllerTest {
+    private static final String CONTENT = "{\"bundle\":{}}";
+
+    @Mock
+    private MetadataSnapshotService metadataSnapshotService;
+    private MetadataSnapshotController metadataSnapshotController;
+    private MetadataSnapshot snapshot;
+
+    @Before
+    public void setup() throws IOException {
+        initMocks(this);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        snapshot = new MetadataSnapshot("v1", new DateTime(), compressed.toByteArray());
+        when(metadataSnapshotService.getSnapshot()).thenReturn(snapshot);
+        metadataSnapshotController = new MetadataSnapshotController(metadataSnapshotService);
+    }
+
+    @Test
+    public void shouldRespondNotModifiedWhenTheDeviceHasTheSnapshot() throws IOException {
+        ResponseEntity<byte[]> response = metadataSnapshotController.getMetadataSnapshot("\"v1\"", "gzip");
+        assertEquals(304, response.getStatusCodeValue());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void shouldSendTheSnapshotGzippedToClientsAcceptingGzip() throws IOException {
+        ResponseEntity<byte[]> response = metadataSnapshotController.getMetadataSnapshot("\"v0\"", "deflate, gzip;q=0.8");
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(snapshot.getGzippedContent(), response.getBody());
+    }
+
+    @Test
+    public void shouldSendTheSnapshotUncompressedToOtherClients() throws IOException {
+        assertUncompressed(metadataSnapshotController.getMetadataSnapshot(null, null));
+        assertUncompressed(metadataSnapshotController.getMetadataSnapshot(null, "identity"));
+        assertUncompressed(metadataSnapshotController.getMetadataSnapshot(null, "gzip;q=0, identity"));
+    }
+
+    private static void assertUncompressed(ResponseEntity<byte[]> response) {
+        assertEquals(200, response.getStatusCodeValue());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(CONTENT, new String(response.getBody(), StandardCharsets.UTF_8));
+        assertTrue(response.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+    }
+}
@@ -0,0 +1,85 @@
+package org.avni.server.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.dao.GenderRepository;
+import org.avni.server.domain.*;
+import org.avni.server.domain.factory.UserBuilder;
+import org.avni.server.domain.factory.txn.SubjectBuilder;
+import org.avni.server.domain.metadata.SubjectTypeBuilder;
+import org.avni.server.service.builder.TestDataSetupService;
+import org.avni.server.service.builder.TestGroupService;
+import org.avni.server.service.builder.TestSubjectService;
+import org.avni.server.service.builder.TestSubjectTypeService;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class StreamingSyncIntegrationTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private TestSubjectTypeService testSubjectTypeService;
+    @Autowired
+    private TestSubjectService testSubjectService;
+    @Autowired
+    private TestGroupService testGroupService;
+    @Autowired
+    private GenderRepository genderRepository;
+    @Autowired
+    private IndividualController individualController;
+
+    @Test
+    public void streamedIndividualsShouldMatchTheEntityResponse() throws IOException {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        TestDataSetupService.TestCatchmentData catchmentData = testDataSetupService.setupACatchment();
+        SubjectType subjectType = testSubjectTypeService.createWithDefaults(new SubjectTypeBuilder().setMandatoryFieldsForNewEntity().setName("Person").build());
+        testGroupService.giveViewSubjectPrivilegeTo(organisationData.getGroup(), subjectType);
+        Gender gender = Gender.create("Female");
+        gender.assignUUID();
+        gender = genderRepository.save(gender);
+        testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel1()).withGender(gender).build());
+        testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(catchmentData.getAddressLevel2()).build());
+        User user = userRepository.save(new UserBuilder(organisationData.getUser()).withCatchment(catchmentData.getCatchment()).withOperatingIndividualScope(OperatingIndividualScope.ByCatchment).build());
+        setUser(user.getUsername());
+
+        String path = String.format("/individual/v2?lastModifiedDateTime=%s&now=%s&subjectTypeUuid=%s&page=0&size=10",
+                new DateTime(DateTimeZone.UTC).minusDays(1), new DateTime(DateTimeZone.UTC), subjectType.getUuid());
+        JsonNode entityResponse = withoutProxyFields(mapper.readTree(template.getForObject(path, String.class)));
+        setStreamingSyncEnabled(true);
+        JsonNode streamedResponse;
+        try {
+            streamedResponse = withoutProxyFields(mapper.readTree(template.getForObject(path, String.class)));
+        } finally {
+            setStreamingSyncEnabled(false);
+        }
+
+        assertEquals(2, entityResponse.get("_embedded").get("individual").size());
+        assertEquals(entityResponse, streamedResponse);
+    }
+
+    private void setStreamingSyncEnabled(boolean enabled) {
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(individualController), "streamingSyncEnabled", enabled);
+    }
+
+    //the entity response has the inline entities as loaded, which can be hibernate proxies that carry these
+    private static JsonNode withoutProxyFields(JsonNode json) {
+        if (json.isObject()) {
+            ((ObjectNode) json).remove("hibernateLazyInitializer");
+            ((ObjectNode) json).remove("handler");
+        }
+        json.forEach(StreamingSyncIntegrationTest::withoutProxyFields);
+        return json;
+    }
+}
@@ -0,0 +1,127 @@
+package org.avni.server.web;
+
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.dao.LocationMappingRepository;
+import org.avni.server.domain.*;
+import org.avni.server.domain.factory.AddressLevelBuilder;
+import org.avni.server.domain.factory.TestCatchmentBuilder;
+import org.avni.server.domain.factory.UserBuilder;
+import org.avni.server.domain.factory.txn.SubjectBuilder;
+import org.avni.server.domain.metadata.SubjectTypeBuilder;
+import org.avni.server.service.ResetSyncService;
+import org.avni.server.service.builder.*;
+import org.avni.server.web.request.CatchmentContract;
+import org.avni.server.web.response.RemovedSubjectResponse;
+import org.avni.server.web.response.SyncScopeChangeResponse;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.Resource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class SyncScopeChangeIntegrationTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private TestDataSetupService testDataSetupService;
+    @Autowired
+    private TestSubjectTypeService testSubjectTypeService;
+    @Autowired
+    private TestSubjectService testSubjectService;
+    @Autowired
+    private TestGroupService testGroupService;
+    @Autowired
+    private TestLocationService testLocationService;
+    @Autowired
+    private TestCatchmentService testCatchmentService;
+    @Autowired
+    private LocationMappingRepository locationMappingRepository;
+    @Autowired
+    private ResetSyncService resetSyncService;
+    @Autowired
+    private ResetSyncController resetSyncController;
+    @Autowired
+    private IndividualController individualController;
+    @Autowired
+    private LocationController locationController;
+    @Autowired
+    private LocationMappingController locationMappingController;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    public void deviceShouldGetOnlyWhatCameIntoScopeAndPurgeWhatWentOutOfIt() {
+        TestDataSetupService.TestOrganisationData organisationData = testDataSetupService.setupOrganisation();
+        TestDataSetupService.TestCatchmentData catchmentData = testDataSetupService.setupACatchment();
+        AddressLevel removedLocation = catchmentData.getAddressLevel1();
+        AddressLevel retainedLocation = catchmentData.getAddressLevel2();
+        AddressLevel addedLocation = testLocationService.save(new AddressLevelBuilder().withDefaultValuesForNewEntity().type(catchmentData.getAddressLevelType()).build());
+        ParentLocationMapping retainedMapping = createChildLocation(retainedLocation, catchmentData.getAddressLevelType());
+        ParentLocationMapping addedMapping = createChildLocation(addedLocation, catchmentData.getAddressLevelType());
+        Catchment catchment = new TestCatchmentBuilder().withDefaultValuesForNewEntity().build();
+        testCatchmentService.createCatchment(catchment, removedLocation, retainedLocation);
+
+        SubjectType subjectType = testSubjectTypeService.createWithDefaults(new SubjectTypeBuilder().setMandatoryFieldsForNewEntity().setName("Person").build());
+        testGroupService.giveViewSubjectPrivilegeTo(organisationData.getGroup(), subjectType);
+        Individual inRemovedLocation = saveSubject(subjectType, removedLocation);
+        Individual inRetainedLocation = saveSubject(subjectType, retainedLocation);
+        Individual inAddedLocation = saveSubject(subjectType, addedLocation);
+        User user = userRepository.save(new UserBuilder(organisationData.getUser()).withCatchment(catchment).withOperatingIndividualScope(OperatingIndividualScope.ByCatchment).build());
+        setUser(user.getUsername());
+
+        DateTime lastModifiedDateTime = new DateTime().minusDays(1);
+        CatchmentContract request = new CatchmentContract();
+        request.setLocationIds(Arrays.asList(retainedLocation.getId(), addedLocation.getId()));
+        resetSyncService.recordCatchmentChange(catchment, request);
+        jdbcTemplate.update("update catchment_address_mapping set addresslevel_id = :added where catchment_id = :catchmentId and addresslevel_id = :removed",
+                new MapSqlParameterSource("added", addedLocation.getId()).addValue("removed", removedLocation.getId()).addValue("catchmentId", catchment.getId()));
+        DateTime now = new DateTime();
+
+        assertEquals(1, resetSyncController.fetchByLastModified(lastModifiedDateTime, now, false, PageRequest.of(0, 10)).getContent().size());
+        assertEquals(0, resetSyncController.fetchByLastModified(lastModifiedDateTime, now, true, PageRequest.of(0, 10)).getContent().size());
+        List<SyncScopeChangeResponse> syncScopeChanges = resetSyncController.getSyncScopeChanges(lastModifiedDateTime, now);
+        assertEquals(1, syncScopeChanges.size());
+        String syncScopeChangeUuid = syncScopeChanges.get(0).getUuid();
+
+        assertEquals(Collections.singletonList(inRemovedLocation.getUuid()), resetSyncController.getRemovedSubjects(syncScopeChangeUuid, null, 1000)
+                .stream().map(RemovedSubjectResponse::getUuid).collect(Collectors.toList()));
+
+        assertEquals(uuids(inAddedLocation), uuids(individualController.getIndividualsByOperatingIndividualScope(lastModifiedDateTime, now, subjectType.getUuid(), syncScopeChangeUuid, PageRequest.of(0, 10)).getContent()));
+        assertEquals(uuids(inRetainedLocation, inAddedLocation), uuids(individualController.getIndividualsByOperatingIndividualScope(lastModifiedDateTime, now, subjectType.getUuid(), null, PageRequest.of(0, 10)).getContent()));
+
+        assertEquals(uuids(addedLocation, addedMapping.getLocation()), uuids(locationController.getAddressLevelsByOperatingIndividualScope(lastModifiedDateTime, now, syncScopeChangeUuid, PageRequest.of(0, 10)).getContent()));
+        assertEquals(uuids(retainedLocation, retainedMapping.getLocation(), addedLocation, addedMapping.getLocation()), uuids(locationController.getAddressLevelsByOperatingIndividualScope(lastModifiedDateTime, now, null, PageRequest.of(0, 10)).getContent()));
+
+        assertEquals(uuids(addedMapping), uuids(locationMappingController.getParentLocationMappingsByOperatingIndividualScope(lastModifiedDateTime, now, syncScopeChangeUuid, PageRequest.of(0, 10)).getContent()));
+        assertEquals(uuids(retainedMapping, addedMapping), uuids(locationMappingController.getParentLocationMappingsByOperatingIndividualScope(lastModifiedDateTime, now, null, PageRequest.of(0, 10)).getContent()));
+    }
+
+    private Individual saveSubject(SubjectType subjectType, AddressLevel location) {
+        return testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectType).withLocation(location).build());
+    }
+
+    private ParentLocationMapping createChildLocation(AddressLevel parent, AddressLevelType addressLevelType) {
+        AddressLevel child = testLocationService.save(new AddressLevelBuilder().withDefaultValuesForNewEntity().type(addressLevelType).parent(parent).build());
+        ParentLocationMapping parentLocationMapping = new ParentLocationMapping();
+        parentLocationMapping.assignUUID();
+        parentLocationMapping.setLocation(child);
+        parentLocationMapping.setParentLocation(parent);
+        return locationMappingRepository.save(parentLocationMapping);
+    }
+
+    private static Set<String> uuids(CHSEntity... entities) {
+        return Arrays.stream(entities).map(CHSEntity::getUuid).collect(Collectors.toSet());
+    }
+
+    private static <T extends CHSEntity> Set<String> uuids(Collection<Resource<T>> resources) {
+        return resources.stream().map(resource -> resource.getContent().getUuid()).collect(Collectors.toSet());
+    }
+}
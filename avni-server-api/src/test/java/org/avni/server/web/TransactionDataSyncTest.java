@@ -26,6 +26,7 @@ import org.springframework.hateoas.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -346,12 +347,36 @@ public class TransactionDataSyncTest extends AbstractControllerIntegrationTest {
         assertFalse(hasEntity(enrolmentAssigned, enrolments));
     }
 
+    @Test
+    public void syncDetailsShouldListProgramOnlyWhenEnrolmentsInScopeChanged() throws Exception {
+        userRepository.save(new UserBuilder(organisationData.getUser()).withCatchment(catchmentData.getCatchment()).withOperatingIndividualScope(OperatingIndividualScope.ByCatchment).build());
+        setUser(organisationData.getUser().getUsername());
+        Individual inTheCatchment = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectTypeWithCatchmentBasedSync).withLocation(catchmentData.getAddressLevel1()).build());
+        Individual outsideCatchment = testSubjectService.save(new SubjectBuilder().withMandatoryFieldsForNewEntity().withSubjectType(subjectTypeWithCatchmentBasedSync).withLocation(catchmentData.getAddressLevel2()).build());
+        ProgramEnrolment enrolmentInTheCatchment = testProgramEnrolmentService.save(new ProgramEnrolmentBuilder().withMandatoryFieldsForNewEntity().setProgram(programWithCatchmentBasedSync).setIndividual(inTheCatchment).build());
+        EntitySyncStatusContract programEnrolments = EntitySyncStatusContract.createForEntityWithSubType(SyncEntityName.ProgramEnrolment, programWithCatchmentBasedSync.getUuid());
+
+        assertTrue(getSyncDetails(programEnrolments).contains(programEnrolments));
+
+        programEnrolments.setLoadedSince(enrolmentInTheCatchment.getLastModifiedDateTime());
+        assertFalse(getSyncDetails(programEnrolments).contains(programEnrolments));
+
+        testProgramEnrolmentService.save(new ProgramEnrolmentBuilder().withMandatoryFieldsForNewEntity().setProgram(programWithCatchmentBasedSync).setIndividual(outsideCatchment).build());
+        assertFalse(getSyncDetails(programEnrolments).contains(programEnrolments));
+
+        Thread.sleep(1);
+        enrolmentInTheCatchment.setVoided(true);
+        testProgramEnrolmentService.save(enrolmentInTheCatchment);
+        assertTrue(getSyncDetails(programEnrolments).contains(programEnrolments));
+    }
+
     private boolean hasEntity(CHSEntity entity, List<? extends CHSEntity> entities) {
         return entities.stream().anyMatch(x -> x.getUuid().equals(entity.getUuid()));
     }
 
-    private List getSyncDetails() {
+    private List getSyncDetails(EntitySyncStatusContract... transactionalEntities) {
         List<EntitySyncStatusContract> contracts = SyncEntityName.getNonTransactionalEntities().stream().map(EntitySyncStatusContract::createForEntityWithoutSubType).collect(Collectors.toList());
+        contracts.addAll(Arrays.asList(transactionalEntities));
         ResponseEntity<?> response = syncController.getSyncDetailsWithScopeAwareEAS(contracts, false);
         return ((JsonObject) response.getBody()).getList("syncDetails");
     }
@@ -365,7 +390,7 @@ public class TransactionDataSyncTest extends AbstractControllerIntegrationTest {
     }
 
     private List<Individual> getSubjects(SubjectType subjectType, DateTime lastModifiedDateTime, DateTime now) {
-        PagedResources<Resource<Individual>> individuals = individualController.getIndividualsByOperatingIndividualScope(lastModifiedDateTime, now, subjectType.getUuid(), PageRequest.of(0, 10));
+        PagedResources<Resource<Individual>> individuals = individualController.getIndividualsByOperatingIndividualScope(lastModifiedDateTime, now, subjectType.getUuid(), null, PageRequest.of(0, 10));
         return individuals.getContent().stream().map(Resource::getContent).collect(Collectors.toList());
     }
 
@@ -378,7 +403,7 @@ public class TransactionDataSyncTest extends AbstractControllerIntegrationTest {
     }
 
     private List<ProgramEnrolment> getEnrolments(Program program, DateTime lastModifiedDateTime, DateTime now) throws Exception {
-        PagedResources<Resource<ProgramEnrolment>> enrolments = programEnrolmentController.getProgramEnrolmentsByOperatingIndividualScope(lastModifiedDateTime, now, program.getUuid(), PageRequest.of(0, 10));
+        PagedResources<Resource<ProgramEnrolment>> enrolments = programEnrolmentController.getProgramEnrolmentsByOperatingIndividualScope(lastModifiedDateTime, now, program.getUuid(), null, PageRequest.of(0, 10));
         return enrolments.getContent().stream().map(Resource::getContent).collect(Collectors.toList());
     }
 
@@ -393,6 +418,7 @@ public class TransactionDataSyncTest extends AbstractControllerIntegrationTest {
     private List<GroupSubject> getGroupSubjects(SubjectType groupSubjectType, DateTime lastModifiedDateTime, DateTime now) {
         PagedResources<Resource<GroupSubject>> enrolments = groupSubjectController.getGroupSubjectsByOperatingIndividualScope(lastModifiedDateTime, now,
                 groupSubjectType.getUuid(),
+                null,
                 PageRequest.of(0, 10));
         return enrolments.getContent().stream().map(Resource::getContent).collect(Collectors.toList());
     }
@@ -0,0 +1,79 @@
+package org.avni.server.web;
+
+import org.avni.server.common.AbstractControllerIntegrationTest;
+import org.avni.server.dao.EncounterRepository;
+import org.avni.server.dao.IndividualRepository;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(value = {"/test-data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/tear-down.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class UploadBatchControllerIntegrationTest extends AbstractControllerIntegrationTest {
+    @Autowired
+    private IndividualRepository individualRepository;
+    @Autowired
+    private EncounterRepository encounterRepository;
+
+    private final String INDIVIDUAL_UUID = "0a1bf764-4576-4d71-b8ec-25895a113e81";
+    private final String ENCOUNTER_UUID = "fbfd4ce8-b03b-45b9-b919-1ef8a0d9651e";
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        setUser("demo-user");
+    }
+
+    @Test
+    public void shouldSaveAllItemsOfTheBatch() throws IOException {
+        post("/upload/batch", Arrays.asList(
+                item("Individual", "/ref/individual/newIndividual.json"),
+                item("Encounter", "/ref/encounters/newEncounter.json")));
+
+        assertThat(individualRepository.findByUuid(INDIVIDUAL_UUID)).isNotNull();
+        assertThat(encounterRepository.findByUuid(ENCOUNTER_UUID)).isNotNull();
+    }
+
+    @Test
+    public void shouldUpdateAnEntitySavedEarlierInTheBatch() throws IOException {
+        Map<String, Object> edit = item("Individual", "/ref/individual/newIndividual.json");
+        ((Map<String, Object>) edit.get("request")).put("firstName", "Edited");
+
+        post("/upload/batch", Arrays.asList(
+                item("Individual", "/ref/individual/newIndividual.json"),
+                edit));
+
+        assertThat(individualRepository.findByUuid(INDIVIDUAL_UUID).getFirstName()).isEqualTo("Edited");
+    }
+
+    @Test
+    public void shouldSaveNothingWhenAnItemFails() throws IOException {
+        Map<String, Object> encounterOfUnknownIndividual = item("Encounter", "/ref/encounters/newEncounter.json");
+        ((Map<String, Object>) encounterOfUnknownIndividual.get("request")).put("individualUUID", "e4f8b4b0-8d7a-4c39-a0d4-1f1d8e1d7d2a");
+
+        ResponseEntity<String> response = template.postForEntity("/upload/batch", Arrays.asList(
+                item("Individual", "/ref/individual/newIndividual.json"),
+                encounterOfUnknownIndividual), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Failed");
+        assertThat(individualRepository.findByUuid(INDIVIDUAL_UUID)).isNull();
+        assertThat(encounterRepository.findByUuid(ENCOUNTER_UUID)).isNull();
+    }
+
+    private Map<String, Object> item(String entityName, String requestFile) throws IOException {
+        Map<String, Object> item = new HashMap<>();
+        item.put("entityName", entityName);
+        item.put("request", mapper.readValue(this.getClass().getResource(requestFile), Map.class));
+        return item;
+    }
+}
@@ -0,0 +1,103 @@
+package org.avni.server.web.response.slice;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.avni.server.dao.EncounterTypeRepository;
+import org.avni.server.dao.GenderRepository;
+import org.avni.server.dao.LocationRepository;
+import org.avni.server.dao.SubjectTypeRepository;
+import org.avni.server.dao.sync.SyncRowRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class StreamingSlicedResourcesWriterTest {
+    @Mock
+    private SyncRowRepository syncRowRepository;
+    @Mock
+    private GenderRepository genderRepository;
+    @Mock
+    private LocationRepository locationRepository;
+    @Mock
+    private SubjectTypeRepository subjectTypeRepository;
+    @Mock
+    private EncounterTypeRepository encounterTypeRepository;
+    private ObjectMapper objectMapper;
+    private StreamingSlicedResourcesWriter writer;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        objectMapper = new ObjectMapper().registerModule(new JodaModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        writer = new StreamingSlicedResourcesWriter(syncRowRepository, objectMapper, genderRepository, locationRepository, subjectTypeRepository, encounterTypeRepository);
+    }
+
+    @Test
+    public void shouldWriteRowsInTheShapeOfSlicedResources() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("uuid")).thenReturn("encounter-uuid");
+        when(rs.getInt("version")).thenReturn(2);
+        when(rs.getLong("organisation_id")).thenReturn(5L);
+        when(rs.getTimestamp("encounter_date_time")).thenReturn(new Timestamp(0));
+        when(rs.getBytes("observations")).thenReturn("{\"concept-uuid\": [1, 2.5, \"text\"]}".getBytes(StandardCharsets.UTF_8));
+        when(rs.getString("created_by")).thenReturn("admin");
+        when(rs.getString("encounter_type_uuid")).thenReturn("encounter-type-uuid");
+        when(rs.getString("individual_uuid")).thenReturn("individual-uuid");
+        doAnswer(invocation -> {
+            ((RowCallbackHandler) invocation.getArgument(1)).processRow(rs);
+            return null;
+        }).when(syncRowRepository).readEncounters(eq(Arrays.asList(10L)), any());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.writeEncounters(new SliceImpl<>(Arrays.asList(10L), PageRequest.of(1, 100), true), response);
+
+        JsonNode json = objectMapper.readTree(response.getContentAsByteArray());
+        JsonNode encounter = json.get("_embedded").get("encounter").get(0);
+        assertEquals("encounter-uuid", encounter.get("uuid").asText());
+        assertFalse(encounter.get("voided").asBoolean());
+        assertEquals(2, encounter.get("version").asInt());
+        assertEquals(5, encounter.get("organisationId").asLong());
+        assertEquals("1970-01-01T00:00:00.000Z", encounter.get("encounterDateTime").asText());
+        assertTrue(encounter.get("cancelDateTime").isNull());
+        assertEquals(2.5, encounter.get("observations").get("concept-uuid").get(1).asDouble(), 0);
+        assertTrue(encounter.get("cancelObservations").isNull());
+        assertTrue(encounter.get("completed").asBoolean());
+        assertFalse(encounter.get("cancelled").asBoolean());
+        assertEquals("admin", encounter.get("createdBy").asText());
+        assertEquals("encounter-type-uuid", encounter.get("_links").get("encounterTypeUUID").get("href").asText());
+        assertEquals("individual-uuid", encounter.get("_links").get("individualUUID").get("href").asText());
+        assertEquals(100, json.get("slice").get("size").asInt());
+        assertEquals(1, json.get("slice").get("number").asInt());
+        assertTrue(json.get("slice").get("hasNext").asBoolean());
+    }
+
+    @Test
+    public void shouldLeaveOutEmbeddedWhenThereAreNoRows() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.writeIndividuals(new SliceImpl<>(Collections.emptyList()), response);
+
+        JsonNode json = objectMapper.readTree(response.getContentAsByteArray());
+        assertNull(json.get("_embedded"));
+        assertFalse(json.get("slice").get("hasNext").asBoolean());
+    }
+}
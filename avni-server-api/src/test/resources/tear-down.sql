@@ -9,6 +9,11 @@ DELETE FROM program_enrolment where 1 = 1;
 DELETE FROM subject_migration where 1 = 1;
 delete from group_subject where 1 = 1;
 delete from public.user_subject_assignment where 1 = 1;
+DELETE FROM task_unassignment where 1 = 1;
+DELETE FROM task where 1 = 1;
+DELETE FROM task_status where 1 = 1;
+DELETE FROM task_type where 1 = 1;
+DELETE FROM subject_search_index where 1 = 1;
 DELETE FROM individual where 1 = 1;
 DELETE FROM operational_program where 1 = 1;
 DELETE FROM concept_answer where 1 = 1;
@@ -22,9 +27,12 @@ DELETE FROM individual_relation where 1 = 1;
 DELETE FROM group_privilege where 1 = 1;
 DELETE FROM program_outcome where 1 = 1;
 DELETE FROM program where 1 = 1;
+DELETE FROM operational_encounter_type where 1 = 1;
 DELETE FROM encounter_type where 1 = 1;
 DELETE FROM gender where 1 = 1;
 DELETE FROM catchment_address_mapping where 1 = 1;
+DELETE FROM title_lineage_locations where 1 = 1;
+DELETE FROM location_location_mapping where 1 = 1;
 DELETE FROM address_level where 1 = 1;
 DELETE FROM catchment where 1 = 1;
 DELETE FROM account_admin where 1 = 1;
@@ -36,11 +44,21 @@ delete from message_receiver where 1 = 1;
 delete from message_rule where 1 = 1;
 delete from identifier_user_assignment where 1 = 1;
 delete from identifier_source where 1 = 1;
+DELETE FROM sync_telemetry where 1 = 1;
+DELETE FROM reset_sync where 1 = 1;
+DELETE FROM sync_scope_change where 1 = 1;
 DELETE FROM users where id <> 1;
 DELETE FROM operational_subject_type where 1 = 1;
 DELETE FROM subject_type where 1 = 1;
 delete from group_role where 1 = 1;
 DELETE FROM groups where 1 = 1;
+DELETE FROM extension_file where 1 = 1;
+DELETE FROM reporting_table where 1 = 1;
+DELETE FROM daily_activity_rollup where 1 = 1;
+DELETE FROM daily_activity_rollup_entry where 1 = 1;
+DELETE FROM custom_query_job_row where 1 = 1;
+DELETE FROM custom_query_job where 1 = 1;
+UPDATE daily_activity_rollup_watermark set last_modified_date_time = '1900-01-01', last_id = 0 where 1 = 1;
 DELETE FROM organisation where id <> 1;
 DELETE FROM audit where 1 = 1;
 
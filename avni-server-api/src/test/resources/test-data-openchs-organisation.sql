@@ -5,6 +5,7 @@ DELETE FROM form;
 DELETE FROM encounter;
 DELETE FROM program_encounter;
 DELETE FROM program_enrolment;
+DELETE FROM subject_search_index;
 DELETE FROM individual;
 DELETE FROM program;
 DELETE FROM encounter_type;
@@ -17,6 +18,7 @@ DELETE FROM individual_relation_gender_mapping;
 DELETE FROM individual_relation;
 DELETE FROM gender;
 DELETE FROM catchment_address_mapping;
+DELETE FROM title_lineage_locations;
 DELETE FROM address_level;
 DELETE FROM catchment;
 DELETE FROM account_admin;
@@ -30,6 +32,11 @@ DELETE FROM users;
 DELETE FROM subject_type;
 DELETE FROM groups;
 DELETE FROM group_privilege;
+DELETE FROM extension_file;
+DELETE FROM daily_activity_rollup;
+DELETE FROM daily_activity_rollup_entry;
+DELETE FROM custom_query_job_row;
+DELETE FROM custom_query_job;
 DELETE FROM organisation;
 
 ALTER SEQUENCE form_element_id_seq RESTART WITH 1;
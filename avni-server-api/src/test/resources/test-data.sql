@@ -7,6 +7,7 @@ DELETE FROM encounter;
 DELETE FROM program_encounter;
 DELETE FROM program_enrolment;
 DELETE FROM subject_migration;
+DELETE FROM subject_search_index;
 DELETE FROM individual;
 DELETE FROM program;
 DELETE FROM encounter_type;
@@ -20,6 +21,7 @@ DELETE FROM individual_relation_gender_mapping;
 DELETE FROM individual_relation;
 DELETE FROM gender;
 DELETE FROM catchment_address_mapping;
+DELETE FROM title_lineage_locations;
 DELETE FROM address_level;
 DELETE FROM catchment;
 DELETE FROM account_admin;
@@ -33,6 +35,11 @@ DELETE FROM users;
 DELETE FROM subject_type;
 DELETE FROM group_privilege;
 DELETE FROM groups;
+DELETE FROM extension_file;
+DELETE FROM daily_activity_rollup;
+DELETE FROM daily_activity_rollup_entry;
+DELETE FROM custom_query_job_row;
+DELETE FROM custom_query_job;
 DELETE FROM organisation;
 DELETE FROM audit;
 
@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Runs the load test simulations against each synthetic organisation and writes a markdown baseline report.
+#
+# GATLING_HOME=~/gatling-charts-highcharts-bundle-3.9.5 ./run-baseline.sh [perf_10k:10000:50 ...]
+#
+# Each organisation is <name>:<subjects>:<field users>, as created by `make create_perf_orgs`. The server should be running
+# with AVNI_IDP_TYPE=none.
+# Pass extra simulation settings through JAVA_OPTS, e.g. JAVA_OPTS="-DconcurrentUsers=50 -DdurationSeconds=300".
+
+set -euo pipefail
+
+: "${GATLING_HOME:?Set GATLING_HOME to the unzipped gatling bundle}"
+here="$(cd "$(dirname "$0")" && pwd)"
+simulations=${SIMULATIONS:-"avniFullSyncLoadTest avniIncrementalSyncLoadTest avniEncounterUploadLoadTest avniBatchUploadLoadTest avniSubjectSearchLoadTest avniBulkUploadExportLoadTest"}
+orgs=${*:-"perf_10k:10000:50 perf_100k:100000:250 perf_1m:1000000:1000"}
+results="$here/results/$(date +%Y%m%d-%H%M%S)"
+report="$results/baseline.md"
+
+mkdir -p "$results"
+{
+  echo "# Load test baseline $(date -u +%Y-%m-%dT%H:%M:%SZ)"
+  echo
+  echo "Server: ${BASE_URL:-http://localhost:8021}, commit $(git -C "$here" rev-parse --short HEAD)"
+  echo
+  echo "| Organisation | Simulation | Request | Count | Failed | Mean (ms) | p50 (ms) | p95 (ms) | p99 (ms) | Requests/s |"
+  echo "|---|---|---|---|---|---|---|---|---|---|"
+} > "$report"
+
+for org in $orgs; do
+  IFS=: read -r name subjects users <<< "$org"
+  for simulation in $simulations; do
+    runDir="$results/$name/$simulation"
+    mkdir -p "$runDir"
+    JAVA_OPTS="${JAVA_OPTS:-} -DbaseUrl=${BASE_URL:-http://localhost:8021} -Dorg=$name -Dsubjects=$subjects -Dusers=$users" \
+      "$GATLING_HOME/bin/gatling.sh" -rm local -sf "$here/user-files/simulations" -s "avni.$simulation" \
+      -rf "$runDir" -rd "$name $simulation" || echo "$simulation failed its assertions for $name" >&2
+
+    stats=$(find "$runDir" -name stats.json -path '*/js/*' | head -1)
+    [ -n "$stats" ] || continue
+    jq -r --arg org "$name" --arg simulation "$simulation" '
+      [., (.contents // {} | .[])] | .[] | .stats |
+      [$org, $simulation, .name, .numberOfRequests.total, .numberOfRequests.ko, .meanResponseTime.total,
+       .percentiles1.total, .percentiles3.total, .percentiles4.total, .meanNumberOfRequestsPerSecond.total] |
+      "| " + (map(tostring) | join(" | ")) + " |"' "$stats" >> "$report"
+  done
+done
+
+echo "Baseline report: $report"
@@ -0,0 +1,271 @@
+-- Creates a synthetic organisation for load tests, with the metadata a field user syncs and the given number of
+-- subjects spread over the villages of its catchments.
+--
+-- psql -v org=perf_10k -v subjects=10000 -v catchments=10 -v users_per_catchment=5 -f createPerfOrganisation.sql
+--
+-- UUIDs are md5(<org>/<kind>/<n>), so that the simulations can refer to the rows without reading them back:
+--   individual n (1..subjects), encounter <n>/<k>, enrolment n (every third subject) and program encounter <n>/<k>.
+-- Users are user<n>@<org> (1..catchments * users_per_catchment), plus admin@<org>.
+
+\set ON_ERROR_STOP on
+\set villages_per_catchment 20
+\set encounters_per_subject 2
+\set program_encounters_per_enrolment 3
+
+begin;
+
+select id as creator_id from users where username = 'admin' \gset
+
+select create_db_user(:'org', 'password');
+
+insert into organisation (name, db_user, uuid, media_directory, username_suffix, schema_name)
+values (:'org', :'org', md5(:'org' || '/organisation')::uuid, :'org', :'org', :'org')
+returning id as org_id \gset
+
+insert into users (uuid, username, organisation_id, operating_individual_scope, settings, name, is_org_admin,
+                   created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/user/admin')::uuid, 'admin@' || :'org', :org_id, 'None', '{}'::jsonb, 'Load test admin', true,
+        :creator_id, :creator_id, now(), now())
+returning id as admin_id \gset
+
+insert into organisation_config (uuid, organisation_id, settings, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/organisation-config')::uuid, :org_id, '{"languages": ["en"]}'::jsonb, :admin_id, :admin_id, now(), now());
+
+-- Locations: a state, a district per catchment and villages under each district
+insert into address_level_type (uuid, name, level, parent_id, organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/address-level-type/state')::uuid, 'State', 3, null, :org_id, 1, :admin_id, :admin_id, now(), now())
+returning id as state_type_id \gset
+insert into address_level_type (uuid, name, level, parent_id, organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/address-level-type/district')::uuid, 'District', 2, :state_type_id, :org_id, 1, :admin_id, :admin_id, now(), now())
+returning id as district_type_id \gset
+insert into address_level_type (uuid, name, level, parent_id, organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/address-level-type/village')::uuid, 'Village', 1, :district_type_id, :org_id, 1, :admin_id, :admin_id, now(), now())
+returning id as village_type_id \gset
+
+insert into address_level (title, uuid, version, lineage, parent_id, type_id, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values ('State', md5(:'org' || '/address-level/state')::uuid, 1, null, null, :state_type_id, :org_id, :admin_id, :admin_id, now(), now())
+returning id as state_id \gset
+update address_level set lineage = text2ltree(id::text) where id = :state_id;
+
+insert into address_level (title, uuid, version, parent_id, type_id, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select 'District ' || d, md5(:'org' || '/address-level/district/' || d)::uuid, 1, :state_id, :district_type_id, :org_id, :admin_id, :admin_id, now(), now()
+from generate_series(1, :catchments) d;
+
+insert into address_level (title, uuid, version, parent_id, type_id, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select 'Village ' || d || '.' || v, md5(:'org' || '/address-level/village/' || d || '/' || v)::uuid, 1, district.id, :village_type_id, :org_id,
+       :admin_id, :admin_id, now(), now()
+from generate_series(1, :catchments) d
+         join address_level district on district.uuid = md5(:'org' || '/address-level/district/' || d)::uuid::text
+         cross join generate_series(1, :villages_per_catchment) v;
+
+update address_level district
+set lineage = text2ltree(:state_id || '.' || district.id)
+where district.type_id = :district_type_id;
+update address_level village
+set lineage = text2ltree(district.lineage::text || '.' || village.id)
+from address_level district
+where village.type_id = :village_type_id
+  and district.id = village.parent_id;
+
+insert into title_lineage_locations (lowestpoint_id, organisation_id, title_lineage)
+select al.id, al.organisation_id, string_agg(alevel_in_lineage.title, ', ' order by lineage.level)
+from address_level al
+         join regexp_split_to_table(al.lineage :: text, '[.]') with ordinality lineage (point_id, level) ON TRUE
+         join address_level alevel_in_lineage on alevel_in_lineage.id = lineage.point_id :: int
+where al.organisation_id = :org_id
+group by al.id, al.organisation_id;
+
+-- Catchments and field users
+insert into catchment (name, uuid, version, organisation_id, type, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select 'Catchment ' || d, md5(:'org' || '/catchment/' || d)::uuid, 1, :org_id, 'Villages', :admin_id, :admin_id, now(), now()
+from generate_series(1, :catchments) d;
+
+insert into catchment_address_mapping (catchment_id, addresslevel_id)
+select catchment.id, village.id
+from generate_series(1, :catchments) d
+         join catchment on catchment.uuid = md5(:'org' || '/catchment/' || d)::uuid::text
+         join address_level district on district.uuid = md5(:'org' || '/address-level/district/' || d)::uuid::text
+         join address_level village on village.parent_id = district.id;
+
+insert into users (uuid, username, organisation_id, operating_individual_scope, catchment_id, settings, name, is_org_admin,
+                   created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select md5(:'org' || '/user/' || u)::uuid, 'user' || u || '@' || :'org', :org_id, 'ByCatchment', catchment.id, '{}'::jsonb, 'Field user ' || u, false,
+       :admin_id, :admin_id, now(), now()
+from generate_series(1, :catchments * :users_per_catchment) u
+         join catchment on catchment.uuid = md5(:'org' || '/catchment/' || ((u - 1) % :catchments + 1))::uuid::text;
+
+insert into groups (uuid, name, is_voided, version, organisation_id, has_all_privileges, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/group/everyone')::uuid, 'Everyone', false, 1, :org_id, true, :admin_id, :admin_id, now(), now())
+returning id as group_id \gset
+insert into user_group (uuid, user_id, group_id, is_voided, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select md5(:'org' || '/user-group/' || users.id)::uuid, users.id, :group_id, false, 1, :org_id, :admin_id, :admin_id, now(), now()
+from users
+where organisation_id = :org_id;
+
+insert into gender (name, uuid, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select name, md5(:'org' || '/gender/' || name)::uuid, 1, :org_id, :admin_id, :admin_id, now(), now()
+from unnest(array ['Female', 'Male', 'Other']) name;
+
+-- Concepts, keyed by the suffix of their uuid
+insert into concept (name, data_type, uuid, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select name, data_type, md5(:'org' || '/concept/' || key)::uuid, 1, :org_id, :admin_id, :admin_id, now(), now()
+from (values ('weight', 'Weight', 'Numeric'),
+             ('height', 'Height', 'Numeric'),
+             ('systolic', 'Systolic', 'Numeric'),
+             ('remarks', 'Remarks', 'Text'),
+             ('lmp', 'Last menstrual period', 'Date'),
+             ('blood-group', 'Blood group', 'Coded'),
+             ('blood-group/a', 'A+', 'NA'),
+             ('blood-group/b', 'B+', 'NA'),
+             ('blood-group/o', 'O+', 'NA'),
+             ('blood-group/ab', 'AB+', 'NA')) concept (key, name, data_type);
+
+insert into concept_answer (concept_id, answer_concept_id, answer_order, uuid, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select question.id, answer.id, answer_order, md5(:'org' || '/concept-answer/' || key)::uuid, 1, :org_id, :admin_id, :admin_id, now(), now()
+from (values ('a', 1), ('b', 2), ('o', 3), ('ab', 4)) answers (key, answer_order)
+         join concept question on question.uuid = md5(:'org' || '/concept/blood-group')::uuid::text
+         join concept answer on answer.uuid = md5(:'org' || '/concept/blood-group/' || key)::uuid::text;
+
+-- Subject type, program and encounter types
+insert into subject_type (uuid, name, type, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/subject-type')::uuid, 'Individual', 'Person', :org_id, :admin_id, :admin_id, now(), now())
+returning id as subject_type_id \gset
+insert into operational_subject_type (uuid, name, subject_type_id, organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/operational-subject-type')::uuid, 'Individual', :subject_type_id, :org_id, 1, :admin_id, :admin_id, now(), now());
+
+insert into program (name, uuid, colour, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values ('Pregnancy', md5(:'org' || '/program')::uuid, '#ff8c00', 1, :org_id, :admin_id, :admin_id, now(), now())
+returning id as program_id \gset
+insert into operational_program (uuid, name, program_id, organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values (md5(:'org' || '/operational-program')::uuid, 'Pregnancy', :program_id, :org_id, 1, :admin_id, :admin_id, now(), now());
+
+insert into encounter_type (name, uuid, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values ('Home visit', md5(:'org' || '/encounter-type/general')::uuid, 1, :org_id, :admin_id, :admin_id, now(), now())
+returning id as encounter_type_id \gset
+insert into encounter_type (name, uuid, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+values ('ANC', md5(:'org' || '/encounter-type/program')::uuid, 1, :org_id, :admin_id, :admin_id, now(), now())
+returning id as program_encounter_type_id \gset
+insert into operational_encounter_type (uuid, name, encounter_type_id, organisation_id, version, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select md5(:'org' || '/operational-encounter-type/' || encounter_type.id)::uuid, encounter_type.name, encounter_type.id, :org_id, 1, :admin_id, :admin_id, now(), now()
+from encounter_type
+where organisation_id = :org_id;
+
+-- A form for each form type, all asking the same questions, and their mappings
+create temporary table perf_form (key text, name text, form_type text, program_id int, encounter_type_id int) on commit drop;
+insert into perf_form
+values ('registration', 'Registration', 'IndividualProfile', null, null),
+       ('enrolment', 'Pregnancy enrolment', 'ProgramEnrolment', :program_id, null),
+       ('exit', 'Pregnancy exit', 'ProgramExit', :program_id, null),
+       ('encounter', 'Home visit', 'Encounter', null, :encounter_type_id),
+       ('encounter-cancel', 'Home visit cancel', 'IndividualEncounterCancellation', null, :encounter_type_id),
+       ('program-encounter', 'ANC', 'ProgramEncounter', :program_id, :program_encounter_type_id),
+       ('program-encounter-cancel', 'ANC cancel', 'ProgramEncounterCancellation', :program_id, :program_encounter_type_id);
+
+insert into form (name, form_type, uuid, version, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select name, form_type, md5(:'org' || '/form/' || key)::uuid, 1, :org_id, :admin_id, :admin_id, now(), now()
+from perf_form;
+
+insert into form_element_group (name, form_id, uuid, version, display_order, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select perf_form.name, form.id, md5(:'org' || '/form-element-group/' || perf_form.key)::uuid, 1, 1, :org_id, :admin_id, :admin_id, now(), now()
+from perf_form
+         join form on form.uuid = md5(:'org' || '/form/' || perf_form.key)::uuid::text;
+
+insert into form_element (name, display_order, is_mandatory, concept_id, form_element_group_id, type, uuid, version, organisation_id,
+                          created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select concept.name, question.display_order, false, concept.id, feg.id, case when concept.data_type = 'Coded' then 'SingleSelect' end,
+       md5(:'org' || '/form-element/' || perf_form.key || '/' || question.key)::uuid, 1, :org_id, :admin_id, :admin_id, now(), now()
+from perf_form
+         join form_element_group feg on feg.uuid = md5(:'org' || '/form-element-group/' || perf_form.key)::uuid::text
+         cross join (values ('weight', 1), ('height', 2), ('systolic', 3), ('remarks', 4), ('lmp', 5), ('blood-group', 6)) question (key, display_order)
+         join concept on concept.uuid = md5(:'org' || '/concept/' || question.key)::uuid::text;
+
+insert into form_mapping (form_id, uuid, version, subject_type_id, entity_id, observations_type_entity_id, organisation_id,
+                          created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select form.id, md5(:'org' || '/form-mapping/' || perf_form.key)::uuid, 1, :subject_type_id, perf_form.program_id, perf_form.encounter_type_id, :org_id,
+       :admin_id, :admin_id, now(), now()
+from perf_form
+         join form on form.uuid = md5(:'org' || '/form/' || perf_form.key)::uuid::text;
+
+-- Subjects, spread over the villages, with last modified times a second apart so that sync pages through them. The
+-- encounters and enrolments of a subject are modified after all the subjects, as they would be on a device.
+select id as female_id from gender where uuid = md5(:'org' || '/gender/Female')::uuid::text \gset
+select id as male_id from gender where uuid = md5(:'org' || '/gender/Male')::uuid::text \gset
+
+create temporary table perf_village on commit drop as
+select row_number() over (order by id) - 1 as position, id
+from address_level
+where type_id = :village_type_id;
+select count(*) as village_count from perf_village \gset
+
+create temporary table perf_observations on commit drop as
+select md5(:'org' || '/concept/weight')::uuid::text as weight,
+       md5(:'org' || '/concept/height')::uuid::text as height,
+       md5(:'org' || '/concept/systolic')::uuid::text as systolic,
+       md5(:'org' || '/concept/remarks')::uuid::text as remarks,
+       md5(:'org' || '/concept/lmp')::uuid::text as lmp,
+       md5(:'org' || '/concept/blood-group')::uuid::text as blood_group,
+       array [md5(:'org' || '/concept/blood-group/a')::uuid::text, md5(:'org' || '/concept/blood-group/b')::uuid::text,
+           md5(:'org' || '/concept/blood-group/o')::uuid::text, md5(:'org' || '/concept/blood-group/ab')::uuid::text] as blood_groups;
+
+insert into individual (uuid, address_id, version, date_of_birth, date_of_birth_verified, first_name, last_name, gender_id, registration_date,
+                        subject_type_id, observations, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select md5(:'org' || '/individual/' || n)::uuid, perf_village.id, 1, date '1970-01-01' + (n::bigint * 7919 % 18000)::int, false,
+       (array ['Asha', 'Ravi', 'Sunita', 'Mohan', 'Lakshmi', 'Arjun', 'Meena', 'Suresh', 'Kavita', 'Ramesh'])[n % 10 + 1],
+       (array ['Kumar', 'Devi', 'Sharma', 'Patel', 'Singh', 'Rao', 'Das', 'Nair', 'Yadav', 'Gupta'])[n / 10 % 10 + 1] || ' ' || n,
+       case when n % 2 = 0 then :female_id else :male_id end,
+       current_date - (n % 730), :subject_type_id,
+       jsonb_build_object(o.weight, 40 + n % 50, o.height, 140 + n % 40, o.remarks, 'Registered in load test ' || n,
+                          o.blood_group, o.blood_groups[n % 4 + 1]),
+       :org_id, :admin_id, :admin_id,
+       now() - make_interval(secs => 2 * :subjects - n), now() - make_interval(secs => 2 * :subjects - n)
+from generate_series(1, :subjects) n
+         cross join perf_observations o
+         join perf_village on perf_village.position = n % :village_count;
+
+create temporary table perf_individual on commit drop as
+select row_number() over (order by id) as n, id, address_id
+from individual
+where organisation_id = :org_id;
+
+insert into encounter (individual_id, encounter_type_id, observations, encounter_date_time, uuid, version, address_id, organisation_id,
+                       created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select i.id, :encounter_type_id,
+       jsonb_build_object(o.weight, 40 + (i.n + k) % 50, o.systolic, 100 + (i.n * k) % 60, o.remarks, 'Home visit ' || k),
+       now() - make_interval(days => k * 30), md5(:'org' || '/encounter/' || i.n || '/' || k)::uuid, 1, i.address_id, :org_id,
+       :admin_id, :admin_id, now() - make_interval(secs => :subjects - i.n), now() - make_interval(secs => :subjects - i.n)
+from perf_individual i
+         cross join generate_series(1, :encounters_per_subject) k
+         cross join perf_observations o;
+
+insert into program_enrolment (individual_id, program_id, enrolment_date_time, observations, uuid, version, address_id, organisation_id,
+                               created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select i.id, :program_id, now() - make_interval(days => 200), jsonb_build_object(o.lmp, (current_date - 210)::text || 'T00:00:00.000Z'),
+       md5(:'org' || '/enrolment/' || i.n)::uuid, 1, i.address_id, :org_id,
+       :admin_id, :admin_id, now() - make_interval(secs => :subjects - i.n), now() - make_interval(secs => :subjects - i.n)
+from perf_individual i
+         cross join perf_observations o
+where i.n % 3 = 0;
+
+insert into program_encounter (program_enrolment_id, encounter_type_id, name, observations, encounter_date_time, uuid, version, individual_id,
+                               address_id, organisation_id, created_by_id, last_modified_by_id, created_date_time, last_modified_date_time)
+select enrolment.id, :program_encounter_type_id, 'ANC ' || k,
+       jsonb_build_object(o.weight, 45 + (i.n + k) % 40, o.systolic, 100 + (i.n * k) % 60, o.blood_group, o.blood_groups[i.n % 4 + 1]),
+       now() - make_interval(days => 200 - k * 30), md5(:'org' || '/program-encounter/' || i.n || '/' || k)::uuid, 1, i.id,
+       i.address_id, :org_id, :admin_id, :admin_id, now() - make_interval(secs => :subjects - i.n), now() - make_interval(secs => :subjects - i.n)
+from perf_individual i
+         join program_enrolment enrolment on enrolment.uuid = md5(:'org' || '/enrolment/' || i.n)::uuid::text
+         cross join generate_series(1, :program_encounters_per_enrolment) k
+         cross join perf_observations o;
+
+insert into subject_search_index (individual_id, organisation_id, search_text, last_modified_date_time)
+select i.id, i.organisation_id, lower(concat_ws(' ', i.first_name, i.middle_name, i.last_name)), now()
+from individual i
+where i.organisation_id = :org_id;
+
+commit;
+
+analyze individual;
+analyze encounter;
+analyze program_enrolment;
+analyze program_encounter;
+analyze subject_search_index;
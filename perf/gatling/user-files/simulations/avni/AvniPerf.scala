@@ -0,0 +1,83 @@
+package avni
+
+import java.security.MessageDigest
+import java.time.Instant
+import java.util.UUID
+import java.util.concurrent.ThreadLocalRandom
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import io.gatling.http.request.builder.HttpRequestBuilder
+
+/**
+ * Settings shared by the simulations that run against an organisation created by perf/gatling/seed/createPerfOrganisation.sql.
+ * Pass them as java system properties, e.g. JAVA_OPTS="-Dorg=perf_100k -Dsubjects=100000".
+ */
+object AvniPerf {
+  val baseUrl: String = System.getProperty("baseUrl", "http://localhost:8021")
+  val org: String = System.getProperty("org", "perf_10k")
+  val subjects: Int = Integer.getInteger("subjects", 10000)
+  val users: Int = Integer.getInteger("users", 50)
+  val concurrentUsers: Int = Integer.getInteger("concurrentUsers", 20)
+  val durationSeconds: Int = Integer.getInteger("durationSeconds", 120)
+  val pageSize: Int = Integer.getInteger("pageSize", 100)
+  // When not set the server is expected to run with AVNI_IDP_TYPE=none, which takes the user from the USER-NAME header
+  val authToken: Option[String] = Option(System.getProperty("authToken"))
+
+  val httpProtocol = http
+    .baseUrl(baseUrl)
+    .acceptHeader("application/json")
+    .acceptEncodingHeader("gzip")
+    .contentTypeHeader("application/json")
+    .userAgentHeader("avni-gatling")
+
+  /**
+   * The uuid the seed script gives to the row at the given path, e.g. uuid("individual/42").
+   */
+  def uuid(path: String): String = {
+    val hex = MessageDigest.getInstance("MD5").digest(s"$org/$path".getBytes("UTF-8")).map("%02x".format(_)).mkString
+    s"${hex.substring(0, 8)}-${hex.substring(8, 12)}-${hex.substring(12, 16)}-${hex.substring(16, 20)}-${hex.substring(20)}"
+  }
+
+  def randomSubject(): Int = ThreadLocalRandom.current().nextInt(1, subjects + 1)
+
+  /**
+   * Only every third subject is enrolled in the program.
+   */
+  def randomEnrolledSubject(): Int = 3 * ThreadLocalRandom.current().nextInt(1, subjects / 3 + 1)
+
+  def now(): String = Instant.now().toString
+
+  private def observations(n: Int) =
+    s"""[{"conceptUUID": "${uuid("concept/weight")}", "value": ${40 + n % 50}},
+       | {"conceptUUID": "${uuid("concept/systolic")}", "value": ${100 + n % 60}},
+       | {"conceptUUID": "${uuid("concept/remarks")}", "value": "Uploaded by load test"},
+       | {"conceptUUID": "${uuid("concept/blood-group")}", "value": "${uuid(s"concept/blood-group/${Seq("a", "b", "o", "ab")(n % 4)}")}"}]""".stripMargin
+
+  /**
+   * Request body of a new encounter of a random subject
+   */
+  def newEncounter(): String = {
+    val n = randomSubject()
+    s"""{"uuid": "${UUID.randomUUID()}", "individualUUID": "${uuid(s"individual/$n")}",
+       | "encounterTypeUUID": "${uuid("encounter-type/general")}", "encounterDateTime": "${now()}",
+       | "observations": ${observations(n)}, "cancelObservations": [], "voided": false}""".stripMargin
+  }
+
+  /**
+   * Request body of a new program encounter of a random enrolment
+   */
+  def newProgramEncounter(): String = {
+    val n = randomEnrolledSubject()
+    s"""{"uuid": "${UUID.randomUUID()}", "programEnrolmentUUID": "${uuid(s"enrolment/$n")}",
+       | "encounterTypeUUID": "${uuid("encounter-type/program")}", "name": "ANC", "encounterDateTime": "${now()}",
+       | "observations": ${observations(n)}, "cancelObservations": [], "voided": false}""".stripMargin
+  }
+
+  val fieldUsers = Iterator.continually(Map("userName" -> s"user${ThreadLocalRandom.current().nextInt(1, users + 1)}@$org"))
+
+  val admin = Iterator.continually(Map("userName" -> s"admin@$org"))
+
+  def authenticated(request: HttpRequestBuilder): HttpRequestBuilder =
+    authToken.fold(request.header("USER-NAME", "#{userName}"))(token => request.header("AUTH-TOKEN", token))
+}
@@ -0,0 +1,28 @@
+package avni
+
+import avni.AvniPerf._
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Field users uploading encounters and program encounters through /upload/batch, batchSize of them per request. Compare
+ * the items saved per second with avniEncounterUploadLoadTest, which uploads the same encounters one per request.
+ */
+class avniBatchUploadLoadTest extends Simulation {
+
+  private val batchSize: Int = Integer.getInteger("batchSize", 50)
+
+  private def batch(session: Session): String =
+    (1 to batchSize).map { i =>
+      if (i % 2 == 0) s"""{"entityName": "Encounter", "request": ${newEncounter()}}"""
+      else s"""{"entityName": "ProgramEncounter", "request": ${newProgramEncounter()}}"""
+    }.mkString("[", ",", "]")
+
+  val scn = scenario("Upload batches")
+    .feed(fieldUsers)
+    .exec(authenticated(http("batch upload").post("/upload/batch").body(StringBody(batch _))))
+
+  setUp(scn.inject(constantConcurrentUsers(concurrentUsers).during(durationSeconds.seconds)).protocols(httpProtocol))
+    .assertions(global.failedRequests.percent.lt(1))
+}
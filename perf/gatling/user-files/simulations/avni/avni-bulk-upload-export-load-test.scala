@@ -0,0 +1,86 @@
+package avni
+
+import java.time.LocalDate
+import java.util.concurrent.atomic.AtomicInteger
+
+import avni.AvniPerf._
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * An organisation admin uploading a csv of new subjects and starting a longitudinal export, waiting for each job to
+ * finish. The jobs keep their files on S3 (or minio), which has to be configured for the server under test.
+ */
+class avniBulkUploadExportLoadTest extends Simulation {
+
+  private val rowsPerUpload: Int = Integer.getInteger("rowsPerUpload", 1000)
+  private val uploads: Int = Integer.getInteger("uploads", 3)
+  private val maxPolls: Int = Integer.getInteger("maxPolls", 300)
+  private val uploadNumber = new AtomicInteger()
+
+  private def subjectsCsv(): Array[Byte] = {
+    val upload = uploadNumber.incrementAndGet()
+    val header = "Id,Subject Type,First Name,Last Name,Date Of Birth,Date Of Registration,Gender,State,District,Village,Weight,Blood group"
+    val rows = (1 to rowsPerUpload).map { n =>
+      val district = n % 10 + 1
+      s"upload-${System.currentTimeMillis()}-$upload-$n,Individual,Bulk,Upload $upload $n,${LocalDate.of(1980, 1, 1).plusDays(n % 9000)}," +
+        s"${LocalDate.now()},${if (n % 2 == 0) "Female" else "Male"},State,District $district,Village $district.${n % 20 + 1},${40 + n % 50},O+"
+    }
+    (header +: rows).mkString("\n").getBytes("UTF-8")
+  }
+
+  private def waitForJob(name: String, statusPath: String) =
+    exec(_.set("jobStatus", "STARTING").set("polls", 0))
+      .asLongAs(session => !Set("COMPLETED", "FAILED", "STOPPED", "ABANDONED").contains(session("jobStatus").as[String])
+        && session("polls").as[Int] < maxPolls) {
+        pause(1.second)
+          .exec(authenticated(http(s"$name status")
+            .get(statusPath)
+            .queryParam("page", 0)
+            .queryParam("size", 1)
+            .check(jsonPath("$.content[0].status").saveAs("jobStatus"))))
+          .exec(session => session.set("polls", session("polls").as[Int] + 1))
+      }
+      .exec(session => if (session("jobStatus").as[String] == "COMPLETED") session else session.markAsFailed)
+
+  private val exportRequest =
+    s"""{"individual": {"uuid": "${uuid("subject-type")}", "fields": [], "filters": {"addressLevelIds": [],
+       |  "date": {"from": "2000-01-01T00:00:00.000Z", "to": "${now()}"}},
+       |  "encounters": [{"uuid": "${uuid("encounter-type/general")}", "fields": [], "filters": {"addressLevelIds": [],
+       |    "date": {"from": "2000-01-01T00:00:00.000Z", "to": "${now()}"}}}],
+       |  "groups": [],
+       |  "programs": [{"uuid": "${uuid("program")}", "fields": [], "filters": {"addressLevelIds": [],
+       |    "date": {"from": "2000-01-01T00:00:00.000Z", "to": "${now()}"}},
+       |    "encounters": [{"uuid": "${uuid("encounter-type/program")}", "fields": [], "filters": {"addressLevelIds": [],
+       |      "date": {"from": "2000-01-01T00:00:00.000Z", "to": "${now()}"}}}]}]},
+       | "timezone": "Asia/Kolkata"}""".stripMargin
+
+  val bulkUpload = scenario("Bulk upload subjects")
+    .feed(admin)
+    .repeat(uploads) {
+      group("subject upload job") {
+        exec(authenticated(http("subject upload")
+          .post("/import/new")
+          .queryParam("type", "Subject---Individual")
+          .queryParam("autoApprove", false)
+          .queryParam("locationUploadMode", "relaxed")
+          .asMultipartForm
+          .bodyPart(ByteArrayBodyPart("file", _ => subjectsCsv()).fileName("subjects.csv").contentType("text/csv"))))
+          .exec(waitForJob("subject upload", "/import/status"))
+      }
+    }
+
+  val export = scenario("Longitudinal export")
+    .feed(admin)
+    .group("export job") {
+      exec(authenticated(http("export").post("/export/v2").body(StringBody(exportRequest))))
+        .exec(waitForJob("export", "/export/status"))
+    }
+
+  // Upload jobs of an organisation run one after the other, so a single admin uploads the files in turn
+  setUp(
+    bulkUpload.inject(atOnceUsers(1)),
+    export.inject(atOnceUsers(1))
+  ).protocols(httpProtocol)
+}
@@ -0,0 +1,27 @@
+package avni
+
+import avni.AvniPerf._
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Field users uploading encounters and program encounters at the same time, each a new encounter of a random subject
+ * or enrolment of the organisation.
+ */
+class avniEncounterUploadLoadTest extends Simulation {
+
+  val encounters = scenario("Upload encounters")
+    .feed(fieldUsers)
+    .exec(authenticated(http("encounter upload").post("/encounters").body(StringBody(_ => newEncounter()))))
+
+  val programEncounters = scenario("Upload program encounters")
+    .feed(fieldUsers)
+    .exec(authenticated(http("programEncounter upload").post("/programEncounters").body(StringBody(_ => newProgramEncounter()))))
+
+  setUp(
+    encounters.inject(constantConcurrentUsers(concurrentUsers).during(durationSeconds.seconds)),
+    programEncounters.inject(constantConcurrentUsers(concurrentUsers).during(durationSeconds.seconds))
+  ).protocols(httpProtocol)
+    .assertions(global.failedRequests.percent.lt(1))
+}
@@ -0,0 +1,40 @@
+package avni
+
+import avni.AvniPerf._
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * First time sync of a field user's catchment: sync details, then every page of subjects, encounters and program
+ * encounters, the way the app pages through them.
+ */
+class avniFullSyncLoadTest extends Simulation {
+
+  private def syncAll(entity: String, path: String, typeParam: String, typeUuid: String) =
+    exec(_.set("page", 0).set("hasNext", true))
+      .asLongAs(session => session("hasNext").as[Boolean]) {
+        exec(authenticated(http(s"$entity page")
+          .get(path)
+          .queryParam("lastModifiedDateTime", "1900-01-01T00:00:00.000Z")
+          .queryParam("now", "#{now}")
+          .queryParam(typeParam, typeUuid)
+          .queryParam("page", "#{page}")
+          .queryParam("size", pageSize)
+          .check(jsonPath("$.slice.hasNext").ofType[Boolean].saveAs("hasNext"))))
+          .exec(session => session.set("page", session("page").as[Int] + 1))
+      }
+
+  val scn = scenario("Full sync")
+    .feed(fieldUsers)
+    .exec(authenticated(http("syncDetails")
+      .post("/v2/syncDetails")
+      .body(StringBody("[]"))
+      .check(jsonPath("$.now").saveAs("now"))))
+    .exec(syncAll("individual", "/individual/v2", "subjectTypeUuid", uuid("subject-type")))
+    .exec(syncAll("encounter", "/encounter/v2", "encounterTypeUuid", uuid("encounter-type/general")))
+    .exec(syncAll("programEncounter", "/programEncounter/v2", "programEncounterTypeUuid", uuid("encounter-type/program")))
+
+  setUp(scn.inject(rampConcurrentUsers(1).to(concurrentUsers).during(durationSeconds.seconds)).protocols(httpProtocol))
+    .assertions(global.failedRequests.percent.lt(1))
+}
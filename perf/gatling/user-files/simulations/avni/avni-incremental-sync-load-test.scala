@@ -0,0 +1,52 @@
+package avni
+
+import java.util.UUID
+
+import avni.AvniPerf._
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Sync of a field user whose device is up to date: sync details, then the first page of each transaction entity type
+ * that sync details lists as changed, the way the app does. Nothing has changed since the device synced, so every page
+ * fetched is empty. Compare the count and time of the pages and of sync details across server versions.
+ */
+class avniIncrementalSyncLoadTest extends Simulation {
+
+  private val entities = Seq(
+    ("Individual", "/individual/v2", "subjectTypeUuid", uuid("subject-type")),
+    ("Encounter", "/encounter/v2", "encounterTypeUuid", uuid("encounter-type/general")),
+    ("ProgramEnrolment", "/programEnrolment/v2", "programUuid", uuid("program")),
+    ("ProgramEncounter", "/programEncounter/v2", "programEncounterTypeUuid", uuid("encounter-type/program")))
+
+  private val syncStatuses = entities.map { case (entityName, _, _, typeUuid) =>
+    s"""{"uuid": "${UUID.randomUUID()}", "entityName": "$entityName", "loadedSince": "#{loadedSince}", "entityTypeUuid": "$typeUuid"}"""
+  }.mkString("[", ",", "]")
+
+  private val fetchChanged = entities.map { case (entityName, path, typeParam, typeUuid) =>
+    doIf(session => session("changed").asOption[Seq[String]].exists(_.contains(entityName))) {
+      exec(authenticated(http(s"$entityName page")
+        .get(path)
+        .queryParam("lastModifiedDateTime", "#{loadedSince}")
+        .queryParam("now", "#{now}")
+        .queryParam(typeParam, typeUuid)
+        .queryParam("page", 0)
+        .queryParam("size", pageSize)))
+    }
+  }
+
+  val scn = scenario("Incremental sync")
+    .feed(fieldUsers)
+    // Seeded rows were all modified before the simulation started
+    .exec(_.set("loadedSince", now()))
+    .exec(authenticated(http("syncDetails")
+      .post("/v2/syncDetails")
+      .body(StringBody(syncStatuses))
+      .check(jsonPath("$.now").saveAs("now"))
+      .check(jsonPath("$.syncDetails[*].entityName").findAll.optional.saveAs("changed"))))
+    .exec(fetchChanged)
+
+  setUp(scn.inject(rampConcurrentUsers(1).to(concurrentUsers).during(durationSeconds.seconds)).protocols(httpProtocol))
+    .assertions(global.failedRequests.percent.lt(1))
+}
@@ -0,0 +1,55 @@
+package avni
+
+import java.util.concurrent.ThreadLocalRandom
+
+import avni.AvniPerf._
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scala.concurrent.duration._
+
+/**
+ * Subject search from the web app, a page by name and the first pages sorted by name, alongside an external system
+ * reading subjects through the public api.
+ */
+class avniSubjectSearchLoadTest extends Simulation {
+
+  private val firstNames = Seq("Asha", "Ravi", "Sunita", "Mohan", "Lakshmi", "Arjun", "Meena", "Suresh", "Kavita", "Ramesh")
+
+  private def searchRequest(name: String, searchAfter: String) =
+    s"""{"subjectType": "${uuid("subject-type")}", "name": "$name", "addressIds": [], "concept": [], "gender": [],
+       | "pageElement": {"pageNumber": 0, "numberOfRecordPerPage": 10, "sortColumn": "fullName", "sortOrder": "asc",
+       |   "paginationMode": "keyset", "searchAfter": $searchAfter, "totalCountMode": "estimated"}}""".stripMargin
+
+  val webSearch = scenario("Web subject search")
+    .feed(fieldUsers)
+    .exec(_.set("name", firstNames(ThreadLocalRandom.current().nextInt(firstNames.size))))
+    .exec(authenticated(http("search by name")
+      .post("/web/searchAPI/v2")
+      .body(StringBody(session => searchRequest(session("name").as[String], "null")))
+      .check(jsonPath("$.searchAfter").optional.saveAs("searchAfter"))))
+    .repeat(3) {
+      doIf(session => session.contains("searchAfter")) {
+        exec(authenticated(http("search next page")
+          .post("/web/searchAPI/v2")
+          .body(StringBody(session => searchRequest(session("name").as[String], session("searchAfter").as[String])))
+          .check(jsonPath("$.searchAfter").optional.saveAs("searchAfter"))))
+      }
+    }
+
+  val externalApi = scenario("External subjects api")
+    .feed(admin)
+    .exec(_.set("page", ThreadLocalRandom.current().nextInt(0, math.max(1, subjects / pageSize))))
+    .exec(authenticated(http("api subjects")
+      .get("/api/subjects")
+      .queryParam("lastModifiedDateTime", "1900-01-01T00:00:00.000Z")
+      .queryParam("now", now())
+      .queryParam("subjectTypeName", "Individual")
+      .queryParam("page", "#{page}")
+      .queryParam("size", pageSize)))
+
+  setUp(
+    webSearch.inject(constantConcurrentUsers(concurrentUsers).during(durationSeconds.seconds)),
+    externalApi.inject(constantConcurrentUsers(math.max(1, concurrentUsers / 4)).during(durationSeconds.seconds))
+  ).protocols(httpProtocol)
+    .assertions(global.failedRequests.percent.lt(1))
+}